@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.codegen;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how the rows of a data file are read and mapped by a mapper
+ * class. At compile time, MappingSpecProcessor generates a RowBinding next to
+ * the mapper, whose columns, tokenizer and row mapping are direct calls to
+ * the static members of the mapper. The data sources give the binding to the
+ * pipeline.
+ *
+ * Oct 19, 2026 10:14:52 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface MappingSpec {
+
+    /**
+     * Static method of the mapper that maps the fields of a row to a
+     * resource. It takes a String[] and may throw a ParseException.
+     *
+     * @return
+     */
+    String rowMethod();
+
+    /**
+     * Static String[] field of the mapper listing the columns in the order
+     * of the field positions.
+     *
+     * @return
+     */
+    String columns() default "HEADERS";
+
+    /**
+     * Static String[] field of the mapper listing the columns the data file
+     * may omit, which are then read as empty.
+     *
+     * @return
+     */
+    String optionalColumns() default "OPTIONAL_HEADERS";
+
+    /**
+     * Static method of the mapper that splits a row into its fields. It
+     * takes the line and a Pattern.
+     *
+     * @return
+     */
+    String tokenizer() default "getFields";
+
+    /**
+     * Simple name of the generated binding class. By default, it is the name
+     * of the mapper followed by Binding.
+     *
+     * @return
+     */
+    String binding() default "";
+
+}
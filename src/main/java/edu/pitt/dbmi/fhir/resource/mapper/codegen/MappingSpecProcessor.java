@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.codegen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates the row binding of each mapper annotated with MappingSpec, which
+ * the data sources give to the pipeline.
+ *
+ * The generated class is final and makes direct static calls to the
+ * tokenizer and the row method of the mapper, so there is no reflection on
+ * the hot path.
+ *
+ * Oct 19, 2026 10:19:27 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+@SupportedAnnotationTypes("edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec")
+public class MappingSpecProcessor extends AbstractProcessor {
+
+    private static final String BINDING_TEMPLATE = String.join("\n",
+            "package ${package};",
+            "",
+            "import edu.pitt.dbmi.fhir.resource.mapper.util.RowBinding;",
+            "import java.text.ParseException;",
+            "import java.util.regex.Pattern;",
+            "import javax.annotation.processing.Generated;",
+            "",
+            "/**",
+            " * Binds the rows of a data file to ${mapper}.",
+            " */",
+            "@Generated(\"${processor}\")",
+            "public final class ${binding} implements RowBinding<${resource}> {",
+            "",
+            "    public static final ${binding} INSTANCE = new ${binding}();",
+            "",
+            "    private ${binding}() {",
+            "    }",
+            "",
+            "    @Override",
+            "    public ${resource} map(String[] fields) throws ParseException {",
+            "        return ${mapper}.${rowMethod}(fields);",
+            "    }",
+            "",
+            "    @Override",
+            "    public String[] getColumns() {",
+            "        return ${mapper}.${columns};",
+            "    }",
+            "",
+            "    @Override",
+            "    public String[] getOptionalColumns() {",
+            "        return ${mapper}.${optionalColumns};",
+            "    }",
+            "",
+            "    @Override",
+            "    public String[] getFields(String line, Pattern delimiter) {",
+            "        return ${mapper}.${tokenizer}(line, delimiter);",
+            "    }",
+            "",
+            "}",
+            "");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(MappingSpec.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@MappingSpec applies to mapper classes only.");
+                continue;
+            }
+
+            try {
+                generateBinding((TypeElement) element, element.getAnnotation(MappingSpec.class));
+            } catch (IOException exception) {
+                error(element, "Cannot write the binding: " + exception.getMessage());
+            }
+        }
+
+        return true;
+    }
+
+    private void generateBinding(TypeElement mapper, MappingSpec spec) throws IOException {
+        ExecutableElement rowMethod = findStaticMethod(mapper, spec.rowMethod(), 1);
+        ExecutableElement tokenizer = findStaticMethod(mapper, spec.tokenizer(), 2);
+        boolean hasFields = hasStringArrayField(mapper, spec.columns()) & hasStringArrayField(mapper, spec.optionalColumns());
+        if (rowMethod == null || tokenizer == null || !hasFields) {
+            return;
+        }
+        if (!isStringArray(rowMethod.getParameters().get(0).asType())) {
+            error(rowMethod, "The row method must take the fields of a row as a String[].");
+            return;
+        }
+        if (!isResource(rowMethod.getReturnType())) {
+            error(rowMethod, "The row method must return a FHIR resource.");
+            return;
+        }
+        if (!isStringArray(tokenizer.getReturnType())) {
+            error(tokenizer, "The tokenizer must return a String[].");
+            return;
+        }
+        for (TypeMirror thrownType : rowMethod.getThrownTypes()) {
+            if (!thrownType.toString().equals("java.text.ParseException") && !isUnchecked(thrownType)) {
+                error(rowMethod, "The row method may throw only ParseException and unchecked exceptions.");
+                return;
+            }
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(mapper).getQualifiedName().toString();
+        String bindingName = spec.binding().isEmpty() ? mapper.getSimpleName() + "Binding" : spec.binding();
+        String source = BINDING_TEMPLATE
+                .replace("${package}", packageName)
+                .replace("${processor}", MappingSpecProcessor.class.getName())
+                .replace("${binding}", bindingName)
+                .replace("${mapper}", mapper.getQualifiedName().toString())
+                .replace("${resource}", rowMethod.getReturnType().toString())
+                .replace("${columns}", spec.columns())
+                .replace("${optionalColumns}", spec.optionalColumns())
+                .replace("${tokenizer}", spec.tokenizer())
+                .replace("${rowMethod}", spec.rowMethod());
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(packageName + "." + bindingName, mapper);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source);
+        }
+    }
+
+    private ExecutableElement findStaticMethod(TypeElement mapper, String name, int numOfParameters) {
+        List<ExecutableElement> methods = ElementFilter.methodsIn(mapper.getEnclosedElements());
+        for (ExecutableElement method : methods) {
+            if (method.getSimpleName().contentEquals(name)
+                    && method.getParameters().size() == numOfParameters
+                    && method.getModifiers().contains(Modifier.STATIC)
+                    && !method.getModifiers().contains(Modifier.PRIVATE)) {
+                return method;
+            }
+        }
+        error(mapper, String.format("No non-private static method %s with %d parameter(s).", name, numOfParameters));
+
+        return null;
+    }
+
+    private boolean hasStringArrayField(TypeElement mapper, String name) {
+        for (VariableElement field : ElementFilter.fieldsIn(mapper.getEnclosedElements())) {
+            if (field.getSimpleName().contentEquals(name)
+                    && field.getModifiers().contains(Modifier.STATIC)
+                    && !field.getModifiers().contains(Modifier.PRIVATE)
+                    && isStringArray(field.asType())) {
+                return true;
+            }
+        }
+        error(mapper, String.format("No non-private static String[] field %s.", name));
+
+        return false;
+    }
+
+    private static boolean isStringArray(TypeMirror type) {
+        return type.getKind() == TypeKind.ARRAY && type.toString().equals("java.lang.String[]");
+    }
+
+    private boolean isResource(TypeMirror type) {
+        TypeElement resource = processingEnv.getElementUtils().getTypeElement("org.hl7.fhir.r4.model.Resource");
+
+        return resource != null && processingEnv.getTypeUtils().isAssignable(type, resource.asType());
+    }
+
+    private boolean isUnchecked(TypeMirror type) {
+        TypeMirror runtimeException = processingEnv.getElementUtils().getTypeElement("java.lang.RuntimeException").asType();
+        TypeMirror error = processingEnv.getElementUtils().getTypeElement("java.lang.Error").asType();
+
+        return processingEnv.getTypeUtils().isAssignable(type, runtimeException)
+                || processingEnv.getTypeUtils().isAssignable(type, error);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+}
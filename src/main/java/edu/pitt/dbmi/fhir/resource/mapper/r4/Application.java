@@ -18,19 +18,54 @@
  */
 package edu.pitt.dbmi.fhir.resource.mapper.r4;
 
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.TerminologyRegistry;
+import edu.pitt.dbmi.fhir.resource.mapper.util.BundleWriter;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ChannelWriter;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ColumnBinding;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DateCache;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DeadLetterFile;
 import edu.pitt.dbmi.fhir.resource.mapper.util.Delimiters;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ErrorRateExceededException;
+import edu.pitt.dbmi.fhir.resource.mapper.util.FhirUploader;
+import edu.pitt.dbmi.fhir.resource.mapper.util.IncrementalManifest;
 import edu.pitt.dbmi.fhir.resource.mapper.util.JsonResourceConverterR4;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ParquetTableWriter;
+import edu.pitt.dbmi.fhir.resource.mapper.util.PipelineMetrics;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ResourceSink;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowDeduplicator;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowMapper;
+import edu.pitt.dbmi.fhir.resource.mapper.util.StagedPipeline;
+import edu.pitt.dbmi.fhir.resource.mapper.util.TaskExecutors;
+import edu.pitt.dbmi.fhir.resource.mapper.util.UcumUnits;
+import edu.pitt.dbmi.fhir.resource.mapper.util.UuidInterner;
+import edu.pitt.dbmi.fhir.resource.mapper.util.WatchFolder;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Bundle;
-import org.hl7.fhir.r4.model.Encounter;
-import org.hl7.fhir.r4.model.Observation;
-import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.ResourceFactory;
 
 /**
  *
@@ -41,86 +76,680 @@ import org.hl7.fhir.r4.model.Patient;
 public class Application {
 
     public static void main(String[] args) {
-        if (args.length == 3) {
-            Path inputDir = Paths.get(args[1]);
-            Path outputDir = Paths.get(args[2]);
-            if (isValidDirectory(inputDir) && isValidDirectory(outputDir)) {
-                switch (args[0].trim().toLowerCase()) {
-                    case "synthea":
-                        exportSyntheaData(inputDir, outputDir);
-                        break;
-                    default:
-                        System.err.printf("No such data mapper for %s exist.%n", args[0]);
-                        System.exit(-1);
+        ApplicationOptions options;
+        try {
+            options = ApplicationOptions.parse(args);
+        } catch (IllegalArgumentException exception) {
+            System.err.println(exception.getMessage());
+            System.err.printf("java -jar %s %s%n", getJarFileName(), ApplicationOptions.usage());
+            return;
+        }
+
+        if (options.isServe()) {
+            serve(options);
+            return;
+        }
+
+        Path inputDir = options.getInputDir();
+        Path outputDir = options.getOutputDir();
+        if (isValidDirectory(inputDir) && isValidDirectory(outputDir)
+                && (!options.isIncremental() || isValidDirectory(options.getManifestDir()))) {
+            PipelineMetrics.SHARED.registerMBean();
+            if (options.getMetricsFile() != null) {
+                PipelineMetrics.SHARED.startReporting(options.getMetricsFile(), options.getMetricsInterval());
+            }
+
+            boolean isAborted = false;
+            try (DeadLetterFile deadLetters = new DeadLetterFile(getDeadLetterFile(options), options.getMaxErrorRate())) {
+                TerminologyRegistry.SHARED.setMode(options.getTerminologyMode());
+                run(options, deadLetters);
+                TerminologyRegistry terminology = TerminologyRegistry.SHARED;
+                if (terminology.getNumOfFilledDisplays() + terminology.getNumOfMismatchedDisplays() > 0) {
+                    System.out.printf("Terminology: %d displays filled in, %d displays %s.%n",
+                            terminology.getNumOfFilledDisplays(), terminology.getNumOfMismatchedDisplays(),
+                            (terminology.getMode() == TerminologyRegistry.Mode.VERIFY) ? "corrected" : "differ from the registry");
+                }
+                UcumUnits units = UcumUnits.SHARED;
+                if (units.getNumOfHits() + units.getNumOfMisses() > 0) {
+                    System.out.printf("Units: %d lookups, %d cached, %.2f%% cache hits.%n",
+                            units.getNumOfHits() + units.getNumOfMisses(), units.getCacheSize(), units.getHitRate() * 100);
+                }
+                long numOfDateHits = 0;
+                long numOfDateLookups = 0;
+                int numOfDatesCached = 0;
+                for (DateCache dates : DateCache.getCaches()) {
+                    numOfDateHits += dates.getNumOfHits();
+                    numOfDateLookups += dates.getNumOfHits() + dates.getNumOfMisses();
+                    numOfDatesCached += dates.getCacheSize();
+                }
+                if (numOfDateLookups > 0) {
+                    System.out.printf("Dates: %d lookups, %d cached, %.2f%% cache hits.%n",
+                            numOfDateLookups, numOfDatesCached, (double) numOfDateHits / numOfDateLookups * 100);
+                }
+                if (deadLetters.getNumOfErrors() > 0) {
+                    System.err.printf("%d rows could not be mapped. See '%s'.%n", deadLetters.getNumOfErrors(), getDeadLetterFile(options));
+                }
+            } catch (ErrorRateExceededException exception) {
+                System.err.println(exception.getMessage());
+                isAborted = true;
+            } catch (IOException exception) {
+                exception.printStackTrace(System.err);
+            } finally {
+                if (options.getMetricsFile() != null) {
+                    try {
+                        PipelineMetrics.SHARED.stopReporting(options.getMetricsFile());
+                    } catch (IOException exception) {
+                        exception.printStackTrace(System.err);
+                    }
                 }
             }
+
+            if (isAborted) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Get the file receiving the rows that cannot be mapped. By default, it
+     * is in the output directory of the run.
+     *
+     * @param options
+     * @return
+     * @throws IOException
+     */
+    private static Path getDeadLetterFile(ApplicationOptions options) throws IOException {
+        return (options.getDeadLetterFile() == null)
+                ? Paths.get(getOutputDirectory(options).toString(), "dead_letters.tsv")
+                : options.getDeadLetterFile();
+    }
+
+    private static void run(ApplicationOptions options, RowErrorHandler errorHandler) {
+        if (options.getDataSource().equals("merge")) {
+            try {
+                ShardMerger.merge(options.getInputDir(), options.getOutputDir(), options.getTempDir(), options.getSortMemory());
+            } catch (IOException exception) {
+                exception.printStackTrace(System.err);
+            }
+
+            return;
+        }
+
+        Optional<DataSource> dataSource = DataSources.find(options.getDataSource());
+        if (!dataSource.isPresent()) {
+            System.err.printf("No such data mapper for %s exist.%n", options.getDataSource());
+            System.exit(-1);
+        }
+
+        if (options.isWatch()) {
+            watch(options, dataSource.get(), errorHandler);
+        } else if (options.isCheckReferences()) {
+            checkReferences(options, dataSource.get());
+        } else if (options.isPatientBundles()) {
+            exportPatientBundles(options, dataSource.get(), errorHandler);
         } else {
-            System.err.printf("java -jar %s <synthea|project> <data-directory> <output-directory>%n", getJarFileName());
+            exportData(options, dataSource.get(), errorHandler);
         }
     }
 
-    private static void exportPatientResources(Path outputDir, List<Patient> patients) {
-        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputDir.toString(), "patient_collection_bundle.json"))) {
-            writer.write(JsonResourceConverterR4.patientsToJsonBundle(Bundle.BundleType.COLLECTION, patients, true));
+    /**
+     * Keep running and export each data file completed in the input
+     * directory, in its own subdirectory of the output directory named after
+     * the file. The FHIR context, the static tables of the mappers and the
+     * caches stay warm from one file to the next. On shutdown, e.g. by
+     * Ctrl-C or SIGTERM, no new files are taken and the files already
+     * completed are exported before the application exits.
+     *
+     * @param options
+     * @param dataSource
+     * @param errorHandler receives the rows that cannot be mapped
+     */
+    private static void watch(ApplicationOptions options, DataSource dataSource, RowErrorHandler errorHandler) {
+        warmUp(dataSource);
+
+        WatchFolder watchFolder = new WatchFolder(options.getInputDir(),
+                file -> getDelimiter(file) != null && findMapper(dataSource, file).isPresent(),
+                TimeUnit.SECONDS.toMillis(options.getSettleTime()),
+                file -> {
+                    String filename = file.getFileName().toString();
+                    Path outputDir = Files.createDirectories(Paths.get(options.getOutputDir().toString(), filename.substring(0, filename.lastIndexOf('.'))));
+                    long startTime = System.nanoTime();
+                    exportResources(file, options.withOutputDir(outputDir), errorHandler, findMapper(dataSource, file).get());
+                    // the references and codes of one extract are not shared with the next
+                    UuidInterner.SHARED.clear();
+                    dataSource.clearCaches();
+                    System.out.printf("%s: exported to '%s' in %d ms.%n", filename, outputDir, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                });
+
+        Thread mainThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.printf("Shutting down, %d completed files left to export.%n", watchFolder.getNumOfQueuedFiles());
+            watchFolder.shutdown();
+            try {
+                // let the main thread finish the run, e.g. close the dead letters
+                mainThread.join();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }, "watch-shutdown"));
+
+        System.out.printf("Watching '%s' for %s files.%n", options.getInputDir(), dataSource.getName());
+        try {
+            watchFolder.run();
         } catch (IOException exception) {
             exception.printStackTrace(System.err);
         }
+        System.out.printf("%d files exported, %d failed.%n", watchFolder.getNumOfProcessedFiles(), watchFolder.getNumOfFailedFiles());
     }
 
-    private static void exportEncounterResources(Path outputDir, List<Encounter> encounters) {
-        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputDir.toString(), "encounter_collection_bundle.json"))) {
-            writer.write(JsonResourceConverterR4.encountersToJsonBundle(Bundle.BundleType.COLLECTION, encounters, true));
+    /**
+     * Serve the mapping of the batches posted over HTTP until the application
+     * is stopped, e.g. by Ctrl-C or SIGTERM. The rows that cannot be mapped
+     * are reported on the standard error.
+     *
+     * @param options
+     */
+    private static void serve(ApplicationOptions options) {
+        PipelineMetrics.SHARED.registerMBean();
+        if (options.getMetricsFile() != null) {
+            PipelineMetrics.SHARED.startReporting(options.getMetricsFile(), options.getMetricsInterval());
+        }
+        TerminologyRegistry.SHARED.setMode(options.getTerminologyMode());
+        DataSources.getNames().forEach(name -> DataSources.find(name).ifPresent(Application::warmUp));
+
+        try {
+            MappingServer server = new MappingServer(new InetSocketAddress(options.getPort()),
+                    options.getNumOfWorkers(), options.getMaxQueuedRequests(), options.getMaxRequestSize(),
+                    options.getTempDir(), RowErrorHandler.LOG);
+            Thread mainThread = Thread.currentThread();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                    // let the main thread finish the run, e.g. write the metrics
+                    mainThread.join();
+                } catch (IOException exception) {
+                    exception.printStackTrace(System.err);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "serve-shutdown"));
+            server.start();
+            System.out.printf("Mapping batches posted to http://localhost:%d%s<%s>/<resource>.%n",
+                    server.getPort(), MappingServer.CONTEXT_PATH, String.join("|", DataSources.getNames()));
+
+            server.awaitTermination();
+            System.out.printf("%d requests, %d refused, %d resources mapped.%n",
+                    server.getNumOfRequests(), server.getNumOfRefusedRequests(), server.getNumOfResources());
         } catch (IOException exception) {
             exception.printStackTrace(System.err);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (options.getMetricsFile() != null) {
+                try {
+                    PipelineMetrics.SHARED.stopReporting(options.getMetricsFile());
+                } catch (IOException exception) {
+                    exception.printStackTrace(System.err);
+                }
+            }
         }
     }
 
-    private static void exportObservationResources(Path outputDir, List<Observation> observations) {
-        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputDir.toString(), "observation_collection_bundle.json"))) {
-            writer.write(JsonResourceConverterR4.observationsToJsonBundle(Bundle.BundleType.COLLECTION, observations, true));
+    /**
+     * Load the static tables of the mappers and the FHIR context, so that the
+     * first file or request does not pay for them.
+     *
+     * @param dataSource
+     */
+    private static void warmUp(DataSource dataSource) {
+        dataSource.warmUp();
+        dataSource.getMappers().forEach(mapper -> JsonResourceConverterR4.resourceToJson(ResourceFactory.createResource(mapper.getResourceType()), false));
+    }
+
+    private static Optional<ResourceMapper<?>> findMapper(DataSource dataSource, Path file) {
+        String filename = file.getFileName().toString();
+
+        return dataSource.getMappers().stream()
+                .filter(mapper -> filename.startsWith(mapper.getFilePrefix()))
+                .findFirst();
+    }
+
+    /**
+     * Check that the references of the data files point to existing rows. The
+     * keys of each referenced resource are loaded first, then the files whose
+     * targets have all been loaded are checked.
+     *
+     * @param options
+     * @param dataSource
+     */
+    private static void checkReferences(ApplicationOptions options, DataSource dataSource) {
+        Path inputDir = options.getInputDir();
+        Set<String> targets = new HashSet<>();
+        dataSource.getMappers().forEach(mapper -> targets.addAll(mapper.getReferenceColumns().values()));
+        try (ReferenceIntegrityChecker checker = new ReferenceIntegrityChecker(dataSource.getKeyType())) {
+            long numOfDanglingReferences = 0;
+            try (BufferedWriter report = Files.newBufferedWriter(Paths.get(options.getOutputDir().toString(), "reference_integrity_report.tsv"))) {
+                Map<ResourceMapper<?>, Path> files = new LinkedHashMap<>();
+                for (ResourceMapper<?> mapper : dataSource.getMappers()) {
+                    findDataFile(inputDir, mapper.getFilePrefix()).ifPresent(file -> files.put(mapper, file));
+                }
+
+                Set<String> loadedTargets = new HashSet<>();
+                for (Map.Entry<ResourceMapper<?>, Path> entry : files.entrySet()) {
+                    ResourceMapper<?> mapper = entry.getKey();
+                    Path file = entry.getValue();
+                    if (targets.contains(mapper.getResourceType()) && mapper.getKeyColumns().size() == 1) {
+                        checker.addKeys(mapper.getResourceType(), file, getDelimiter(file), mapper.getKeyColumns().get(0));
+                        loadedTargets.add(mapper.getResourceType());
+                    }
+                }
+
+                report.write(String.format("file\tline\tcolumn\ttarget\tvalue%n"));
+                for (Map.Entry<ResourceMapper<?>, Path> entry : files.entrySet()) {
+                    Map<String, String> columnTargets = entry.getKey().getReferenceColumns();
+                    if (!columnTargets.isEmpty() && loadedTargets.containsAll(columnTargets.values())) {
+                        Path file = entry.getValue();
+                        numOfDanglingReferences += checker.checkReferences(file, getDelimiter(file), columnTargets, report);
+                    }
+                }
+            }
+
+            reportDanglingReferences(numOfDanglingReferences);
         } catch (IOException exception) {
             exception.printStackTrace(System.err);
         }
     }
 
-    private static void exportSyntheaData(Path inputDir, Path outputDir) {
+    private static void reportDanglingReferences(long numOfDanglingReferences) {
+        if (numOfDanglingReferences > 0) {
+            System.err.printf("Found %d dangling references. See reference_integrity_report.tsv.%n", numOfDanglingReferences);
+            System.exit(1);
+        } else {
+            System.out.println("No dangling references found.");
+        }
+    }
+
+    /**
+     * Write one bundle per patient containing the patient's resources from
+     * all of the data files. Mappers that combine rows or whose rows do not
+     * belong to a patient are left out.
+     *
+     * @param options
+     * @param dataSource
+     * @param errorHandler receives the rows that cannot be mapped
+     */
+    private static void exportPatientBundles(ApplicationOptions options, DataSource dataSource, RowErrorHandler errorHandler) {
+        List<PatientCompartmentBundler.Source> sources = new LinkedList<>();
+        dataSource.getMappers().stream()
+                .filter(mapper -> !mapper.isCombiningRows() && mapper.getPatientColumn() >= 0)
+                .forEach(mapper -> findDataFile(options.getInputDir(), mapper.getFilePrefix()).ifPresent(file -> sources.add(new PatientCompartmentBundler.Source(
+                file, getDelimiter(file), mapper.getColumns(), mapper.getOptionalColumns(), mapper.getPatientColumn(), mapper.getIdColumn(), mapper))));
+
+        Predicate<String> patientFilter = options.isSharded()
+                ? options.getShard()::contains
+                : key -> true;
         try {
-            Files.list(inputDir)
-                    .filter(Files::isRegularFile)
+            Path outputFile = Paths.get(getOutputDirectory(options).toString(), "patient_compartment_bundles.ndjson");
+            Path tempDir = Files.createTempDirectory(Files.createDirectories(options.getTempDir()), "fhir-resource-mapper-");
+            for (PatientCompartmentBundler.Source source : sources) {
+                PipelineMetrics.SHARED.addInputBytes(Files.size(source.getFile()));
+            }
+            try {
+                (new PatientCompartmentBundler(tempDir, options.getSortMemory(), errorHandler)).writeBundles(sources, patientFilter, outputFile);
+            } finally {
+                Files.deleteIfExists(tempDir);
+            }
+        } catch (IOException exception) {
+            exception.printStackTrace(System.err);
+        }
+    }
+
+    private static Optional<Path> findDataFile(Path inputDir, String prefix) {
+        try (Stream<Path> files = Files.list(inputDir)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().startsWith(prefix))
+                    .filter(file -> getDelimiter(file) != null)
+                    .findFirst();
+        } catch (IOException exception) {
+            exception.printStackTrace(System.err);
+
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Export every data file that has a mapper, side by side. When uploading,
+     * the files are exported in stages so that the resources are put on the
+     * server after those they refer to, e.g. the encounters after the
+     * patients.
+     *
+     * @param options
+     * @param dataSource
+     * @param errorHandler receives the rows that cannot be mapped
+     */
+    private static void exportData(ApplicationOptions options, DataSource dataSource, RowErrorHandler errorHandler) {
+        Map<Runnable, ResourceMapper<?>> tasks = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.list(options.getInputDir())) {
+            files.filter(Files::isRegularFile)
                     .forEach(file -> {
                         String filename = file.getFileName().toString();
-                        if (filename.startsWith("patients")) {
-                            List<Patient> patients = new LinkedList<>();
-                            if (filename.endsWith(".csv")) {
-                                patients.addAll(edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.PatientResourceMapper.getPatientsFromFile(file, Delimiters.COMMA_DELIM));
-                            } else if (filename.endsWith(".tsv")) {
-                                patients.addAll(edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.PatientResourceMapper.getPatientsFromFile(file, Delimiters.TAB_DELIM));
-                            }
-
-                            exportPatientResources(outputDir, patients);
-                        } else if (filename.startsWith("encounters")) {
-                            List<Encounter> encounters = new LinkedList<>();
-                            if (filename.endsWith(".csv")) {
-                                encounters.addAll(edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.EncounterResourceMapper.getEncountersFromFile(file, Delimiters.COMMA_DELIM));
-                            } else if (filename.endsWith(".tsv")) {
-                                encounters.addAll(edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.EncounterResourceMapper.getEncountersFromFile(file, Delimiters.TAB_DELIM));
-                            }
-
-                            exportEncounterResources(outputDir, encounters);
-                        } else if (filename.startsWith("observations")) {
-                            List<Observation> observations = new LinkedList<>();
-                            if (filename.endsWith(".csv")) {
-                                observations.addAll(edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.ObservationResourceMapper.getObservationFromFile(file, Delimiters.COMMA_DELIM));
-                            } else if (filename.endsWith(".tsv")) {
-                                observations.addAll(edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.ObservationResourceMapper.getObservationFromFile(file, Delimiters.TAB_DELIM));
-                            }
-
-                            exportObservationResources(outputDir, observations);
-                        }
+                        dataSource.getMappers().stream()
+                                .filter(mapper -> filename.startsWith(mapper.getFilePrefix()))
+                                .findFirst()
+                                .ifPresent(mapper -> tasks.put(() -> exportResources(file, options, errorHandler, mapper), mapper));
                     });
         } catch (IOException exception) {
             exception.printStackTrace(System.err);
         }
+
+        if (!options.isUpload()) {
+            runAll(new LinkedList<>(tasks.keySet()), options.getNumOfFiles());
+            return;
+        }
+
+        Set<String> pendingTypes = new HashSet<>();
+        tasks.values().forEach(mapper -> pendingTypes.add(mapper.getResourceType()));
+        while (!tasks.isEmpty()) {
+            List<Runnable> stage = new LinkedList<>();
+            tasks.forEach((task, mapper) -> {
+                Set<String> targets = new HashSet<>(mapper.getReferenceColumns().values());
+                targets.remove(mapper.getResourceType());
+                if (targets.stream().noneMatch(pendingTypes::contains)) {
+                    stage.add(task);
+                }
+            });
+            if (stage.isEmpty()) {
+                // the references are circular
+                stage.addAll(tasks.keySet());
+            }
+
+            runAll(stage, options.getNumOfFiles());
+            stage.forEach(tasks::remove);
+            pendingTypes.clear();
+            tasks.values().forEach(mapper -> pendingTypes.add(mapper.getResourceType()));
+        }
+    }
+
+    /**
+     * Run the tasks side by side on an I/O executor, which uses virtual
+     * threads on Java 21, and wait for all of them. At most the given number
+     * of tasks run at the same time; the next task is submitted when one
+     * finishes. The first runtime exception thrown by a task stops the other
+     * tasks and is rethrown.
+     *
+     * @param tasks
+     * @param maxNumOfTasks maximum number of tasks running at the same time
+     */
+    private static void runAll(List<Runnable> tasks, int maxNumOfTasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        int numOfTasks = Math.min(tasks.size(), maxNumOfTasks);
+        ExecutorService executor = TaskExecutors.newIoExecutor("export", numOfTasks);
+        try {
+            CompletionService<Object> completionService = new ExecutorCompletionService<>(executor);
+            Iterator<Runnable> pendingTasks = tasks.iterator();
+            for (int i = 0; i < numOfTasks; i++) {
+                completionService.submit(pendingTasks.next(), null);
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                completionService.take().get();
+                if (pendingTasks.hasNext()) {
+                    completionService.submit(pendingTasks.next(), null);
+                }
+            }
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Map the data file to resources and write them out as a collection
+     * bundle. Rows are mapped with a staged pipeline, except by mappers that
+     * combine rows, which map the whole file in memory. Such mappers always
+     * export the whole file, since a resource combining a changed row must
+     * be mapped again from all of its rows.
+     *
+     * @param file data file
+     * @param options
+     * @param errorHandler receives the rows that cannot be mapped
+     * @param mapper
+     */
+    private static void exportResources(Path file, ApplicationOptions options, RowErrorHandler errorHandler, ResourceMapper<?> mapper) {
+        if (mapper.isCombiningRows()) {
+            exportResources(file, options, false, errorHandler, mapper.getResourceName(), mapper.getKeyColumns(), mapper.getPatientColumn(), (dataFile, delimiter, rowFilter, fileErrorHandler, outputFile)
+                    -> writeResources(dataFile, outputFile, options, mapper, mapper.mapFile(dataFile, delimiter, rowFilter, fileErrorHandler)));
+        } else {
+            StagedPipeline pipeline = new StagedPipeline(options.getNumOfMappers(), options.getNumOfEncoders());
+            exportResources(file, options, options.isIncremental(), errorHandler, mapper.getResourceName(), mapper.getKeyColumns(), mapper.getPatientColumn(), (dataFile, delimiter, rowFilter, fileErrorHandler, outputFile) -> {
+                ColumnBinding binding = ColumnBinding.read(dataFile, delimiter, mapper.getColumns(), mapper.getOptionalColumns());
+                RowMapper<?> rowMapper = (options.isUpload() && mapper.getIdColumn() >= 0) ? withId(mapper) : mapper;
+                try (ResourceSink sink = newResourceSink(dataFile, outputFile, options, mapper)) {
+                    pipeline.run(dataFile, line -> binding.bind(mapper.getFields(line, delimiter)), rowFilter, rowMapper, fileErrorHandler, sink);
+                }
+            });
+        }
+    }
+
+    /**
+     * Give each resource the identifier of its row as logical id, under which
+     * it is put on the FHIR server.
+     *
+     * @param <T>
+     * @param mapper
+     * @return
+     */
+    private static <T extends Resource> RowMapper<T> withId(ResourceMapper<T> mapper) {
+        int idColumn = mapper.getIdColumn();
+
+        return fields -> {
+            T resource = mapper.map(fields);
+            resource.setId(fields[idColumn].trim());
+
+            return resource;
+        };
+    }
+
+    /**
+     * Export the data file. In incremental mode, only the rows that are new
+     * or have changed since the previous run are exported, and the keys of the
+     * deleted rows are written to a separate file. In sharded mode, only the
+     * rows of the patients belonging to the shard are exported. With
+     * deduplication, the rows that repeat an earlier row, or its key, are
+     * removed first.
+     *
+     * @param file data file
+     * @param options
+     * @param isIncremental whether to export only the new and changed rows
+     * @param errorHandler receives the rows that cannot be mapped
+     * @param resourceName prefix of the output files
+     * @param keyColumns columns identifying a row in incremental mode
+     * @param patientColumn position of the patient key used for sharding, or
+     * -1 if the rows do not belong to a patient
+     * @param exporter
+     */
+    private static void exportResources(Path file, ApplicationOptions options, boolean isIncremental, RowErrorHandler errorHandler, String resourceName, List<String> keyColumns, int patientColumn, ResourceExporter exporter) {
+        Pattern delimiter = getDelimiter(file);
+        if (delimiter == null) {
+            return;
+        }
+
+        Predicate<String[]> rowFilter;
+        if (!options.isSharded()) {
+            rowFilter = fields -> true;
+        } else if (patientColumn < 0) {
+            // rows that do not belong to a patient are exported by the first shard
+            boolean isFirstShard = options.getShard().getIndex() == 0;
+            rowFilter = fields -> isFirstShard;
+        } else {
+            rowFilter = options.getShard().rowFilter(patientColumn);
+        }
+        Path dedupFile = null;
+        try {
+            Path outputDir = getOutputDirectory(options);
+            Path outputFile = Paths.get(outputDir.toString(), resourceName + "_collection_bundle.json");
+            Path rowsFile = file;
+            RowErrorHandler rowsErrorHandler = errorHandler;
+            if (options.isDedup()) {
+                dedupFile = Files.createTempFile(Files.createDirectories(options.getTempDir()), file.getFileName().toString(), ".dedup");
+                RowDeduplicator.Result dedup = RowDeduplicator.removeDuplicates(file, delimiter, options.getDedupColumns(resourceName), dedupFile);
+                rowsFile = dedup.getFile();
+                // report the rows by their place in the data file
+                rowsErrorHandler = (dataFile, lineNumber, line, cause) -> errorHandler.handle(file, dedup.getInputLineNumber(lineNumber), line, cause);
+                System.out.printf("%s: %d rows, %d duplicates removed.%n", file.getFileName(), dedup.getNumOfRows(), dedup.getNumOfDuplicates());
+            }
+            if (isIncremental) {
+                String filename = options.isSharded()
+                        ? file.getFileName().toString() + "." + options.getShard().getDirectoryName()
+                        : file.getFileName().toString();
+                Path manifestFile = Paths.get(options.getManifestDir().toString(), filename + ".manifest");
+                Path changedRowsFile = Paths.get(options.getManifestDir().toString(), filename + ".changed");
+                Path deletedKeysFile = Paths.get(outputDir.toString(), resourceName + "_deleted_keys.txt");
+
+                IncrementalManifest.ChangeSet changes = IncrementalManifest.extractChanges(manifestFile, rowsFile, delimiter, keyColumns, changedRowsFile, deletedKeysFile);
+                try {
+                    PipelineMetrics.SHARED.addInputBytes(Files.size(changedRowsFile));
+                    // the rows that fail are left to be mapped again by the next run
+                    RowErrorHandler changedRowsErrorHandler = rowsErrorHandler;
+                    exporter.export(changedRowsFile, delimiter, rowFilter, (dataFile, lineNumber, line, cause) -> {
+                        changes.markFailed(lineNumber);
+                        changedRowsErrorHandler.handle(file, changes.getInputLineNumber(lineNumber), line, cause);
+                    }, outputFile);
+                    changes.commit();
+                } catch (IOException | RuntimeException exception) {
+                    changes.rollback();
+                    throw exception;
+                } finally {
+                    Files.deleteIfExists(changedRowsFile);
+                }
+
+                System.out.printf("%s: %d rows, %d new or changed, %d deleted.%n",
+                        filename, changes.getNumOfRows(), changes.getNumOfChangedRows(), changes.getNumOfDeletedRows());
+            } else {
+                PipelineMetrics.SHARED.addInputBytes(Files.size(rowsFile));
+                exporter.export(rowsFile, delimiter, rowFilter, rowsErrorHandler, outputFile);
+            }
+        } catch (IOException exception) {
+            exception.printStackTrace(System.err);
+        } finally {
+            if (dedupFile != null) {
+                try {
+                    Files.deleteIfExists(dedupFile);
+                } catch (IOException exception) {
+                    exception.printStackTrace(System.err);
+                }
+            }
+        }
+    }
+
+    private static Path getOutputDirectory(ApplicationOptions options) throws IOException {
+        if (options.isSharded()) {
+            return Files.createDirectories(Paths.get(options.getOutputDir().toString(), options.getShard().getDirectoryName()));
+        } else {
+            return options.getOutputDir();
+        }
+    }
+
+    private static void writeResources(Path dataFile, Path outputFile, ApplicationOptions options, ResourceMapper<?> mapper, List<? extends Resource> resources) throws IOException {
+        if (options.isUpload() || options.getOutputFormat() != ApplicationOptions.OutputFormat.JSON || isPartitioned(options, mapper)) {
+            try (ResourceSink sink = newResourceSink(dataFile, outputFile, options, mapper)) {
+                for (Resource resource : resources) {
+                    sink.add(resource);
+                }
+            }
+
+            return;
+        }
+
+        String json = JsonResourceConverterR4.resourcesToJsonBundle(Bundle.BundleType.COLLECTION, resources, true);
+        long startTime = System.nanoTime();
+        long numOfBytes;
+        try (ChannelWriter writer = new ChannelWriter(outputFile, options.getFsyncPolicy())) {
+            writer.write(json);
+            numOfBytes = writer.getNumOfBytes();
+        }
+        PipelineMetrics.SHARED.record(PipelineMetrics.Stage.WRITE, startTime);
+        PipelineMetrics.SHARED.addBytesWritten(numOfBytes);
+    }
+
+    private static boolean isPartitioned(ApplicationOptions options, ResourceMapper<?> mapper) {
+        return options.isPartitionByDate() && PartitionedResourceSink.isPartitioned(mapper.getResourceType());
+    }
+
+    /**
+     * Create the sink of the resources mapped from the data file: the FHIR
+     * server when uploading, the Parquet tables in the output directory, the
+     * year and month partitions in the output directory, or otherwise the
+     * collection bundle file.
+     */
+    private static ResourceSink newResourceSink(Path dataFile, Path outputFile, ApplicationOptions options, ResourceMapper<?> mapper) throws IOException {
+        if (options.getOutputFormat() == ApplicationOptions.OutputFormat.PARQUET) {
+            return new ParquetResourceSink(outputFile.getParent(), ParquetTableWriter.Codec.GZIP, options.getRowGroupSize());
+        } else if (isPartitioned(options, mapper)) {
+            PartitionedResourceSink partitions = new PartitionedResourceSink(outputFile.getParent(), mapper.getResourceName(), options.getFsyncPolicy(), options.getMaxOpenPartitions());
+
+            return new ResourceSink() {
+                @Override
+                public Object encode(IBaseResource resource) {
+                    return partitions.encode(resource);
+                }
+
+                @Override
+                public void addEncoded(Object encodedResource) throws IOException {
+                    partitions.addEncoded(encodedResource);
+                }
+
+                @Override
+                public void addJson(String resourceJson) throws IOException {
+                    partitions.addJson(resourceJson);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    partitions.close();
+                    System.out.printf("%s: %d resources in %d partitions, %d partitions reopened.%n",
+                            dataFile.getFileName(), partitions.getNumOfResources(), partitions.getNumOfPartitions(), partitions.getNumOfReopenedPartitions());
+                }
+            };
+        } else if (!options.isUpload()) {
+            return new BundleWriter(new ChannelWriter(outputFile, options.getFsyncPolicy()), Bundle.BundleType.COLLECTION);
+        }
+
+        FhirUploader uploader = new FhirUploader(options.getUploadUrl(), options.getUploadBundleType(), options.getNumOfUploadConnections());
+
+        return new ResourceSink() {
+            @Override
+            public void addJson(String resourceJson) throws IOException {
+                uploader.addJson(resourceJson);
+            }
+
+            @Override
+            public void close() throws IOException {
+                uploader.close();
+                System.out.printf("%s: %d resources uploaded, %d rejected, %d retries.%n",
+                        dataFile.getFileName(), uploader.getNumOfUploadedResources(), uploader.getNumOfRejectedResources(), uploader.getNumOfRetries());
+            }
+        };
+    }
+
+    private static Pattern getDelimiter(Path file) {
+        String filename = file.getFileName().toString();
+        if (filename.endsWith(".csv")) {
+            return Delimiters.COMMA_DELIM;
+        } else if (filename.endsWith(".tsv")) {
+            return Delimiters.TAB_DELIM;
+        } else {
+            return null;
+        }
     }
 
     private static boolean isValidDirectory(Path dir) {
@@ -153,4 +782,11 @@ public class Application {
         return String.format("%s-%s.jar", jarTitle(), jarVersion());
     }
 
+    @FunctionalInterface
+    private interface ResourceExporter {
+
+        void export(Path file, Pattern delimiter, Predicate<String[]> rowFilter, RowErrorHandler errorHandler, Path outputFile) throws IOException;
+
+    }
+
 }
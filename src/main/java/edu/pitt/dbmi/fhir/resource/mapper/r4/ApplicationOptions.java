@@ -0,0 +1,603 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.TerminologyRegistry;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ChannelWriter;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ParquetTableWriter;
+import edu.pitt.dbmi.fhir.resource.mapper.util.Shard;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import org.hl7.fhir.r4.model.Bundle;
+
+/**
+ * Command-line options of the application.
+ *
+ * Oct 19, 2026 9:41:05 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class ApplicationOptions {
+
+    public enum OutputFormat {
+        JSON,
+        PARQUET
+    }
+
+    private final String dataSource;
+    private final Path inputDir;
+    private final Path outputDir;
+
+    private Path manifestDir;
+    private Shard shard;
+    private boolean patientBundles;
+    private boolean checkReferences;
+    private Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"));
+    private long sortMemory = 256L * 1024 * 1024;
+    private Path metricsFile;
+    private long metricsInterval = 10;
+    private Path deadLetterFile;
+    private double maxErrorRate = 1;
+    private int numOfFiles = Runtime.getRuntime().availableProcessors();
+    private int numOfMappers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int numOfEncoders = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private ChannelWriter.FsyncPolicy fsyncPolicy = ChannelWriter.FsyncPolicy.NONE;
+    private URI uploadUrl;
+    private Bundle.BundleType uploadBundleType = Bundle.BundleType.BATCH;
+    private int numOfUploadConnections = 4;
+    private OutputFormat outputFormat = OutputFormat.JSON;
+    private long rowGroupSize = ParquetTableWriter.DEFAULT_ROW_GROUP_SIZE;
+    private boolean partitionByDate;
+    private int maxOpenPartitions = PartitionedResourceSink.DEFAULT_MAX_OPEN_PARTITIONS;
+    private boolean dedup;
+    private final Map<String, List<String>> dedupColumns = new HashMap<>();
+    private boolean watch;
+    private long settleTime = 5;
+    private int port = -1;
+    private int numOfWorkers = Runtime.getRuntime().availableProcessors();
+    private int maxQueuedRequests = 64;
+    private long maxRequestSize = 1024L * 1024L;
+    private TerminologyRegistry.Mode terminologyMode = TerminologyRegistry.Mode.FILL;
+
+    private ApplicationOptions(String dataSource, Path inputDir, Path outputDir) {
+        this.dataSource = dataSource;
+        this.inputDir = inputDir;
+        this.outputDir = outputDir;
+    }
+
+    /**
+     * Parse the command-line arguments.
+     *
+     * @param args
+     * @return
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+    public static ApplicationOptions parse(String[] args) {
+        ApplicationOptions options;
+        int i;
+        if (args.length > 0 && args[0].trim().equalsIgnoreCase("serve")) {
+            // the server maps the batches posted to it, not the files of a directory
+            options = new ApplicationOptions("serve", null, null);
+            options.port = getPort(args, 1, "serve");
+            i = 2;
+        } else if (args.length < 3) {
+            throw new IllegalArgumentException("Missing required arguments.");
+        } else {
+            options = new ApplicationOptions(
+                    args[0].trim().toLowerCase(),
+                    Paths.get(args[1]),
+                    Paths.get(args[2]));
+            i = 3;
+        }
+        for (; i < args.length; i++) {
+            switch (args[i]) {
+                case "--incremental":
+                    options.manifestDir = Paths.get(getValue(args, ++i, "--incremental"));
+                    break;
+                case "--shard":
+                    options.shard = Shard.parse(getValue(args, ++i, "--shard"));
+                    break;
+                case "--patient-bundles":
+                    options.patientBundles = true;
+                    break;
+                case "--check-references":
+                    options.checkReferences = true;
+                    break;
+                case "--temp-dir":
+                    options.tempDir = Paths.get(getValue(args, ++i, "--temp-dir"));
+                    break;
+                case "--sort-memory":
+                    options.sortMemory = getPositiveInt(args, ++i, "--sort-memory") * 1024L * 1024L;
+                    break;
+                case "--metrics":
+                    options.metricsFile = Paths.get(getValue(args, ++i, "--metrics"));
+                    break;
+                case "--metrics-interval":
+                    options.metricsInterval = getPositiveInt(args, ++i, "--metrics-interval");
+                    break;
+                case "--dead-letter":
+                    options.deadLetterFile = Paths.get(getValue(args, ++i, "--dead-letter"));
+                    break;
+                case "--max-error-rate":
+                    options.maxErrorRate = getFraction(args, ++i, "--max-error-rate");
+                    break;
+                case "--files":
+                    options.numOfFiles = getPositiveInt(args, ++i, "--files");
+                    break;
+                case "--mappers":
+                    options.numOfMappers = getPositiveInt(args, ++i, "--mappers");
+                    break;
+                case "--encoders":
+                    options.numOfEncoders = getPositiveInt(args, ++i, "--encoders");
+                    break;
+                case "--fsync":
+                    options.fsyncPolicy = ChannelWriter.FsyncPolicy.parse(getValue(args, ++i, "--fsync"));
+                    break;
+                case "--terminology":
+                    options.terminologyMode = TerminologyRegistry.Mode.parse(getValue(args, ++i, "--terminology"));
+                    break;
+                case "--format":
+                    options.outputFormat = getOutputFormat(args, ++i, "--format");
+                    break;
+                case "--row-group-size":
+                    options.rowGroupSize = getPositiveInt(args, ++i, "--row-group-size") * 1024L * 1024L;
+                    break;
+                case "--partition-by-date":
+                    options.partitionByDate = true;
+                    break;
+                case "--max-open-partitions":
+                    options.maxOpenPartitions = getPositiveInt(args, ++i, "--max-open-partitions");
+                    break;
+                case "--dedup":
+                    options.dedup = true;
+                    break;
+                case "--dedup-columns":
+                    options.dedup = true;
+                    putDedupColumns(options.dedupColumns, args, ++i, "--dedup-columns");
+                    break;
+                case "--watch":
+                    options.watch = true;
+                    break;
+                case "--settle":
+                    options.settleTime = getPositiveInt(args, ++i, "--settle");
+                    break;
+                case "--workers":
+                    options.numOfWorkers = getPositiveInt(args, ++i, "--workers");
+                    break;
+                case "--queue":
+                    options.maxQueuedRequests = getPositiveInt(args, ++i, "--queue");
+                    break;
+                case "--max-request-size":
+                    options.maxRequestSize = getPositiveInt(args, ++i, "--max-request-size") * 1024L;
+                    break;
+                case "--upload":
+                    options.uploadUrl = getUrl(args, ++i, "--upload");
+                    break;
+                case "--upload-bundle-type":
+                    options.uploadBundleType = getUploadBundleType(args, ++i, "--upload-bundle-type");
+                    break;
+                case "--upload-connections":
+                    options.numOfUploadConnections = getPositiveInt(args, ++i, "--upload-connections");
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("Unknown option '%s'.", args[i]));
+            }
+        }
+
+        if (options.patientBundles && options.manifestDir != null) {
+            throw new IllegalArgumentException("Options '--patient-bundles' and '--incremental' cannot be used together.");
+        }
+        if (options.patientBundles && options.uploadUrl != null) {
+            throw new IllegalArgumentException("Options '--patient-bundles' and '--upload' cannot be used together.");
+        }
+        if (options.outputFormat != OutputFormat.JSON && (options.patientBundles || options.uploadUrl != null)) {
+            throw new IllegalArgumentException("Option '--format' cannot be used with '--patient-bundles' or '--upload'.");
+        }
+        if (options.watch && (options.patientBundles || options.checkReferences || options.manifestDir != null)) {
+            throw new IllegalArgumentException("Option '--watch' cannot be used with '--patient-bundles', '--check-references' or '--incremental'.");
+        }
+        if (options.isServe() && (options.watch || options.patientBundles || options.checkReferences || options.manifestDir != null
+                || options.shard != null || options.uploadUrl != null || options.outputFormat != OutputFormat.JSON
+                || options.partitionByDate || options.dedup || options.deadLetterFile != null)) {
+            throw new IllegalArgumentException("Command 'serve' only takes the server options, '--temp-dir', '--metrics' and '--terminology'.");
+        }
+        if (options.dedup && options.patientBundles) {
+            throw new IllegalArgumentException("Options '--dedup' and '--patient-bundles' cannot be used together.");
+        }
+        if (options.partitionByDate && (options.outputFormat != OutputFormat.JSON || options.patientBundles || options.uploadUrl != null || options.manifestDir != null)) {
+            throw new IllegalArgumentException("Option '--partition-by-date' cannot be used with '--format', '--patient-bundles', '--upload' or '--incremental'.");
+        }
+
+        return options;
+    }
+
+    public static String usage() {
+        return String.format("<%1$s> <data-directory> <output-directory> [--incremental <manifest-directory>] [--shard <i/N>] [--files <N>] [--mappers <N>] [--encoders <N>] [--fsync <none|close|always>]%n"
+                + "           [--format <json|parquet> [--row-group-size <MB>]] [--partition-by-date [--max-open-partitions <N>]]%n"
+                + "           [--dedup [--dedup-columns <resource>=<column>[,<column>...]]...]%n"
+                + "           [--upload <fhir-base-url> [--upload-bundle-type <batch|transaction>] [--upload-connections <N>]]%n"
+                + "       <%1$s> <data-directory> <output-directory> --patient-bundles [--temp-dir <directory>] [--sort-memory <MB>] [--shard <i/N>]%n"
+                + "       <%1$s> <data-directory> <output-directory> --check-references%n"
+                + "       <%1$s> <watch-directory> <output-directory> --watch [--settle <seconds>] [export options]%n"
+                + "       merge <shards-directory> <output-directory> [--temp-dir <directory>] [--sort-memory <MB>]%n"
+                + "       serve <port> [--workers <N>] [--queue <N>] [--max-request-size <KB>] [--temp-dir <directory>]%n"
+                + "Any mode: [--metrics <file> [--metrics-interval <seconds>]] [--dead-letter <file>] [--max-error-rate <0-1>] [--terminology <off|fill|verify>]",
+                String.join("|", DataSources.getNames()));
+    }
+
+    private void copyTo(ApplicationOptions options) {
+        options.manifestDir = manifestDir;
+        options.shard = shard;
+        options.patientBundles = patientBundles;
+        options.checkReferences = checkReferences;
+        options.tempDir = tempDir;
+        options.sortMemory = sortMemory;
+        options.metricsFile = metricsFile;
+        options.metricsInterval = metricsInterval;
+        options.deadLetterFile = deadLetterFile;
+        options.maxErrorRate = maxErrorRate;
+        options.numOfFiles = numOfFiles;
+        options.numOfMappers = numOfMappers;
+        options.numOfEncoders = numOfEncoders;
+        options.fsyncPolicy = fsyncPolicy;
+        options.uploadUrl = uploadUrl;
+        options.uploadBundleType = uploadBundleType;
+        options.numOfUploadConnections = numOfUploadConnections;
+        options.outputFormat = outputFormat;
+        options.rowGroupSize = rowGroupSize;
+        options.partitionByDate = partitionByDate;
+        options.maxOpenPartitions = maxOpenPartitions;
+        options.dedup = dedup;
+        options.dedupColumns.putAll(dedupColumns);
+        options.watch = watch;
+        options.settleTime = settleTime;
+        options.port = port;
+        options.numOfWorkers = numOfWorkers;
+        options.maxQueuedRequests = maxQueuedRequests;
+        options.maxRequestSize = maxRequestSize;
+        options.terminologyMode = terminologyMode;
+    }
+
+    private static String getValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(String.format("Option '%s' requires a value.", option));
+        }
+
+        return args[index];
+    }
+
+    private static int getPort(String[] args, int index, String option) {
+        try {
+            int value = (index < args.length) ? Integer.parseInt(args[index]) : -1;
+            if (value >= 0 && value <= 65535) {
+                return value;
+            }
+        } catch (NumberFormatException exception) {
+        }
+
+        throw new IllegalArgumentException(String.format("Command '%s' requires a port from 0 to 65535.", option));
+    }
+
+    private static int getPositiveInt(String[] args, int index, String option) {
+        try {
+            int value = Integer.parseInt(getValue(args, index, option));
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException exception) {
+        }
+
+        throw new IllegalArgumentException(String.format("Option '%s' requires a positive integer.", option));
+    }
+
+    private static void putDedupColumns(Map<String, List<String>> dedupColumns, String[] args, int index, String option) {
+        String value = getValue(args, index, option);
+        int separator = value.indexOf('=');
+        if (separator > 0 && separator < value.length() - 1) {
+            List<String> columns = new LinkedList<>();
+            for (String column : value.substring(separator + 1).split(",")) {
+                if (!column.trim().isEmpty()) {
+                    columns.add(column.trim());
+                }
+            }
+            if (!columns.isEmpty()) {
+                dedupColumns.put(value.substring(0, separator).trim().toLowerCase(), columns);
+
+                return;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Option '%s' requires a value such as observation=OBSERV_ID.", option));
+    }
+
+    private static URI getUrl(String[] args, int index, String option) {
+        try {
+            URI url = new URI(getValue(args, index, option));
+            if ("http".equalsIgnoreCase(url.getScheme()) || "https".equalsIgnoreCase(url.getScheme())) {
+                return url;
+            }
+        } catch (URISyntaxException exception) {
+        }
+
+        throw new IllegalArgumentException(String.format("Option '%s' requires an HTTP URL.", option));
+    }
+
+    private static OutputFormat getOutputFormat(String[] args, int index, String option) {
+        String value = getValue(args, index, option).trim().toUpperCase();
+        try {
+            return OutputFormat.valueOf(value);
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException(String.format("Option '%s' requires 'json' or 'parquet'.", option));
+        }
+    }
+
+    private static Bundle.BundleType getUploadBundleType(String[] args, int index, String option) {
+        String value = getValue(args, index, option).trim().toLowerCase();
+        if (value.equals("batch")) {
+            return Bundle.BundleType.BATCH;
+        } else if (value.equals("transaction")) {
+            return Bundle.BundleType.TRANSACTION;
+        }
+
+        throw new IllegalArgumentException(String.format("Option '%s' requires 'batch' or 'transaction'.", option));
+    }
+
+    private static double getFraction(String[] args, int index, String option) {
+        try {
+            double value = Double.parseDouble(getValue(args, index, option));
+            if (value >= 0 && value <= 1) {
+                return value;
+            }
+        } catch (NumberFormatException exception) {
+        }
+
+        throw new IllegalArgumentException(String.format("Option '%s' requires a number between 0 and 1.", option));
+    }
+
+    public boolean isIncremental() {
+        return manifestDir != null;
+    }
+
+    public boolean isSharded() {
+        return shard != null;
+    }
+
+    public String getDataSource() {
+        return dataSource;
+    }
+
+    public Path getInputDir() {
+        return inputDir;
+    }
+
+    public Path getOutputDir() {
+        return outputDir;
+    }
+
+    public Path getManifestDir() {
+        return manifestDir;
+    }
+
+    public Shard getShard() {
+        return shard;
+    }
+
+    public boolean isPatientBundles() {
+        return patientBundles;
+    }
+
+    public boolean isCheckReferences() {
+        return checkReferences;
+    }
+
+    public Path getTempDir() {
+        return tempDir;
+    }
+
+    public long getSortMemory() {
+        return sortMemory;
+    }
+
+    public Path getMetricsFile() {
+        return metricsFile;
+    }
+
+    public long getMetricsInterval() {
+        return metricsInterval;
+    }
+
+    public Path getDeadLetterFile() {
+        return deadLetterFile;
+    }
+
+    public double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    /**
+     * Maximum number of data files exported at the same time.
+     *
+     * @return
+     */
+    public int getNumOfFiles() {
+        return numOfFiles;
+    }
+
+    public int getNumOfMappers() {
+        return numOfMappers;
+    }
+
+    public int getNumOfEncoders() {
+        return numOfEncoders;
+    }
+
+    public ChannelWriter.FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    /**
+     * How the codings are checked against the terminology registry.
+     *
+     * @return
+     */
+    public TerminologyRegistry.Mode getTerminologyMode() {
+        return terminologyMode;
+    }
+
+    public OutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+    /**
+     * Number of bytes of a row group of the Parquet files.
+     *
+     * @return
+     */
+    public long getRowGroupSize() {
+        return rowGroupSize;
+    }
+
+    /**
+     * Whether observations, encounters and diagnostic reports are written to
+     * partitions by year and month.
+     *
+     * @return
+     */
+    public boolean isPartitionByDate() {
+        return partitionByDate;
+    }
+
+    /**
+     * Number of partition files kept open per data file.
+     *
+     * @return
+     */
+    public int getMaxOpenPartitions() {
+        return maxOpenPartitions;
+    }
+
+    /**
+     * Whether the rows that repeat an earlier row, or its key, are removed
+     * before mapping.
+     *
+     * @return
+     */
+    public boolean isDedup() {
+        return dedup;
+    }
+
+    /**
+     * Get the columns that identify the duplicated rows of a resource. The
+     * incremental keys are not used since they need not be unique, e.g. two
+     * observations of the same code at the same encounter.
+     *
+     * @param resourceName e.g. observation
+     * @return the columns given for the resource, or an empty list to
+     * compare whole rows
+     */
+    public List<String> getDedupColumns(String resourceName) {
+        return dedupColumns.getOrDefault(resourceName.toLowerCase(), Collections.emptyList());
+    }
+
+    /**
+     * Whether to keep running and export the data files as they arrive in
+     * the input directory.
+     *
+     * @return
+     */
+    public boolean isWatch() {
+        return watch;
+    }
+
+    /**
+     * Number of seconds an arriving file must stay unchanged to be complete.
+     *
+     * @return
+     */
+    public long getSettleTime() {
+        return settleTime;
+    }
+
+    public boolean isServe() {
+        return port >= 0;
+    }
+
+    /**
+     * Get the port the server listens on; 0 for any free port.
+     *
+     * @return
+     */
+    public int getPort() {
+        return port;
+    }
+
+    public int getNumOfWorkers() {
+        return numOfWorkers;
+    }
+
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    /**
+     * Get the maximum number of bytes of a batch posted to the server.
+     *
+     * @return
+     */
+    public long getMaxRequestSize() {
+        return maxRequestSize;
+    }
+
+    /**
+     * Get the same options with another output directory.
+     *
+     * @param outputDir
+     * @return
+     */
+    public ApplicationOptions withOutputDir(Path outputDir) {
+        ApplicationOptions options = new ApplicationOptions(dataSource, inputDir, outputDir);
+        copyTo(options);
+
+        return options;
+    }
+
+    public boolean isUpload() {
+        return uploadUrl != null;
+    }
+
+    public URI getUploadUrl() {
+        return uploadUrl;
+    }
+
+    public Bundle.BundleType getUploadBundleType() {
+        return uploadBundleType;
+    }
+
+    public int getNumOfUploadConnections() {
+        return numOfUploadConnections;
+    }
+
+}
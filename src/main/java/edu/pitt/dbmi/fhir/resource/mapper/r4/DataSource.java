@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import java.util.List;
+
+/**
+ * A source of data files, such as Synthea, and the mappers of its files.
+ * Data sources are registered as services in
+ * META-INF/services/edu.pitt.dbmi.fhir.resource.mapper.r4.DataSource.
+ *
+ * Oct 19, 2026 10:33:15 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public interface DataSource {
+
+    /**
+     * Get the name of the data source given on the command line.
+     *
+     * @return
+     */
+    String getName();
+
+    /**
+     * Get the type of the keys that references point to.
+     *
+     * @return
+     */
+    ReferenceIntegrityChecker.KeyType getKeyType();
+
+    /**
+     * Get the mappers of the data files. The mappers of the referenced
+     * resources come first.
+     *
+     * @return
+     */
+    List<ResourceMapper<?>> getMappers();
+
+    /**
+     * Load the static tables used by the mappers, such as the state
+     * abbreviations, so that a long-running watch does not pay for them on
+     * its first file.
+     */
+    default void warmUp() {
+    }
+
+    /**
+     * Clear the values cached by the mappers, so that a long-running watch
+     * or server does not keep those of earlier files or requests.
+     */
+    default void clearCaches() {
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the data sources found on the class path.
+ *
+ * Oct 19, 2026 10:34:02 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class DataSources {
+
+    private static final Map<String, DataSource> DATA_SOURCES = load();
+
+    private DataSources() {
+    }
+
+    public static Optional<DataSource> find(String name) {
+        return Optional.ofNullable(DATA_SOURCES.get(name));
+    }
+
+    public static List<String> getNames() {
+        return new LinkedList<>(DATA_SOURCES.keySet());
+    }
+
+    private static Map<String, DataSource> load() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        for (DataSource dataSource : ServiceLoader.load(DataSource.class, DataSources.class.getClassLoader())) {
+            dataSources.putIfAbsent(dataSource.getName(), dataSource);
+        }
+
+        return dataSources;
+    }
+
+}
@@ -0,0 +1,524 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.pitt.dbmi.fhir.resource.mapper.util.BundleWriter;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ChannelWriter;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ColumnBinding;
+import edu.pitt.dbmi.fhir.resource.mapper.util.Delimiters;
+import edu.pitt.dbmi.fhir.resource.mapper.util.PipelineMetrics;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ResourceSink;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import edu.pitt.dbmi.fhir.resource.mapper.util.UuidInterner;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * HTTP service that maps small CSV or TSV batches on demand, so that callers
+ * do not pay for starting the application on every batch.
+ *
+ * A batch is posted to /map/&lt;data-source&gt;/&lt;resource&gt;, e.g.
+ * /map/synthea/patients, with the header line first and a Content-Type of
+ * text/csv or text/tab-separated-values, in UTF-8 unless the Content-Type
+ * gives another charset. The resource is the prefix of the data file, the
+ * resource name or the resource type. The resources come back as NDJSON, or
+ * as a collection bundle with ?format=bundle or an Accept of
+ * application/fhir+json. Rows that cannot be mapped are skipped and counted
+ * in the X-Skipped-Rows header.
+ *
+ * Requests are mapped by a fixed pool of workers behind a bounded queue. When
+ * the queue is full, or the server is stopping, the request is answered with
+ * 503 right away instead of waiting. Bodies larger than the maximum request
+ * size are refused with 413.
+ *
+ * Oct 20, 2026 12:27:18 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class MappingServer implements Closeable {
+
+    public static final String CONTEXT_PATH = "/map/";
+
+    public static final String NDJSON_TYPE = "application/fhir+ndjson";
+    public static final String FHIR_JSON_TYPE = "application/fhir+json";
+
+    public static final String SKIPPED_ROWS_HEADER = "X-Skipped-Rows";
+
+    /**
+     * Seconds given to the requests in progress to finish on close.
+     */
+    public static final long DEFAULT_STOP_TIMEOUT = 10;
+
+    /**
+     * Number of references kept interned between requests.
+     */
+    private static final long MAX_INTERNED_URNS = 1L << 20;
+
+    /**
+     * Number of refused requests waiting to be answered.
+     */
+    private static final int MAX_QUEUED_REFUSALS = 1024;
+
+    private static final String METRICS_QUEUE = "mapping-server";
+
+    static {
+        // small responses are sent right away instead of waiting on the
+        // delayed acknowledgement of the client
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /**
+     * Set on the thread answering the requests refused by the workers.
+     */
+    private static final ThreadLocal<Boolean> REFUSING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor workers;
+    private final ThreadPoolExecutor refusals;
+    private final long maxRequestSize;
+    private final Path tempDir;
+    private final RowErrorHandler errorHandler;
+
+    private final LongAdder numOfRequests = new LongAdder();
+    private final LongAdder numOfRefusedRequests = new LongAdder();
+    private final LongAdder numOfResources = new LongAdder();
+
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private volatile boolean stopping;
+
+    /**
+     * Bind the server. It accepts requests once started.
+     *
+     * @param address
+     * @param numOfWorkers number of requests mapped at the same time
+     * @param maxQueuedRequests number of requests waiting for a worker
+     * @param maxRequestSize maximum number of bytes of a request body
+     * @param tempDir directory of the batches of the mappers that read a file
+     * @param errorHandler receives the rows that cannot be mapped
+     * @throws IOException if the address cannot be bound
+     */
+    public MappingServer(InetSocketAddress address, int numOfWorkers, int maxQueuedRequests, long maxRequestSize, Path tempDir, RowErrorHandler errorHandler) throws IOException {
+        this.maxRequestSize = maxRequestSize;
+        this.tempDir = tempDir;
+        this.errorHandler = errorHandler;
+
+        AtomicInteger numOfThreads = new AtomicInteger();
+        this.refusals = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_REFUSALS), runnable -> {
+            Thread thread = new Thread(() -> {
+                REFUSING.set(Boolean.TRUE);
+                runnable.run();
+            }, "mapping-server-refusals");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        // the requests refused by the workers are answered by a thread of
+        // their own
+        this.workers = new ThreadPoolExecutor(numOfWorkers, numOfWorkers, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxQueuedRequests), runnable -> {
+            Thread thread = new Thread(runnable, "mapping-server-worker-" + numOfThreads.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }, this::refuse);
+        this.workers.prestartAllCoreThreads();
+
+        this.server = HttpServer.create(address, 0);
+        this.server.createContext(CONTEXT_PATH, this::handle);
+        this.server.setExecutor(workers);
+    }
+
+    public void start() {
+        PipelineMetrics.SHARED.registerQueue(METRICS_QUEUE, () -> workers.getQueue().size());
+        server.start();
+    }
+
+    /**
+     * Stop the server. New requests are refused while the requests already
+     * taken are allowed to finish.
+     *
+     * @param timeout seconds given to the requests already taken
+     * @throws InterruptedException
+     */
+    public void stop(long timeout) throws InterruptedException {
+        stopping = true;
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+            while ((workers.getActiveCount() > 0 || !workers.getQueue().isEmpty()) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            server.stop(0);
+            workers.shutdownNow();
+            refusals.shutdownNow();
+            PipelineMetrics.SHARED.unregisterQueue(METRICS_QUEUE);
+        } finally {
+            terminated.countDown();
+        }
+    }
+
+    /**
+     * Wait for the server to be stopped.
+     *
+     * @throws InterruptedException
+     */
+    public void awaitTermination() throws InterruptedException {
+        terminated.await();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            stop(DEFAULT_STOP_TIMEOUT);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getNumOfRequests() {
+        return numOfRequests.sum();
+    }
+
+    public long getNumOfRefusedRequests() {
+        return numOfRefusedRequests.sum();
+    }
+
+    public long getNumOfResources() {
+        return numOfResources.sum();
+    }
+
+    /**
+     * Hand an exchange refused by the workers to the refusal thread. When it
+     * is behind too, the dispatcher answers the exchange itself, which closes
+     * it, rather than leaving the connection open without a response.
+     */
+    private void refuse(Runnable exchange, ThreadPoolExecutor executor) {
+        try {
+            refusals.execute(exchange);
+        } catch (RejectedExecutionException exception) {
+            REFUSING.set(Boolean.TRUE);
+            try {
+                exchange.run();
+            } finally {
+                REFUSING.set(Boolean.FALSE);
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            numOfRequests.increment();
+            if (REFUSING.get() || stopping) {
+                numOfRefusedRequests.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                exchange.getResponseHeaders().set("Connection", "close");
+                sendText(exchange, 503, stopping ? "The server is stopping." : "The server is busy.");
+            } else if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendText(exchange, 405, "Batches are mapped with POST.");
+            } else {
+                map(exchange);
+            }
+        } catch (IOException | RuntimeException exception) {
+            exception.printStackTrace(System.err);
+            if (exchange.getResponseCode() < 0) {
+                sendText(exchange, 500, exception.toString());
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void map(HttpExchange exchange) throws IOException {
+        String[] names = exchange.getRequestURI().getPath().substring(CONTEXT_PATH.length()).split("/");
+        Optional<ResourceMapper<?>> mapper = (names.length == 2)
+                ? DataSources.find(names[0].toLowerCase()).flatMap(dataSource -> findMapper(dataSource, names[1]))
+                : Optional.empty();
+        if (!mapper.isPresent()) {
+            sendText(exchange, 404, String.format("No mapper for '%s'. Batches are posted to %s<data-source>/<resource>.", exchange.getRequestURI().getPath(), CONTEXT_PATH));
+            return;
+        }
+
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        Pattern delimiter = getDelimiter(contentType);
+        if (delimiter == null) {
+            sendText(exchange, 415, "Batches are sent as text/csv or text/tab-separated-values.");
+            return;
+        }
+        Charset charset = getCharset(contentType);
+        if (charset == null) {
+            sendText(exchange, 415, "Batches are sent in a supported charset, UTF-8 by default.");
+            return;
+        }
+
+        byte[] body = readBody(exchange);
+        if (body == null) {
+            exchange.getResponseHeaders().set("Connection", "close");
+            sendText(exchange, 413, String.format("Batches are limited to %d bytes.", maxRequestSize));
+            return;
+        }
+
+        Path batch = Paths.get(names[0], names[1]);
+        AtomicLong numOfSkippedRows = new AtomicLong();
+        RowErrorHandler batchErrorHandler = (file, lineNumber, line, cause) -> {
+            numOfSkippedRows.incrementAndGet();
+            errorHandler.handle(batch, lineNumber, line, cause);
+        };
+
+        // the resources are written out as they are mapped, to a file since
+        // the number of skipped rows is sent ahead of them
+        boolean isBundle = isBundleRequested(exchange);
+        Path responseFile = Files.createTempFile(Files.createDirectories(tempDir), "response-", isBundle ? ".json" : ".ndjson");
+        try {
+            long numOfMappedResources;
+            try (Writer writer = new ChannelWriter(responseFile, ChannelWriter.FsyncPolicy.NONE);
+                 ResourceSink sink = isBundle ? new BundleWriter(writer, Bundle.BundleType.COLLECTION) : new NdjsonWriter(writer)) {
+                numOfMappedResources = mapper.get().isCombiningRows()
+                        ? mapFile(mapper.get(), body, charset, delimiter, batchErrorHandler, sink)
+                        : mapRows(mapper.get(), batch, body, charset, delimiter, batchErrorHandler, sink);
+            } catch (IOException exception) {
+                // e.g. a required column is missing
+                sendText(exchange, 400, exception.getMessage());
+                return;
+            } finally {
+                if (UuidInterner.SHARED.size() > MAX_INTERNED_URNS) {
+                    UuidInterner.SHARED.clear();
+                    DataSources.getNames().forEach(name -> DataSources.find(name).ifPresent(DataSource::clearCaches));
+                }
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", isBundle ? FHIR_JSON_TYPE : NDJSON_TYPE);
+            exchange.getResponseHeaders().set(SKIPPED_ROWS_HEADER, String.valueOf(numOfSkippedRows.get()));
+            exchange.sendResponseHeaders(200, Files.size(responseFile));
+            try (OutputStream out = exchange.getResponseBody()) {
+                Files.copy(responseFile, out);
+            }
+            numOfResources.add(numOfMappedResources);
+        } finally {
+            Files.deleteIfExists(responseFile);
+        }
+    }
+
+    /**
+     * Map the rows of a batch one at a time, adding each resource to the
+     * sink.
+     *
+     * @return number of resources mapped
+     */
+    private static long mapRows(ResourceMapper<?> mapper, Path batch, byte[] body, Charset charset, Pattern delimiter, RowErrorHandler errorHandler, ResourceSink sink) throws IOException {
+        long numOfResources = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), charset))) {
+            ColumnBinding binding = ColumnBinding.bind(batch, reader.readLine(), delimiter, mapper.getColumns(), mapper.getOptionalColumns());
+            long lineNumber = 1;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                long startTime = System.nanoTime();
+                long tokenizeTime = startTime;
+                Resource resource = null;
+                try {
+                    String[] fields = binding.bind(mapper.getFields(line, delimiter));
+                    tokenizeTime = System.nanoTime();
+                    resource = mapper.map(fields);
+                } catch (ParseException | RuntimeException exception) {
+                    PipelineMetrics.SHARED.recordError();
+                    errorHandler.handle(batch, lineNumber, line, exception);
+                }
+                PipelineMetrics.SHARED.recordMappedRow(line.length() + 1, startTime, tokenizeTime);
+                if (resource != null) {
+                    sink.add(resource);
+                    numOfResources++;
+                }
+            }
+        }
+
+        return numOfResources;
+    }
+
+    /**
+     * Map a batch with a mapper that combines rows, which reads a file. The
+     * file is written in the default charset, which the mapper reads it with.
+     *
+     * @return number of resources mapped
+     */
+    private long mapFile(ResourceMapper<?> mapper, byte[] body, Charset charset, Pattern delimiter, RowErrorHandler errorHandler, ResourceSink sink) throws IOException {
+        String suffix = (delimiter == Delimiters.TAB_DELIM) ? ".tsv" : ".csv";
+        Path file = Files.createTempFile(Files.createDirectories(tempDir), mapper.getFilePrefix(), suffix);
+        try {
+            Files.write(file, new String(body, charset).getBytes(Charset.defaultCharset()));
+
+            List<? extends Resource> resources = mapper.mapFile(file, delimiter, fields -> true, errorHandler);
+            for (Resource resource : resources) {
+                sink.add(resource);
+            }
+
+            return resources.size();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Read the body of the request.
+     *
+     * @return null if the body is larger than the maximum request size
+     */
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength.trim()) > maxRequestSize) {
+                    return null;
+                }
+            } catch (NumberFormatException exception) {
+                // checked while reading
+            }
+        }
+
+        byte[] body = exchange.getRequestBody().readNBytes((int) Math.min(maxRequestSize + 1, Integer.MAX_VALUE - 8));
+
+        return (body.length > maxRequestSize) ? null : body;
+    }
+
+    private static Optional<ResourceMapper<?>> findMapper(DataSource dataSource, String name) {
+        return dataSource.getMappers().stream()
+                .filter(mapper -> name.equalsIgnoreCase(mapper.getFilePrefix())
+                || name.equalsIgnoreCase(mapper.getResourceName())
+                || name.equalsIgnoreCase(mapper.getResourceType()))
+                .findFirst();
+    }
+
+    private static Pattern getDelimiter(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+
+        String mediaType = contentType.split(";", 2)[0].trim().toLowerCase();
+        switch (mediaType) {
+            case "text/csv":
+                return Delimiters.COMMA_DELIM;
+            case "text/tab-separated-values":
+                return Delimiters.TAB_DELIM;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Charset of the batch, given by the charset parameter of the content
+     * type.
+     *
+     * @return UTF-8 if no charset is given, or null if it is not supported
+     */
+    private static Charset getCharset(String contentType) {
+        for (String parameter : contentType.split(";")) {
+            String[] nameValue = parameter.split("=", 2);
+            if (nameValue.length == 2 && nameValue[0].trim().equalsIgnoreCase("charset")) {
+                try {
+                    return Charset.forName(nameValue[1].trim().replace("\"", ""));
+                } catch (IllegalArgumentException exception) {
+                    return null;
+                }
+            }
+        }
+
+        return StandardCharsets.UTF_8;
+    }
+
+    private static boolean isBundleRequested(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.equalsIgnoreCase("format=bundle")) {
+                    return true;
+                } else if (parameter.equalsIgnoreCase("format=ndjson")) {
+                    return false;
+                }
+            }
+        }
+
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+
+        return accept != null && accept.contains(FHIR_JSON_TYPE);
+    }
+
+    private static void sendText(HttpExchange exchange, int statusCode, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Writes the resources as NDJSON, one resource per line.
+     */
+    private static final class NdjsonWriter implements ResourceSink {
+
+        private final Writer writer;
+
+        private NdjsonWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void addJson(String resourceJson) throws IOException {
+            writer.write(resourceJson);
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import edu.pitt.dbmi.fhir.resource.mapper.util.JsonResourceConverterR4;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ParquetTableWriter;
+import edu.pitt.dbmi.fhir.resource.mapper.util.PipelineMetrics;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ResourceSink;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Writes the resources to Parquet files, one per table of their resource
+ * type, created when the first resource of the type is added. The resources
+ * are flattened into rows by the encoder threads of the pipeline, so the
+ * writer only appends the rows.
+ *
+ * Oct 19, 2026 8:14:22 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class ParquetResourceSink implements ResourceSink {
+
+    private final Path outputDir;
+    private final ParquetTableWriter.Codec codec;
+    private final long rowGroupSize;
+
+    private final Map<TableView, ParquetTableWriter> writers = new LinkedHashMap<>();
+
+    private long numOfResources;
+
+    /**
+     *
+     * @param outputDir directory of the Parquet files, named after the tables
+     * @param codec compression of the pages
+     * @param rowGroupSize number of bytes of a row group
+     */
+    public ParquetResourceSink(Path outputDir, ParquetTableWriter.Codec codec, long rowGroupSize) {
+        this.outputDir = outputDir;
+        this.codec = codec;
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    /**
+     * Get the Parquet file of a table.
+     *
+     * @param outputDir
+     * @param view
+     * @return
+     */
+    public static Path getFile(Path outputDir, TableView view) {
+        return Paths.get(outputDir.toString(), view.getName() + ".parquet");
+    }
+
+    @Override
+    public Object encode(IBaseResource resource) {
+        long startTime = System.nanoTime();
+        List<TableView> views = TableView.forResourceType(((Resource) resource).getResourceType());
+        List<List<Object[]>> rows = new ArrayList<>(views.size());
+        for (TableView view : views) {
+            rows.add(view.getRows((Resource) resource));
+        }
+        PipelineMetrics.SHARED.record(PipelineMetrics.Stage.ENCODE, startTime);
+
+        return new TableRows(views, rows);
+    }
+
+    @Override
+    public void addEncoded(Object encodedResource) throws IOException {
+        long startTime = System.nanoTime();
+        TableRows tableRows = (TableRows) encodedResource;
+        numOfResources++;
+        for (int i = 0; i < tableRows.views.size(); i++) {
+            ParquetTableWriter writer = getWriter(tableRows.views.get(i));
+            for (Object[] row : tableRows.rows.get(i)) {
+                row[0] = numOfResources;
+                writer.addRow(row);
+            }
+        }
+        PipelineMetrics.SHARED.record(PipelineMetrics.Stage.WRITE, startTime);
+    }
+
+    @Override
+    public void addJson(String resourceJson) throws IOException {
+        add(JsonResourceConverterR4.parseResource(new StringReader(resourceJson)));
+    }
+
+    public long getNumOfResources() {
+        return numOfResources;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (ParquetTableWriter writer : writers.values()) {
+            try {
+                writer.close();
+            } catch (IOException exception) {
+                failure = exception;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private ParquetTableWriter getWriter(TableView view) throws IOException {
+        ParquetTableWriter writer = writers.get(view);
+        if (writer == null) {
+            writer = new ParquetTableWriter(getFile(outputDir, view), view.getColumns(), codec, rowGroupSize);
+            writers.put(view, writer);
+        }
+
+        return writer;
+    }
+
+    /**
+     * Rows of a resource in each of its tables.
+     */
+    private static final class TableRows {
+
+        private final List<TableView> views;
+        private final List<List<Object[]>> rows;
+
+        private TableRows(List<TableView> views, List<List<Object[]>> rows) {
+            this.views = views;
+            this.rows = rows;
+        }
+
+    }
+
+}
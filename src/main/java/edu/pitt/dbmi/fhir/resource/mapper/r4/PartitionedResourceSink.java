@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import edu.pitt.dbmi.fhir.resource.mapper.util.ChannelWriter;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DirectBufferPool;
+import edu.pitt.dbmi.fhir.resource.mapper.util.JsonResourceConverterR4;
+import edu.pitt.dbmi.fhir.resource.mapper.util.PipelineMetrics;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ResourceSink;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.BaseDateTimeType;
+import org.hl7.fhir.r4.model.DiagnosticReport;
+import org.hl7.fhir.r4.model.Encounter;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Period;
+import org.hl7.fhir.r4.model.Type;
+
+/**
+ * Writes the resources as NDJSON files partitioned by year and month, e.g.
+ * year=2020/month=03/observation.ndjson, so that query engines such as Spark,
+ * Hive and DuckDB can prune the partitions by time. Observations and
+ * diagnostic reports are partitioned by their effective date, falling back
+ * to their issue date, and encounters by the start of their period.
+ * Resources without a date go to the __HIVE_DEFAULT_PARTITION__ partition.
+ *
+ * At most a fixed number of partition files are open at a time. When a
+ * resource goes to another partition, the least recently used file is
+ * closed, and it is appended to if it is needed again. A partition file is
+ * replaced the first time the sink writes to it.
+ *
+ * Oct 19, 2026 11:31:48 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class PartitionedResourceSink implements ResourceSink {
+
+    public static final String DEFAULT_PARTITION = "__HIVE_DEFAULT_PARTITION__";
+
+    public static final int DEFAULT_MAX_OPEN_PARTITIONS = 32;
+
+    private static final Set<String> PARTITIONED_RESOURCE_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "Observation", "Encounter", "DiagnosticReport")));
+
+    private final Path outputDir;
+    private final String resourceName;
+    private final ChannelWriter.FsyncPolicy fsyncPolicy;
+    private final int maxOpenPartitions;
+
+    private final Map<String, ChannelWriter> writers = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> partitions = new HashSet<>();
+
+    private long numOfResources;
+    private long numOfReopenedPartitions;
+
+    /**
+     *
+     * @param outputDir root directory of the partitions
+     * @param resourceName name of the NDJSON file in each partition
+     * @param fsyncPolicy
+     * @param maxOpenPartitions number of partition files kept open
+     */
+    public PartitionedResourceSink(Path outputDir, String resourceName, ChannelWriter.FsyncPolicy fsyncPolicy, int maxOpenPartitions) {
+        if (maxOpenPartitions < 1) {
+            throw new IllegalArgumentException("At least one partition must be open.");
+        }
+
+        this.outputDir = outputDir;
+        this.resourceName = resourceName;
+        this.fsyncPolicy = fsyncPolicy;
+        this.maxOpenPartitions = maxOpenPartitions;
+    }
+
+    /**
+     * Whether the resources of the type are partitioned by date.
+     *
+     * @param resourceType
+     * @return
+     */
+    public static boolean isPartitioned(String resourceType) {
+        return PARTITIONED_RESOURCE_TYPES.contains(resourceType);
+    }
+
+    /**
+     * Get the partition of a resource.
+     *
+     * @param resource
+     * @return relative directory of the partition, e.g. year=2020/month=03
+     */
+    public static String getPartition(IBaseResource resource) {
+        BaseDateTimeType date = getDate(resource);
+        if (date == null || date.getValue() == null) {
+            return String.format("year=%1$s/month=%1$s", DEFAULT_PARTITION);
+        }
+
+        return String.format("year=%04d/month=%02d", date.getYear(), date.getMonth() + 1);
+    }
+
+    /**
+     * Get the partition file of a resource type.
+     *
+     * @param outputDir
+     * @param partition
+     * @param resourceName
+     * @return
+     */
+    public static Path getFile(Path outputDir, String partition, String resourceName) {
+        return Paths.get(outputDir.toString(), partition, resourceName + ".ndjson");
+    }
+
+    @Override
+    public Object encode(IBaseResource resource) {
+        return new PartitionedJson(getPartition(resource), JsonResourceConverterR4.resourceToJson(resource, false));
+    }
+
+    @Override
+    public void addEncoded(Object encodedResource) throws IOException {
+        PartitionedJson partitionedJson = (PartitionedJson) encodedResource;
+        addJson(partitionedJson.partition, partitionedJson.json);
+    }
+
+    @Override
+    public void add(IBaseResource resource) throws IOException {
+        addEncoded(encode(resource));
+    }
+
+    /**
+     * Add a resource encoded to JSON, which carries no partition.
+     *
+     * @param resourceJson
+     * @throws IOException
+     */
+    @Override
+    public void addJson(String resourceJson) throws IOException {
+        add(JsonResourceConverterR4.parseResource(new StringReader(resourceJson)));
+    }
+
+    private void addJson(String partition, String resourceJson) throws IOException {
+        long startTime = System.nanoTime();
+        ChannelWriter writer = getWriter(partition);
+        long numOfBytes = writer.getNumOfBytes();
+        writer.write(resourceJson);
+        writer.write('\n');
+        numOfResources++;
+        PipelineMetrics.SHARED.record(PipelineMetrics.Stage.WRITE, startTime);
+        PipelineMetrics.SHARED.addBytesWritten(writer.getNumOfBytes() - numOfBytes);
+    }
+
+    public long getNumOfResources() {
+        return numOfResources;
+    }
+
+    /**
+     * Number of partitions written to.
+     *
+     * @return
+     */
+    public int getNumOfPartitions() {
+        return partitions.size();
+    }
+
+    /**
+     * Number of times a partition file closed to make room for another was
+     * opened again.
+     *
+     * @return
+     */
+    public long getNumOfReopenedPartitions() {
+        return numOfReopenedPartitions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (ChannelWriter writer : writers.values()) {
+            try {
+                writer.close();
+            } catch (IOException exception) {
+                failure = exception;
+            }
+        }
+        writers.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private ChannelWriter getWriter(String partition) throws IOException {
+        ChannelWriter writer = writers.get(partition);
+        if (writer == null) {
+            if (writers.size() >= maxOpenPartitions) {
+                Iterator<ChannelWriter> leastRecentlyUsed = writers.values().iterator();
+                ChannelWriter evicted = leastRecentlyUsed.next();
+                leastRecentlyUsed.remove();
+                evicted.close();
+            }
+
+            boolean isReopened = !partitions.add(partition);
+            if (isReopened) {
+                numOfReopenedPartitions++;
+            }
+            Path file = getFile(outputDir, partition, resourceName);
+            Files.createDirectories(file.getParent());
+            writer = new ChannelWriter(file, fsyncPolicy, DirectBufferPool.SHARED, isReopened);
+            writers.put(partition, writer);
+        }
+
+        return writer;
+    }
+
+    private static BaseDateTimeType getDate(IBaseResource resource) {
+        if (resource instanceof Observation) {
+            Observation observation = (Observation) resource;
+            BaseDateTimeType date = toDate(observation.getEffective());
+
+            return (date != null || !observation.hasIssued()) ? date : observation.getIssuedElement();
+        } else if (resource instanceof DiagnosticReport) {
+            DiagnosticReport diagnosticReport = (DiagnosticReport) resource;
+            BaseDateTimeType date = toDate(diagnosticReport.getEffective());
+
+            return (date != null || !diagnosticReport.hasIssued()) ? date : diagnosticReport.getIssuedElement();
+        } else if (resource instanceof Encounter) {
+            Encounter encounter = (Encounter) resource;
+
+            return encounter.hasPeriod() ? toDate(encounter.getPeriod()) : null;
+        } else {
+            return null;
+        }
+    }
+
+    private static BaseDateTimeType toDate(Type value) {
+        if (value instanceof BaseDateTimeType) {
+            return (BaseDateTimeType) value;
+        } else if (value instanceof Period && ((Period) value).hasStart()) {
+            return ((Period) value).getStartElement();
+        } else {
+            return null;
+        }
+    }
+
+    private static final class PartitionedJson {
+
+        private final String partition;
+        private final String json;
+
+        private PartitionedJson(String partition, String json) {
+            this.partition = partition;
+            this.json = json;
+        }
+
+    }
+
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import edu.pitt.dbmi.fhir.resource.mapper.util.ChannelWriter;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ColumnBinding;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ExternalSorter;
+import edu.pitt.dbmi.fhir.resource.mapper.util.JsonResourceConverterR4;
+import edu.pitt.dbmi.fhir.resource.mapper.util.PipelineMetrics;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Writes one collection bundle per patient holding the patient and all of
+ * the patient's resources from the other data files.
+ *
+ * Each data file is first sorted by its patient key with a bounded amount of
+ * memory, then the sorted files are read side by side (merge join) so that
+ * only the rows of one patient are held in memory at a time. The bundles are
+ * written as NDJSON, one bundle per line.
+ *
+ * Oct 19, 2026 12:20:44 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class PatientCompartmentBundler {
+
+    private final Path tempDir;
+    private final ExternalSorter sorter;
+    private final RowErrorHandler errorHandler;
+
+    /**
+     *
+     * @param tempDir directory for the sorted files and the sort spill files
+     * @param memoryBudget maximum number of bytes used for sorting a file
+     */
+    public PatientCompartmentBundler(Path tempDir, long memoryBudget) {
+        this(tempDir, memoryBudget, RowErrorHandler.LOG);
+    }
+
+    /**
+     *
+     * @param tempDir directory for the sorted files and the sort spill files
+     * @param memoryBudget maximum number of bytes used for sorting a file
+     * @param errorHandler receives the rows that cannot be mapped; since the
+     * files are sorted, their line numbers are those of the sorted file, which
+     * still count the rows of the data file read so far
+     */
+    public PatientCompartmentBundler(Path tempDir, long memoryBudget, RowErrorHandler errorHandler) {
+        this.tempDir = tempDir;
+        this.sorter = new ExternalSorter(tempDir, memoryBudget);
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Write the patient bundles. Resources appear in a bundle in the order of
+     * the sources, so the patient source should come first.
+     *
+     * @param sources data files to join
+     * @param patientFilter test on the patient key
+     * @param outputFile NDJSON file of bundles
+     * @return number of bundles written
+     * @throws IOException
+     */
+    public long writeBundles(final List<Source> sources, final Predicate<String> patientFilter, final Path outputFile) throws IOException {
+        List<Path> sortedFiles = new ArrayList<>(sources.size());
+        List<Cursor> cursors = new ArrayList<>(sources.size());
+        try {
+            for (Source source : sources) {
+                Path sortedFile = Files.createTempFile(tempDir, "sorted-", ".txt");
+                sortedFiles.add(sortedFile);
+                ColumnBinding binding = (source.columns == null)
+                        ? ColumnBinding.identity(Math.max(source.patientColumn, source.idColumn) + 1)
+                        : ColumnBinding.read(source.file, source.delimiter, source.columns, source.optionalColumns);
+                sorter.sort(source.file, sortedFile, source.delimiter, binding.getSourceIndex(source.patientColumn));
+
+                Cursor cursor = new Cursor(source, binding, Files.newBufferedReader(sortedFile, Charset.defaultCharset()));
+                cursors.add(cursor);
+                cursor.reader.readLine(); // skip header
+                cursor.advance();
+            }
+
+            return join(cursors, patientFilter, outputFile);
+        } finally {
+            for (Cursor cursor : cursors) {
+                cursor.reader.close();
+            }
+            for (Path sortedFile : sortedFiles) {
+                Files.deleteIfExists(sortedFile);
+            }
+        }
+    }
+
+    private long join(List<Cursor> cursors, Predicate<String> patientFilter, Path outputFile) throws IOException {
+        long numOfBundles = 0;
+        try (ChannelWriter writer = new ChannelWriter(outputFile, ChannelWriter.FsyncPolicy.NONE)) {
+            for (String key = getSmallestKey(cursors); key != null; key = getSmallestKey(cursors)) {
+                boolean isIncluded = patientFilter.test(key);
+
+                Bundle bundle = new Bundle();
+                bundle.setType(Bundle.BundleType.COLLECTION);
+                for (Cursor cursor : cursors) {
+                    while (key.equals(cursor.key)) {
+                        if (isIncluded) {
+                            addEntry(bundle, cursor);
+                        }
+                        cursor.advance();
+                    }
+                }
+
+                if (!bundle.getEntry().isEmpty()) {
+                    String json = JsonResourceConverterR4.resourceToJson(bundle, false);
+                    long startTime = System.nanoTime();
+                    long numOfBytes = writer.getNumOfBytes();
+                    writer.write(json);
+                    writer.write(System.lineSeparator());
+                    PipelineMetrics.SHARED.record(PipelineMetrics.Stage.WRITE, startTime);
+                    PipelineMetrics.SHARED.addBytesWritten(writer.getNumOfBytes() - numOfBytes);
+                    numOfBundles++;
+                }
+            }
+        }
+
+        return numOfBundles;
+    }
+
+    private void addEntry(Bundle bundle, Cursor cursor) {
+        long startTime = System.nanoTime();
+        String[] fields = cursor.binding.bind(cursor.source.delimiter.split(cursor.line.trim(), -1));
+        long tokenizeTime = System.nanoTime();
+        try {
+            Resource resource = cursor.source.mapper.map(fields);
+            String fullUrl = (cursor.source.idColumn >= 0) ? "urn:uuid:" + fields[cursor.source.idColumn] : null;
+            bundle.addEntry()
+                    .setResource(resource)
+                    .setFullUrl(fullUrl);
+        } catch (ParseException | RuntimeException exception) {
+            PipelineMetrics.SHARED.recordError();
+            errorHandler.handle(cursor.source.file, cursor.lineNumber, cursor.line, exception);
+        }
+        PipelineMetrics.SHARED.recordRow(cursor.line.length() + 1, startTime, startTime, tokenizeTime);
+    }
+
+    private static String getSmallestKey(List<Cursor> cursors) {
+        String smallestKey = null;
+        for (Cursor cursor : cursors) {
+            if (cursor.key != null && (smallestKey == null || cursor.key.compareTo(smallestKey) < 0)) {
+                smallestKey = cursor.key;
+            }
+        }
+
+        return smallestKey;
+    }
+
+    /**
+     * A data file taking part in the join.
+     */
+    public static final class Source {
+
+        private final Path file;
+        private final Pattern delimiter;
+        private final String[] columns;
+        private final String[] optionalColumns;
+        private final int patientColumn;
+        private final int idColumn;
+        private final RowMapper<?> mapper;
+
+        /**
+         *
+         * @param file
+         * @param delimiter
+         * @param patientColumn position of the patient key
+         * @param idColumn position of the UUID used as the entry's full URL,
+         * or -1 for none
+         * @param mapper
+         */
+        public Source(Path file, Pattern delimiter, int patientColumn, int idColumn, RowMapper<?> mapper) {
+            this(file, delimiter, null, null, patientColumn, idColumn, mapper);
+        }
+
+        /**
+         * A data file whose columns are bound to its header.
+         *
+         * @param file
+         * @param delimiter
+         * @param columns columns read by the mapper, in the order of its field
+         * positions
+         * @param optionalColumns columns the data file may omit, which are
+         * then read as empty
+         * @param patientColumn position of the patient key
+         * @param idColumn position of the UUID used as the entry's full URL,
+         * or -1 for none
+         * @param mapper
+         */
+        public Source(Path file, Pattern delimiter, String[] columns, String[] optionalColumns, int patientColumn, int idColumn, RowMapper<?> mapper) {
+            this.file = file;
+            this.delimiter = delimiter;
+            this.columns = columns;
+            this.optionalColumns = optionalColumns;
+            this.patientColumn = patientColumn;
+            this.idColumn = idColumn;
+            this.mapper = mapper;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+    }
+
+    private static final class Cursor {
+
+        private final Source source;
+        private final ColumnBinding binding;
+        private final BufferedReader reader;
+
+        private String key;
+        private String line;
+
+        /**
+         * Line number of the current line in the sorted file, counting the
+         * header as line 1.
+         */
+        private long lineNumber = 1;
+
+        private Cursor(Source source, ColumnBinding binding, BufferedReader reader) {
+            this.source = source;
+            this.binding = binding;
+            this.reader = reader;
+        }
+
+        private void advance() throws IOException {
+            line = reader.readLine();
+            if (line != null) {
+                lineNumber++;
+            }
+            key = (line == null) ? null : ExternalSorter.getKey(line, source.delimiter, binding.getSourceIndex(source.patientColumn));
+        }
+
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import edu.pitt.dbmi.fhir.resource.mapper.util.Hashes;
+import edu.pitt.dbmi.fhir.resource.mapper.util.OffHeapKeySet;
+import edu.pitt.dbmi.fhir.resource.mapper.util.Uuids;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the references between data files whose targets do not exist, before
+ * the resources are loaded into a FHIR server.
+ *
+ * The keys of the target files (patients, encounters, etc.) are loaded into
+ * off-heap key sets, then the referencing files are streamed and each
+ * reference is looked up. UUID keys are stored as their 128 bits, other keys
+ * as two independent 64-bit hashes. Fields are located by scanning for the
+ * delimiter rather than splitting the whole line.
+ *
+ * Oct 19, 2026 1:42:50 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class ReferenceIntegrityChecker implements Closeable {
+
+    private static final long SEED_HI = 0xcbf29ce484222325L;
+    private static final long SEED_LO = 0x84222325cbf29ce4L;
+
+    public enum KeyType {
+        UUID,
+        TEXT
+    }
+
+    private final KeyType keyType;
+    private final Map<String, OffHeapKeySet> targets = new HashMap<>();
+
+    private final long[] key = new long[2];
+    private final int[] bounds = new int[2];
+
+    public ReferenceIntegrityChecker(KeyType keyType) {
+        this.keyType = keyType;
+    }
+
+    /**
+     * Load the keys of a target file.
+     *
+     * @param target name of the target, e.g. Patient
+     * @param file
+     * @param delimiter
+     * @param keyColumn header name of the key column
+     * @return number of keys read
+     * @throws IOException
+     */
+    public long addKeys(final String target, final Path file, final Pattern delimiter, final String keyColumn) throws IOException {
+        char delimiterChar = getDelimiterChar(delimiter);
+        OffHeapKeySet keys = targets.get(target);
+        if (keys == null) {
+            // assume rows of at least 64 bytes
+            keys = new OffHeapKeySet(Files.size(file) / 64);
+            targets.put(target, keys);
+        }
+
+        long numOfKeys = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
+            int column = getColumnIndex(reader.readLine(), delimiterChar, keyColumn, file);
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (findField(line, delimiterChar, column, bounds) && bounds[0] < bounds[1]) {
+                    toKey(line, bounds[0], bounds[1], key);
+                    keys.add(key[0], key[1]);
+                    numOfKeys++;
+                }
+            }
+        }
+
+        return numOfKeys;
+    }
+
+    /**
+     * Check the references of a file. Each dangling reference is written to
+     * the report as a tab-separated line: file, line number, column, target
+     * and value. Empty references are not checked.
+     *
+     * @param file
+     * @param delimiter
+     * @param columnTargets header name of each reference column and the name
+     * of the target it refers to
+     * @param report
+     * @return number of dangling references
+     * @throws IOException
+     */
+    public long checkReferences(final Path file, final Pattern delimiter, final Map<String, String> columnTargets, final Writer report) throws IOException {
+        char delimiterChar = getDelimiterChar(delimiter);
+
+        long numOfDanglingReferences = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
+            String header = reader.readLine();
+
+            int numOfColumns = columnTargets.size();
+            String[] columnNames = new String[numOfColumns];
+            int[] columns = new int[numOfColumns];
+            OffHeapKeySet[] keySets = new OffHeapKeySet[numOfColumns];
+            int i = 0;
+            for (Map.Entry<String, String> columnTarget : columnTargets.entrySet()) {
+                columnNames[i] = columnTarget.getKey();
+                columns[i] = getColumnIndex(header, delimiterChar, columnTarget.getKey(), file);
+                keySets[i] = targets.get(columnTarget.getValue());
+                if (keySets[i] == null) {
+                    throw new IllegalStateException(String.format("No keys have been loaded for target '%s'.", columnTarget.getValue()));
+                }
+                i++;
+            }
+
+            String filename = file.getFileName().toString();
+            long lineNumber = 1;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                for (i = 0; i < numOfColumns; i++) {
+                    if (findField(line, delimiterChar, columns[i], bounds) && bounds[0] < bounds[1]) {
+                        toKey(line, bounds[0], bounds[1], key);
+                        if (!keySets[i].contains(key[0], key[1])) {
+                            report.write(String.format("%s\t%d\t%s\t%s\t%s%n",
+                                    filename, lineNumber, columnNames[i], columnTargets.get(columnNames[i]), line.substring(bounds[0], bounds[1])));
+                            numOfDanglingReferences++;
+                        }
+                    }
+                }
+            }
+        }
+
+        return numOfDanglingReferences;
+    }
+
+    @Override
+    public void close() {
+        targets.values().forEach(OffHeapKeySet::close);
+        targets.clear();
+    }
+
+    private void toKey(String line, int start, int end, long[] key) {
+        if (keyType == KeyType.UUID && (end - start) == Uuids.LENGTH && Uuids.parse(line, start, key)) {
+            return;
+        }
+
+        key[0] = Hashes.hash64(line, start, end, SEED_HI);
+        key[1] = Hashes.hash64(line, start, end, SEED_LO);
+    }
+
+    /**
+     * Find the start (inclusive) and end (exclusive) of the field at the
+     * given column, without the surrounding whitespace.
+     *
+     * @return false if the line has fewer columns
+     */
+    private static boolean findField(String line, char delimiter, int column, int[] bounds) {
+        int start = 0;
+        for (int i = 0; i < column; i++) {
+            start = line.indexOf(delimiter, start) + 1;
+            if (start == 0) {
+                return false;
+            }
+        }
+
+        int end = line.indexOf(delimiter, start);
+        if (end < 0) {
+            end = line.length();
+        }
+
+        while (start < end && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        bounds[0] = start;
+        bounds[1] = end;
+
+        return true;
+    }
+
+    private static int getColumnIndex(String header, char delimiter, String column, Path file) throws IOException {
+        if (header != null) {
+            String[] headers = header.split(Pattern.quote(String.valueOf(delimiter)));
+            for (int i = 0; i < headers.length; i++) {
+                if (headers[i].trim().equalsIgnoreCase(column)) {
+                    return i;
+                }
+            }
+        }
+
+        throw new IOException(String.format("File '%s' has no column '%s'.", file, column));
+    }
+
+    private static char getDelimiterChar(Pattern delimiter) {
+        String pattern = delimiter.pattern();
+        if (pattern.length() != 1) {
+            throw new IllegalArgumentException(String.format("Delimiter '%s' is not a single character.", pattern));
+        }
+
+        return pattern.charAt(0);
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowBinding;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Maps the data file of one kind of resource of a data source. The
+ * application runs every mapper the same way, so streaming, parallelism,
+ * incremental and sharded export, patient bundles and reference checks are
+ * available to every data source.
+ *
+ * Oct 19, 2026 10:31:48 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ * @param <T>
+ */
+public interface ResourceMapper<T extends Resource> extends RowBinding<T> {
+
+    /**
+     * Get the prefix of the name of the data file, e.g. patients.
+     *
+     * @return
+     */
+    String getFilePrefix();
+
+    /**
+     * Get the prefix of the name of the output files, e.g. patient.
+     *
+     * @return
+     */
+    String getResourceName();
+
+    /**
+     * Get the FHIR resource type, e.g. Patient.
+     *
+     * @return
+     */
+    String getResourceType();
+
+    /**
+     * Get the columns identifying a row in incremental mode. A single column
+     * is also the key that the references of other files are checked against.
+     *
+     * @return
+     */
+    List<String> getKeyColumns();
+
+    /**
+     * Get the field position of the patient key used for sharding and patient
+     * bundles. Rows that do not belong to a patient, such as providers, are
+     * exported whole by the first shard and are left out of the patient
+     * bundles.
+     *
+     * @return -1 if the rows do not belong to a patient
+     */
+    int getPatientColumn();
+
+    /**
+     * Get the field position of the identifier of the rows, used to order the
+     * resources of a patient bundle and as the logical id of the uploaded
+     * resources.
+     *
+     * @return -1 if the rows have no identifier
+     */
+    default int getIdColumn() {
+        return -1;
+    }
+
+    /**
+     * Get the reference columns of the data file and the resource type each
+     * of them refers to.
+     *
+     * @return
+     */
+    default Map<String, String> getReferenceColumns() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Check if the mapper combines several rows into one resource. Such a
+     * mapper overrides mapFile to map the whole file instead of one row at a
+     * time, and is left out of the patient bundles.
+     *
+     * @return
+     */
+    default boolean isCombiningRows() {
+        return false;
+    }
+
+}
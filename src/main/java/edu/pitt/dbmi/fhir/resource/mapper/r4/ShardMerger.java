@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import edu.pitt.dbmi.fhir.resource.mapper.util.BundleWriter;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ChannelWriter;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ExternalSorter;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.hl7.fhir.r4.model.Bundle;
+
+/**
+ * Combine the outputs written by the shards of a run into the final output
+ * layout.
+ *
+ * Oct 19, 2026 11:05:10 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class ShardMerger {
+
+    private static final Pattern SHARD_DIRECTORY = Pattern.compile("shard-(\\d+)-of-(\\d+)");
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Lines hold no line breaks, so the whole line is the sort key.
+     */
+    private static final Pattern WHOLE_LINE = Pattern.compile("\\n");
+
+    private ShardMerger() {
+    }
+
+    /**
+     * Merge the shard directories found in the input directory. Bundles are
+     * merged entry by entry, copying the JSON of each resource as it is read,
+     * NDJSON files are concatenated, tab-separated files are concatenated
+     * under one header and lists of deleted keys are combined without
+     * duplicates, in sorted order. Parquet files are copied side by side as
+     * parts of one table, e.g. patient.shard-0-of-4.parquet, since readers
+     * such as Spark and DuckDB scan them together. Files in subdirectories,
+     * such as the year and month partitions, are merged into the same
+     * subdirectories.
+     *
+     * @param inputDir directory containing the shard-i-of-N directories
+     * @param outputDir
+     * @param tempDir directory for sorting the lists of deleted keys
+     * @param memoryBudget maximum number of bytes used for sorting a list
+     * @throws IOException if a shard is missing
+     */
+    public static void merge(final Path inputDir, final Path outputDir, final Path tempDir, final long memoryBudget) throws IOException {
+        List<Path> shardDirs = getShardDirectories(inputDir);
+        ExternalSorter sorter = new ExternalSorter(Files.createDirectories(tempDir), memoryBudget);
+
+        Set<String> filenames = new TreeSet<>();
+        for (Path shardDir : shardDirs) {
+            try (Stream<Path> files = Files.walk(shardDir)) {
+                files.filter(Files::isRegularFile)
+                        .map(file -> shardDir.relativize(file).toString())
+                        .forEach(filenames::add);
+            }
+        }
+
+        for (String filename : filenames) {
+            List<Path> shardFiles = shardDirs.stream()
+                    .map(shardDir -> Paths.get(shardDir.toString(), filename))
+                    .filter(Files::exists)
+                    .collect(Collectors.toList());
+            Path outputFile = Paths.get(outputDir.toString(), filename);
+            Files.createDirectories(outputFile.getParent());
+            if (filename.endsWith(".ndjson")) {
+                concatenate(shardFiles, outputFile);
+            } else if (filename.endsWith(".json")) {
+                mergeBundles(shardFiles, outputFile);
+            } else if (filename.endsWith(".txt")) {
+                mergeLines(shardFiles, outputFile, sorter, tempDir);
+            } else if (filename.endsWith(".tsv")) {
+                concatenateTables(shardFiles, outputFile);
+            } else if (filename.endsWith(".parquet")) {
+                copyParts(shardFiles, outputDir, filename);
+            }
+        }
+    }
+
+    private static void mergeBundles(List<Path> shardFiles, Path outputFile) throws IOException {
+        BundleWriter bundleWriter = null;
+        try {
+            for (Path shardFile : shardFiles) {
+                try (JsonParser parser = JSON_FACTORY.createParser(Files.newBufferedReader(shardFile))) {
+                    if (parser.nextToken() != JsonToken.START_OBJECT) {
+                        throw new IOException(String.format("File '%s' is not a bundle.", shardFile));
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String fieldName = parser.getCurrentName();
+                        parser.nextToken();
+                        if ("type".equals(fieldName)) {
+                            if (bundleWriter == null) {
+                                bundleWriter = new BundleWriter(new ChannelWriter(outputFile, ChannelWriter.FsyncPolicy.NONE), Bundle.BundleType.fromCode(parser.getText()));
+                            }
+                        } else if ("entry".equals(fieldName)) {
+                            if (bundleWriter == null) {
+                                throw new IOException(String.format("Bundle '%s' has entries before its type.", shardFile));
+                            }
+                            addEntries(parser, bundleWriter);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+            }
+        } finally {
+            if (bundleWriter != null) {
+                bundleWriter.close();
+            }
+        }
+    }
+
+    /**
+     * Copy the resource of each entry in the array the parser is at, as is,
+     * into the bundle writer.
+     */
+    private static void addEntries(JsonParser parser, BundleWriter bundleWriter) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                parser.nextToken();
+                if ("resource".equals(fieldName)) {
+                    bundleWriter.addJson(copyValue(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy the JSON value the parser is at. Numbers are copied as written
+     * since the precision of FHIR decimals is significant.
+     */
+    private static String copyValue(JsonParser parser) throws IOException {
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(json)) {
+            int depth = 0;
+            do {
+                JsonToken token = parser.currentToken();
+                if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    generator.writeNumber(parser.getText());
+                } else {
+                    generator.copyCurrentEvent(parser);
+                }
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                }
+            } while (depth > 0 && parser.nextToken() != null);
+        }
+
+        return json.toString();
+    }
+
+    private static void concatenate(List<Path> shardFiles, Path outputFile) throws IOException {
+        try (OutputStream out = Files.newOutputStream(outputFile)) {
+            for (Path shardFile : shardFiles) {
+                Files.copy(shardFile, out);
+            }
+        }
+    }
+
+    private static void copyParts(List<Path> shardFiles, Path outputDir, String filename) throws IOException {
+        String name = filename.substring(0, filename.length() - ".parquet".length());
+        for (Path shardFile : shardFiles) {
+            String partName = String.format("%s.%s.parquet", name, shardFile.getParent().getFileName());
+            Files.copy(shardFile, Paths.get(outputDir.toString(), partName), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void concatenateTables(List<Path> shardFiles, Path outputFile) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(outputFile)) {
+            boolean isFirstFile = true;
+            for (Path shardFile : shardFiles) {
+                try (BufferedReader reader = Files.newBufferedReader(shardFile)) {
+                    String header = reader.readLine();
+                    if (isFirstFile && header != null) {
+                        writer.write(header);
+                        writer.newLine();
+                        isFirstFile = false;
+                    }
+                    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                        writer.write(line);
+                        writer.newLine();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Combine the lines of the shard files without duplicates. The lines are
+     * sorted with a bounded amount of memory, which brings the duplicates
+     * next to each other, instead of holding every distinct line in a set.
+     */
+    private static void mergeLines(List<Path> shardFiles, Path outputFile, ExternalSorter sorter, Path tempDir) throws IOException {
+        Path linesFile = Files.createTempFile(tempDir, "lines-", ".txt");
+        Path sortedFile = Files.createTempFile(tempDir, "sorted-", ".txt");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(linesFile, Charset.defaultCharset())) {
+                // the sorter keeps the first line as a header
+                writer.newLine();
+                for (Path shardFile : shardFiles) {
+                    try (BufferedReader reader = Files.newBufferedReader(shardFile, Charset.defaultCharset())) {
+                        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                            writer.write(line);
+                            writer.newLine();
+                        }
+                    }
+                }
+            }
+            sorter.sort(linesFile, sortedFile, WHOLE_LINE, 0);
+
+            try (BufferedReader reader = Files.newBufferedReader(sortedFile, Charset.defaultCharset());
+                 BufferedWriter writer = Files.newBufferedWriter(outputFile, Charset.defaultCharset())) {
+                reader.readLine(); // skip header
+                String previousLine = null;
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (!line.equals(previousLine)) {
+                        writer.write(line);
+                        writer.newLine();
+                        previousLine = line;
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(linesFile);
+            Files.deleteIfExists(sortedFile);
+        }
+    }
+
+    private static List<Path> getShardDirectories(Path inputDir) throws IOException {
+        Path[] shardDirs = null;
+        try (Stream<Path> dirs = Files.list(inputDir)) {
+            for (Path dir : dirs.filter(Files::isDirectory).collect(Collectors.toList())) {
+                Matcher matcher = SHARD_DIRECTORY.matcher(dir.getFileName().toString());
+                if (matcher.matches()) {
+                    int index = Integer.parseInt(matcher.group(1));
+                    int count = Integer.parseInt(matcher.group(2));
+                    if (shardDirs == null) {
+                        shardDirs = new Path[count];
+                    } else if (shardDirs.length != count) {
+                        throw new IOException(String.format("Directory '%s' contains shards of different runs.", inputDir));
+                    }
+                    if (index < count) {
+                        shardDirs[index] = dir;
+                    }
+                }
+            }
+        }
+
+        if (shardDirs == null) {
+            throw new IOException(String.format("Directory '%s' contains no shards.", inputDir));
+        }
+        for (int i = 0; i < shardDirs.length; i++) {
+            if (shardDirs[i] == null) {
+                throw new IOException(String.format("Shard %d of %d is missing.", i, shardDirs.length));
+            }
+        }
+
+        return Arrays.asList(shardDirs);
+    }
+
+}
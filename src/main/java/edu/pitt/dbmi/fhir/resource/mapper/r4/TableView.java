@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import edu.pitt.dbmi.fhir.resource.mapper.util.ParquetTableWriter.Column;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ParquetTableWriter.ColumnType;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.hl7.fhir.r4.model.Address;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.DateType;
+import org.hl7.fhir.r4.model.DiagnosticReport;
+import org.hl7.fhir.r4.model.Encounter;
+import org.hl7.fhir.r4.model.Enumeration;
+import org.hl7.fhir.r4.model.Extension;
+import org.hl7.fhir.r4.model.HumanName;
+import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Quantity;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.ResourceType;
+import org.hl7.fhir.r4.model.StringType;
+import org.hl7.fhir.r4.model.Type;
+
+/**
+ * Flat table of one resource type, in the style of the SQL on FHIR view
+ * definitions: each resource gives one row (or one row per repeated element)
+ * of plain columns, so that the analysts can query the resources without
+ * parsing JSON.
+ *
+ * The first column of every table, resource_number, is the position of the
+ * resource in its output, starting at 1. Since the position changes when the
+ * outputs are merged, the rows of a child table, such as the results of the
+ * diagnostic reports, are linked to their resource by its identifier
+ * instead, e.g. report_id.
+ *
+ * Oct 19, 2026 7:58:16 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class TableView {
+
+    public static final String RESOURCE_NUMBER = "resource_number";
+
+    private static final String US_CORE_RACE = "http://hl7.org/fhir/us/core/StructureDefinition/us-core-race";
+    private static final String US_CORE_ETHNICITY = "http://hl7.org/fhir/us/core/StructureDefinition/us-core-ethnicity";
+
+    public static final TableView PATIENT = new TableView("patient", Patient.class, List.of(
+            string("patient_id"),
+            string("family"),
+            string("given"),
+            code("gender"),
+            new Column("birth_date", ColumnType.DATE, false),
+            code("race"),
+            code("ethnicity"),
+            code("marital_status"),
+            string("city"),
+            code("state"),
+            code("postal_code"),
+            code("country")),
+            resource -> Collections.singletonList(getPatientRow((Patient) resource)));
+
+    public static final TableView ENCOUNTER = new TableView("encounter", Encounter.class, List.of(
+            string("encounter_id"),
+            string("patient_reference"),
+            code("status"),
+            code("class_code"),
+            code("type_system"),
+            code("type_code"),
+            code("type_display"),
+            code("reason_code"),
+            code("reason_display"),
+            timestamp("period_start"),
+            timestamp("period_end")),
+            resource -> Collections.singletonList(getEncounterRow((Encounter) resource)));
+
+    public static final TableView OBSERVATION = new TableView("observation", Observation.class, List.of(
+            string("observation_id"),
+            string("patient_reference"),
+            string("encounter_reference"),
+            code("status"),
+            code("category"),
+            code("code_system"),
+            code("code"),
+            code("code_display"),
+            new Column("value_quantity", ColumnType.DOUBLE, false),
+            code("value_unit"),
+            string("value_string"),
+            timestamp("effective"),
+            timestamp("issued")),
+            resource -> Collections.singletonList(getObservationRow((Observation) resource)));
+
+    public static final TableView DIAGNOSTIC_REPORT = new TableView("diagnostic_report", DiagnosticReport.class, List.of(
+            string("report_id"),
+            string("patient_reference"),
+            string("encounter_reference"),
+            code("status"),
+            code("category"),
+            code("code_system"),
+            code("code"),
+            code("code_display"),
+            timestamp("effective"),
+            timestamp("issued"),
+            new Column("number_of_results", ColumnType.INT64, false)),
+            resource -> Collections.singletonList(getDiagnosticReportRow((DiagnosticReport) resource)));
+
+    public static final TableView DIAGNOSTIC_REPORT_RESULT = new TableView("diagnostic_report_result", DiagnosticReport.class, List.of(
+            string("report_id"),
+            string("result_reference"),
+            string("result_display")),
+            resource -> getDiagnosticReportResultRows((DiagnosticReport) resource));
+
+    private static final Map<ResourceType, List<TableView>> VIEWS = new EnumMap<>(ResourceType.class);
+
+    static {
+        VIEWS.put(ResourceType.Patient, List.of(PATIENT));
+        VIEWS.put(ResourceType.Encounter, List.of(ENCOUNTER));
+        VIEWS.put(ResourceType.Observation, List.of(OBSERVATION));
+        VIEWS.put(ResourceType.DiagnosticReport, List.of(DIAGNOSTIC_REPORT, DIAGNOSTIC_REPORT_RESULT));
+    }
+
+    private final String name;
+    private final Class<? extends Resource> resourceClass;
+    private final List<Column> columns;
+    private final Function<Resource, List<Object[]>> rowMapper;
+
+    private TableView(String name, Class<? extends Resource> resourceClass, List<Column> columns, Function<Resource, List<Object[]>> rowMapper) {
+        this.name = name;
+        this.resourceClass = resourceClass;
+        this.columns = new ArrayList<>(columns.size() + 1);
+        this.columns.add(new Column(RESOURCE_NUMBER, ColumnType.INT64, false));
+        this.columns.addAll(columns);
+        this.rowMapper = rowMapper;
+    }
+
+    /**
+     * Get the tables of a resource type.
+     *
+     * @param resourceType
+     * @return
+     */
+    public static List<TableView> forResourceType(ResourceType resourceType) {
+        List<TableView> views = VIEWS.get(resourceType);
+        if (views == null) {
+            throw new IllegalArgumentException(String.format("No table is defined for resource type '%s'.", resourceType));
+        }
+
+        return views;
+    }
+
+    /**
+     * Get the rows of the resource, with the first value, the resource
+     * number, left null.
+     *
+     * @param resource
+     * @return
+     */
+    public List<Object[]> getRows(Resource resource) {
+        if (!resourceClass.isInstance(resource)) {
+            throw new IllegalArgumentException(String.format("Table '%s' does not hold %s resources.", name, resource.getResourceType()));
+        }
+
+        return rowMapper.apply(resource);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Column> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    private static Object[] getPatientRow(Patient patient) {
+        HumanName name = patient.getNameFirstRep();
+        Address address = patient.getAddressFirstRep();
+
+        return new Object[]{
+            null,
+            getFirstIdentifier(patient.getIdentifier()),
+            name.getFamily(),
+            name.hasGiven() ? name.getGiven().get(0).getValue() : null,
+            getCode(patient.getGenderElement()),
+            toLocalDate(patient.getBirthDateElement()),
+            getExtensionText(patient.getExtensionByUrl(US_CORE_RACE)),
+            getExtensionText(patient.getExtensionByUrl(US_CORE_ETHNICITY)),
+            patient.hasMaritalStatus() ? getFirstCoding(patient.getMaritalStatus()).getCode() : null,
+            address.getCity(),
+            address.getState(),
+            address.getPostalCode(),
+            address.getCountry()
+        };
+    }
+
+    private static Object[] getEncounterRow(Encounter encounter) {
+        Coding type = encounter.hasType() ? getFirstCoding(encounter.getTypeFirstRep()) : new Coding();
+        Coding reason = encounter.hasReasonCode() ? getFirstCoding(encounter.getReasonCodeFirstRep()) : new Coding();
+
+        return new Object[]{
+            null,
+            getFirstIdentifier(encounter.getIdentifier()),
+            getReference(encounter.getSubject()),
+            getCode(encounter.getStatusElement()),
+            encounter.hasClass_() ? encounter.getClass_().getCode() : null,
+            type.getSystem(),
+            type.getCode(),
+            type.getDisplay(),
+            reason.getCode(),
+            reason.getDisplay(),
+            encounter.getPeriod().getStart(),
+            encounter.getPeriod().getEnd()
+        };
+    }
+
+    private static Object[] getObservationRow(Observation observation) {
+        Coding code = getFirstCoding(observation.getCode());
+
+        // the mappers put the value in the first component
+        Type value = observation.hasValue()
+                ? observation.getValue()
+                : observation.hasComponent() ? observation.getComponentFirstRep().getValue() : null;
+        Quantity quantity = (value instanceof Quantity) ? (Quantity) value : null;
+
+        return new Object[]{
+            null,
+            getFirstIdentifier(observation.getIdentifier()),
+            getReference(observation.getSubject()),
+            getReference(observation.getEncounter()),
+            getCode(observation.getStatusElement()),
+            observation.hasCategory() ? getFirstCoding(observation.getCategoryFirstRep()).getCode() : null,
+            code.getSystem(),
+            code.getCode(),
+            code.getDisplay(),
+            (quantity != null && quantity.hasValue()) ? quantity.getValue().doubleValue() : null,
+            (quantity != null) ? quantity.getUnit() : null,
+            (value instanceof StringType) ? ((StringType) value).getValue() : null,
+            observation.hasEffectiveDateTimeType() ? observation.getEffectiveDateTimeType().getValue() : null,
+            observation.getIssued()
+        };
+    }
+
+    private static Object[] getDiagnosticReportRow(DiagnosticReport diagnosticReport) {
+        Coding code = getFirstCoding(diagnosticReport.getCode());
+
+        return new Object[]{
+            null,
+            getFirstIdentifier(diagnosticReport.getIdentifier()),
+            getReference(diagnosticReport.getSubject()),
+            getReference(diagnosticReport.getEncounter()),
+            getCode(diagnosticReport.getStatusElement()),
+            diagnosticReport.hasCategory() ? getFirstCoding(diagnosticReport.getCategoryFirstRep()).getCode() : null,
+            code.getSystem(),
+            code.getCode(),
+            code.getDisplay(),
+            diagnosticReport.hasEffectiveDateTimeType() ? diagnosticReport.getEffectiveDateTimeType().getValue() : null,
+            diagnosticReport.getIssued(),
+            (long) diagnosticReport.getResult().size()
+        };
+    }
+
+    private static List<Object[]> getDiagnosticReportResultRows(DiagnosticReport diagnosticReport) {
+        String reportId = getFirstIdentifier(diagnosticReport.getIdentifier());
+        List<Object[]> rows = new LinkedList<>();
+        for (Reference result : diagnosticReport.getResult()) {
+            rows.add(new Object[]{
+                null,
+                reportId,
+                result.getReference(),
+                result.getDisplay()
+            });
+        }
+
+        return rows;
+    }
+
+    private static String getFirstIdentifier(List<Identifier> identifiers) {
+        return identifiers.isEmpty() ? null : identifiers.get(0).getValue();
+    }
+
+    private static String getReference(Reference reference) {
+        return reference.hasReference() ? reference.getReference() : null;
+    }
+
+    private static Coding getFirstCoding(CodeableConcept codeableConcept) {
+        return codeableConcept.hasCoding() ? codeableConcept.getCodingFirstRep() : new Coding();
+    }
+
+    private static String getCode(Enumeration<?> enumeration) {
+        return enumeration.isEmpty() ? null : enumeration.getValueAsString();
+    }
+
+    private static String getExtensionText(Extension extension) {
+        if (extension == null) {
+            return null;
+        }
+
+        Extension text = extension.getExtensionByUrl("text");
+
+        return (text != null && text.hasValue()) ? text.getValue().primitiveValue() : null;
+    }
+
+    private static LocalDate toLocalDate(DateType date) {
+        return date.isEmpty() ? null : LocalDate.of(date.getYear(), date.getMonth() + 1, date.getDay());
+    }
+
+    private static Column string(String name) {
+        return new Column(name, ColumnType.STRING, false);
+    }
+
+    private static Column code(String name) {
+        return new Column(name, ColumnType.STRING, true);
+    }
+
+    private static Column timestamp(String name) {
+        return new Column(name, ColumnType.TIMESTAMP_MILLIS, false);
+    }
+
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4.brainai;
+
+import edu.pitt.dbmi.fhir.resource.mapper.r4.DataSource;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.ReferenceIntegrityChecker;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.ResourceMapper;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.Locations;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.hl7.fhir.r4.model.DiagnosticReport;
+import org.hl7.fhir.r4.model.Encounter;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+
+/**
+ * BrainAI data files.
+ *
+ * Oct 19, 2026 10:39:05 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class BrainAIDataSource implements DataSource {
+
+    private static final List<ResourceMapper<?>> MAPPERS = Collections.unmodifiableList(Arrays.asList(
+            new PatientMapper(),
+            new EncounterMapper(),
+            new ObservationMapper(),
+            new DiagnosticReportMapper()));
+
+    @Override
+    public String getName() {
+        return "brainai";
+    }
+
+    @Override
+    public ReferenceIntegrityChecker.KeyType getKeyType() {
+        return ReferenceIntegrityChecker.KeyType.TEXT;
+    }
+
+    @Override
+    public List<ResourceMapper<?>> getMappers() {
+        return MAPPERS;
+    }
+
+    @Override
+    public void warmUp() {
+        Locations.getStateAbbreviation("");
+    }
+
+    private static final class PatientMapper implements ResourceMapper<Patient> {
+
+        @Override
+        public Patient map(String[] fields) throws ParseException {
+            return PatientResourceMapperBinding.INSTANCE.map(fields);
+        }
+
+        @Override
+        public String getFilePrefix() {
+            return "patients";
+        }
+
+        @Override
+        public String getResourceName() {
+            return "patient";
+        }
+
+        @Override
+        public String getResourceType() {
+            return "Patient";
+        }
+
+        @Override
+        public String[] getColumns() {
+            return PatientResourceMapperBinding.INSTANCE.getColumns();
+        }
+
+        @Override
+        public String[] getOptionalColumns() {
+            return PatientResourceMapperBinding.INSTANCE.getOptionalColumns();
+        }
+
+        @Override
+        public String[] getFields(String line, Pattern delimiter) {
+            return PatientResourceMapperBinding.INSTANCE.getFields(line, delimiter);
+        }
+
+        @Override
+        public List<String> getKeyColumns() {
+            return Collections.singletonList("PERSON_ID");
+        }
+
+        @Override
+        public int getPatientColumn() {
+            return PatientResourceMapper.PERSON_ID;
+        }
+
+    }
+
+    private static final class EncounterMapper implements ResourceMapper<Encounter> {
+
+        private static final Map<String, String> REFERENCE_COLUMNS = Collections.singletonMap("PERSON_ID", "Patient");
+
+        @Override
+        public Encounter map(String[] fields) throws ParseException {
+            return EncounterResourceMapperBinding.INSTANCE.map(fields);
+        }
+
+        @Override
+        public String getFilePrefix() {
+            return "encounters";
+        }
+
+        @Override
+        public String getResourceName() {
+            return "encounter";
+        }
+
+        @Override
+        public String getResourceType() {
+            return "Encounter";
+        }
+
+        @Override
+        public String[] getColumns() {
+            return EncounterResourceMapperBinding.INSTANCE.getColumns();
+        }
+
+        @Override
+        public String[] getOptionalColumns() {
+            return EncounterResourceMapperBinding.INSTANCE.getOptionalColumns();
+        }
+
+        @Override
+        public String[] getFields(String line, Pattern delimiter) {
+            return EncounterResourceMapperBinding.INSTANCE.getFields(line, delimiter);
+        }
+
+        @Override
+        public List<String> getKeyColumns() {
+            return Collections.singletonList("ENCNTR_ID");
+        }
+
+        @Override
+        public int getPatientColumn() {
+            return EncounterResourceMapper.PERSON_ID;
+        }
+
+        @Override
+        public Map<String, String> getReferenceColumns() {
+            return REFERENCE_COLUMNS;
+        }
+
+    }
+
+    private static final class ObservationMapper implements ResourceMapper<Observation> {
+
+        private static final Map<String, String> REFERENCE_COLUMNS = new LinkedHashMap<>();
+
+        static {
+            REFERENCE_COLUMNS.put("PERSON_ID", "Patient");
+            REFERENCE_COLUMNS.put("ENCNTR_ID", "Encounter");
+        }
+
+        @Override
+        public Observation map(String[] fields) throws ParseException {
+            return ObservationResourceMapperBinding.INSTANCE.map(fields);
+        }
+
+        @Override
+        public String getFilePrefix() {
+            return "observations";
+        }
+
+        @Override
+        public String getResourceName() {
+            return "observation";
+        }
+
+        @Override
+        public String getResourceType() {
+            return "Observation";
+        }
+
+        @Override
+        public String[] getColumns() {
+            return ObservationResourceMapperBinding.INSTANCE.getColumns();
+        }
+
+        @Override
+        public String[] getOptionalColumns() {
+            return ObservationResourceMapperBinding.INSTANCE.getOptionalColumns();
+        }
+
+        @Override
+        public String[] getFields(String line, Pattern delimiter) {
+            return ObservationResourceMapperBinding.INSTANCE.getFields(line, delimiter);
+        }
+
+        @Override
+        public List<String> getKeyColumns() {
+            return Collections.singletonList("OBSERV_ID");
+        }
+
+        @Override
+        public int getPatientColumn() {
+            return ObservationResourceMapper.PATIENT;
+        }
+
+        @Override
+        public Map<String, String> getReferenceColumns() {
+            return REFERENCE_COLUMNS;
+        }
+
+    }
+
+    /**
+     * A diagnostic report combines the rows of its observations.
+     */
+    private static final class DiagnosticReportMapper implements ResourceMapper<DiagnosticReport> {
+
+        private static final Map<String, String> REFERENCE_COLUMNS = new LinkedHashMap<>();
+
+        static {
+            REFERENCE_COLUMNS.put("PERSON_ID", "Patient");
+            REFERENCE_COLUMNS.put("ENCNTR_ID", "Encounter");
+            REFERENCE_COLUMNS.put("OBSERV_ID", "Observation");
+        }
+
+        @Override
+        public DiagnosticReport map(String[] fields) {
+            throw new UnsupportedOperationException("A diagnostic report is mapped from several rows.");
+        }
+
+        @Override
+        public List<DiagnosticReport> mapFile(Path file, Pattern delimiter, Predicate<String[]> rowFilter, RowErrorHandler errorHandler) {
+            return DiagnosticReportResourceMapper.getDiagnosticReports(file, delimiter, rowFilter, errorHandler);
+        }
+
+        @Override
+        public boolean isCombiningRows() {
+            return true;
+        }
+
+        @Override
+        public String getFilePrefix() {
+            return "diagnostic_report";
+        }
+
+        @Override
+        public String getResourceName() {
+            return "diagnostic_report";
+        }
+
+        @Override
+        public String getResourceType() {
+            return "DiagnosticReport";
+        }
+
+        @Override
+        public String[] getColumns() {
+            return DiagnosticReportResourceMapper.HEADERS;
+        }
+
+        @Override
+        public String[] getOptionalColumns() {
+            return DiagnosticReportResourceMapper.OPTIONAL_HEADERS;
+        }
+
+        @Override
+        public String[] getFields(String line, Pattern delimiter) {
+            return delimiter.split(line);
+        }
+
+        @Override
+        public List<String> getKeyColumns() {
+            return Collections.singletonList("OBSERV_ID");
+        }
+
+        @Override
+        public int getPatientColumn() {
+            return DiagnosticReportResourceMapper.PATIENT;
+        }
+
+        @Override
+        public Map<String, String> getReferenceColumns() {
+            return REFERENCE_COLUMNS;
+        }
+
+    }
+
+}
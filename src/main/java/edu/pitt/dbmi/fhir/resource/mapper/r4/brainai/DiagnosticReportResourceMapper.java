@@ -19,18 +19,24 @@
 package edu.pitt.dbmi.fhir.resource.mapper.r4.brainai;
 
 import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
-import edu.pitt.dbmi.fhir.resource.mapper.util.DateFormatters;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.TerminologyRegistry;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ColumnBinding;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DateCache;
+import edu.pitt.dbmi.fhir.resource.mapper.util.PipelineMetrics;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.ParseException;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.hl7.fhir.r4.model.CodeableConcept;
@@ -38,6 +44,7 @@ import org.hl7.fhir.r4.model.Coding;
 import org.hl7.fhir.r4.model.DateTimeType;
 import org.hl7.fhir.r4.model.DiagnosticReport;
 import org.hl7.fhir.r4.model.DiagnosticReport.DiagnosticReportStatus;
+import org.hl7.fhir.r4.model.Identifier;
 import org.hl7.fhir.r4.model.Reference;
 
 /**
@@ -52,7 +59,7 @@ public class DiagnosticReportResourceMapper {
 
     private static final int ISSUE_DATE = 0;
     private static final int EFFECTIVE_DATE = 1;
-    private static final int PATIENT = 2;
+    public static final int PATIENT = 2;
     private static final int ENCOUNTER = 3;
     private static final int OBSERVATION = 4;
     private static final int OBSERVATION_DISPLAY = 5;
@@ -61,38 +68,119 @@ public class DiagnosticReportResourceMapper {
     private static final int CODING_CODE = 8;
     private static final int CODING_DISPLAY = 9;
 
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
+        "issue_dt_tm",
+        "effective_dt_tm",
+        "PERSON_ID",
+        "ENCNTR_ID",
+        "OBSERV_ID",
+        "observ_display",
+        "category_code",
+        "category_display",
+        "code_code",
+        "code_display"
+    };
+
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {};
+
     public static List<DiagnosticReport> getDiagnosticReports(final Path file, final Pattern delimiter) {
+        return getDiagnosticReports(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
+
+    /**
+     * Map only the rows accepted by the row filter. A row that cannot be
+     * mapped is passed to the error handler and skipped.
+     *
+     * @param file
+     * @param delimiter
+     * @param rowFilter test on the fields of a row
+     * @param errorHandler receives the rows that cannot be mapped
+     * @return
+     */
+    public static List<DiagnosticReport> getDiagnosticReports(final Path file, final Pattern delimiter, final Predicate<String[]> rowFilter, final RowErrorHandler errorHandler) {
         List<DiagnosticReport> diagnosticReports = new LinkedList<>();
 
         try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
-            getDiagnosticReports(reader.lines().skip(1).collect(Collectors.toList()), delimiter, diagnosticReports);
-        } catch (IOException | ParseException exception) {
+            ColumnBinding columns = ColumnBinding.bind(file, reader.readLine(), delimiter, HEADERS, OPTIONAL_HEADERS);
+            getDiagnosticReports(file, reader.lines().collect(Collectors.toList()), delimiter, columns, rowFilter, errorHandler, diagnosticReports);
+        } catch (IOException exception) {
+            PipelineMetrics.SHARED.recordError();
             exception.printStackTrace(System.err);
         }
 
         return diagnosticReports;
     }
 
-    public static void getDiagnosticReports(final List<String> lines, final Pattern delimiter, List<DiagnosticReport> diagnosticReports) throws ParseException {
+    public static void getDiagnosticReports(final List<String> lines, final Pattern delimiter, List<DiagnosticReport> diagnosticReports) {
+        getDiagnosticReports(null, lines, delimiter, fields -> true, RowErrorHandler.LOG, diagnosticReports);
+    }
+
+    /**
+     * Map the lines of a file, without the header.
+     *
+     * @param file the file the lines were read from, used to report errors
+     * @param lines
+     * @param delimiter
+     * @param rowFilter test on the fields of a row
+     * @param errorHandler receives the rows that cannot be mapped
+     * @param diagnosticReports
+     */
+    public static void getDiagnosticReports(final Path file, final List<String> lines, final Pattern delimiter, final Predicate<String[]> rowFilter, final RowErrorHandler errorHandler, List<DiagnosticReport> diagnosticReports) {
+        getDiagnosticReports(file, lines, delimiter, ColumnBinding.identity(HEADERS.length), rowFilter, errorHandler, diagnosticReports);
+    }
+
+    /**
+     * Map the lines of a file, without the header, whose columns are bound to
+     * the header.
+     *
+     * @param file the file the lines were read from, used to report errors
+     * @param lines
+     * @param delimiter
+     * @param columns binding of the columns to the header of the file
+     * @param rowFilter test on the fields of a row
+     * @param errorHandler receives the rows that cannot be mapped
+     * @param diagnosticReports
+     */
+    public static void getDiagnosticReports(final Path file, final List<String> lines, final Pattern delimiter, final ColumnBinding columns, final Predicate<String[]> rowFilter, final RowErrorHandler errorHandler, List<DiagnosticReport> diagnosticReports) {
         Map<String, List<ReferenceData>> encounterGroupOfObservations = new HashMap<>();
         Map<String, DiagnosticReport> encounterDiagnosticReports = new HashMap<>();
+        long lineNumber = 1;
+        long time = System.nanoTime();
         for (String line : lines) {
-            String[] fields = delimiter.split(line);
+            lineNumber++;
+            String[] fields = columns.bind(delimiter.split(line));
+            long tokenizeTime = System.nanoTime();
+            try {
+                if (rowFilter.test(fields)) {
+                    String key = fields[ENCOUNTER].trim();
 
-            String key = fields[ENCOUNTER].trim();
+                    // get diagnostic report
+                    if (!encounterDiagnosticReports.containsKey(key)) {
+                        encounterDiagnosticReports.put(key, getDiagnosticReport(fields));
+                    }
 
-            // get group of observations
-            List<ReferenceData> observations = encounterGroupOfObservations.get(key);
-            if (observations == null) {
-                observations = new LinkedList<>();
-                encounterGroupOfObservations.put(key, observations);
+                    // get group of observations
+                    List<ReferenceData> observations = encounterGroupOfObservations.get(key);
+                    if (observations == null) {
+                        observations = new LinkedList<>();
+                        encounterGroupOfObservations.put(key, observations);
+                    }
+                    observations.add(new ReferenceData(fields[OBSERVATION], fields[OBSERVATION_DISPLAY]));
+                }
+            } catch (ParseException | RuntimeException exception) {
+                PipelineMetrics.SHARED.recordError();
+                errorHandler.handle(file, lineNumber, line, exception);
             }
-            observations.add(new ReferenceData(fields[OBSERVATION], fields[OBSERVATION_DISPLAY]));
 
-            // get diagnostic report
-            if (!encounterDiagnosticReports.containsKey(key)) {
-                encounterDiagnosticReports.put(key, getDiagnosticReport(fields));
-            }
+            // the lines have already been read
+            time = PipelineMetrics.SHARED.recordRow(line.length() + 1, time, time, tokenizeTime);
         }
 
         // add observations to diagnostic reports
@@ -112,6 +200,7 @@ public class DiagnosticReportResourceMapper {
 
     private static DiagnosticReport getDiagnosticReport(String[] fields) throws ParseException {
         DiagnosticReport diagnosticReport = new DiagnosticReport();
+        diagnosticReport.setIdentifier(getIdentifiers(fields));
         diagnosticReport.setEffective(getEffectiveDate(fields));
         diagnosticReport.setIssued(getIssuedDate(fields));
         diagnosticReport.setSubject(getSubject(fields));
@@ -150,11 +239,11 @@ public class DiagnosticReportResourceMapper {
 //        return diagnosticReport;
 //    }
     private static DateTimeType getEffectiveDate(String[] fields) throws ParseException {
-        return new DateTimeType(DateFormatters.MM_DD_YYYY_HHMMSS_AM.parse(fields[EFFECTIVE_DATE]));
+        return new DateTimeType(DateCache.MM_DD_YYYY_HHMMSS_AM.parse(fields[EFFECTIVE_DATE]));
     }
 
     private static Date getIssuedDate(String[] fields) throws ParseException {
-        return DateFormatters.MM_DD_YYYY_HHMMSS_AM.parse(fields[ISSUE_DATE]);
+        return DateCache.MM_DD_YYYY_HHMMSS_AM.parse(fields[ISSUE_DATE]);
     }
 
     private static CodeableConcept getCategory(String[] fields) {
@@ -172,7 +261,7 @@ public class DiagnosticReportResourceMapper {
                 .setSystem(CodingSystemURIs.LOINC_URI)
                 .setDisplay(fields[CODING_DISPLAY]);
 
-        return new CodeableConcept(category);
+        return TerminologyRegistry.SHARED.apply(new CodeableConcept(category));
     }
 
 //    private static CodeableConcept getCategory() {
@@ -196,6 +285,15 @@ public class DiagnosticReportResourceMapper {
                 .setReference(fields[PATIENT]);
     }
 
+    /**
+     * Identify the report by the encounter whose observations it groups.
+     */
+    private static List<Identifier> getIdentifiers(String[] fields) {
+        return Collections.singletonList(new Identifier()
+                .setSystem("urn:oid:2.16.840.1.113883.3.552")
+                .setValue(fields[ENCOUNTER].trim()));
+    }
+
     private static class ReferenceData {
 
         private final String reference;
@@ -18,20 +18,18 @@
  */
 package edu.pitt.dbmi.fhir.resource.mapper.r4.brainai;
 
+import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;
 import edu.pitt.dbmi.fhir.resource.mapper.r4.IdentifierTypes;
 import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
 import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.EncounterTypes;
-import edu.pitt.dbmi.fhir.resource.mapper.util.DateFormatters;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.TerminologyRegistry;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DateCache;
 import edu.pitt.dbmi.fhir.resource.mapper.util.FhirUtils;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
 import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.Collections;
 import java.util.Date;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Pattern;
 import org.hl7.fhir.r4.model.CodeableConcept;
@@ -47,6 +45,7 @@ import org.hl7.fhir.r4.model.Reference;
  *
  * @author Kevin V. Bui (kvb2univpitt@gmail.com)
  */
+@MappingSpec(rowMethod = "getEncounter")
 public class EncounterResourceMapper {
 
     public static final int ENCOUNTER_ID = 0;
@@ -58,19 +57,39 @@ public class EncounterResourceMapper {
     private static final int REASONCODE = 6;
     private static final int REASONDESCRIPTION = 7;
 
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
+        "ENCNTR_ID",
+        "REG_DT_TM",
+        "DISCH_DT_TM",
+        "PERSON_ID",
+        "ENCNTR_TYPE_CD",
+        "code_value.display",
+        "snomed_code",
+        "REASON_FOR_VISIT"
+    };
+
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {};
+
     public static List<Encounter> getEncounters(final Path file, final Pattern delimiter) {
-        List<Encounter> encounters = new LinkedList<>();
-
-        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
-            reader.readLine(); // skip header
-            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
-                encounters.add(getEncounter(delimiter.split(line.trim())));
-            }
-        } catch (IOException | ParseException exception) {
-            exception.printStackTrace(System.err);
-        }
-
-        return encounters;
+        return EncounterResourceMapperBinding.INSTANCE.mapFile(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
+
+    /**
+     * Split a row into its fields.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] getFields(String line, Pattern delimiter) {
+        return delimiter.split(line.trim());
     }
 
     /**
@@ -100,7 +119,7 @@ public class EncounterResourceMapper {
                 .setDisplay(fields[REASONDESCRIPTION])
                 .setSystem(CodingSystemURIs.SNOMED_URI);
 
-        return reasonCode;
+        return TerminologyRegistry.SHARED.apply(reasonCode);
     }
 
     private static CodeableConcept getType(String[] fields) {
@@ -111,12 +130,12 @@ public class EncounterResourceMapper {
                 .setDisplay(fields[DESCRIPTION])
                 .setSystem(CodingSystemURIs.SNOMED_URI);
 
-        return type;
+        return TerminologyRegistry.SHARED.apply(type);
     }
 
     private static Period getPeriod(String[] fields) throws ParseException {
-        Date start = DateFormatters.MM_DD_YYYY_HHMMSS_AM.parse(fields[START]);
-        Date end = DateFormatters.MM_DD_YYYY_HHMMSS_AM.parse(fields[STOP]);
+        Date start = DateCache.MM_DD_YYYY_HHMMSS_AM.parse(fields[START]);
+        Date end = DateCache.MM_DD_YYYY_HHMMSS_AM.parse(fields[STOP]);
 
         return (new Period()).setStart(start).setEnd(end);
     }
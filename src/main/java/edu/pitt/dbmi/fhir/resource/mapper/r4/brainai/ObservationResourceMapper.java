@@ -18,17 +18,15 @@
  */
 package edu.pitt.dbmi.fhir.resource.mapper.r4.brainai;
 
+import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;
 import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
-import edu.pitt.dbmi.fhir.resource.mapper.util.DateFormatters;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.TerminologyRegistry;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DateCache;
 import edu.pitt.dbmi.fhir.resource.mapper.util.FhirUtils;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
 import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Pattern;
 import org.hl7.fhir.r4.model.CodeableConcept;
@@ -44,11 +42,12 @@ import org.hl7.fhir.r4.model.Reference;
  *
  * @author Kevin V. Bui (kvb2univpitt@gmail.com)
  */
+@MappingSpec(rowMethod = "getObservation")
 public class ObservationResourceMapper {
 
     private static final int OBSERVATION_ID = 0;
     private static final int DATE = 1;
-    private static final int PATIENT = 2;
+    public static final int PATIENT = 2;
     private static final int ENCOUNTER = 3;
     private static final int CODE = 4;
     private static final int DESCRIPTION = 5;
@@ -57,19 +56,41 @@ public class ObservationResourceMapper {
     private static final int TYPE = 8;
     private static final int CATEGORY = 9;
 
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
+        "OBSERV_ID",
+        "event_end_dt_tm",
+        "PERSON_ID",
+        "ENCNTR_ID",
+        "loinc_code",
+        "loinc_description",
+        "result_val",
+        "result_units_cd",
+        "Clinical Event Result Type",
+        "category.code"
+    };
+
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {};
+
     public static List<Observation> getObservations(final Path file, final Pattern delimiter) {
-        List<Observation> observations = new LinkedList<>();
-
-        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
-            reader.readLine(); // skip header
-            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
-                observations.add(getObservation(delimiter.split(line.trim())));
-            }
-        } catch (IOException | ParseException exception) {
-            exception.printStackTrace(System.err);
-        }
-
-        return observations;
+        return ObservationResourceMapperBinding.INSTANCE.mapFile(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
+
+    /**
+     * Split a row into its fields.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] getFields(String line, Pattern delimiter) {
+        return delimiter.split(line.trim());
     }
 
     /**
@@ -87,7 +108,7 @@ public class ObservationResourceMapper {
         observation.setStatus(Observation.ObservationStatus.FINAL);
         observation.setCode(getCode(fields));
         observation.addComponent(getComponent(fields));
-        observation.setEffective(new DateTimeType(DateFormatters.MM_DD_YYYY_HHMMSS_AM.parse(fields[DATE])));
+        observation.setEffective(new DateTimeType(DateCache.MM_DD_YYYY_HHMMSS_AM.parse(fields[DATE])));
         observation.addCategory(getCategory(fields));
 
         return observation;
@@ -111,7 +132,7 @@ public class ObservationResourceMapper {
     }
 
     private static CodeableConcept getCode(String[] fields) {
-        return new CodeableConcept(new Coding(CodingSystemURIs.LOINC_URI, fields[CODE], fields[DESCRIPTION]));
+        return TerminologyRegistry.SHARED.apply(new CodeableConcept(new Coding(CodingSystemURIs.LOINC_URI, fields[CODE], fields[DESCRIPTION])));
     }
 
     private static Reference getEncounter(String[] fields) {
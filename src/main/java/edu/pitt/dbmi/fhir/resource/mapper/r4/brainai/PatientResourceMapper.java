@@ -18,14 +18,12 @@
  */
 package edu.pitt.dbmi.fhir.resource.mapper.r4.brainai;
 
+import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;
 import edu.pitt.dbmi.fhir.resource.mapper.r4.IdentifierTypes;
 import edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.Locations;
-import edu.pitt.dbmi.fhir.resource.mapper.util.DateFormatters;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DateCache;
 import edu.pitt.dbmi.fhir.resource.mapper.util.FhirUtils;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
 import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.Collections;
@@ -45,6 +43,7 @@ import org.hl7.fhir.r4.model.Patient;
  * @author Kevin V. Bui (kvb2univpitt@gmail.com)
  * @see https://www.hl7.org/fhir/r4/patient.html
  */
+@MappingSpec(rowMethod = "getPatient")
 public class PatientResourceMapper {
 
     public static final int PERSON_ID = 0;
@@ -57,20 +56,42 @@ public class PatientResourceMapper {
     public static final int STATE = 7;
     public static final int ZIP = 8;
 
-    public static List<Patient> getPatients(final Path file, final Pattern delimiter) {
-        List<Patient> patients = new LinkedList<>();
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
+        "PERSON_ID",
+        "birth_dt_tm",
+        "name_first",
+        "name_last",
+        "sex",
+        "street_addr",
+        "city",
+        "state",
+        "zipcode"
+    };
 
-        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
-            reader.readLine(); // skip header
-            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
-                String[] fields = delimiter.split(line.trim());
-                patients.add(getPatient(fields));
-            }
-        } catch (IOException | ParseException exception) {
-            exception.printStackTrace(System.err);
-        }
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {
+        "street_addr"
+    };
 
-        return patients;
+    public static List<Patient> getPatients(final Path file, final Pattern delimiter) {
+        return PatientResourceMapperBinding.INSTANCE.mapFile(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
+
+    /**
+     * Split a row into its fields.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] getFields(String line, Pattern delimiter) {
+        return delimiter.split(line.trim());
     }
 
     /**
@@ -86,7 +107,7 @@ public class PatientResourceMapper {
         patient.setName(getNames(fields));
         patient.setGender(getGender(fields));
         patient.setAddress(getAddress(fields));
-        patient.setBirthDate(DateFormatters.MM_DD_YYYY.parse(fields[BIRTHDATE]));
+        patient.setBirthDate(DateCache.MM_DD_YYYY.parse(fields[BIRTHDATE]));
 
         return patient;
     }
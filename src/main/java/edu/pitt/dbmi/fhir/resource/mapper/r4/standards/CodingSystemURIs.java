@@ -44,7 +44,7 @@ public final class CodingSystemURIs {
     private CodingSystemURIs() {
     }
 
-    protected static String getSystemURI(String system) {
+    public static String getSystemURI(String system) {
         String systemName = system.toLowerCase();
         switch (systemName) {
             case "snomed-ct":
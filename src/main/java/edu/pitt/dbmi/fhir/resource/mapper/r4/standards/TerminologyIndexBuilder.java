@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4.standards;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the index of a terminology registry from tab-separated files:
+ * systems.tsv with the aliases of the code systems and their URIs, and
+ * concepts.tsv with the system, code and preferred display of each concept.
+ * Lines starting with # are comments.
+ *
+ * The index is built at packaging time, in the process-classes phase, so that
+ * the registry only has to map it at startup.
+ *
+ * Oct 19, 2026 9:26:33 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class TerminologyIndexBuilder {
+
+    private static final Pattern TAB_DELIM = Pattern.compile("\t");
+
+    private TerminologyIndexBuilder() {
+    }
+
+    /**
+     * @param args directory of systems.tsv and concepts.tsv, and the index
+     * file to write
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("TerminologyIndexBuilder <source directory> <index file>");
+            System.exit(1);
+        }
+
+        Path sourceDir = Paths.get(args[0]);
+        Path indexFile = Paths.get(args[1]);
+        int numOfConcepts = build(sourceDir.resolve("systems.tsv"), sourceDir.resolve("concepts.tsv"), indexFile);
+        System.out.printf("Terminology index '%s': %d concepts.%n", indexFile, numOfConcepts);
+    }
+
+    /**
+     * Build the index.
+     *
+     * @param systemsFile
+     * @param conceptsFile
+     * @param indexFile
+     * @return number of concepts indexed
+     * @throws IOException
+     */
+    public static int build(Path systemsFile, Path conceptsFile, Path indexFile) throws IOException {
+        List<String> uris = new ArrayList<>();
+        Map<String, Integer> uriIndexes = new LinkedHashMap<>();
+        Map<String, Integer> aliases = new LinkedHashMap<>();
+        for (String[] fields : readRows(systemsFile, 2)) {
+            aliases.put(fields[0].toLowerCase(), getUriIndex(fields[1], uris, uriIndexes));
+        }
+
+        // keep the first display of a concept listed twice
+        Map<String, String[]> concepts = new LinkedHashMap<>();
+        for (String[] fields : readRows(conceptsFile, 3)) {
+            Integer alias = aliases.get(fields[0].toLowerCase());
+            String uri = (alias == null) ? CodingSystemURIs.getSystemURI(fields[0]) : uris.get(alias);
+            int uriIndex = getUriIndex(uri, uris, uriIndexes);
+            concepts.putIfAbsent(uriIndex + "|" + fields[1], new String[]{String.valueOf(uriIndex), fields[1], fields[2]});
+        }
+
+        int numOfSlots = Integer.highestOneBit(Math.max(16, concepts.size() * 2) - 1) << 1;
+        long[] hashes = new long[numOfSlots];
+        int[] offsets = new int[numOfSlots];
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream recordStream = new DataOutputStream(records);
+        for (String[] concept : concepts.values()) {
+            int uriIndex = Integer.parseInt(concept[0]);
+            long hash = TerminologyRegistry.hash(uriIndex, concept[1]);
+            int slot = (int) hash & (numOfSlots - 1);
+            while (offsets[slot] != 0) {
+                slot = (slot + 1) & (numOfSlots - 1);
+            }
+            hashes[slot] = hash;
+            offsets[slot] = recordStream.size() + 1;
+
+            recordStream.writeShort(uriIndex);
+            writeString(recordStream, concept[1]);
+            writeString(recordStream, concept[2]);
+        }
+
+        Files.createDirectories(indexFile.toAbsolutePath().getParent());
+        try (OutputStream stream = Files.newOutputStream(indexFile);
+                DataOutputStream dataStream = new DataOutputStream(new BufferedOutputStream(stream))) {
+            dataStream.writeInt(TerminologyRegistry.MAGIC);
+            dataStream.writeInt(TerminologyRegistry.VERSION);
+            dataStream.writeInt(uris.size());
+            for (String uri : uris) {
+                writeString(dataStream, uri);
+            }
+            dataStream.writeInt(aliases.size());
+            for (Map.Entry<String, Integer> alias : aliases.entrySet()) {
+                writeString(dataStream, alias.getKey());
+                dataStream.writeShort(alias.getValue());
+            }
+            dataStream.writeInt(numOfSlots);
+            dataStream.writeInt(concepts.size());
+            for (int i = 0; i < numOfSlots; i++) {
+                dataStream.writeLong(hashes[i]);
+                dataStream.writeInt(offsets[i]);
+            }
+            records.writeTo(dataStream);
+        }
+
+        return concepts.size();
+    }
+
+    private static int getUriIndex(String uri, List<String> uris, Map<String, Integer> uriIndexes) {
+        Integer index = uriIndexes.get(uri);
+        if (index == null) {
+            index = uris.size();
+            uris.add(uri);
+            uriIndexes.put(uri, index);
+        }
+
+        return index;
+    }
+
+    private static List<String[]> readRows(Path file, int numOfColumns) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] fields = TAB_DELIM.split(line);
+            if (fields.length != numOfColumns) {
+                throw new IOException(String.format("Line '%s' of file '%s' does not have %d columns.", line, file, numOfColumns));
+            }
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = fields[i].trim();
+            }
+            rows.add(fields);
+        }
+
+        return rows;
+    }
+
+    private static void writeString(DataOutputStream stream, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException(String.format("'%s...' is too long.", value.substring(0, 64)));
+        }
+        stream.writeShort(bytes.length);
+        stream.write(bytes);
+    }
+
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4.standards;
+
+import edu.pitt.dbmi.fhir.resource.mapper.util.Hashes;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+
+/**
+ * Registry of code systems and concepts, read from a memory-mapped index
+ * built by TerminologyIndexBuilder. The registry resolves the aliases of code
+ * systems to their URIs and fills in or verifies the displays of codings.
+ *
+ * A concept is found by hashing its system and code into an open-addressing
+ * table of the index, so each lookup takes constant time and the concepts do
+ * not take any heap.
+ *
+ * Oct 19, 2026 9:31:05 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class TerminologyRegistry {
+
+    static final int MAGIC = 0x54524D49;
+    static final int VERSION = 1;
+
+    /**
+     * Classpath resource of the index built at packaging time.
+     */
+    public static final String INDEX_RESOURCE = "/terminology/terminology.idx";
+
+    /**
+     * Registry of the application.
+     */
+    public static final TerminologyRegistry SHARED = load(INDEX_RESOURCE);
+
+    private static final int SLOT_SIZE = 12;
+
+    public enum Mode {
+        /**
+         * Leave the codings as they are.
+         */
+        OFF,
+        /**
+         * Resolve the systems and fill in the missing displays.
+         */
+        FILL,
+        /**
+         * Also replace the displays that differ from the preferred display.
+         */
+        VERIFY;
+
+        public static Mode parse(String value) {
+            try {
+                return Mode.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException exception) {
+                throw new IllegalArgumentException(String.format("Unknown terminology mode '%s'.", value));
+            }
+        }
+    }
+
+    private final ByteBuffer index;
+    private final String[] uris;
+    private final Map<String, Integer> uriIndexes = new HashMap<>();
+    private final Map<String, String> aliases = new HashMap<>();
+    private final int numOfSlots;
+    private final int numOfConcepts;
+    private final int slotsStart;
+    private final int recordsStart;
+
+    private volatile Mode mode = Mode.FILL;
+
+    private final LongAdder numOfFilledDisplays = new LongAdder();
+    private final LongAdder numOfMismatchedDisplays = new LongAdder();
+    private final LongAdder numOfUnknownCodes = new LongAdder();
+
+    /**
+     * @param index contents of an index file
+     * @throws IOException if the index is not valid
+     */
+    public TerminologyRegistry(ByteBuffer index) throws IOException {
+        this.index = index;
+
+        if (index.getInt(0) != MAGIC || index.getInt(4) != VERSION) {
+            throw new IOException("Not a terminology index of version " + VERSION + ".");
+        }
+
+        ByteBuffer header = index.duplicate();
+        header.position(8);
+        uris = new String[header.getInt()];
+        for (int i = 0; i < uris.length; i++) {
+            uris[i] = readString(header);
+            uriIndexes.put(uris[i], i);
+        }
+        int numOfAliases = header.getInt();
+        for (int i = 0; i < numOfAliases; i++) {
+            String alias = readString(header);
+            aliases.put(alias, uris[header.getShort() & 0xFFFF]);
+        }
+        numOfSlots = header.getInt();
+        numOfConcepts = header.getInt();
+        slotsStart = header.position();
+        recordsStart = slotsStart + (numOfSlots * SLOT_SIZE);
+    }
+
+    /**
+     * Map an index file.
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static TerminologyRegistry open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            return new TerminologyRegistry(buffer);
+        }
+    }
+
+    /**
+     * Load the index of a classpath resource. An index inside a JAR file is
+     * copied to a temporary file first. A missing index gives a registry
+     * without concepts.
+     *
+     * @param resource
+     * @return
+     */
+    public static TerminologyRegistry load(String resource) {
+        try {
+            URL url = TerminologyRegistry.class.getResource(resource);
+            if (url == null) {
+                return empty();
+            }
+            if ("file".equals(url.getProtocol())) {
+                return open(Paths.get(url.toURI()));
+            }
+
+            Path file = Files.createTempFile("terminology", ".idx");
+            file.toFile().deleteOnExit();
+            try (InputStream stream = url.openStream()) {
+                Files.copy(stream, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            return open(file);
+        } catch (IOException | URISyntaxException exception) {
+            exception.printStackTrace(System.err);
+
+            return empty();
+        }
+    }
+
+    private static TerminologyRegistry empty() {
+        ByteBuffer buffer = ByteBuffer.allocate(24);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(0).putInt(0).putInt(0).putInt(0);
+        try {
+            return new TerminologyRegistry(buffer);
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Get the URI of a code system.
+     *
+     * @param system alias or URI of the system
+     * @return the URI, or the system itself if it is not a known alias
+     */
+    public String resolveSystem(String system) {
+        if (system == null) {
+            return null;
+        }
+
+        String uri = aliases.get(system.toLowerCase());
+
+        return (uri == null) ? CodingSystemURIs.getSystemURI(system) : uri;
+    }
+
+    /**
+     * Get the preferred display of a concept.
+     *
+     * @param system URI of the system
+     * @param code
+     * @return the display, or null if the concept is not in the registry
+     */
+    public String getDisplay(String system, String code) {
+        Integer uriIndex = (system == null || code == null) ? null : uriIndexes.get(system);
+        if (uriIndex == null || numOfSlots == 0) {
+            return null;
+        }
+
+        long hash = hash(uriIndex, code);
+        int mask = numOfSlots - 1;
+        for (int slot = (int) hash & mask;; slot = (slot + 1) & mask) {
+            int position = slotsStart + (slot * SLOT_SIZE);
+            int offset = index.getInt(position + 8);
+            if (offset == 0) {
+                return null;
+            }
+
+            int record = recordsStart + offset - 1;
+            if (index.getLong(position) == hash
+                    && (index.getShort(record) & 0xFFFF) == uriIndex
+                    && matches(record + 2, code)) {
+                int displayPosition = record + 4 + (index.getShort(record + 2) & 0xFFFF);
+
+                return getString(displayPosition);
+            }
+        }
+    }
+
+    /**
+     * Resolve the system of a coding and fill in or verify its display,
+     * depending on the mode.
+     *
+     * @param coding
+     * @return the coding
+     */
+    public Coding apply(Coding coding) {
+        if (mode == Mode.OFF) {
+            return coding;
+        }
+
+        String system = resolveSystem(coding.getSystem());
+        if (system != null && !system.equals(coding.getSystem())) {
+            coding.setSystem(system);
+        }
+
+        String display = getDisplay(system, coding.getCode());
+        if (display == null) {
+            numOfUnknownCodes.increment();
+        } else if (!coding.hasDisplay() || coding.getDisplay().isBlank()) {
+            coding.setDisplay(display);
+            numOfFilledDisplays.increment();
+        } else if (!display.equalsIgnoreCase(coding.getDisplay().trim())) {
+            numOfMismatchedDisplays.increment();
+            if (mode == Mode.VERIFY) {
+                coding.setDisplay(display);
+            }
+        }
+
+        return coding;
+    }
+
+    /**
+     * Apply the registry to each coding of the concept.
+     *
+     * @param concept
+     * @return the concept
+     */
+    public CodeableConcept apply(CodeableConcept concept) {
+        if (mode != Mode.OFF) {
+            concept.getCoding().forEach(this::apply);
+        }
+
+        return concept;
+    }
+
+    public int getNumOfConcepts() {
+        return numOfConcepts;
+    }
+
+    public long getNumOfFilledDisplays() {
+        return numOfFilledDisplays.sum();
+    }
+
+    /**
+     * Number of displays that differ from the preferred display. They are
+     * replaced in VERIFY mode only.
+     *
+     * @return
+     */
+    public long getNumOfMismatchedDisplays() {
+        return numOfMismatchedDisplays.sum();
+    }
+
+    public long getNumOfUnknownCodes() {
+        return numOfUnknownCodes.sum();
+    }
+
+    /**
+     * Hash of a concept, which is persisted in the index.
+     *
+     * @param uriIndex
+     * @param code
+     * @return
+     */
+    static long hash(int uriIndex, String code) {
+        return Hashes.hash64(code, 0, code.length(), Hashes.mix64(uriIndex + 1));
+    }
+
+    /**
+     * Compare the length-prefixed UTF-8 string at the position with the
+     * value, without decoding ASCII strings.
+     */
+    private boolean matches(int position, String value) {
+        int length = index.getShort(position) & 0xFFFF;
+        if (length != value.length()) {
+            return length >= value.length() && value.equals(getString(position));
+        }
+        for (int i = 0; i < length; i++) {
+            if (index.get(position + 2 + i) != value.charAt(i)) {
+                return value.equals(getString(position));
+            }
+        }
+
+        return true;
+    }
+
+    private String getString(int position) {
+        byte[] bytes = new byte[index.getShort(position) & 0xFFFF];
+        index.get(position + 2, bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
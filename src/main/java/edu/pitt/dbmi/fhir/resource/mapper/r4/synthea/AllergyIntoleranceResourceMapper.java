@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4.synthea;
+
+import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.TerminologyRegistry;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DateCache;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import edu.pitt.dbmi.fhir.resource.mapper.util.UuidInterner;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.hl7.fhir.r4.model.AllergyIntolerance;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.Meta;
+import org.hl7.fhir.r4.model.Reference;
+
+/**
+ * A utility for mapping Synthea allergy data to FHIR allergy intolerance
+ * resource. The system, type, category and first reaction columns of newer
+ * Synthea versions are read when present.
+ *
+ * Oct 19, 2026 10:59:03 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ * @see https://www.hl7.org/fhir/r4/allergyintolerance.html
+ */
+@MappingSpec(rowMethod = "getAllergyIntolerance")
+public class AllergyIntoleranceResourceMapper {
+
+    private static final Meta US_CORE_ALLERGY_INTOLERANCE_PROFILE = new Meta();
+
+    static {
+        US_CORE_ALLERGY_INTOLERANCE_PROFILE.addProfile("http://hl7.org/fhir/us/core/StructureDefinition/us-core-allergyintolerance");
+    }
+
+    private static final int START = 0;
+    private static final int STOP = 1;
+    public static final int PATIENT = 2;
+    private static final int ENCOUNTER = 3;
+    private static final int CODE = 4;
+    private static final int SYSTEM = 5;
+    private static final int DESCRIPTION = 6;
+    private static final int TYPE = 7;
+    private static final int CATEGORY = 8;
+    private static final int REACTION1 = 9;
+    private static final int DESCRIPTION1 = 10;
+    private static final int SEVERITY1 = 11;
+
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
+        "START",
+        "STOP",
+        "PATIENT",
+        "ENCOUNTER",
+        "CODE",
+        "SYSTEM",
+        "DESCRIPTION",
+        "TYPE",
+        "CATEGORY",
+        "REACTION1",
+        "DESCRIPTION1",
+        "SEVERITY1"
+    };
+
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {
+        "STOP",
+        "SYSTEM",
+        "TYPE",
+        "CATEGORY",
+        "REACTION1",
+        "DESCRIPTION1",
+        "SEVERITY1"
+    };
+
+    private static final CodeableConcept CONFIRMED = new CodeableConcept(new Coding(
+            "http://terminology.hl7.org/CodeSystem/allergyintolerance-verification", "confirmed", "Confirmed"));
+
+    private static final CodeableConcept ACTIVE = new CodeableConcept(new Coding(
+            "http://terminology.hl7.org/CodeSystem/allergyintolerance-clinical", "active", "Active"));
+
+    private static final CodeableConcept INACTIVE = new CodeableConcept(new Coding(
+            "http://terminology.hl7.org/CodeSystem/allergyintolerance-clinical", "inactive", "Inactive"));
+
+    public static List<AllergyIntolerance> getAllergyIntolerancesFromFile(final Path file, final Pattern delimiter) {
+        return AllergyIntoleranceResourceMapperBinding.INSTANCE.mapFile(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
+
+    /**
+     * Split a row into its fields. The trailing ",end" keeps the trailing
+     * empty fields.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] getFields(String line, Pattern delimiter) {
+        return delimiter.split(line.trim() + ",end");
+    }
+
+    /**
+     *
+     * @param fields
+     * @return
+     * @throws ParseException
+     * @see https://www.hl7.org/fhir/r4/allergyintolerance.html
+     */
+    public static AllergyIntolerance getAllergyIntolerance(String[] fields) throws ParseException {
+        AllergyIntolerance allergyIntolerance = new AllergyIntolerance();
+        allergyIntolerance.setMeta(US_CORE_ALLERGY_INTOLERANCE_PROFILE);
+        allergyIntolerance.setClinicalStatus(fields[STOP].isEmpty() ? ACTIVE : INACTIVE);
+        allergyIntolerance.setVerificationStatus(CONFIRMED);
+        if (!fields[TYPE].isEmpty()) {
+            allergyIntolerance.setType(AllergyIntolerance.AllergyIntoleranceType.fromCode(fields[TYPE]));
+        }
+        if (!fields[CATEGORY].isEmpty()) {
+            allergyIntolerance.addCategory(AllergyIntolerance.AllergyIntoleranceCategory.fromCode(fields[CATEGORY]));
+        }
+        allergyIntolerance.setCode(getCode(fields));
+        allergyIntolerance.setPatient(getReference(fields[PATIENT]));
+        allergyIntolerance.setEncounter(getReference(fields[ENCOUNTER]));
+        allergyIntolerance.setRecordedDate(DateCache.YYYY_MM_DD.parse(fields[START]));
+        if (!fields[STOP].isEmpty()) {
+            allergyIntolerance.setLastOccurrence(DateCache.YYYY_MM_DD.parse(fields[STOP]));
+        }
+        if (!fields[REACTION1].isEmpty()) {
+            allergyIntolerance.addReaction(getReaction(fields));
+        }
+
+        return allergyIntolerance;
+    }
+
+    private static CodeableConcept getCode(String[] fields) {
+        String system = fields[SYSTEM].isEmpty()
+                ? CodingSystemURIs.SNOMED_URI
+                : CodingSystemURIs.getSystemURI(fields[SYSTEM]);
+
+        return TerminologyRegistry.SHARED.apply(new CodeableConcept(new Coding(system, fields[CODE], fields[DESCRIPTION])));
+    }
+
+    private static AllergyIntolerance.AllergyIntoleranceReactionComponent getReaction(String[] fields) {
+        AllergyIntolerance.AllergyIntoleranceReactionComponent reaction = new AllergyIntolerance.AllergyIntoleranceReactionComponent();
+        reaction.addManifestation(TerminologyRegistry.SHARED.apply(new CodeableConcept(new Coding(CodingSystemURIs.SNOMED_URI, fields[REACTION1], fields[DESCRIPTION1]))));
+        if (!fields[SEVERITY1].isEmpty()) {
+            reaction.setSeverity(AllergyIntolerance.AllergyIntoleranceSeverity.fromCode(fields[SEVERITY1].toLowerCase()));
+        }
+
+        return reaction;
+    }
+
+    private static Reference getReference(String id) {
+        return (new Reference())
+                .setReference(UuidInterner.SHARED.toUrn(id));
+    }
+
+}
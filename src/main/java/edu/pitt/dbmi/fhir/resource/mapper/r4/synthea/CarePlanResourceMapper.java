@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4.synthea;
+
+import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.TerminologyRegistry;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DateCache;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import edu.pitt.dbmi.fhir.resource.mapper.util.UuidInterner;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.hl7.fhir.r4.model.CarePlan;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.Meta;
+import org.hl7.fhir.r4.model.Period;
+import org.hl7.fhir.r4.model.Reference;
+
+/**
+ * A utility for mapping Synthea care plan data to FHIR care plan resource.
+ *
+ * Oct 19, 2026 11:01:38 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ * @see https://www.hl7.org/fhir/r4/careplan.html
+ */
+@MappingSpec(rowMethod = "getCarePlan")
+public class CarePlanResourceMapper {
+
+    private static final Meta US_CORE_CARE_PLAN_PROFILE = new Meta();
+
+    static {
+        US_CORE_CARE_PLAN_PROFILE.addProfile("http://hl7.org/fhir/us/core/StructureDefinition/us-core-careplan");
+    }
+
+    public static final int ID = 0;
+    private static final int START = 1;
+    private static final int STOP = 2;
+    public static final int PATIENT = 3;
+    private static final int ENCOUNTER = 4;
+    private static final int CODE = 5;
+    private static final int DESCRIPTION = 6;
+    private static final int REASONCODE = 7;
+    private static final int REASONDESCRIPTION = 8;
+
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
+        "Id",
+        "START",
+        "STOP",
+        "PATIENT",
+        "ENCOUNTER",
+        "CODE",
+        "DESCRIPTION",
+        "REASONCODE",
+        "REASONDESCRIPTION"
+    };
+
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {
+        "STOP",
+        "REASONCODE",
+        "REASONDESCRIPTION"
+    };
+
+    private static final CodeableConcept ASSESS_PLAN = new CodeableConcept(new Coding(
+            "http://hl7.org/fhir/us/core/CodeSystem/careplan-category", "assess-plan", null));
+
+    public static List<CarePlan> getCarePlansFromFile(final Path file, final Pattern delimiter) {
+        return CarePlanResourceMapperBinding.INSTANCE.mapFile(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
+
+    /**
+     * Split a row into its fields. The trailing ",end" keeps the trailing
+     * empty fields.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] getFields(String line, Pattern delimiter) {
+        return delimiter.split(line.trim() + ",end");
+    }
+
+    /**
+     * The Synthea care plan code is the category of the care plan, and the
+     * reason is recorded on its activity.
+     *
+     * @param fields
+     * @return
+     * @throws ParseException
+     * @see https://www.hl7.org/fhir/r4/careplan.html
+     */
+    public static CarePlan getCarePlan(String[] fields) throws ParseException {
+        CarePlan.CarePlanStatus status = fields[STOP].isEmpty()
+                ? CarePlan.CarePlanStatus.ACTIVE
+                : CarePlan.CarePlanStatus.COMPLETED;
+
+        CarePlan carePlan = new CarePlan();
+        carePlan.setMeta(US_CORE_CARE_PLAN_PROFILE);
+        carePlan.addIdentifier(getIdentifier(fields));
+        carePlan.setStatus(status);
+        carePlan.setIntent(CarePlan.CarePlanIntent.ORDER);
+        carePlan.addCategory(ASSESS_PLAN);
+        carePlan.addCategory(getCode(fields[CODE], fields[DESCRIPTION]));
+        carePlan.setSubject(getReference(fields[PATIENT]));
+        carePlan.setEncounter(getReference(fields[ENCOUNTER]));
+        carePlan.setPeriod(getPeriod(fields));
+        if (!fields[REASONCODE].isEmpty()) {
+            CarePlan.CarePlanActivityDetailComponent detail = carePlan.addActivity().getDetail();
+            detail.setStatus(fields[STOP].isEmpty()
+                    ? CarePlan.CarePlanActivityStatus.INPROGRESS
+                    : CarePlan.CarePlanActivityStatus.COMPLETED);
+            detail.addReasonCode(getCode(fields[REASONCODE], fields[REASONDESCRIPTION]));
+        }
+
+        return carePlan;
+    }
+
+    private static Identifier getIdentifier(String[] fields) {
+        return (new Identifier())
+                .setSystem(CodingSystemURIs.SYNTHEA_IDENTIFIER)
+                .setValue(fields[ID]);
+    }
+
+    private static CodeableConcept getCode(String code, String display) {
+        return TerminologyRegistry.SHARED.apply(new CodeableConcept(new Coding(CodingSystemURIs.SNOMED_URI, code, display)));
+    }
+
+    private static Period getPeriod(String[] fields) throws ParseException {
+        Period period = (new Period()).setStart(DateCache.YYYY_MM_DD.parse(fields[START]));
+        if (!fields[STOP].isEmpty()) {
+            period.setEnd(DateCache.YYYY_MM_DD.parse(fields[STOP]));
+        }
+
+        return period;
+    }
+
+    private static Reference getReference(String id) {
+        return (new Reference())
+                .setReference(UuidInterner.SHARED.toUrn(id));
+    }
+
+}
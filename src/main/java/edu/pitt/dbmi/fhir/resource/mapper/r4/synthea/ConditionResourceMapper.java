@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4.synthea;
+
+import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.TerminologyRegistry;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DateCache;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import edu.pitt.dbmi.fhir.resource.mapper.util.UuidInterner;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.Condition;
+import org.hl7.fhir.r4.model.DateTimeType;
+import org.hl7.fhir.r4.model.Meta;
+import org.hl7.fhir.r4.model.Reference;
+
+/**
+ * A utility for mapping Synthea condition data to FHIR condition resource.
+ *
+ * Oct 19, 2026 10:51:06 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ * @see https://www.hl7.org/fhir/r4/condition.html
+ */
+@MappingSpec(rowMethod = "getCondition")
+public class ConditionResourceMapper {
+
+    private static final Meta US_CORE_CONDITION_PROFILE = new Meta();
+
+    static {
+        US_CORE_CONDITION_PROFILE.addProfile("http://hl7.org/fhir/us/core/StructureDefinition/us-core-condition");
+    }
+
+    private static final int START = 0;
+    private static final int STOP = 1;
+    public static final int PATIENT = 2;
+    private static final int ENCOUNTER = 3;
+    private static final int CODE = 4;
+    private static final int DESCRIPTION = 5;
+
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
+        "START",
+        "STOP",
+        "PATIENT",
+        "ENCOUNTER",
+        "CODE",
+        "DESCRIPTION"
+    };
+
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {
+        "STOP"
+    };
+
+    private static final CodeableConcept ENCOUNTER_DIAGNOSIS = new CodeableConcept(new Coding(
+            "http://terminology.hl7.org/CodeSystem/condition-category", "encounter-diagnosis", "Encounter Diagnosis"));
+
+    private static final CodeableConcept CONFIRMED = new CodeableConcept(new Coding(
+            "http://terminology.hl7.org/CodeSystem/condition-ver-status", "confirmed", "Confirmed"));
+
+    private static final CodeableConcept ACTIVE = new CodeableConcept(new Coding(
+            "http://terminology.hl7.org/CodeSystem/condition-clinical", "active", "Active"));
+
+    private static final CodeableConcept RESOLVED = new CodeableConcept(new Coding(
+            "http://terminology.hl7.org/CodeSystem/condition-clinical", "resolved", "Resolved"));
+
+    public static List<Condition> getConditionsFromFile(final Path file, final Pattern delimiter) {
+        return ConditionResourceMapperBinding.INSTANCE.mapFile(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
+
+    /**
+     * Split a row into its fields. The trailing ",end" keeps the trailing
+     * empty fields.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] getFields(String line, Pattern delimiter) {
+        return delimiter.split(line.trim() + ",end");
+    }
+
+    /**
+     *
+     * @param fields
+     * @return
+     * @throws ParseException
+     * @see https://www.hl7.org/fhir/r4/condition.html
+     */
+    public static Condition getCondition(String[] fields) throws ParseException {
+        Condition condition = new Condition();
+        condition.setMeta(US_CORE_CONDITION_PROFILE);
+        condition.setClinicalStatus(fields[STOP].isEmpty() ? ACTIVE : RESOLVED);
+        condition.setVerificationStatus(CONFIRMED);
+        condition.addCategory(ENCOUNTER_DIAGNOSIS);
+        condition.setCode(getCode(fields));
+        condition.setSubject(getReference(fields[PATIENT]));
+        condition.setEncounter(getReference(fields[ENCOUNTER]));
+        condition.setOnset(new DateTimeType(DateCache.YYYY_MM_DD.parse(fields[START])));
+        if (!fields[STOP].isEmpty()) {
+            condition.setAbatement(new DateTimeType(DateCache.YYYY_MM_DD.parse(fields[STOP])));
+        }
+
+        return condition;
+    }
+
+    private static CodeableConcept getCode(String[] fields) {
+        return TerminologyRegistry.SHARED.apply(new CodeableConcept(new Coding(CodingSystemURIs.SNOMED_URI, fields[CODE], fields[DESCRIPTION])));
+    }
+
+    private static Reference getReference(String id) {
+        return (new Reference())
+                .setReference(UuidInterner.SHARED.toUrn(id));
+    }
+
+}
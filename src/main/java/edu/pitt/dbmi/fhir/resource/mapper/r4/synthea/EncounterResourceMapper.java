@@ -18,18 +18,16 @@
  */
 package edu.pitt.dbmi.fhir.resource.mapper.r4.synthea;
 
+import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;
 import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
 import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.EncounterTypes;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.TerminologyRegistry;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DateCache;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import edu.pitt.dbmi.fhir.resource.mapper.util.UuidInterner;
 import java.nio.file.Path;
 import java.text.ParseException;
-import java.time.Instant;
-import java.time.format.DateTimeFormatter;
 import java.util.Date;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Pattern;
 import org.hl7.fhir.r4.model.CodeableConcept;
@@ -47,6 +45,7 @@ import org.hl7.fhir.r4.model.Reference;
  * @author Kevin V. Bui (kvb2univpitt@gmail.com)
  * @see https://www.hl7.org/fhir/encounter.html
  */
+@MappingSpec(rowMethod = "getEncounter")
 public class EncounterResourceMapper {
 
     private static final Meta US_CORE_ENCOUNTER_PROFILE = new Meta();
@@ -55,10 +54,10 @@ public class EncounterResourceMapper {
         US_CORE_ENCOUNTER_PROFILE.addProfile("http://hl7.org/fhir/us/core/StructureDefinition/us-core-encounter");
     }
 
-    private static final int ID = 0;
+    public static final int ID = 0;
     private static final int START = 1;
     private static final int STOP = 2;
-    private static final int PATIENT = 3;
+    public static final int PATIENT = 3;
     private static final int ORGANIZATION = 4;
     private static final int PROVIDER = 5;
     private static final int PAYER = 6;
@@ -71,7 +70,11 @@ public class EncounterResourceMapper {
     private static final int REASONCODE = 13;
     private static final int REASONDESCRIPTION = 14;
 
-    private static final String[] HEADERS = {
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
         "Id",
         "START",
         "STOP",
@@ -89,19 +92,32 @@ public class EncounterResourceMapper {
         "REASONDESCRIPTION"
     };
 
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {
+        "ORGANIZATION",
+        "PROVIDER",
+        "PAYER",
+        "BASE_ENCOUNTER_COST",
+        "TOTAL_CLAIM_COST",
+        "PAYER_COVERAGE"
+    };
+
     public static List<Encounter> getEncountersFromFile(final Path file, final Pattern delimiter) {
-        List<Encounter> encounters = new LinkedList<>();
-
-        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
-            reader.readLine(); // skip header
-            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
-                encounters.add(getEncounter(delimiter.split(line.trim() + ",end")));
-            }
-        } catch (IOException | ParseException exception) {
-            exception.printStackTrace(System.err);
-        }
+        return EncounterResourceMapperBinding.INSTANCE.mapFile(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
 
-        return encounters;
+    /**
+     * Split a row into its fields. The trailing ",end" keeps the trailing
+     * empty fields.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] getFields(String line, Pattern delimiter) {
+        return delimiter.split(line.trim() + ",end");
     }
 
     /**
@@ -111,7 +127,7 @@ public class EncounterResourceMapper {
      * @throws ParseException
      * @see https://www.hl7.org/fhir/r4/encounter.html
      */
-    private static Encounter getEncounter(String[] fields) throws ParseException {
+    public static Encounter getEncounter(String[] fields) throws ParseException {
         Encounter encounter = new Encounter();
         encounter.setMeta(US_CORE_ENCOUNTER_PROFILE);
         encounter.setStatus(Encounter.EncounterStatus.FINISHED);
@@ -141,7 +157,7 @@ public class EncounterResourceMapper {
                     .setSystem(CodingSystemURIs.SNOMED_URI);
         }
 
-        return type;
+        return TerminologyRegistry.SHARED.apply(type);
     }
 
     private static CodeableConcept getReasonCode(String[] fields) {
@@ -151,12 +167,12 @@ public class EncounterResourceMapper {
                 .setDisplay(fields[REASONDESCRIPTION])
                 .setSystem(CodingSystemURIs.SNOMED_URI);
 
-        return reasonCode;
+        return TerminologyRegistry.SHARED.apply(reasonCode);
     }
 
-    private static Period getPeriod(String[] fields) {
-        Date start = new Date(Instant.from(DateTimeFormatter.ISO_INSTANT.parse(fields[START])).toEpochMilli());
-        Date end = new Date(Instant.from(DateTimeFormatter.ISO_INSTANT.parse(fields[STOP])).toEpochMilli());
+    private static Period getPeriod(String[] fields) throws ParseException {
+        Date start = DateCache.ISO_INSTANT.parse(fields[START]);
+        Date end = DateCache.ISO_INSTANT.parse(fields[STOP]);
 
         return (new Period()).setStart(start).setEnd(end);
     }
@@ -171,7 +187,7 @@ public class EncounterResourceMapper {
 
     private static Reference getSubject(String[] fields) {
         return (new Reference())
-                .setReference(String.format("urn:uuid:%s", fields[PATIENT]));
+                .setReference(UuidInterner.SHARED.toUrn(fields[PATIENT]));
     }
 
 }
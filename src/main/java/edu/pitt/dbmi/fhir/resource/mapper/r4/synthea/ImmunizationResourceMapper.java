@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4.synthea;
+
+import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.TerminologyRegistry;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DateCache;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import edu.pitt.dbmi.fhir.resource.mapper.util.UuidInterner;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.DateTimeType;
+import org.hl7.fhir.r4.model.Immunization;
+import org.hl7.fhir.r4.model.Meta;
+import org.hl7.fhir.r4.model.Reference;
+
+/**
+ * A utility for mapping Synthea immunization data to FHIR immunization
+ * resource.
+ *
+ * Oct 19, 2026 10:57:12 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ * @see https://www.hl7.org/fhir/r4/immunization.html
+ */
+@MappingSpec(rowMethod = "getImmunization")
+public class ImmunizationResourceMapper {
+
+    private static final Meta US_CORE_IMMUNIZATION_PROFILE = new Meta();
+
+    static {
+        US_CORE_IMMUNIZATION_PROFILE.addProfile("http://hl7.org/fhir/us/core/StructureDefinition/us-core-immunization");
+    }
+
+    private static final int DATE = 0;
+    public static final int PATIENT = 1;
+    private static final int ENCOUNTER = 2;
+    private static final int CODE = 3;
+    private static final int DESCRIPTION = 4;
+    private static final int BASE_COST = 5;
+
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
+        "DATE",
+        "PATIENT",
+        "ENCOUNTER",
+        "CODE",
+        "DESCRIPTION",
+        "BASE_COST"
+    };
+
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {
+        "BASE_COST"
+    };
+
+    public static List<Immunization> getImmunizationsFromFile(final Path file, final Pattern delimiter) {
+        return ImmunizationResourceMapperBinding.INSTANCE.mapFile(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
+
+    /**
+     * Split a row into its fields. The trailing ",end" keeps the trailing
+     * empty fields.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] getFields(String line, Pattern delimiter) {
+        return delimiter.split(line.trim() + ",end");
+    }
+
+    /**
+     *
+     * @param fields
+     * @return
+     * @throws ParseException
+     * @see https://www.hl7.org/fhir/r4/immunization.html
+     */
+    public static Immunization getImmunization(String[] fields) throws ParseException {
+        Immunization immunization = new Immunization();
+        immunization.setMeta(US_CORE_IMMUNIZATION_PROFILE);
+        immunization.setStatus(Immunization.ImmunizationStatus.COMPLETED);
+        immunization.setVaccineCode(getVaccineCode(fields));
+        immunization.setPatient(getReference(fields[PATIENT]));
+        immunization.setEncounter(getReference(fields[ENCOUNTER]));
+        immunization.setOccurrence(new DateTimeType(DateCache.ISO_INSTANT.parse(fields[DATE])));
+        immunization.setPrimarySource(true);
+
+        return immunization;
+    }
+
+    private static CodeableConcept getVaccineCode(String[] fields) {
+        return TerminologyRegistry.SHARED.apply(new CodeableConcept(new Coding(CodingSystemURIs.CVX_URI, fields[CODE], fields[DESCRIPTION])));
+    }
+
+    private static Reference getReference(String id) {
+        return (new Reference())
+                .setReference(UuidInterner.SHARED.toUrn(id));
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4.synthea;
+
+import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.TerminologyRegistry;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DateCache;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import edu.pitt.dbmi.fhir.resource.mapper.util.UuidInterner;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.MedicationRequest;
+import org.hl7.fhir.r4.model.Meta;
+import org.hl7.fhir.r4.model.Period;
+import org.hl7.fhir.r4.model.Reference;
+
+/**
+ * A utility for mapping Synthea medication data to FHIR medication request
+ * resource.
+ *
+ * Oct 19, 2026 10:53:41 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ * @see https://www.hl7.org/fhir/r4/medicationrequest.html
+ */
+@MappingSpec(rowMethod = "getMedicationRequest")
+public class MedicationRequestResourceMapper {
+
+    private static final Meta US_CORE_MEDICATION_REQUEST_PROFILE = new Meta();
+
+    static {
+        US_CORE_MEDICATION_REQUEST_PROFILE.addProfile("http://hl7.org/fhir/us/core/StructureDefinition/us-core-medicationrequest");
+    }
+
+    private static final int START = 0;
+    private static final int STOP = 1;
+    public static final int PATIENT = 2;
+    private static final int PAYER = 3;
+    private static final int ENCOUNTER = 4;
+    private static final int CODE = 5;
+    private static final int DESCRIPTION = 6;
+    private static final int BASE_COST = 7;
+    private static final int PAYER_COVERAGE = 8;
+    private static final int DISPENSES = 9;
+    private static final int TOTALCOST = 10;
+    private static final int REASONCODE = 11;
+    private static final int REASONDESCRIPTION = 12;
+
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
+        "START",
+        "STOP",
+        "PATIENT",
+        "PAYER",
+        "ENCOUNTER",
+        "CODE",
+        "DESCRIPTION",
+        "BASE_COST",
+        "PAYER_COVERAGE",
+        "DISPENSES",
+        "TOTALCOST",
+        "REASONCODE",
+        "REASONDESCRIPTION"
+    };
+
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {
+        "STOP",
+        "PAYER",
+        "BASE_COST",
+        "PAYER_COVERAGE",
+        "DISPENSES",
+        "TOTALCOST",
+        "REASONCODE",
+        "REASONDESCRIPTION"
+    };
+
+    public static List<MedicationRequest> getMedicationRequestsFromFile(final Path file, final Pattern delimiter) {
+        return MedicationRequestResourceMapperBinding.INSTANCE.mapFile(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
+
+    /**
+     * Split a row into its fields. The trailing ",end" keeps the trailing
+     * empty fields.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] getFields(String line, Pattern delimiter) {
+        return delimiter.split(line.trim() + ",end");
+    }
+
+    /**
+     * A medication without a stop date is still taken.
+     *
+     * @param fields
+     * @return
+     * @throws ParseException
+     * @see https://www.hl7.org/fhir/r4/medicationrequest.html
+     */
+    public static MedicationRequest getMedicationRequest(String[] fields) throws ParseException {
+        MedicationRequest medicationRequest = new MedicationRequest();
+        medicationRequest.setMeta(US_CORE_MEDICATION_REQUEST_PROFILE);
+        medicationRequest.setStatus(fields[STOP].isEmpty()
+                ? MedicationRequest.MedicationRequestStatus.ACTIVE
+                : MedicationRequest.MedicationRequestStatus.STOPPED);
+        medicationRequest.setIntent(MedicationRequest.MedicationRequestIntent.ORDER);
+        medicationRequest.setMedication(getMedication(fields));
+        medicationRequest.setSubject(getReference(fields[PATIENT]));
+        medicationRequest.setEncounter(getReference(fields[ENCOUNTER]));
+        medicationRequest.setAuthoredOn(DateCache.ISO_INSTANT.parse(fields[START]));
+        if (!fields[REASONCODE].isEmpty()) {
+            medicationRequest.addReasonCode(getReasonCode(fields));
+        }
+        medicationRequest.getDispenseRequest().setValidityPeriod(getPeriod(fields));
+        if (!fields[DISPENSES].isEmpty()) {
+            medicationRequest.getDispenseRequest().setNumberOfRepeatsAllowed(Math.max(0, Integer.parseInt(fields[DISPENSES]) - 1));
+        }
+
+        return medicationRequest;
+    }
+
+    private static CodeableConcept getMedication(String[] fields) {
+        return TerminologyRegistry.SHARED.apply(new CodeableConcept(new Coding(CodingSystemURIs.RXNORM_URI, fields[CODE], fields[DESCRIPTION])));
+    }
+
+    private static CodeableConcept getReasonCode(String[] fields) {
+        return TerminologyRegistry.SHARED.apply(new CodeableConcept(new Coding(CodingSystemURIs.SNOMED_URI, fields[REASONCODE], fields[REASONDESCRIPTION])));
+    }
+
+    private static Period getPeriod(String[] fields) throws ParseException {
+        Period period = (new Period()).setStart(DateCache.ISO_INSTANT.parse(fields[START]));
+        if (!fields[STOP].isEmpty()) {
+            period.setEnd(DateCache.ISO_INSTANT.parse(fields[STOP]));
+        }
+
+        return period;
+    }
+
+    private static Reference getReference(String id) {
+        return (new Reference())
+                .setReference(UuidInterner.SHARED.toUrn(id));
+    }
+
+}
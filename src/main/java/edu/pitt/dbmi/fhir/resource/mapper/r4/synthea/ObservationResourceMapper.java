@@ -18,33 +18,45 @@
  */
 package edu.pitt.dbmi.fhir.resource.mapper.r4.synthea;
 
+import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;
 import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
-import edu.pitt.dbmi.fhir.resource.mapper.util.DateFormatters;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.TerminologyRegistry;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DateCache;
+import edu.pitt.dbmi.fhir.resource.mapper.util.Delimiters;
 import edu.pitt.dbmi.fhir.resource.mapper.util.FhirUtils;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import edu.pitt.dbmi.fhir.resource.mapper.util.UuidInterner;
 import java.nio.file.Path;
 import java.text.ParseException;
-import java.util.LinkedList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import org.hl7.fhir.r4.model.CodeableConcept;
 import org.hl7.fhir.r4.model.Coding;
 import org.hl7.fhir.r4.model.DateTimeType;
+import org.hl7.fhir.r4.model.InstantType;
 import org.hl7.fhir.r4.model.Meta;
 import org.hl7.fhir.r4.model.Observation;
 import org.hl7.fhir.r4.model.Observation.ObservationComponentComponent;
 import org.hl7.fhir.r4.model.Reference;
 
 /**
+ * Observations are by far the most numerous rows, so their mapping keeps to a
+ * budget of bytes allocated per row (see ObservationResourceMapperTest). The
+ * values that take only a few distinct forms across a file, the dates and the
+ * codes looked up in the terminology registry, are resolved once per value
+ * and cached as plain strings and numbers. Each observation still gets
+ * elements of its own, so that changing one resource after mapping does not
+ * change the others.
  *
  * Apr 27, 2022 3:35:46 PM
  *
  * @author Kevin V. Bui (kvb2univpitt@gmail.com)
  * @see https://www.hl7.org/fhir/observation.html
  */
+@MappingSpec(rowMethod = "getObservation")
 public class ObservationResourceMapper {
 
     private static final Meta US_CORE_OBSERVATION_PROFILE = new Meta();
@@ -53,8 +65,15 @@ public class ObservationResourceMapper {
         US_CORE_OBSERVATION_PROFILE.addProfile("http://hl7.org/fhir/us/core/StructureDefinition/us-core-observation-lab");
     }
 
+    /**
+     * Most distinct codes cached; codes beyond it are looked up every time.
+     */
+    private static final int MAX_CACHE_SIZE = 65_536;
+
+    private static final Map<String, ObservationCode> CODES = new ConcurrentHashMap<>();
+
     private static final int DATE = 0;
-    private static final int PATIENT = 1;
+    public static final int PATIENT = 1;
     private static final int ENCOUNTER = 2;
     private static final int CODE = 3;
     private static final int DESCRIPTION = 4;
@@ -62,7 +81,11 @@ public class ObservationResourceMapper {
     private static final int UNITS = 6;
     private static final int TYPE = 7;
 
-    private static final String[] HEADERS = {
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
         "DATE",
         "PATIENT",
         "ENCOUNTER",
@@ -73,19 +96,38 @@ public class ObservationResourceMapper {
         "TYPE"
     };
 
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {};
+
     public static List<Observation> getObservationFromFile(final Path file, final Pattern delimiter) {
-        List<Observation> observations = new LinkedList<>();
+        return ObservationResourceMapperBinding.INSTANCE.mapFile(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
 
-        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
-            reader.readLine(); // skip header
-            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
-                observations.add(getObservation(delimiter.split(line.trim() + ",end")));
-            }
-        } catch (IOException | ParseException exception) {
-            exception.printStackTrace(System.err);
-        }
+    /**
+     * Split a row into its fields, keeping the trailing empty fields. A
+     * single-character delimiter is split without the regular expression
+     * engine.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] getFields(String line, Pattern delimiter) {
+        int delimiterChar = Delimiters.toChar(delimiter);
 
-        return observations;
+        return (delimiterChar < 0)
+                ? delimiter.split(line.trim() + ",end")
+                : Delimiters.split(line.trim(), (char) delimiterChar);
+    }
+
+    /**
+     * Clear the codes cached between data files or requests, e.g. by a
+     * long-running watch or server.
+     */
+    public static void clearCache() {
+        CODES.clear();
     }
 
     /**
@@ -95,50 +137,88 @@ public class ObservationResourceMapper {
      * @throws ParseException
      * @see https://www.hl7.org/fhir/observation.html
      */
-    private static Observation getObservation(String[] fields) throws ParseException {
+    public static Observation getObservation(String[] fields) throws ParseException {
         Observation observation = new Observation();
         observation.setMeta(US_CORE_OBSERVATION_PROFILE);
         observation.setSubject(getSubject(fields));
         observation.setEncounter(getEncounter(fields));
         observation.setStatus(Observation.ObservationStatus.FINAL);
-        observation.setCode(getCode(fields));
-        observation.addComponent(getComponent(fields));
-        observation.setEffective(new DateTimeType(DateFormatters.YYYY_MM_DD.parse(fields[DATE])));
-        observation.setIssued(DateFormatters.YYYY_MM_DD.parse(fields[DATE]));
+        ObservationCode code = getCode(fields);
+        observation.setCode(code.toConcept());
+        observation.addComponent(getComponent(fields, code));
+        long date = DateCache.YYYY_MM_DD.parseMillis(fields[DATE]);
+        observation.setEffective(new DateTimeType(new Date(date)));
+        observation.setIssuedElement(new InstantType(new Date(date)));
         observation.addCategory(getCategory());
 
         return observation;
     }
 
-    private static ObservationComponentComponent getComponent(String[] fields) {
+    private static ObservationComponentComponent getComponent(String[] fields, ObservationCode code) {
         ObservationComponentComponent comp = new ObservationComponentComponent();
-        comp.setCode(getCode(fields));
+        comp.setCode(code.toConcept());
         comp.setValue(FhirUtils.toFHIRType(fields[TYPE], fields[VALUE], fields[UNITS]));
 
         return comp;
     }
 
     private static CodeableConcept getCategory() {
-        Coding category = (new Coding())
+        return new CodeableConcept((new Coding())
                 .setCode("laboratory")
                 .setSystem("http://terminology.hl7.org/CodeSystem/observation-category")
-                .setDisplay("Laboratory");
-
-        return new CodeableConcept(category);
+                .setDisplay("Laboratory"));
     }
 
-    private static CodeableConcept getCode(String[] fields) {
-        return new CodeableConcept(new Coding(CodingSystemURIs.LOINC_URI, fields[CODE], fields[DESCRIPTION]));
+    private static ObservationCode getCode(String[] fields) {
+        TerminologyRegistry.Mode mode = TerminologyRegistry.SHARED.getMode();
+        ObservationCode code = CODES.get(fields[CODE]);
+        if (code == null || code.mode != mode || !code.description.equals(fields[DESCRIPTION])) {
+            Coding coding = TerminologyRegistry.SHARED.apply(new Coding(CodingSystemURIs.LOINC_URI, fields[CODE], fields[DESCRIPTION]));
+            ObservationCode resolvedCode = new ObservationCode(fields[DESCRIPTION], mode, coding.getSystem(), coding.getCode(), coding.getDisplay());
+            if ((code == null && CODES.size() < MAX_CACHE_SIZE) || (code != null && code.mode != mode)) {
+                CODES.put(fields[CODE], resolvedCode);
+            }
+
+            return resolvedCode;
+        }
+
+        return code;
     }
 
     private static Reference getEncounter(String[] fields) {
         return (new Reference())
-                .setReference(String.format("urn:uuid:%s", fields[ENCOUNTER]));
+                .setReference(UuidInterner.SHARED.toUrn(fields[ENCOUNTER]));
     }
 
     private static Reference getSubject(String[] fields) {
         return (new Reference())
-                .setReference(String.format("urn:uuid:%s", fields[PATIENT]));
+                .setReference(UuidInterner.SHARED.toUrn(fields[PATIENT]));
+    }
+
+    /**
+     * Coding of a code, as looked up in the terminology registry, with the
+     * description and the registry mode it was looked up with.
+     */
+    private static final class ObservationCode {
+
+        private final String description;
+        private final TerminologyRegistry.Mode mode;
+        private final String system;
+        private final String code;
+        private final String display;
+
+        private ObservationCode(String description, TerminologyRegistry.Mode mode, String system, String code, String display) {
+            this.description = description;
+            this.mode = mode;
+            this.system = system;
+            this.code = code;
+            this.display = display;
+        }
+
+        private CodeableConcept toConcept() {
+            return new CodeableConcept(new Coding(system, code, display));
+        }
+
     }
 
 }
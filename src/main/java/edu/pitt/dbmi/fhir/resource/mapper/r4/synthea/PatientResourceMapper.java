@@ -18,14 +18,12 @@
  */
 package edu.pitt.dbmi.fhir.resource.mapper.r4.synthea;
 
+import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;
 import edu.pitt.dbmi.fhir.resource.mapper.r4.IdentifierTypes;
 import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
-import edu.pitt.dbmi.fhir.resource.mapper.util.DateFormatters;
+import edu.pitt.dbmi.fhir.resource.mapper.util.DateCache;
 import edu.pitt.dbmi.fhir.resource.mapper.util.FhirUtils;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
 import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.LinkedList;
@@ -51,6 +49,7 @@ import org.hl7.fhir.r4.model.StringType;
  * @author Kevin V. Bui (kvb2univpitt@gmail.com)
  * @see https://www.hl7.org/fhir/patient.html
  */
+@MappingSpec(rowMethod = "getPatient")
 public final class PatientResourceMapper {
 
     private static final Meta US_CORE_PATIENT_PROFILE = new Meta();
@@ -85,19 +84,64 @@ public final class PatientResourceMapper {
     public static final int HEALTHCARE_EXPENSES = 23;
     public static final int HEALTHCARE_COVERAGE = 24;
 
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
+        "Id",
+        "BIRTHDATE",
+        "DEATHDATE",
+        "SSN",
+        "DRIVERS",
+        "PASSPORT",
+        "PREFIX",
+        "FIRST",
+        "LAST",
+        "SUFFIX",
+        "MAIDEN",
+        "MARITAL",
+        "RACE",
+        "ETHNICITY",
+        "GENDER",
+        "BIRTHPLACE",
+        "ADDRESS",
+        "CITY",
+        "STATE",
+        "COUNTY",
+        "ZIP",
+        "LAT",
+        "LON",
+        "HEALTHCARE_EXPENSES",
+        "HEALTHCARE_COVERAGE"
+    };
+
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {
+        "DEATHDATE",
+        "BIRTHPLACE",
+        "COUNTY",
+        "LAT",
+        "LON",
+        "HEALTHCARE_EXPENSES",
+        "HEALTHCARE_COVERAGE"
+    };
+
     public static List<Patient> getPatientsFromFile(final Path file, final Pattern delimiter) {
-        List<Patient> patients = new LinkedList<>();
-
-        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
-            reader.readLine(); // skip header
-            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
-                patients.add(getPatient(delimiter.split(line.trim())));
-            }
-        } catch (IOException | ParseException exception) {
-            exception.printStackTrace(System.err);
-        }
+        return PatientResourceMapperBinding.INSTANCE.mapFile(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
 
-        return patients;
+    /**
+     * Split a row into its fields.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] getFields(String line, Pattern delimiter) {
+        return delimiter.split(line.trim());
     }
 
     /**
@@ -107,13 +151,13 @@ public final class PatientResourceMapper {
      * @throws ParseException
      * @see https://www.hl7.org/fhir/r4/patient.html
      */
-    private static Patient getPatient(String[] fields) throws ParseException {
+    public static Patient getPatient(String[] fields) throws ParseException {
         Patient patient = new Patient();
         patient.setMeta(US_CORE_PATIENT_PROFILE);
         patient.setIdentifier(getIdentifiers(fields));
         patient.setExtension(getExtensions(fields));
         patient.setName(getNames(fields));
-        patient.setBirthDate(DateFormatters.YYYY_MM_DD.parse(fields[BIRTHDATE]));
+        patient.setBirthDate(DateCache.YYYY_MM_DD.parse(fields[BIRTHDATE]));
         if (!fields[GENDER].isEmpty()) {
             patient.setGender(getGender(fields));
         }
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4.synthea;
+
+import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.hl7.fhir.r4.model.Address;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.ContactPoint;
+import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.Meta;
+import org.hl7.fhir.r4.model.Organization;
+
+/**
+ * A utility for mapping Synthea payer data to FHIR organization resource of
+ * the payer type.
+ *
+ * Oct 19, 2026 11:05:49 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ * @see https://www.hl7.org/fhir/r4/organization.html
+ */
+@MappingSpec(rowMethod = "getPayer")
+public class PayerResourceMapper {
+
+    private static final Meta US_CORE_ORGANIZATION_PROFILE = new Meta();
+
+    static {
+        US_CORE_ORGANIZATION_PROFILE.addProfile("http://hl7.org/fhir/us/core/StructureDefinition/us-core-organization");
+    }
+
+    public static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int ADDRESS = 2;
+    private static final int CITY = 3;
+    private static final int STATE_HEADQUARTERED = 4;
+    private static final int ZIP = 5;
+    private static final int PHONE = 6;
+
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
+        "Id",
+        "NAME",
+        "ADDRESS",
+        "CITY",
+        "STATE_HEADQUARTERED",
+        "ZIP",
+        "PHONE"
+    };
+
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {
+        "ADDRESS",
+        "CITY",
+        "STATE_HEADQUARTERED",
+        "ZIP",
+        "PHONE"
+    };
+
+    private static final CodeableConcept PAYER_TYPE = new CodeableConcept(new Coding(
+            "http://terminology.hl7.org/CodeSystem/organization-type", "pay", "Payer"));
+
+    public static List<Organization> getPayersFromFile(final Path file, final Pattern delimiter) {
+        return PayerResourceMapperBinding.INSTANCE.mapFile(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
+
+    /**
+     * Split a row into its fields. The trailing ",end" keeps the trailing
+     * empty fields.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] getFields(String line, Pattern delimiter) {
+        return delimiter.split(line.trim() + ",end");
+    }
+
+    /**
+     *
+     * @param fields
+     * @return
+     * @see https://www.hl7.org/fhir/r4/organization.html
+     */
+    public static Organization getPayer(String[] fields) {
+        Organization organization = new Organization();
+        organization.setMeta(US_CORE_ORGANIZATION_PROFILE);
+        organization.addIdentifier(getIdentifier(fields));
+        organization.setActive(true);
+        organization.addType(PAYER_TYPE);
+        organization.setName(fields[NAME]);
+        if (!fields[ADDRESS].isEmpty()) {
+            organization.addAddress(getAddress(fields));
+        }
+        if (!fields[PHONE].isEmpty()) {
+            organization.addTelecom()
+                    .setSystem(ContactPoint.ContactPointSystem.PHONE)
+                    .setValue(fields[PHONE]);
+        }
+
+        return organization;
+    }
+
+    private static Identifier getIdentifier(String[] fields) {
+        return (new Identifier())
+                .setSystem(CodingSystemURIs.SYNTHEA_IDENTIFIER)
+                .setValue(fields[ID]);
+    }
+
+    private static Address getAddress(String[] fields) {
+        Address address = new Address();
+        address.addLine(fields[ADDRESS])
+                .setCity(fields[CITY])
+                .setPostalCode(fields[ZIP])
+                .setState(fields[STATE_HEADQUARTERED])
+                .setCountry("USA");
+
+        return address;
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4.synthea;
+
+import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.hl7.fhir.r4.model.Address;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Enumerations;
+import org.hl7.fhir.r4.model.HumanName;
+import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.Meta;
+import org.hl7.fhir.r4.model.Practitioner;
+
+/**
+ * A utility for mapping Synthea provider data to FHIR practitioner resource.
+ *
+ * Oct 19, 2026 11:03:55 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ * @see https://www.hl7.org/fhir/r4/practitioner.html
+ */
+@MappingSpec(rowMethod = "getPractitioner")
+public class PractitionerResourceMapper {
+
+    private static final Meta US_CORE_PRACTITIONER_PROFILE = new Meta();
+
+    static {
+        US_CORE_PRACTITIONER_PROFILE.addProfile("http://hl7.org/fhir/us/core/StructureDefinition/us-core-practitioner");
+    }
+
+    public static final int ID = 0;
+    private static final int ORGANIZATION = 1;
+    private static final int NAME = 2;
+    private static final int GENDER = 3;
+    private static final int SPECIALITY = 4;
+    private static final int ADDRESS = 5;
+    private static final int CITY = 6;
+    private static final int STATE = 7;
+    private static final int ZIP = 8;
+
+    /**
+     * Columns in the order of the positions above, matched by name against
+     * the header of the data file.
+     */
+    public static final String[] HEADERS = {
+        "Id",
+        "ORGANIZATION",
+        "NAME",
+        "GENDER",
+        "SPECIALITY",
+        "ADDRESS",
+        "CITY",
+        "STATE",
+        "ZIP"
+    };
+
+    /**
+     * Columns the data file may omit, which are then read as empty.
+     */
+    public static final String[] OPTIONAL_HEADERS = {
+        "ORGANIZATION",
+        "GENDER",
+        "SPECIALITY",
+        "ADDRESS",
+        "CITY",
+        "STATE",
+        "ZIP"
+    };
+
+    public static List<Practitioner> getPractitionersFromFile(final Path file, final Pattern delimiter) {
+        return PractitionerResourceMapperBinding.INSTANCE.mapFile(file, delimiter, fields -> true, RowErrorHandler.LOG);
+    }
+
+    /**
+     * Split a row into its fields. The trailing ",end" keeps the trailing
+     * empty fields.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] getFields(String line, Pattern delimiter) {
+        return delimiter.split(line.trim() + ",end");
+    }
+
+    /**
+     *
+     * @param fields
+     * @return
+     * @see https://www.hl7.org/fhir/r4/practitioner.html
+     */
+    public static Practitioner getPractitioner(String[] fields) {
+        Practitioner practitioner = new Practitioner();
+        practitioner.setMeta(US_CORE_PRACTITIONER_PROFILE);
+        practitioner.addIdentifier(getIdentifier(fields));
+        practitioner.setActive(true);
+        practitioner.addName(getName(fields));
+        practitioner.setGender(getGender(fields));
+        if (!fields[ADDRESS].isEmpty()) {
+            practitioner.addAddress(getAddress(fields));
+        }
+        if (!fields[SPECIALITY].isEmpty()) {
+            practitioner.addQualification().setCode(new CodeableConcept().setText(fields[SPECIALITY]));
+        }
+
+        return practitioner;
+    }
+
+    private static Identifier getIdentifier(String[] fields) {
+        return (new Identifier())
+                .setSystem(CodingSystemURIs.SYNTHEA_IDENTIFIER)
+                .setValue(fields[ID]);
+    }
+
+    /**
+     * Synthea names a provider "Dr. Given Family".
+     *
+     * @param fields
+     * @return
+     * @see https://www.hl7.org/fhir/r4/datatypes.html#HumanName
+     */
+    private static HumanName getName(String[] fields) {
+        String name = fields[NAME].trim();
+
+        HumanName humanName = new HumanName();
+        humanName.setText(name);
+        if (name.startsWith("Dr. ")) {
+            humanName.addPrefix("Dr.");
+            name = name.substring(4).trim();
+        }
+        int lastSpace = name.lastIndexOf(' ');
+        if (lastSpace > 0) {
+            humanName.addGiven(name.substring(0, lastSpace));
+            humanName.setFamily(name.substring(lastSpace + 1));
+        } else {
+            humanName.setFamily(name);
+        }
+
+        return humanName;
+    }
+
+    private static Enumerations.AdministrativeGender getGender(String[] fields) {
+        switch (fields[GENDER]) {
+            case "M":
+                return Enumerations.AdministrativeGender.MALE;
+            case "F":
+                return Enumerations.AdministrativeGender.FEMALE;
+            default:
+                return Enumerations.AdministrativeGender.UNKNOWN;
+        }
+    }
+
+    private static Address getAddress(String[] fields) {
+        Address address = new Address();
+        address.addLine(fields[ADDRESS])
+                .setCity(fields[CITY])
+                .setPostalCode(fields[ZIP])
+                .setState(fields[STATE])
+                .setCountry("USA");
+
+        return address;
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4.synthea;
+
+import edu.pitt.dbmi.fhir.resource.mapper.r4.DataSource;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.ReferenceIntegrityChecker;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.ResourceMapper;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowBinding;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Synthea CSV files.
+ *
+ * Oct 19, 2026 10:36:40 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class SyntheaDataSource implements DataSource {
+
+    private static final Map<String, String> PATIENT_REFERENCES = Collections.singletonMap("PATIENT", "Patient");
+
+    private static final Map<String, String> PATIENT_ENCOUNTER_REFERENCES = new LinkedHashMap<>();
+
+    static {
+        PATIENT_ENCOUNTER_REFERENCES.put("PATIENT", "Patient");
+        PATIENT_ENCOUNTER_REFERENCES.put("ENCOUNTER", "Encounter");
+    }
+
+    private static final List<ResourceMapper<?>> MAPPERS = Collections.unmodifiableList(Arrays.asList(
+            new CsvMapper<>("patients", "patient", "Patient", PatientResourceMapperBinding.INSTANCE,
+                    Collections.singletonList("Id"), PatientResourceMapper.ID, PatientResourceMapper.ID,
+                    Collections.emptyMap()),
+            new CsvMapper<>("encounters", "encounter", "Encounter", EncounterResourceMapperBinding.INSTANCE,
+                    Collections.singletonList("Id"), EncounterResourceMapper.PATIENT, EncounterResourceMapper.ID,
+                    PATIENT_REFERENCES),
+            new CsvMapper<>("providers", "practitioner", "Practitioner", PractitionerResourceMapperBinding.INSTANCE,
+                    Collections.singletonList("Id"), -1, PractitionerResourceMapper.ID,
+                    Collections.emptyMap()),
+            new CsvMapper<>("payers", "payer", "Organization", PayerResourceMapperBinding.INSTANCE,
+                    Collections.singletonList("Id"), -1, PayerResourceMapper.ID,
+                    Collections.emptyMap()),
+            // the clinical files have no identifier column
+            new CsvMapper<>("observations", "observation", "Observation", ObservationResourceMapperBinding.INSTANCE,
+                    Arrays.asList("DATE", "PATIENT", "ENCOUNTER", "CODE"), ObservationResourceMapper.PATIENT, -1,
+                    PATIENT_ENCOUNTER_REFERENCES),
+            new CsvMapper<>("conditions", "condition", "Condition", ConditionResourceMapperBinding.INSTANCE,
+                    Arrays.asList("START", "PATIENT", "ENCOUNTER", "CODE"), ConditionResourceMapper.PATIENT, -1,
+                    PATIENT_ENCOUNTER_REFERENCES),
+            new CsvMapper<>("medications", "medication_request", "MedicationRequest", MedicationRequestResourceMapperBinding.INSTANCE,
+                    Arrays.asList("START", "PATIENT", "ENCOUNTER", "CODE"), MedicationRequestResourceMapper.PATIENT, -1,
+                    PATIENT_ENCOUNTER_REFERENCES),
+            new CsvMapper<>("procedures", "procedure", "Procedure", ProcedureResourceMapperBinding.INSTANCE,
+                    Arrays.asList("DATE", "PATIENT", "ENCOUNTER", "CODE"), ProcedureResourceMapper.PATIENT, -1,
+                    PATIENT_ENCOUNTER_REFERENCES),
+            new CsvMapper<>("immunizations", "immunization", "Immunization", ImmunizationResourceMapperBinding.INSTANCE,
+                    Arrays.asList("DATE", "PATIENT", "ENCOUNTER", "CODE"), ImmunizationResourceMapper.PATIENT, -1,
+                    PATIENT_ENCOUNTER_REFERENCES),
+            new CsvMapper<>("allergies", "allergy_intolerance", "AllergyIntolerance", AllergyIntoleranceResourceMapperBinding.INSTANCE,
+                    Arrays.asList("START", "PATIENT", "ENCOUNTER", "CODE"), AllergyIntoleranceResourceMapper.PATIENT, -1,
+                    PATIENT_ENCOUNTER_REFERENCES),
+            new CsvMapper<>("careplans", "care_plan", "CarePlan", CarePlanResourceMapperBinding.INSTANCE,
+                    Collections.singletonList("Id"), CarePlanResourceMapper.PATIENT, CarePlanResourceMapper.ID,
+                    PATIENT_ENCOUNTER_REFERENCES)));
+
+    @Override
+    public String getName() {
+        return "synthea";
+    }
+
+    @Override
+    public ReferenceIntegrityChecker.KeyType getKeyType() {
+        return ReferenceIntegrityChecker.KeyType.UUID;
+    }
+
+    @Override
+    public List<ResourceMapper<?>> getMappers() {
+        return MAPPERS;
+    }
+
+    @Override
+    public void warmUp() {
+        Locations.getStateAbbreviation("");
+        Organizations.getOrganization("");
+    }
+
+    @Override
+    public void clearCaches() {
+        ObservationResourceMapper.clearCache();
+    }
+
+    /**
+     * Mapper of a Synthea CSV file, whose rows are mapped one at a time by
+     * the binding generated from the MappingSpec of the mapper class.
+     *
+     * @param <T>
+     */
+    private static final class CsvMapper<T extends Resource> implements ResourceMapper<T> {
+
+        private final String filePrefix;
+        private final String resourceName;
+        private final String resourceType;
+        private final RowBinding<T> binding;
+        private final List<String> keyColumns;
+        private final int patientColumn;
+        private final int idColumn;
+        private final Map<String, String> referenceColumns;
+
+        private CsvMapper(String filePrefix, String resourceName, String resourceType, RowBinding<T> binding,
+                List<String> keyColumns, int patientColumn, int idColumn,
+                Map<String, String> referenceColumns) {
+            this.filePrefix = filePrefix;
+            this.resourceName = resourceName;
+            this.resourceType = resourceType;
+            this.binding = binding;
+            this.keyColumns = keyColumns;
+            this.patientColumn = patientColumn;
+            this.idColumn = idColumn;
+            this.referenceColumns = referenceColumns;
+        }
+
+        @Override
+        public T map(String[] fields) throws ParseException {
+            return binding.map(fields);
+        }
+
+        @Override
+        public String getFilePrefix() {
+            return filePrefix;
+        }
+
+        @Override
+        public String getResourceName() {
+            return resourceName;
+        }
+
+        @Override
+        public String getResourceType() {
+            return resourceType;
+        }
+
+        @Override
+        public String[] getColumns() {
+            return binding.getColumns();
+        }
+
+        @Override
+        public String[] getOptionalColumns() {
+            return binding.getOptionalColumns();
+        }
+
+        @Override
+        public String[] getFields(String line, Pattern delimiter) {
+            return binding.getFields(line, delimiter);
+        }
+
+        @Override
+        public List<String> getKeyColumns() {
+            return keyColumns;
+        }
+
+        @Override
+        public int getPatientColumn() {
+            return patientColumn;
+        }
+
+        @Override
+        public int getIdColumn() {
+            return idColumn;
+        }
+
+        @Override
+        public Map<String, String> getReferenceColumns() {
+            return referenceColumns;
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+/**
+ * Bloom filter of 128-bit keys, such as the two independent 64-bit hashes of
+ * a row key. The bit positions are derived from the two halves of the key by
+ * double hashing, so no further hashing is needed.
+ *
+ * At a false positive rate of 1%, a key takes about 10 bits, against 16 bytes
+ * plus the free slots in an {@link OffHeapKeySet}.
+ *
+ * Oct 19, 2026 11:46:09 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[] bits;
+    private final long numOfBits;
+    private final int numOfHashes;
+
+    /**
+     *
+     * @param expectedSize number of keys expected to be added
+     * @param falsePositiveRate rate at which a key that has not been added is
+     * reported as added, once the expected number of keys have been added
+     */
+    public BloomFilter(long expectedSize, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1.");
+        }
+
+        long size = Math.max(1, expectedSize);
+        long minNumOfBits = Math.max(64, (long) Math.ceil(-size * Math.log(falsePositiveRate) / (LN2 * LN2)));
+        int numOfWords = (int) Math.min(Integer.MAX_VALUE - 8, (minNumOfBits + 63) >>> 6);
+
+        this.bits = new long[numOfWords];
+        this.numOfBits = (long) numOfWords << 6;
+        this.numOfHashes = (int) Math.max(1, Math.min(16, Math.round((double) numOfBits / size * LN2)));
+    }
+
+    /**
+     * Add a key.
+     *
+     * @param hi most significant 64 bits
+     * @param lo least significant 64 bits
+     * @return false if the key might have been added before, true if it
+     * definitely has not
+     */
+    public boolean add(long hi, long lo) {
+        boolean isNew = false;
+        long hash = hi;
+        for (int i = 0; i < numOfHashes; i++) {
+            long bit = (hash & Long.MAX_VALUE) % numOfBits;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                isNew = true;
+            }
+            hash += lo;
+        }
+
+        return isNew;
+    }
+
+    /**
+     * Whether the key might have been added.
+     *
+     * @param hi most significant 64 bits
+     * @param lo least significant 64 bits
+     * @return false if the key has definitely not been added
+     */
+    public boolean mightContain(long hi, long lo) {
+        long hash = hi;
+        for (int i = 0; i < numOfHashes; i++) {
+            long bit = (hash & Long.MAX_VALUE) % numOfBits;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+            hash += lo;
+        }
+
+        return true;
+    }
+
+    public int getNumOfHashes() {
+        return numOfHashes;
+    }
+
+    /**
+     * Number of bytes held by the filter.
+     *
+     * @return
+     */
+    public long getNumOfBytes() {
+        return numOfBits >>> 3;
+    }
+
+}
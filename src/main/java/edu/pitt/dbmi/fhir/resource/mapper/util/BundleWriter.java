@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import org.hl7.fhir.r4.model.Bundle;
+
+/**
+ * Writes a JSON bundle one entry at a time so that the whole bundle never has
+ * to be held in memory.
+ *
+ * The bytes written are added to the pipeline metrics when the writer is a
+ * ChannelWriter, which counts the bytes it encodes.
+ *
+ * Oct 19, 2026 10:48:26 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class BundleWriter implements ResourceSink {
+
+    private final Writer writer;
+
+    private long numOfEntries;
+
+    public BundleWriter(Writer writer, Bundle.BundleType type) throws IOException {
+        this.writer = writer;
+
+        long numOfBytes = getNumOfBytes();
+        this.writer.write(String.format("{\"resourceType\":\"Bundle\",\"type\":\"%s\",\"entry\":[", type.toCode()));
+        PipelineMetrics.SHARED.addBytesWritten(getNumOfBytes() - numOfBytes);
+    }
+
+    @Override
+    public void addJson(String resourceJson) throws IOException {
+        long startTime = System.nanoTime();
+        long numOfBytes = getNumOfBytes();
+        if (numOfEntries > 0) {
+            writer.write(',');
+        }
+        writer.write("{\"resource\":");
+        writer.write(resourceJson);
+        writer.write('}');
+        numOfEntries++;
+        PipelineMetrics.SHARED.record(PipelineMetrics.Stage.WRITE, startTime);
+        PipelineMetrics.SHARED.addBytesWritten(getNumOfBytes() - numOfBytes);
+    }
+
+    public long getNumOfEntries() {
+        return numOfEntries;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (writer) {
+            long numOfBytes = getNumOfBytes();
+            writer.write("]}");
+            PipelineMetrics.SHARED.addBytesWritten(getNumOfBytes() - numOfBytes);
+        }
+    }
+
+    /**
+     * Number of bytes written so far, as counted by a ChannelWriter. Other
+     * writers do not count them.
+     */
+    private long getNumOfBytes() {
+        return (writer instanceof ChannelWriter) ? ((ChannelWriter) writer).getNumOfBytes() : 0;
+    }
+
+}
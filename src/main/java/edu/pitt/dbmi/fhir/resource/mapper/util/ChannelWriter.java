@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writer that encodes the characters to UTF-8 straight into direct byte
+ * buffers and hands the full buffers to a background thread that writes them
+ * to a file channel, so that encoding and disk I/O overlap.
+ *
+ * The writer is double-buffered: it owns two buffers taken from a
+ * {@link DirectBufferPool}, one being filled by the caller while the other is
+ * written to disk. The caller only waits when it fills a buffer before the
+ * disk has taken the previous one. A write error of the background thread is
+ * thrown by the next call of the writer.
+ *
+ * Oct 19, 2026 6:03:41 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class ChannelWriter extends Writer {
+
+    /**
+     * When the written data is forced to the storage device.
+     */
+    public enum FsyncPolicy {
+        /**
+         * Leave it to the operating system.
+         */
+        NONE,
+        /**
+         * Once, when the writer is closed.
+         */
+        ON_CLOSE,
+        /**
+         * After every buffer.
+         */
+        ALWAYS;
+
+        public static FsyncPolicy parse(String value) {
+            switch (value.trim().toLowerCase()) {
+                case "none":
+                    return NONE;
+                case "close":
+                    return ON_CLOSE;
+                case "always":
+                    return ALWAYS;
+                default:
+                    throw new IllegalArgumentException(String.format("Unknown fsync policy '%s'.", value));
+            }
+        }
+    }
+
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+    private final FsyncPolicy fsyncPolicy;
+    private final DirectBufferPool bufferPool;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private final BlockingQueue<ByteBuffer> fullBuffers = new ArrayBlockingQueue<>(2);
+    private final BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(2);
+    private final Thread diskWriter;
+
+    private ByteBuffer buffer;
+    private long numOfBytes;
+    private char pendingHighSurrogate;
+    private volatile IOException failure;
+    private boolean closed;
+
+    public ChannelWriter(Path file, FsyncPolicy fsyncPolicy) throws IOException {
+        this(file, fsyncPolicy, DirectBufferPool.SHARED);
+    }
+
+    public ChannelWriter(Path file, FsyncPolicy fsyncPolicy, DirectBufferPool bufferPool) throws IOException {
+        this(file, fsyncPolicy, bufferPool, false);
+    }
+
+    /**
+     *
+     * @param file
+     * @param fsyncPolicy
+     * @param bufferPool
+     * @param append whether to write after the existing content of the file
+     * instead of replacing it
+     * @throws IOException
+     */
+    public ChannelWriter(Path file, FsyncPolicy fsyncPolicy, DirectBufferPool bufferPool, boolean append) throws IOException {
+        this.channel = append
+                ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.fsyncPolicy = fsyncPolicy;
+        this.bufferPool = bufferPool;
+        this.buffer = bufferPool.take();
+        this.freeBuffers.add(bufferPool.take());
+
+        this.diskWriter = new Thread(this::writeBuffers, "disk-writer-" + file.getFileName());
+        this.diskWriter.setDaemon(true);
+        this.diskWriter.start();
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        encode(CharBuffer.wrap(str, off, off + len));
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        encode(CharBuffer.wrap(cbuf, off, len));
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        if (c < 0x80 && pendingHighSurrogate == 0 && buffer.hasRemaining()) {
+            buffer.put((byte) c);
+        } else {
+            encode(CharBuffer.wrap(new char[]{(char) c}));
+        }
+    }
+
+    @Override
+    public Writer append(CharSequence csq) throws IOException {
+        encode(CharBuffer.wrap(csq == null ? "null" : csq));
+
+        return this;
+    }
+
+    /**
+     * Number of bytes the characters written so far were encoded to,
+     * including those not yet written to disk.
+     *
+     * @return
+     */
+    public long getNumOfBytes() {
+        return (buffer == null) ? numOfBytes : numOfBytes + buffer.position();
+    }
+
+    /**
+     * Number of bytes characters take in UTF-8, as encoded by the writer.
+     * Unpaired surrogates are replaced by one byte.
+     *
+     * @param chars
+     * @return
+     */
+    public static long getEncodedLength(CharSequence chars) {
+        long length = 0;
+        int numOfChars = chars.length();
+        for (int i = 0; i < numOfChars; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < numOfChars && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Hand the buffered bytes to the disk writer. It does not wait for them to
+     * be written.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (buffer.position() > 0) {
+            swapBuffers();
+        }
+    }
+
+    /**
+     * Write out the remaining bytes, force them to the device unless the
+     * policy is {@link FsyncPolicy#NONE} and close the file.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (failure == null) {
+                CharBuffer rest = (pendingHighSurrogate == 0)
+                        ? CharBuffer.allocate(0)
+                        : CharBuffer.wrap(new char[]{pendingHighSurrogate});
+                while (encoder.encode(rest, buffer, true) == CoderResult.OVERFLOW) {
+                    swapBuffers();
+                }
+                while (encoder.flush(buffer) == CoderResult.OVERFLOW) {
+                    swapBuffers();
+                }
+                if (buffer.position() > 0) {
+                    swapBuffers();
+                }
+            }
+        } finally {
+            boolean isJoined = false;
+            try {
+                put(fullBuffers, END);
+                diskWriter.join();
+                isJoined = true;
+            } catch (InterruptedException exception) {
+                diskWriter.interrupt();
+                Thread.currentThread().interrupt();
+            } finally {
+                // a buffer still used by the disk writer must not be reused
+                if (isJoined) {
+                    bufferPool.give(buffer);
+                    freeBuffers.forEach(bufferPool::give);
+                }
+                freeBuffers.clear();
+                buffer = null;
+                try (channel) {
+                    if (failure == null && fsyncPolicy == FsyncPolicy.ON_CLOSE) {
+                        channel.force(false);
+                    }
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void encode(CharBuffer chars) throws IOException {
+        ensureOpen();
+        if (pendingHighSurrogate != 0 && chars.hasRemaining()) {
+            CharBuffer pair = CharBuffer.wrap(new char[]{pendingHighSurrogate, chars.get()});
+            pendingHighSurrogate = 0;
+            encodeAll(pair);
+        }
+        encodeAll(chars);
+
+        // a high surrogate at the end is left unread until its pair arrives
+        if (chars.hasRemaining()) {
+            pendingHighSurrogate = chars.get();
+        }
+    }
+
+    private void encodeAll(CharBuffer chars) throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, false);
+            if (result.isOverflow()) {
+                swapBuffers();
+            } else if (result.isUnderflow()) {
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void swapBuffers() throws IOException {
+        numOfBytes += buffer.position();
+        put(fullBuffers, buffer.flip());
+        try {
+            buffer = freeBuffers.take();
+        } catch (InterruptedException exception) {
+            buffer = bufferPool.take();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void put(BlockingQueue<ByteBuffer> queue, ByteBuffer byteBuffer) throws IOException {
+        try {
+            queue.put(byteBuffer);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer is closed.");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Loop of the disk writer. After a failure, the remaining buffers are
+     * skipped but still given back so the caller never blocks.
+     */
+    private void writeBuffers() {
+        try {
+            for (ByteBuffer full = fullBuffers.take(); full != END; full = fullBuffers.take()) {
+                if (failure == null) {
+                    try {
+                        while (full.hasRemaining()) {
+                            channel.write(full);
+                        }
+                        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                            channel.force(false);
+                        }
+                    } catch (IOException exception) {
+                        failure = exception;
+                    }
+                }
+                freeBuffers.put(full.clear());
+            }
+        } catch (InterruptedException exception) {
+            if (failure == null) {
+                failure = new InterruptedIOException();
+            }
+        }
+    }
+
+}
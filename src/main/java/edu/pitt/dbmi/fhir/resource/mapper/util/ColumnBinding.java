@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Binds the columns a mapper expects to their positions in the header of a
+ * data file, so that the mappers can keep reading the fields by fixed
+ * positions when the data source adds, drops or reorders columns.
+ *
+ * The header is resolved once per file. When the file has the expected
+ * columns in the expected order, which is the usual case, the fields of a
+ * complete row are used as they are; otherwise they are rearranged into the
+ * expected order, or padded, with one array copy.
+ *
+ * Oct 19, 2026 9:52:26 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class ColumnBinding {
+
+    private final int[] sourceIndexes;
+    private final boolean isIdentity;
+
+    private ColumnBinding(int[] sourceIndexes) {
+        this.sourceIndexes = sourceIndexes;
+
+        boolean identity = true;
+        for (int i = 0; i < sourceIndexes.length && identity; i++) {
+            identity = (sourceIndexes[i] == i);
+        }
+        this.isIdentity = identity;
+    }
+
+    /**
+     * Bind the columns to a file whose columns are in the expected order.
+     *
+     * @param numOfColumns
+     * @return
+     */
+    public static ColumnBinding identity(int numOfColumns) {
+        int[] sourceIndexes = new int[numOfColumns];
+        Arrays.setAll(sourceIndexes, i -> i);
+
+        return new ColumnBinding(sourceIndexes);
+    }
+
+    /**
+     * Bind the columns to the header of a file. Column names are matched
+     * without regard to case and surrounding spaces. Columns of the file that
+     * are not expected are ignored.
+     *
+     * @param file data file, for the error message
+     * @param header header line of the file
+     * @param delimiter
+     * @param columns expected columns, in the order the mapper reads them
+     * @param optionalColumns expected columns the file may omit, which are
+     * then read as empty
+     * @return
+     * @throws IOException if the file lacks a required column
+     */
+    public static ColumnBinding bind(Path file, String header, Pattern delimiter, String[] columns, String[] optionalColumns) throws IOException {
+        Map<String, Integer> positions = new HashMap<>();
+        if (header != null) {
+            String[] names = delimiter.split(header.trim(), -1);
+            for (int i = 0; i < names.length; i++) {
+                positions.putIfAbsent(normalize(names[i]), i);
+            }
+        }
+
+        Set<String> optional = new HashSet<>();
+        for (String column : optionalColumns) {
+            optional.add(normalize(column));
+        }
+
+        int[] sourceIndexes = new int[columns.length];
+        List<String> missingColumns = new LinkedList<>();
+        for (int i = 0; i < columns.length; i++) {
+            String column = normalize(columns[i]);
+            Integer position = positions.get(column);
+            if (position == null) {
+                sourceIndexes[i] = -1;
+                if (!optional.contains(column)) {
+                    missingColumns.add(columns[i]);
+                }
+            } else {
+                sourceIndexes[i] = position;
+            }
+        }
+        if (!missingColumns.isEmpty()) {
+            throw new IOException(String.format("File '%s' is missing the required columns %s.", file, missingColumns));
+        }
+
+        return new ColumnBinding(sourceIndexes);
+    }
+
+    /**
+     * Bind the columns to the header, the first line, of a file.
+     *
+     * @param file
+     * @param delimiter
+     * @param columns expected columns, in the order the mapper reads them
+     * @param optionalColumns expected columns the file may omit, which are
+     * then read as empty
+     * @return
+     * @throws IOException if the file cannot be read or lacks a required
+     * column
+     */
+    public static ColumnBinding read(Path file, Pattern delimiter, String[] columns, String[] optionalColumns) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
+            return bind(file, reader.readLine(), delimiter, columns, optionalColumns);
+        }
+    }
+
+    /**
+     * Arrange the fields of a row in the expected order of the columns.
+     *
+     * @param fields fields in the order of the file
+     * @return fields in the expected order; an empty string for a column the
+     * file does not have or a row that is too short
+     */
+    public String[] bind(String[] fields) {
+        if (isIdentity && fields.length >= sourceIndexes.length) {
+            return fields;
+        }
+
+        String[] boundFields = new String[sourceIndexes.length];
+        for (int i = 0; i < sourceIndexes.length; i++) {
+            int sourceIndex = sourceIndexes[i];
+            boundFields[i] = (sourceIndex >= 0 && sourceIndex < fields.length) ? fields[sourceIndex] : "";
+        }
+
+        return boundFields;
+    }
+
+    /**
+     * Get the position in the file of an expected column.
+     *
+     * @param column position of the column in the expected order
+     * @return -1 if the file does not have the column
+     */
+    public int getSourceIndex(int column) {
+        return sourceIndexes[column];
+    }
+
+    /**
+     * Whether the file has the expected columns in the expected order.
+     *
+     * @return
+     */
+    public boolean isIdentity() {
+        return isIdentity;
+    }
+
+    /**
+     * Lower-case name without surrounding spaces, quotes or byte order mark.
+     */
+    private static String normalize(String name) {
+        String normalized = name.replace("\uFEFF", "").trim();
+        if (normalized.length() > 1 && normalized.startsWith("\"") && normalized.endsWith("\"")) {
+            normalized = normalized.substring(1, normalized.length() - 1).trim();
+        }
+
+        return normalized.toLowerCase();
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoizes the parsing of date and timestamp columns, which take relatively
+ * few distinct values across millions of rows (e.g. the dates of the Synthea
+ * observations). The raw text is mapped to the epoch milliseconds it parses
+ * to, so a repeated value costs one hash lookup instead of a parse. A new
+ * Date is returned on each call since Date is mutable.
+ *
+ * Values that cannot be parsed are not cached, so they fail the same way
+ * every time.
+ *
+ * Oct 19, 2026 11:21:37 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class DateCache {
+
+    public static final DateCache YYYY_MM_DD = new DateCache(DateFormatters.YYYY_MM_DD);
+    public static final DateCache MM_DD_YYYY = new DateCache(DateFormatters.MM_DD_YYYY);
+    public static final DateCache MM_DD_YYYY_HHMMSS_AM = new DateCache(DateFormatters.MM_DD_YYYY_HHMMSS_AM);
+
+    /**
+     * UTC timestamps such as 2019-02-16T01:02:32Z.
+     */
+    public static final DateCache ISO_INSTANT = new DateCache(DateCache::parseInstant);
+
+    private static final List<DateCache> CACHES = Collections.unmodifiableList(Arrays.asList(
+            YYYY_MM_DD, MM_DD_YYYY, MM_DD_YYYY_HHMMSS_AM, ISO_INSTANT));
+
+    /**
+     * Most distinct values cached per format, which bounds the memory taken by
+     * columns that are nearly unique, such as timestamps.
+     */
+    private static final int MAX_CACHE_SIZE = 65_536;
+
+    private final Parser parser;
+    private final Map<String, Long> cache = new ConcurrentHashMap<>();
+
+    private final LongAdder numOfHits = new LongAdder();
+    private final LongAdder numOfMisses = new LongAdder();
+
+    public DateCache(DateFormat format) {
+        this(value -> format.parse(value).getTime());
+    }
+
+    public DateCache(Parser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Get the caches of the standard formats.
+     *
+     * @return
+     */
+    public static List<DateCache> getCaches() {
+        return CACHES;
+    }
+
+    private static long parseInstant(String value) throws ParseException {
+        try {
+            return Instant.from(DateTimeFormatter.ISO_INSTANT.parse(value)).toEpochMilli();
+        } catch (DateTimeParseException exception) {
+            throw new ParseException(exception.getMessage(), exception.getErrorIndex());
+        }
+    }
+
+    public Date parse(String value) throws ParseException {
+        return new Date(parseMillis(value));
+    }
+
+    /**
+     * Parse the value to epoch milliseconds.
+     *
+     * @param value
+     * @return
+     * @throws ParseException
+     */
+    public long parseMillis(String value) throws ParseException {
+        Long millis = cache.get(value);
+        if (millis != null) {
+            numOfHits.increment();
+
+            return millis;
+        }
+
+        numOfMisses.increment();
+        long parsed = parser.parse(value);
+        if (cache.size() < MAX_CACHE_SIZE) {
+            cache.put(value, parsed);
+        }
+
+        return parsed;
+    }
+
+    public long getNumOfHits() {
+        return numOfHits.sum();
+    }
+
+    public long getNumOfMisses() {
+        return numOfMisses.sum();
+    }
+
+    /**
+     * Fraction of the parses answered by the cache.
+     *
+     * @return NaN if no values have been parsed
+     */
+    public double getHitRate() {
+        long hits = getNumOfHits();
+        long lookups = hits + getNumOfMisses();
+
+        return (lookups == 0) ? Double.NaN : (double) hits / lookups;
+    }
+
+    /**
+     * Number of distinct values cached.
+     *
+     * @return
+     */
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.clear();
+        numOfHits.reset();
+        numOfMisses.reset();
+    }
+
+    @FunctionalInterface
+    public interface Parser {
+
+        long parse(String value) throws ParseException;
+
+    }
+
+}
@@ -19,7 +19,10 @@
 package edu.pitt.dbmi.fhir.resource.mapper.util;
 
 import java.text.DateFormat;
+import java.text.FieldPosition;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.util.Date;
 
 /**
  *
@@ -30,15 +33,44 @@ import java.text.SimpleDateFormat;
  */
 public final class DateFormatters {
 
-    public static final DateFormat YYYY = new SimpleDateFormat("yyyy");
-    public static final DateFormat YYYY_MM = new SimpleDateFormat("yyyy-MM");
-    public static final DateFormat YYYY_MM_DD = new SimpleDateFormat("yyyy-MM-dd");
+    public static final DateFormat YYYY = new ThreadLocalDateFormat("yyyy");
+    public static final DateFormat YYYY_MM = new ThreadLocalDateFormat("yyyy-MM");
+    public static final DateFormat YYYY_MM_DD = new ThreadLocalDateFormat("yyyy-MM-dd");
 
-    public static final DateFormat MM_DD_YYYY = new SimpleDateFormat("MM/dd/yyyy");
+    public static final DateFormat MM_DD_YYYY = new ThreadLocalDateFormat("MM/dd/yyyy");
 
-    public static final DateFormat MM_DD_YYYY_HHMMSS_AM = new SimpleDateFormat("MM/dd/yyyy hh:mm:ss a");
+    public static final DateFormat MM_DD_YYYY_HHMMSS_AM = new ThreadLocalDateFormat("MM/dd/yyyy hh:mm:ss a");
 
     private DateFormatters() {
     }
 
+    /**
+     * SimpleDateFormat is not thread-safe, so each thread formats and parses
+     * with its own copy.
+     */
+    private static final class ThreadLocalDateFormat extends DateFormat {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ThreadLocal<SimpleDateFormat> formats;
+
+        private ThreadLocalDateFormat(String pattern) {
+            SimpleDateFormat prototype = new SimpleDateFormat(pattern);
+            this.calendar = prototype.getCalendar();
+            this.numberFormat = prototype.getNumberFormat();
+            this.formats = ThreadLocal.withInitial(() -> new SimpleDateFormat(pattern));
+        }
+
+        @Override
+        public StringBuffer format(Date date, StringBuffer toAppendTo, FieldPosition fieldPosition) {
+            return formats.get().format(date, toAppendTo, fieldPosition);
+        }
+
+        @Override
+        public Date parse(String source, ParsePosition pos) {
+            return formats.get().parse(source, pos);
+        }
+
+    }
+
 }
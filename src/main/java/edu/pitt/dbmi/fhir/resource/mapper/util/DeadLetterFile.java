@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the rows that could not be mapped to a tab-separated file with the
+ * data file, line number, cause and row, so that they can be fixed and mapped
+ * again without rerunning the whole job. The file is only created when the
+ * first row fails.
+ *
+ * The mapping is stopped once the rows failing in a data file exceed the
+ * maximum error rate. The rate is not checked before MIN_NUM_OF_ROWS rows
+ * have been read so that a few early errors do not stop the run.
+ *
+ * Oct 19, 2026 4:10:48 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class DeadLetterFile implements RowErrorHandler, Closeable {
+
+    public static final long MIN_NUM_OF_ROWS = 100;
+
+    private final Path file;
+    private final double maxErrorRate;
+
+    private final Map<Path, Long> numOfErrorsPerFile = new HashMap<>();
+    private long numOfErrors;
+
+    private BufferedWriter writer;
+
+    /**
+     *
+     * @param file
+     * @param maxErrorRate fraction of the rows of a data file that may fail,
+     * e.g. 0.01; 1 to never stop
+     */
+    public DeadLetterFile(Path file, double maxErrorRate) {
+        this.file = file;
+        this.maxErrorRate = maxErrorRate;
+    }
+
+    @Override
+    public synchronized void handle(Path dataFile, long lineNumber, String line, Exception cause) {
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(file);
+                writer.write(String.format("file\tline\tcause\trow%n"));
+            }
+            writer.write(String.format("%s\t%d\t%s\t%s%n", dataFile.getFileName(), lineNumber, escape(cause.toString()), escape(line)));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        numOfErrors++;
+        long numOfFileErrors = numOfErrorsPerFile.merge(dataFile, 1L, Long::sum);
+
+        long numOfRows = lineNumber - 1;
+        if (numOfRows >= MIN_NUM_OF_ROWS && numOfFileErrors > maxErrorRate * numOfRows) {
+            throw new ErrorRateExceededException(String.format("%d of the first %d rows of '%s' could not be mapped. See '%s'.",
+                    numOfFileErrors, numOfRows, dataFile, file));
+        }
+    }
+
+    public synchronized long getNumOfErrors() {
+        return numOfErrors;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+    }
+
+}
@@ -35,4 +35,46 @@ public final class Delimiters {
     private Delimiters() {
     }
 
+    /**
+     * Get the character of a delimiter that matches one literal character.
+     *
+     * @param delimiter
+     * @return -1 if the delimiter is not a single literal character
+     */
+    public static int toChar(Pattern delimiter) {
+        String pattern = delimiter.pattern();
+        if (pattern.length() == 1 && ".$|()[{^?*+\\".indexOf(pattern.charAt(0)) < 0) {
+            return pattern.charAt(0);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Split a line on a single-character delimiter without the regular
+     * expression engine. Unlike Pattern.split, the trailing empty fields are
+     * kept.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    public static String[] split(String line, char delimiter) {
+        int numOfFields = 1;
+        for (int i = line.indexOf(delimiter); i >= 0; i = line.indexOf(delimiter, i + 1)) {
+            numOfFields++;
+        }
+
+        String[] fields = new String[numOfFields];
+        int start = 0;
+        for (int i = 0; i < numOfFields - 1; i++) {
+            int end = line.indexOf(delimiter, start);
+            fields[i] = line.substring(start, end);
+            start = end + 1;
+        }
+        fields[numOfFields - 1] = line.substring(start);
+
+        return fields;
+    }
+
 }
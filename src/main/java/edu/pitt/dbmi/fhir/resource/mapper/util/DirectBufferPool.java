@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of direct byte buffers of one size. Allocating a direct buffer is
+ * expensive and its memory is only released when the buffer is garbage
+ * collected, so the buffers are reused across output files.
+ *
+ * Oct 19, 2026 5:52:14 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class DirectBufferPool {
+
+    /**
+     * Pool of 256 KB buffers shared by the output files.
+     */
+    public static final DirectBufferPool SHARED = new DirectBufferPool(256 * 1024, 64);
+
+    private final int bufferSize;
+    private final int maxNumOfPooledBuffers;
+
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numOfPooledBuffers = new AtomicInteger();
+
+    /**
+     * @param bufferSize number of bytes of each buffer
+     * @param maxNumOfPooledBuffers number of returned buffers kept for reuse,
+     * the others are left to the garbage collector
+     */
+    public DirectBufferPool(int bufferSize, int maxNumOfPooledBuffers) {
+        this.bufferSize = bufferSize;
+        this.maxNumOfPooledBuffers = maxNumOfPooledBuffers;
+    }
+
+    /**
+     * Take a cleared buffer from the pool, allocating a new one if the pool is
+     * empty.
+     *
+     * @return
+     */
+    public ByteBuffer take() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        numOfPooledBuffers.decrementAndGet();
+
+        return buffer.clear();
+    }
+
+    /**
+     * Return a buffer to the pool.
+     *
+     * @param buffer
+     */
+    public void give(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize || !buffer.isDirect()) {
+            return;
+        }
+
+        if (numOfPooledBuffers.incrementAndGet() <= maxNumOfPooledBuffers) {
+            buffers.offer(buffer);
+        } else {
+            numOfPooledBuffers.decrementAndGet();
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getNumOfPooledBuffers() {
+        return numOfPooledBuffers.get();
+    }
+
+}
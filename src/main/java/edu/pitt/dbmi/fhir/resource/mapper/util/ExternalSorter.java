@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Sorts the rows of a delimited file by a key column using a bounded amount
+ * of memory. Rows are sorted in chunks that fit in the memory budget, each
+ * chunk is spilled to a temporary file, and the chunks are then merged.
+ *
+ * The sort is stable: rows with the same key keep their original order.
+ *
+ * Oct 19, 2026 11:48:03 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class ExternalSorter {
+
+    /**
+     * Rough per-row overhead of a String and its Row holder on the heap.
+     */
+    private static final long ROW_OVERHEAD = 96;
+
+    /**
+     * Maximum number of spill files merged at once.
+     */
+    private static final int MAX_MERGE_WIDTH = 64;
+
+    private final Path tempDir;
+    private final long memoryBudget;
+
+    /**
+     *
+     * @param tempDir directory for the spill files
+     * @param memoryBudget maximum number of bytes of rows held in memory
+     */
+    public ExternalSorter(Path tempDir, long memoryBudget) {
+        this.tempDir = tempDir;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Sort the rows of the input file by the key column. The header line is
+     * copied as is to the output file.
+     *
+     * @param inputFile
+     * @param outputFile
+     * @param delimiter
+     * @param keyColumn position of the sort key
+     * @throws IOException
+     */
+    public void sort(final Path inputFile, final Path outputFile, final Pattern delimiter, final int keyColumn) throws IOException {
+        List<Path> chunkFiles = new LinkedList<>();
+        List<Path> mergedFiles = new LinkedList<>();
+        try {
+            String header;
+            try (BufferedReader reader = Files.newBufferedReader(inputFile, Charset.defaultCharset())) {
+                header = reader.readLine();
+
+                List<Row> rows = new ArrayList<>();
+                long numOfBytes = 0;
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+
+                    rows.add(new Row(getKey(line, delimiter, keyColumn), line));
+                    numOfBytes += ROW_OVERHEAD + 2L * line.length();
+                    if (numOfBytes >= memoryBudget) {
+                        chunkFiles.add(spill(rows));
+                        rows.clear();
+                        numOfBytes = 0;
+                    }
+                }
+                if (!rows.isEmpty() || chunkFiles.isEmpty()) {
+                    chunkFiles.add(spill(rows));
+                }
+            }
+
+            // merge in several passes when there are too many files to open at once
+            while (chunkFiles.size() > MAX_MERGE_WIDTH) {
+                while (!chunkFiles.isEmpty()) {
+                    List<Path> group = new ArrayList<>();
+                    while (!chunkFiles.isEmpty() && group.size() < MAX_MERGE_WIDTH) {
+                        group.add(chunkFiles.remove(0));
+                    }
+
+                    Path mergedFile = Files.createTempFile(tempDir, "sort-", ".chunk");
+                    mergedFiles.add(mergedFile);
+                    try {
+                        merge(group, null, mergedFile, delimiter, keyColumn);
+                    } finally {
+                        for (Path chunkFile : group) {
+                            Files.deleteIfExists(chunkFile);
+                        }
+                    }
+                }
+                chunkFiles.addAll(mergedFiles);
+                mergedFiles.clear();
+            }
+
+            merge(chunkFiles, header, outputFile, delimiter, keyColumn);
+        } finally {
+            // the files of an unfinished pass are not yet in the chunk files
+            for (Path chunkFile : chunkFiles) {
+                Files.deleteIfExists(chunkFile);
+            }
+            for (Path mergedFile : mergedFiles) {
+                Files.deleteIfExists(mergedFile);
+            }
+        }
+    }
+
+    private Path spill(List<Row> rows) throws IOException {
+        rows.sort(Comparator.comparing(row -> row.key));
+
+        Path chunkFile = Files.createTempFile(tempDir, "sort-", ".chunk");
+        try (BufferedWriter writer = Files.newBufferedWriter(chunkFile, Charset.defaultCharset())) {
+            for (Row row : rows) {
+                writer.write(row.line);
+                writer.newLine();
+            }
+        }
+
+        return chunkFile;
+    }
+
+    private void merge(List<Path> chunkFiles, String header, Path outputFile, Pattern delimiter, int keyColumn) throws IOException {
+        List<BufferedReader> readers = new ArrayList<>(chunkFiles.size());
+        try (BufferedWriter writer = Files.newBufferedWriter(outputFile, Charset.defaultCharset())) {
+            if (header != null) {
+                writer.write(header);
+                writer.newLine();
+            }
+
+            // ties are broken by chunk order to keep the sort stable
+            PriorityQueue<Cursor> queue = new PriorityQueue<>(
+                    Comparator.<Cursor, String>comparing(cursor -> cursor.key).thenComparingInt(cursor -> cursor.chunk));
+            for (Path chunkFile : chunkFiles) {
+                BufferedReader reader = Files.newBufferedReader(chunkFile, Charset.defaultCharset());
+                readers.add(reader);
+
+                Cursor cursor = new Cursor(readers.size() - 1, reader);
+                if (cursor.advance(delimiter, keyColumn)) {
+                    queue.add(cursor);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                Cursor cursor = queue.poll();
+                writer.write(cursor.line);
+                writer.newLine();
+                if (cursor.advance(delimiter, keyColumn)) {
+                    queue.add(cursor);
+                }
+            }
+        } finally {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Get the value of the key column without splitting the rest of the line.
+     *
+     * @param line
+     * @param delimiter
+     * @param keyColumn
+     * @return
+     */
+    public static String getKey(String line, Pattern delimiter, int keyColumn) {
+        String[] fields = delimiter.split(line.trim(), keyColumn + 2);
+
+        return (keyColumn < fields.length) ? fields[keyColumn].trim() : "";
+    }
+
+    private static final class Row {
+
+        private final String key;
+        private final String line;
+
+        private Row(String key, String line) {
+            this.key = key;
+            this.line = line;
+        }
+
+    }
+
+    private static final class Cursor {
+
+        private final int chunk;
+        private final BufferedReader reader;
+
+        private String key;
+        private String line;
+
+        private Cursor(int chunk, BufferedReader reader) {
+            this.chunk = chunk;
+            this.reader = reader;
+        }
+
+        private boolean advance(Pattern delimiter, int keyColumn) throws IOException {
+            line = reader.readLine();
+            if (line == null) {
+                return false;
+            }
+            key = getKey(line, delimiter, keyColumn);
+
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,429 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.RuntimeChildResourceDefinition;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Reference;
+
+/**
+ * Uploads the resources to a FHIR server as batch or transaction bundles,
+ * several bundles at a time.
+ *
+ * The size of the bundles adapts to the observed latency: it grows while the
+ * server answers well within the target latency and is halved when the
+ * server is slower than the target or asks the client to slow down (HTTP
+ * 429). A bundle that gets HTTP 429 or 5xx, or whose connection fails, is
+ * sent again after an exponential backoff, honoring the Retry-After header.
+ * The connections to the server are kept alive and reused.
+ *
+ * A resource with a logical id is put at &lt;Type&gt;/&lt;id&gt;, under the full URL
+ * urn:uuid:&lt;id&gt; when the id is a UUID, and one without is created with
+ * POST. Since the bundles
+ * are sent independently, the urn:uuid: references of the resources are
+ * rewritten to &lt;Type&gt;/&lt;id&gt;, the type being the first one the element
+ * allows, e.g. Patient for a subject.
+ *
+ * A batch bundle whose processing failed part way may be applied twice when
+ * it is retried; use transaction bundles when that must not happen.
+ *
+ * Oct 19, 2026 6:41:52 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class FhirUploader implements ResourceSink {
+
+    public static final int DEFAULT_MIN_BATCH_SIZE = 10;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+    public static final Duration DEFAULT_TARGET_LATENCY = Duration.ofSeconds(2);
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(500);
+
+    private static final int MAX_NUM_OF_RETRIES = 5;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(5);
+    private static final String CONTENT_TYPE = "application/fhir+json";
+
+    /**
+     * Status of an entry of the batch-response bundle.
+     */
+    private static final Pattern ENTRY_STATUS = Pattern.compile("\"status\"\\s*:\\s*\"(\\d{3})");
+
+    private final URI serverBase;
+    private final Bundle.BundleType bundleType;
+    private final int numOfConnections;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long targetLatencyNanos;
+    private final long initialBackoffMillis;
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final Semaphore connections;
+
+    private final AtomicInteger batchSize;
+    private final AtomicInteger largestBatchSize;
+    private final AtomicLong numOfUploadedResources = new AtomicLong();
+    private final AtomicLong numOfRejectedResources = new AtomicLong();
+    private final AtomicLong numOfRetries = new AtomicLong();
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+    private StringBuilder batch;
+    private int numOfEntries;
+    private boolean closed;
+
+    public FhirUploader(URI serverBase, Bundle.BundleType bundleType, int numOfConnections) {
+        this(serverBase, bundleType, numOfConnections, DEFAULT_MIN_BATCH_SIZE, DEFAULT_MAX_BATCH_SIZE, DEFAULT_TARGET_LATENCY, DEFAULT_INITIAL_BACKOFF);
+    }
+
+    /**
+     *
+     * @param serverBase base URL of the FHIR server
+     * @param bundleType batch or transaction
+     * @param numOfConnections maximum number of bundles sent at a time
+     * @param minBatchSize
+     * @param maxBatchSize
+     * @param targetLatency response time the bundle size adapts to
+     * @param initialBackoff wait before the first retry, doubled for each
+     * following retry
+     */
+    public FhirUploader(URI serverBase, Bundle.BundleType bundleType, int numOfConnections, int minBatchSize, int maxBatchSize, Duration targetLatency, Duration initialBackoff) {
+        if (bundleType != Bundle.BundleType.BATCH && bundleType != Bundle.BundleType.TRANSACTION) {
+            throw new IllegalArgumentException(String.format("Bundle type '%s' cannot be uploaded.", bundleType.toCode()));
+        }
+        if (minBatchSize < 1 || maxBatchSize < minBatchSize) {
+            throw new IllegalArgumentException("Invalid batch size range.");
+        }
+
+        this.serverBase = serverBase;
+        this.bundleType = bundleType;
+        this.numOfConnections = numOfConnections;
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.initialBackoffMillis = initialBackoff.toMillis();
+
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        this.executor = TaskExecutors.newIoExecutor("upload", numOfConnections);
+        this.connections = new Semaphore(numOfConnections);
+
+        int initialBatchSize = Math.min(maxBatchSize, Math.max(minBatchSize, 100));
+        this.batchSize = new AtomicInteger(initialBatchSize);
+        this.largestBatchSize = new AtomicInteger(initialBatchSize);
+    }
+
+    /**
+     * Encode a resource as an entry of the bundles, with its urn:uuid:
+     * references rewritten.
+     *
+     * @param resource
+     * @return
+     */
+    @Override
+    public Object encode(IBaseResource resource) {
+        resolveReferences(resource);
+
+        String resourceType = resource.fhirType();
+        String id = resource.getIdElement().getIdPart();
+        String resourceJson = JsonResourceConverterR4.resourceToJson(resource, false);
+        StringBuilder entry = new StringBuilder(resourceJson.length() + 128);
+        if (id == null) {
+            entry.append("{\"resource\":")
+                    .append(resourceJson)
+                    .append(",\"request\":{\"method\":\"POST\",\"url\":\"")
+                    .append(resourceType)
+                    .append("\"}}");
+        } else {
+            entry.append("{\"fullUrl\":\"")
+                    .append(Uuids.parse(id, new long[2]) ? Uuids.URN_PREFIX + id : String.format("%s/%s/%s", serverBase, resourceType, id))
+                    .append("\",\"resource\":")
+                    .append(resourceJson)
+                    .append(",\"request\":{\"method\":\"PUT\",\"url\":\"")
+                    .append(resourceType)
+                    .append('/')
+                    .append(id)
+                    .append("\"}}");
+        }
+
+        return entry.toString();
+    }
+
+    @Override
+    public void addEncoded(Object encodedResource) throws IOException {
+        long startTime = System.nanoTime();
+        ensureOpen();
+
+        if (batch == null) {
+            batch = new StringBuilder(64 * 1024);
+            batch.append(String.format("{\"resourceType\":\"Bundle\",\"type\":\"%s\",\"entry\":[", bundleType.toCode()));
+        } else {
+            batch.append(',');
+        }
+        batch.append((String) encodedResource);
+        numOfEntries++;
+
+        if (numOfEntries >= batchSize.get()) {
+            send();
+        }
+        PipelineMetrics.SHARED.record(PipelineMetrics.Stage.WRITE, startTime);
+    }
+
+    /**
+     * Add a resource encoded to JSON, which is parsed to rewrite its
+     * references.
+     *
+     * @param resourceJson
+     * @throws IOException
+     */
+    @Override
+    public void addJson(String resourceJson) throws IOException {
+        add(JsonResourceConverterR4.parseResource(new StringReader(resourceJson)));
+    }
+
+    /**
+     * Send the last bundle and wait for all the bundles to be uploaded.
+     *
+     * @throws IOException if a bundle could not be uploaded
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        try {
+            if (failure.get() == null && numOfEntries > 0) {
+                send();
+            }
+            connections.acquire(numOfConnections);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The upload was interrupted.");
+        } finally {
+            closed = true;
+            executor.shutdownNow();
+        }
+
+        IOException exception = failure.get();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Number of resources the server has accepted.
+     *
+     * @return
+     */
+    public long getNumOfUploadedResources() {
+        return numOfUploadedResources.get();
+    }
+
+    /**
+     * Number of resources the server has rejected within a batch that was
+     * otherwise accepted.
+     *
+     * @return
+     */
+    public long getNumOfRejectedResources() {
+        return numOfRejectedResources.get();
+    }
+
+    public long getNumOfRetries() {
+        return numOfRetries.get();
+    }
+
+    public int getBatchSize() {
+        return batchSize.get();
+    }
+
+    public int getLargestBatchSize() {
+        return largestBatchSize.get();
+    }
+
+    private void send() throws IOException {
+        String body = batch.append("]}").toString();
+        int size = numOfEntries;
+        batch = null;
+        numOfEntries = 0;
+
+        try {
+            connections.acquire();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The upload was interrupted.");
+        }
+        executor.execute(() -> {
+            try {
+                upload(body, size);
+            } catch (IOException exception) {
+                failure.compareAndSet(null, exception);
+            } catch (InterruptedException exception) {
+                failure.compareAndSet(null, new InterruptedIOException("The upload was interrupted."));
+            } finally {
+                connections.release();
+            }
+        });
+    }
+
+    private void upload(String body, int size) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(serverBase)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", CONTENT_TYPE)
+                .header("Accept", CONTENT_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        for (int attempt = 0;; attempt++) {
+            long startTime = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException exception) {
+                if (attempt >= MAX_NUM_OF_RETRIES) {
+                    throw exception;
+                }
+                numOfRetries.incrementAndGet();
+                Thread.sleep(getBackoffMillis(attempt, Optional.empty()));
+                continue;
+            }
+
+            int status = response.statusCode();
+            if (status >= 200 && status < 300) {
+                adjustBatchSize(System.nanoTime() - startTime);
+                long numOfRejected = countRejectedEntries(response.body());
+                numOfRejectedResources.addAndGet(numOfRejected);
+                numOfUploadedResources.addAndGet(size - numOfRejected);
+                PipelineMetrics.SHARED.addBytesWritten(ChannelWriter.getEncodedLength(body));
+
+                return;
+            }
+
+            if ((status == 429 || status >= 500) && attempt < MAX_NUM_OF_RETRIES) {
+                if (status == 429) {
+                    batchSize.updateAndGet(current -> Math.max(minBatchSize, current / 2));
+                }
+                numOfRetries.incrementAndGet();
+                Thread.sleep(getBackoffMillis(attempt, response.headers().firstValue("Retry-After")));
+                continue;
+            }
+
+            throw new IOException(String.format("Server '%s' returned HTTP %d for a bundle of %d resources.", serverBase, status, size));
+        }
+    }
+
+    /**
+     * Grow the bundles while the server answers within half the target
+     * latency and halve them when it is slower than the target.
+     */
+    private void adjustBatchSize(long latencyNanos) {
+        if (latencyNanos < targetLatencyNanos / 2) {
+            int size = batchSize.updateAndGet(current -> Math.min(maxBatchSize, current + Math.max(1, current / 4)));
+            largestBatchSize.accumulateAndGet(size, Math::max);
+        } else if (latencyNanos > targetLatencyNanos) {
+            batchSize.updateAndGet(current -> Math.max(minBatchSize, current / 2));
+        }
+    }
+
+    private long getBackoffMillis(int attempt, Optional<String> retryAfter) {
+        if (retryAfter.isPresent()) {
+            try {
+                return Math.min(MAX_BACKOFF_MILLIS, Long.parseLong(retryAfter.get().trim()) * 1000);
+            } catch (NumberFormatException exception) {
+                // an HTTP date, use the backoff
+            }
+        }
+
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, initialBackoffMillis << attempt);
+
+        return backoff + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Uploader is closed.");
+        }
+
+        IOException exception = failure.get();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private static long countRejectedEntries(String responseBody) {
+        long numOfRejected = 0;
+        Matcher matcher = ENTRY_STATUS.matcher(responseBody);
+        while (matcher.find()) {
+            if (matcher.group(1).charAt(0) != '2') {
+                numOfRejected++;
+            }
+        }
+
+        return numOfRejected;
+    }
+
+    /**
+     * Rewrite the urn:uuid: references to &lt;Type&gt;/&lt;id&gt;, taking the type of
+     * the reference, or else the first type the element allows.
+     */
+    private static void resolveReferences(IBaseResource resource) {
+        FhirContext context = JsonResourceConverterR4.getContext();
+        context.newTerser().visit(resource, (root, element, path, childDefinition, definition) -> {
+            if (element instanceof Reference && childDefinition instanceof RuntimeChildResourceDefinition) {
+                Reference reference = (Reference) element;
+                String value = reference.getReference();
+                if (value != null && value.startsWith(Uuids.URN_PREFIX)) {
+                    String resourceType = reference.getType();
+                    if (resourceType == null) {
+                        List<Class<? extends IBaseResource>> resourceTypes = ((RuntimeChildResourceDefinition) childDefinition).getResourceTypes();
+                        if (!resourceTypes.isEmpty() && !Modifier.isAbstract(resourceTypes.get(0).getModifiers())) {
+                            resourceType = context.getResourceType(resourceTypes.get(0));
+                        }
+                    }
+                    if (resourceType != null) {
+                        reference.setReference(resourceType + "/" + value.substring(Uuids.URN_PREFIX.length()));
+                    }
+                }
+            }
+        });
+    }
+
+}
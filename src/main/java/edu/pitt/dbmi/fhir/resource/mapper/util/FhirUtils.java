@@ -18,12 +18,8 @@
  */
 package edu.pitt.dbmi.fhir.resource.mapper.util;
 
-import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
-import java.math.BigDecimal;
 import org.hl7.fhir.r4.model.CodeableConcept;
 import org.hl7.fhir.r4.model.Coding;
-import org.hl7.fhir.r4.model.Quantity;
-import org.hl7.fhir.r4.model.StringType;
 import org.hl7.fhir.r4.model.Type;
 
 /**
@@ -37,17 +33,17 @@ public final class FhirUtils {
     private FhirUtils() {
     }
 
+    /**
+     * Convert the value of an observation to its FHIR data type.
+     *
+     * @param type
+     * @param value
+     * @param unit
+     * @return
+     * @see ObservationValues#parse(String, String, String)
+     */
     public static Type toFHIRType(String type, String value, String unit) {
-        switch (type) {
-            case "numeric":
-                return new Quantity().setValue(BigDecimal.valueOf(Double.parseDouble(value)))
-                        .setCode(unit).setSystem(CodingSystemURIs.UNITSOFMEASURE_URI)
-                        .setUnit(unit);
-            case "text":
-                return new StringType((String) value);
-            default:
-                return null;
-        }
+        return ObservationValues.parse(type, value, unit);
     }
 
     public static CodeableConcept mapCodingToCodeableConcept(Coding coding, Coding... codings) {
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+/**
+ * Stable, non-cryptographic hash functions. The values must not change
+ * between releases since they are persisted to disk.
+ *
+ * Oct 19, 2026 9:02:14 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class Hashes {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashes() {
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-16 code units, finished with a mixing
+     * step so that similar strings are spread out over all bits.
+     *
+     * @param value
+     * @return
+     */
+    public static long hash64(CharSequence value) {
+        return hash64(value, 0, value.length(), FNV_OFFSET_BASIS);
+    }
+
+    /**
+     * Hash of the characters from start (inclusive) to end (exclusive). Use a
+     * different seed to get an independent hash of the same characters.
+     *
+     * @param value
+     * @param start
+     * @param end
+     * @param seed
+     * @return
+     */
+    public static long hash64(CharSequence value, int start, int end, long seed) {
+        long hash = seed;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+
+        return mix64(hash);
+    }
+
+    /**
+     * Finalization step of MurmurHash3.
+     *
+     * @param value
+     * @return
+     */
+    public static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+
+        return value;
+    }
+
+}
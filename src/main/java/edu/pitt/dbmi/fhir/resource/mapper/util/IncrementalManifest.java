@@ -0,0 +1,458 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps track of the rows of a data file between runs so that only new or
+ * changed rows need to be mapped.
+ *
+ * The manifest is a binary file with one entry per row: the hash of the row
+ * key, the hash of the row content and the row key itself. Keys need not be
+ * unique: a row is unchanged as long as the previous run had a row with the
+ * same key and content that has not been matched yet. Only the hashes are
+ * held in memory; the keys are read back from disk when listing the deleted
+ * rows.
+ *
+ * Oct 19, 2026 9:18:40 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class IncrementalManifest {
+
+    private static final int MAGIC = 0x46524D4D; // FRMM
+    private static final int VERSION = 1;
+
+    private static final char KEY_SEPARATOR = '\u001F';
+
+    /**
+     * Content hash of a row that failed to map, which no row matches, so
+     * that the row is mapped again by the next run.
+     */
+    private static final long FAILED_CONTENT_HASH = 0;
+
+    private IncrementalManifest() {
+    }
+
+    /**
+     * Compare the rows of the input file against the manifest of the previous
+     * run. The header and all new or changed rows are written to the changed
+     * rows file, and the keys of the rows no longer in the input file are
+     * written to the deleted keys file, one per line.
+     *
+     * The manifest itself is not updated until {@link ChangeSet#commit()} is
+     * called, so a failed run can simply be rerun.
+     *
+     * @param manifestFile manifest of the previous run, may not exist yet
+     * @param inputFile delimited data file with a header line
+     * @param delimiter
+     * @param keyColumns names of the header columns that make up the row key
+     * @param changedRowsFile
+     * @param deletedKeysFile
+     * @return
+     * @throws IOException
+     */
+    public static ChangeSet extractChanges(
+            final Path manifestFile,
+            final Path inputFile,
+            final Pattern delimiter,
+            final List<String> keyColumns,
+            final Path changedRowsFile,
+            final Path deletedKeysFile) throws IOException {
+        HashTable previous = loadHashes(manifestFile);
+        HashTable currentKeys = new HashTable();
+
+        Path pendingManifestFile = Paths.get(manifestFile.toString() + ".pending");
+        long numOfRows = 0;
+        long numOfChangedRows = 0;
+        LongList changedEntries = new LongList();
+        LongList changedLineNumbers = new LongList();
+        try (BufferedReader reader = Files.newBufferedReader(inputFile, Charset.defaultCharset());
+             BufferedWriter writer = Files.newBufferedWriter(changedRowsFile, Charset.defaultCharset());
+             DataOutputStream manifest = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(pendingManifestFile)))) {
+            manifest.writeInt(MAGIC);
+            manifest.writeInt(VERSION);
+
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IOException(String.format("File '%s' is empty.", inputFile));
+            }
+            writer.write(header);
+            writer.newLine();
+
+            int[] keyIndices = getColumnIndices(delimiter.split(header.trim()), keyColumns, inputFile);
+            StringBuilder keyBuilder = new StringBuilder();
+            long lineNumber = 1;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                String row = line.trim();
+                if (row.isEmpty()) {
+                    continue;
+                }
+
+                String key = getKey(delimiter.split(row, -1), keyIndices, keyBuilder);
+                long keyHash = Hashes.hash64(key);
+                long contentHash = Hashes.hash64(row);
+                currentKeys.add(keyHash, 0);
+                if (!previous.remove(keyHash, contentHash)) {
+                    writer.write(line);
+                    writer.newLine();
+                    changedEntries.add(numOfRows);
+                    changedLineNumbers.add(lineNumber);
+                    numOfChangedRows++;
+                }
+                numOfRows++;
+
+                manifest.writeBoolean(true);
+                manifest.writeLong(keyHash);
+                manifest.writeLong(contentHash);
+                manifest.writeUTF(key);
+            }
+            manifest.writeBoolean(false);
+        }
+
+        long numOfDeletedRows = writeDeletedKeys(manifestFile, currentKeys, deletedKeysFile);
+
+        return new ChangeSet(manifestFile, pendingManifestFile, numOfRows, numOfChangedRows, numOfDeletedRows, changedEntries, changedLineNumbers);
+    }
+
+    /**
+     * Write the keys of the previous run that no row of this run has.
+     */
+    private static long writeDeletedKeys(Path manifestFile, HashTable currentKeys, Path deletedKeysFile) throws IOException {
+        long numOfDeletedRows = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(deletedKeysFile, Charset.defaultCharset())) {
+            if (Files.exists(manifestFile)) {
+                try (DataInputStream manifest = openManifest(manifestFile)) {
+                    while (manifest.readBoolean()) {
+                        long keyHash = manifest.readLong();
+                        manifest.readLong(); // content hash
+                        String key = manifest.readUTF();
+                        if (!currentKeys.contains(keyHash, 0)) {
+                            writer.write(key.replace(KEY_SEPARATOR, '\t'));
+                            writer.newLine();
+                            numOfDeletedRows++;
+
+                            // only list a duplicated key once
+                            currentKeys.add(keyHash, 0);
+                        }
+                    }
+                }
+            }
+        }
+
+        return numOfDeletedRows;
+    }
+
+    private static HashTable loadHashes(Path manifestFile) throws IOException {
+        HashTable hashTable = new HashTable();
+        if (Files.exists(manifestFile)) {
+            try (DataInputStream manifest = openManifest(manifestFile)) {
+                while (manifest.readBoolean()) {
+                    long keyHash = manifest.readLong();
+                    long contentHash = manifest.readLong();
+                    manifest.readUTF(); // key
+                    hashTable.add(keyHash, contentHash);
+                }
+            }
+        }
+
+        return hashTable;
+    }
+
+    private static DataInputStream openManifest(Path manifestFile) throws IOException {
+        DataInputStream manifest = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifestFile)));
+        if (manifest.readInt() != MAGIC || manifest.readInt() != VERSION) {
+            manifest.close();
+            throw new IOException(String.format("File '%s' is not a valid manifest.", manifestFile));
+        }
+
+        return manifest;
+    }
+
+    private static String getKey(String[] fields, int[] keyIndices, StringBuilder keyBuilder) {
+        if (keyIndices.length == 1) {
+            return fields[keyIndices[0]].trim();
+        }
+
+        keyBuilder.setLength(0);
+        for (int i = 0; i < keyIndices.length; i++) {
+            if (i > 0) {
+                keyBuilder.append(KEY_SEPARATOR);
+            }
+            keyBuilder.append(fields[keyIndices[i]].trim());
+        }
+
+        return keyBuilder.toString();
+    }
+
+    private static int[] getColumnIndices(String[] headers, List<String> columns, Path inputFile) throws IOException {
+        int[] indices = new int[columns.size()];
+        for (int i = 0; i < indices.length; i++) {
+            String column = columns.get(i);
+            indices[i] = -1;
+            for (int j = 0; j < headers.length && indices[i] < 0; j++) {
+                if (headers[j].trim().equalsIgnoreCase(column)) {
+                    indices[i] = j;
+                }
+            }
+            if (indices[i] < 0) {
+                throw new IOException(String.format("File '%s' has no key column '%s'.", inputFile, column));
+            }
+        }
+
+        return indices;
+    }
+
+    /**
+     * Outcome of comparing a data file against its manifest.
+     */
+    public static final class ChangeSet {
+
+        private final Path manifestFile;
+        private final Path pendingManifestFile;
+        private final long numOfRows;
+        private final long numOfChangedRows;
+        private final long numOfDeletedRows;
+
+        /**
+         * Manifest entry of each changed row, in the order of the changed
+         * rows file.
+         */
+        private final LongList changedEntries;
+
+        /**
+         * Line number in the input file of each changed row, in the order of
+         * the changed rows file.
+         */
+        private final LongList changedLineNumbers;
+
+        /**
+         * Manifest entries of the changed rows that failed to map.
+         */
+        private final HashTable failedEntries = new HashTable();
+
+        private ChangeSet(Path manifestFile, Path pendingManifestFile, long numOfRows, long numOfChangedRows, long numOfDeletedRows, LongList changedEntries, LongList changedLineNumbers) {
+            this.manifestFile = manifestFile;
+            this.pendingManifestFile = pendingManifestFile;
+            this.numOfRows = numOfRows;
+            this.numOfChangedRows = numOfChangedRows;
+            this.numOfDeletedRows = numOfDeletedRows;
+            this.changedEntries = changedEntries;
+            this.changedLineNumbers = changedLineNumbers;
+        }
+
+        /**
+         * Record that a row of the changed rows file could not be mapped. The
+         * row is committed without its content, so that the next run maps it
+         * again while still reporting it if it is deleted.
+         *
+         * @param lineNumber line number in the changed rows file, counting
+         * the header as line 1
+         */
+        public synchronized void markFailed(long lineNumber) {
+            long row = lineNumber - 2;
+            if (row >= 0 && row < changedEntries.size()) {
+                failedEntries.add(changedEntries.get(row), 0);
+            }
+        }
+
+        /**
+         * Line number in the input file of a row of the changed rows file.
+         *
+         * @param lineNumber line number in the changed rows file, counting
+         * the header as line 1
+         * @return the line number in the input file, or 0 if the line is not
+         * a changed row
+         */
+        public long getInputLineNumber(long lineNumber) {
+            long row = lineNumber - 2;
+
+            return (row >= 0 && row < changedLineNumbers.size()) ? changedLineNumbers.get(row) : 0;
+        }
+
+        /**
+         * Replace the manifest of the previous run with the one of this run.
+         *
+         * @throws IOException
+         */
+        public synchronized void commit() throws IOException {
+            if (failedEntries.size() > 0) {
+                removeFailedContent();
+            }
+            Files.move(pendingManifestFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private void removeFailedContent() throws IOException {
+            Path rewrittenFile = Paths.get(pendingManifestFile.toString() + ".tmp");
+            try (DataInputStream pending = openManifest(pendingManifestFile);
+                 DataOutputStream manifest = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(rewrittenFile)))) {
+                manifest.writeInt(MAGIC);
+                manifest.writeInt(VERSION);
+                for (long entry = 0; pending.readBoolean(); entry++) {
+                    long keyHash = pending.readLong();
+                    long contentHash = pending.readLong();
+                    String key = pending.readUTF();
+
+                    manifest.writeBoolean(true);
+                    manifest.writeLong(keyHash);
+                    manifest.writeLong(failedEntries.contains(entry, 0) ? FAILED_CONTENT_HASH : contentHash);
+                    manifest.writeUTF(key);
+                }
+                manifest.writeBoolean(false);
+            }
+            Files.move(rewrittenFile, pendingManifestFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        /**
+         * Discard the manifest of this run.
+         *
+         * @throws IOException
+         */
+        public void rollback() throws IOException {
+            Files.deleteIfExists(pendingManifestFile);
+        }
+
+        public long getNumOfRows() {
+            return numOfRows;
+        }
+
+        public long getNumOfChangedRows() {
+            return numOfChangedRows;
+        }
+
+        public long getNumOfDeletedRows() {
+            return numOfDeletedRows;
+        }
+
+        public synchronized long getNumOfFailedRows() {
+            return failedEntries.size();
+        }
+
+    }
+
+    /**
+     * Open-addressing multiset of pairs of hashes, e.g. key and content
+     * hashes, with the number of times each pair was added.
+     */
+    private static final class HashTable {
+
+        private long[] keys = new long[1024];
+        private long[] values = new long[1024];
+        private int[] counts = new int[1024];
+        private boolean[] used = new boolean[1024];
+        private long size;
+
+        void add(long key, long value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+
+            int slot = findSlot(key, value);
+            if (!used[slot]) {
+                keys[slot] = key;
+                values[slot] = value;
+                used[slot] = true;
+                size++;
+            }
+            counts[slot]++;
+        }
+
+        /**
+         * Take one occurrence of the pair.
+         *
+         * @param key
+         * @param value
+         * @return false if no occurrence of the pair is left
+         */
+        boolean remove(long key, long value) {
+            int slot = findSlot(key, value);
+            if (counts[slot] == 0) {
+                return false;
+            }
+            counts[slot]--;
+
+            return true;
+        }
+
+        boolean contains(long key, long value) {
+            return counts[findSlot(key, value)] > 0;
+        }
+
+        /**
+         * Number of distinct pairs added.
+         *
+         * @return
+         */
+        long size() {
+            return size;
+        }
+
+        private int findSlot(long key, long value) {
+            int mask = keys.length - 1;
+            int slot = (int) Hashes.mix64(key ^ Hashes.mix64(value)) & mask;
+            while (used[slot] && (keys[slot] != key || values[slot] != value)) {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            int[] oldCounts = counts;
+            boolean[] oldUsed = used;
+
+            keys = new long[oldKeys.length * 2];
+            values = new long[oldValues.length * 2];
+            counts = new int[oldCounts.length * 2];
+            used = new boolean[oldUsed.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = (int) Hashes.mix64(oldKeys[i] ^ Hashes.mix64(oldValues[i])) & mask;
+                    while (used[slot]) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    counts[slot] = oldCounts[i];
+                    used[slot] = true;
+                }
+            }
+        }
+
+    }
+
+}
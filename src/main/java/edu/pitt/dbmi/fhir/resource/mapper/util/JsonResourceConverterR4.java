@@ -29,6 +29,7 @@ import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Encounter;
 import org.hl7.fhir.r4.model.Observation;
 import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Resource;
 
 /**
  * A utility for converting a FHIR R4 resource object to a JSON representation
@@ -40,22 +41,30 @@ import org.hl7.fhir.r4.model.Patient;
  */
 public final class JsonResourceConverterR4 {
 
-    private static final IParser PARSER = FhirContext.forR4().newJsonParser();
+    private static final FhirContext CONTEXT = FhirContext.forR4();
+
+    /**
+     * Parsers are not thread-safe, so each thread has its own.
+     */
+    private static final ThreadLocal<IParser> PARSER = ThreadLocal.withInitial(CONTEXT::newJsonParser);
 
     private JsonResourceConverterR4() {
     }
 
+    public static FhirContext getContext() {
+        return CONTEXT;
+    }
+
     public static String resourceToJson(IBaseResource resource) {
         return resourceToJson(resource, true);
     }
 
     public static String resourceToJson(IBaseResource resource, boolean printPretty) {
-        PARSER.setPrettyPrint(printPretty);
-        return PARSER.encodeResourceToString(resource);
+        return encode(resource, printPretty);
     }
 
     public static IBaseResource parseResource(Reader reader) throws ConfigurationException, DataFormatException {
-        return PARSER.parseResource(reader);
+        return PARSER.get().parseResource(reader);
     }
 
     public static String patientsToJsonBundle(Bundle.BundleType type, List<Patient> patients, boolean printPretty) {
@@ -64,9 +73,7 @@ public final class JsonResourceConverterR4 {
 
         patients.forEach(e -> bundle.addEntry().setResource(e));
 
-        PARSER.setPrettyPrint(printPretty);
-
-        return PARSER.encodeResourceToString(bundle);
+        return encode(bundle, printPretty);
     }
 
     public static String encountersToJsonBundle(Bundle.BundleType type, List<Encounter> encounters, boolean printPretty) {
@@ -75,9 +82,7 @@ public final class JsonResourceConverterR4 {
 
         encounters.forEach(e -> bundle.addEntry().setResource(e));
 
-        PARSER.setPrettyPrint(printPretty);
-
-        return PARSER.encodeResourceToString(bundle);
+        return encode(bundle, printPretty);
     }
 
     public static String observationsToJsonBundle(Bundle.BundleType type, List<Observation> observations, boolean printPretty) {
@@ -86,21 +91,40 @@ public final class JsonResourceConverterR4 {
 
         observations.forEach(e -> bundle.addEntry().setResource(e));
 
-        PARSER.setPrettyPrint(printPretty);
+        return encode(bundle, printPretty);
+    }
+
+    public static String resourcesToJsonBundle(Bundle.BundleType type, List<? extends Resource> resources, boolean printPretty) {
+        Bundle bundle = new Bundle();
+        bundle.setType(type);
+
+        resources.forEach(e -> bundle.addEntry().setResource(e));
+
+        return encode(bundle, printPretty);
+    }
+
+    private static String encode(IBaseResource resource, boolean printPretty) {
+        long startTime = System.nanoTime();
+        try {
+            IParser parser = PARSER.get();
+            parser.setPrettyPrint(printPretty);
 
-        return PARSER.encodeResourceToString(bundle);
+            return parser.encodeResourceToString(resource);
+        } finally {
+            PipelineMetrics.SHARED.record(PipelineMetrics.Stage.ENCODE, startTime);
+        }
     }
 
     public static Patient toPatient(String json) {
-        return PARSER.parseResource(Patient.class, json);
+        return PARSER.get().parseResource(Patient.class, json);
     }
 
     public static Encounter toEncounter(String json) {
-        return PARSER.parseResource(Encounter.class, json);
+        return PARSER.get().parseResource(Encounter.class, json);
     }
 
     public static Observation toObservation(String json) {
-        return PARSER.parseResource(Observation.class, json);
+        return PARSER.get().parseResource(Observation.class, json);
     }
 
 }
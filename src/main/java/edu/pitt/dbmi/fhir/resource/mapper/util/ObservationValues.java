@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.TerminologyRegistry;
+import java.math.BigDecimal;
+import org.hl7.fhir.r4.model.BooleanType;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.IntegerType;
+import org.hl7.fhir.r4.model.Quantity;
+import org.hl7.fhir.r4.model.Range;
+import org.hl7.fhir.r4.model.StringType;
+import org.hl7.fhir.r4.model.Type;
+
+/**
+ * Parses the value of an observation from its text and its declared type
+ * into the matching FHIR data type.
+ *
+ * Decimals are parsed straight into a BigDecimal that keeps the digits and
+ * the scale of the source, e.g. 159.54466164663938 or 7.50, instead of going
+ * through a double. Decimals of up to 18 digits without an exponent, which
+ * is nearly all the data, are parsed in one pass into an unscaled long.
+ * Units are normalized to UCUM codes.
+ *
+ * Oct 19, 2026 8:52:40 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class ObservationValues {
+
+    /**
+     * Number of digits that always fit in a long.
+     */
+    private static final int MAX_NUM_OF_FAST_DIGITS = 18;
+
+    private ObservationValues() {
+    }
+
+    /**
+     * Parse the value of an observation.
+     *
+     * @param type numeric, integer, boolean, range, coded or text
+     * @param value
+     * @param unit unit of the numeric values, may be empty
+     * @return the value, or null if the value is empty or the type is
+     * unknown
+     * @throws NumberFormatException if the value does not match its type
+     */
+    public static Type parse(String type, String value, String unit) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+
+        switch (type.trim().toLowerCase()) {
+            case "numeric":
+            case "decimal":
+            case "quantity":
+                return toQuantity(parseDecimal(value), unit);
+            case "integer":
+                return (unit == null || unit.isEmpty())
+                        ? new IntegerType(parseInteger(value))
+                        : toQuantity(BigDecimal.valueOf(parseInteger(value)), unit);
+            case "boolean":
+                return new BooleanType(parseBoolean(value));
+            case "range":
+                return parseRange(value, unit);
+            case "coded":
+            case "code":
+                return parseCode(value);
+            case "text":
+            case "string":
+                return new StringType(value);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Parse a decimal number, keeping its precision.
+     *
+     * @param value
+     * @return
+     * @throws NumberFormatException
+     */
+    public static BigDecimal parseDecimal(CharSequence value) {
+        BigDecimal decimal = parseShortDecimal(value);
+
+        return (decimal != null) ? decimal : new BigDecimal(value.toString().trim());
+    }
+
+    /**
+     * Parse an integer, accepting a decimal with a zero fraction such as
+     * 12.0.
+     *
+     * @param value
+     * @return
+     * @throws NumberFormatException if the value is not a whole number or
+     * does not fit an int
+     */
+    public static int parseInteger(String value) {
+        try {
+            return parseDecimal(value).intValueExact();
+        } catch (ArithmeticException exception) {
+            throw new NumberFormatException(String.format("'%s' is not an integer.", value));
+        }
+    }
+
+    /**
+     * Parse a boolean written as true/false, t/f, yes/no, y/n, 1/0 or
+     * positive/negative, in any case.
+     *
+     * @param value
+     * @return
+     * @throws NumberFormatException if the value is not a boolean
+     */
+    public static boolean parseBoolean(String value) {
+        switch (value.trim().toLowerCase()) {
+            case "true":
+            case "t":
+            case "yes":
+            case "y":
+            case "1":
+            case "positive":
+                return true;
+            case "false":
+            case "f":
+            case "no":
+            case "n":
+            case "0":
+            case "negative":
+                return false;
+            default:
+                throw new NumberFormatException(String.format("'%s' is not a boolean.", value));
+        }
+    }
+
+    /**
+     * Parse a range written as "low-high", "low..high" or "low to high". A
+     * missing bound, as in "5.." or "..10", leaves the range open on that
+     * side.
+     *
+     * @param value
+     * @param unit
+     * @return
+     */
+    public static Range parseRange(String value, String unit) {
+        int[] separator = findRangeSeparator(value);
+        if (separator == null) {
+            throw new NumberFormatException(String.format("'%s' is not a range.", value));
+        }
+
+        String low = value.substring(0, separator[0]).trim();
+        String high = value.substring(separator[1]).trim();
+        Range range = new Range();
+        if (!low.isEmpty()) {
+            range.setLow(toQuantity(parseDecimal(low), unit));
+        }
+        if (!high.isEmpty()) {
+            range.setHigh(toQuantity(parseDecimal(high), unit));
+        }
+
+        return range;
+    }
+
+    /**
+     * Parse a coded value written as code, system|code or
+     * system|code|display. The system may be an alias such as loinc, and a
+     * missing display is filled in from the terminology registry.
+     *
+     * @param value
+     * @return
+     */
+    public static CodeableConcept parseCode(String value) {
+        String[] parts = value.split("\\|", 3);
+        Coding coding = new Coding();
+        if (parts.length == 1) {
+            coding.setCode(parts[0].trim());
+        } else {
+            coding.setSystem(parts[0].trim().isEmpty() ? null : parts[0].trim());
+            coding.setCode(parts[1].trim());
+            if (parts.length == 3 && !parts[2].trim().isEmpty()) {
+                coding.setDisplay(parts[2].trim());
+            }
+        }
+
+        return TerminologyRegistry.SHARED.apply(FhirUtils.mapCodingToCodeableConcept(coding));
+    }
+
+    /**
+     * Find the start and end of the separator of a range: "..", " to " or a
+     * hyphen that is not the sign of the low value.
+     */
+    private static int[] findRangeSeparator(String value) {
+        int index = value.indexOf("..");
+        if (index >= 0) {
+            return new int[]{index, index + 2};
+        }
+
+        index = value.toLowerCase().indexOf(" to ");
+        if (index >= 0) {
+            return new int[]{index, index + 4};
+        }
+
+        int start = 0;
+        while (start < value.length() && value.charAt(start) == ' ') {
+            start++;
+        }
+        index = value.indexOf('-', start + 1);
+        if (index >= 0) {
+            return new int[]{index, index + 1};
+        }
+
+        return (start < value.length() && value.charAt(start) == '-')
+                ? new int[]{start, start + 1}
+                : null;
+    }
+
+    /**
+     * Create a quantity whose code is the UCUM code of the unit. A unit that
+     * is not UCUM is kept as text only.
+     */
+    private static Quantity toQuantity(BigDecimal value, String unit) {
+        Quantity quantity = new Quantity();
+        quantity.setValue(value);
+
+        String code = UcumUnits.SHARED.toUcum(unit);
+        if (code != null) {
+            quantity.setCode(code)
+                    .setSystem(CodingSystemURIs.UNITSOFMEASURE_URI);
+        }
+        if (unit != null && !unit.isEmpty()) {
+            quantity.setUnit(unit);
+        }
+
+        return quantity;
+    }
+
+    /**
+     * Parse a decimal of at most 18 digits without an exponent, or return
+     * null for the general parser.
+     */
+    private static BigDecimal parseShortDecimal(CharSequence value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+
+        boolean isNegative = false;
+        char sign = value.charAt(start);
+        if (sign == '-' || sign == '+') {
+            isNegative = (sign == '-');
+            start++;
+        }
+
+        long unscaled = 0;
+        int numOfDigits = 0;
+        int scale = 0;
+        boolean hasPoint = false;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++numOfDigits > MAX_NUM_OF_FAST_DIGITS) {
+                    return null;
+                }
+                unscaled = (unscaled * 10) + (c - '0');
+                if (hasPoint) {
+                    scale++;
+                }
+            } else if (c == '.' && !hasPoint) {
+                hasPoint = true;
+            } else {
+                return null;
+            }
+        }
+        if (numOfDigits == 0) {
+            return null;
+        }
+
+        return BigDecimal.valueOf(isNegative ? -unscaled : unscaled, scale);
+    }
+
+}
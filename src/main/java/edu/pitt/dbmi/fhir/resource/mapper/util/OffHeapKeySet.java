@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+
+/**
+ * Set of 128-bit keys, each stored as two longs in direct (off-heap) memory
+ * with open addressing. A key takes 16 bytes plus the free slots, versus well
+ * over 100 bytes for a 36-character UUID String in a HashSet, and the set puts
+ * no pressure on the garbage collector.
+ *
+ * The memory is limited by -XX:MaxDirectMemorySize, which defaults to the
+ * maximum heap size.
+ *
+ * Oct 19, 2026 1:14:37 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class OffHeapKeySet implements Closeable {
+
+    private static final int SLOT_SIZE = 16;
+
+    /**
+     * 2^26 slots (1 GB) per buffer since a ByteBuffer is indexed by int.
+     */
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private static final double MAX_LOAD_FACTOR = 0.7;
+
+    private ByteBuffer[] segments;
+    private long capacity;
+    private long size;
+
+    /**
+     * The all-zero key marks the free slots, so it is tracked separately.
+     */
+    private boolean containsZero;
+
+    public OffHeapKeySet(long expectedSize) {
+        long minCapacity = Math.max(16, (long) (expectedSize / MAX_LOAD_FACTOR) + 1);
+        allocate(Long.highestOneBit(minCapacity - 1) << 1);
+    }
+
+    /**
+     * Add a key.
+     *
+     * @param hi most significant 64 bits
+     * @param lo least significant 64 bits
+     * @return true if the key was not already in the set
+     */
+    public boolean add(long hi, long lo) {
+        if (hi == 0 && lo == 0) {
+            boolean isAdded = !containsZero;
+            containsZero = true;
+
+            return isAdded;
+        }
+
+        if (size + 1 > capacity * MAX_LOAD_FACTOR) {
+            resize();
+        }
+
+        long slot = findSlot(hi, lo);
+        if (getLong(slot, 0) == 0 && getLong(slot, 8) == 0) {
+            putLong(slot, 0, hi);
+            putLong(slot, 8, lo);
+            size++;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    public boolean contains(long hi, long lo) {
+        if (hi == 0 && lo == 0) {
+            return containsZero;
+        }
+
+        long slot = findSlot(hi, lo);
+
+        return getLong(slot, 0) != 0 || getLong(slot, 8) != 0;
+    }
+
+    public long size() {
+        return containsZero ? size + 1 : size;
+    }
+
+    /**
+     * Number of bytes of off-heap memory held by the set.
+     *
+     * @return
+     */
+    public long getNumOfBytes() {
+        return capacity * SLOT_SIZE;
+    }
+
+    /**
+     * Release the off-heap memory. The memory is given back to the operating
+     * system once the buffers are garbage collected.
+     */
+    @Override
+    public void close() {
+        segments = new ByteBuffer[0];
+        capacity = 0;
+        size = 0;
+        containsZero = false;
+    }
+
+    /**
+     * Find the slot holding the key or the free slot where it belongs.
+     */
+    private long findSlot(long hi, long lo) {
+        long mask = capacity - 1;
+        long slot = Hashes.mix64(hi ^ Hashes.mix64(lo)) & mask;
+        while (true) {
+            long slotHi = getLong(slot, 0);
+            long slotLo = getLong(slot, 8);
+            if ((slotHi == hi && slotLo == lo) || (slotHi == 0 && slotLo == 0)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        ByteBuffer[] oldSegments = segments;
+        long oldCapacity = capacity;
+
+        allocate(oldCapacity * 2);
+        for (long slot = 0; slot < oldCapacity; slot++) {
+            ByteBuffer segment = oldSegments[(int) (slot >>> SEGMENT_SHIFT)];
+            int offset = (int) ((slot & SEGMENT_MASK) * SLOT_SIZE);
+            long hi = segment.getLong(offset);
+            long lo = segment.getLong(offset + 8);
+            if (hi != 0 || lo != 0) {
+                long newSlot = findSlot(hi, lo);
+                putLong(newSlot, 0, hi);
+                putLong(newSlot, 8, lo);
+            }
+        }
+    }
+
+    private void allocate(long numOfSlots) {
+        long slotsPerSegment = Math.min(numOfSlots, 1L << SEGMENT_SHIFT);
+        int numOfSegments = (int) (numOfSlots / slotsPerSegment);
+
+        segments = new ByteBuffer[numOfSegments];
+        for (int i = 0; i < numOfSegments; i++) {
+            segments[i] = ByteBuffer.allocateDirect((int) (slotsPerSegment * SLOT_SIZE));
+        }
+        capacity = numOfSlots;
+    }
+
+    private long getLong(long slot, int position) {
+        return segments[(int) (slot >>> SEGMENT_SHIFT)].getLong((int) ((slot & SEGMENT_MASK) * SLOT_SIZE) + position);
+    }
+
+    private void putLong(long slot, int position, long value) {
+        segments[(int) (slot >>> SEGMENT_SHIFT)].putLong((int) ((slot & SEGMENT_MASK) * SLOT_SIZE) + position, value);
+    }
+
+}
@@ -0,0 +1,898 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a flat table to an Apache Parquet file, without depending on the
+ * Hadoop libraries.
+ *
+ * The rows are buffered column by column and written out as a row group once
+ * the buffered data reaches the row-group size. Every column is optional (may
+ * hold nulls). Dictionary columns, meant for codes with few distinct values,
+ * are dictionary-encoded, falling back to plain encoding for a row group
+ * whose dictionary grows too big. The numeric and timestamp columns carry
+ * their minimum and maximum so that readers can skip row groups.
+ *
+ * Only the parts of the format needed for flat tables are implemented: data
+ * pages version 1, the PLAIN, PLAIN_DICTIONARY and RLE encodings, and no or
+ * GZIP compression.
+ *
+ * Oct 19, 2026 7:32:05 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ * @see https://parquet.apache.org/docs/file-format/
+ */
+public final class ParquetTableWriter implements Closeable {
+
+    public static final long DEFAULT_ROW_GROUP_SIZE = 64L * 1024 * 1024;
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int PAGE_SIZE = 1024 * 1024;
+    private static final int MAX_NUM_OF_PAGE_ROWS = 20_000;
+    private static final int MAX_DICTIONARY_SIZE = 1024 * 1024;
+
+    // parquet.thrift enumerations
+    private static final int PAGE_TYPE_DATA = 0;
+    private static final int PAGE_TYPE_DICTIONARY = 2;
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_PLAIN_DICTIONARY = 2;
+    private static final int ENCODING_RLE = 3;
+    private static final int REPETITION_OPTIONAL = 1;
+
+    public enum Codec {
+        UNCOMPRESSED(0),
+        GZIP(2);
+
+        private final int code;
+
+        private Codec(int code) {
+            this.code = code;
+        }
+    }
+
+    /**
+     * Types of the column values: String, Long, Double, Date (milliseconds
+     * since the epoch) and LocalDate.
+     */
+    public enum ColumnType {
+        STRING(6, 0, 0),
+        INT64(2, -1, 8),
+        DOUBLE(5, -1, 8),
+        TIMESTAMP_MILLIS(2, 9, 8),
+        DATE(1, 6, 4);
+
+        private final int physicalType;
+        private final int convertedType;
+        private final int numOfBytes;
+
+        private ColumnType(int physicalType, int convertedType, int numOfBytes) {
+            this.physicalType = physicalType;
+            this.convertedType = convertedType;
+            this.numOfBytes = numOfBytes;
+        }
+    }
+
+    public static final class Column {
+
+        private final String name;
+        private final ColumnType type;
+        private final boolean dictionary;
+
+        public Column(String name, ColumnType type, boolean dictionary) {
+            if (dictionary && type != ColumnType.STRING) {
+                throw new IllegalArgumentException("Only string columns can be dictionary-encoded.");
+            }
+
+            this.name = name;
+            this.type = type;
+            this.dictionary = dictionary;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ColumnType getType() {
+            return type;
+        }
+
+        public boolean isDictionary() {
+            return dictionary;
+        }
+
+    }
+
+    private final OutputStream out;
+    private final List<Column> columns;
+    private final Codec codec;
+    private final long rowGroupSize;
+
+    private final ColumnBuffer[] buffers;
+    private final List<RowGroup> rowGroups = new LinkedList<>();
+
+    private long position;
+    private long numOfRows;
+    private int numOfBufferedRows;
+    private boolean closed;
+
+    public ParquetTableWriter(Path file, List<Column> columns) throws IOException {
+        this(file, columns, Codec.GZIP, DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    /**
+     *
+     * @param file
+     * @param columns
+     * @param codec compression of the pages
+     * @param rowGroupSize number of bytes of buffered data written out as one
+     * row group
+     * @throws IOException
+     */
+    public ParquetTableWriter(Path file, List<Column> columns, Codec codec, long rowGroupSize) throws IOException {
+        this.columns = List.copyOf(columns);
+        this.codec = codec;
+        this.rowGroupSize = rowGroupSize;
+
+        this.buffers = new ColumnBuffer[columns.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new ColumnBuffer(columns.get(i));
+        }
+
+        this.out = new BufferedOutputStream(Files.newOutputStream(file), 256 * 1024);
+        write(MAGIC);
+    }
+
+    /**
+     * Add a row.
+     *
+     * @param values one value per column, in the order of the columns, or
+     * null
+     * @throws IOException
+     */
+    public void addRow(Object... values) throws IOException {
+        if (closed) {
+            throw new IOException("Writer is closed.");
+        }
+        if (values.length != buffers.length) {
+            throw new IllegalArgumentException(String.format("Expected %d values but got %d.", buffers.length, values.length));
+        }
+
+        long numOfBytes = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i].add(values[i]);
+            numOfBytes += buffers[i].getNumOfBytes();
+        }
+        numOfBufferedRows++;
+        numOfRows++;
+
+        if (numOfBytes >= rowGroupSize) {
+            writeRowGroup();
+        }
+    }
+
+    public long getNumOfRows() {
+        return numOfRows;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Write the last row group and the file footer.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try (out) {
+            if (numOfBufferedRows > 0) {
+                writeRowGroup();
+            }
+
+            ByteArrayOutputStream footer = new ByteArrayOutputStream();
+            writeFileMetaData(new ThriftWriter(footer));
+            write(footer.toByteArray());
+            write(new byte[]{
+                (byte) footer.size(), (byte) (footer.size() >>> 8), (byte) (footer.size() >>> 16), (byte) (footer.size() >>> 24)
+            });
+            write(MAGIC);
+        }
+    }
+
+    private void writeRowGroup() throws IOException {
+        RowGroup rowGroup = new RowGroup(position, numOfBufferedRows);
+        for (ColumnBuffer buffer : buffers) {
+            rowGroup.chunks.add(writeColumnChunk(buffer));
+            buffer.clear();
+        }
+        rowGroups.add(rowGroup);
+        numOfBufferedRows = 0;
+    }
+
+    private ColumnChunk writeColumnChunk(ColumnBuffer buffer) throws IOException {
+        ColumnChunk chunk = new ColumnChunk(buffer);
+        boolean isDictionaryEncoded = buffer.column.dictionary && buffer.dictionarySize <= MAX_DICTIONARY_SIZE;
+
+        if (isDictionaryEncoded) {
+            chunk.dictionaryPageOffset = position;
+            ByteSink dictionary = new ByteSink(buffer.dictionarySize);
+            for (byte[] value : buffer.dictionaryValues) {
+                dictionary.writeIntLE(value.length);
+                dictionary.write(value);
+            }
+            writePage(chunk, PAGE_TYPE_DICTIONARY, buffer.dictionaryValues.size(), dictionary);
+        }
+
+        chunk.dataPageOffset = position;
+        int bitWidth = isDictionaryEncoded ? Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, buffer.dictionaryValues.size() - 1))) : 0;
+        int firstValue = 0;
+        for (int firstRow = 0; firstRow < buffer.numOfRows;) {
+            // find the rows of the page
+            int lastRow = firstRow;
+            int lastValue = firstValue;
+            long numOfBytes = 0;
+            while (lastRow < buffer.numOfRows && (lastRow - firstRow) < MAX_NUM_OF_PAGE_ROWS && numOfBytes < PAGE_SIZE) {
+                if (buffer.definitionLevels[lastRow] == 1) {
+                    numOfBytes += isDictionaryEncoded ? 1 : buffer.getPlainSize(lastValue);
+                    lastValue++;
+                }
+                lastRow++;
+            }
+
+            ByteSink page = new ByteSink((int) Math.min(Integer.MAX_VALUE - 16, numOfBytes + 64));
+            ByteSink levels = new ByteSink(64);
+            encodeHybrid(buffer.definitionLevels, firstRow, lastRow, 1, levels);
+            page.writeIntLE(levels.size());
+            page.write(levels);
+            if (isDictionaryEncoded) {
+                page.write(bitWidth);
+                encodeHybrid(buffer.indices, firstValue, lastValue, bitWidth, page);
+            } else {
+                buffer.writePlain(firstValue, lastValue, page);
+            }
+            writePage(chunk, PAGE_TYPE_DATA, lastRow - firstRow, page);
+
+            firstRow = lastRow;
+            firstValue = lastValue;
+        }
+        chunk.encoding = isDictionaryEncoded ? ENCODING_PLAIN_DICTIONARY : ENCODING_PLAIN;
+
+        return chunk;
+    }
+
+    private void writePage(ColumnChunk chunk, int pageType, int numOfValues, ByteSink page) throws IOException {
+        byte[] data;
+        int dataLength;
+        if (codec == Codec.GZIP) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(page.size() / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 64 * 1024)) {
+                gzip.write(page.bytes, 0, page.size());
+            }
+            data = compressed.toByteArray();
+            dataLength = data.length;
+        } else {
+            data = page.bytes;
+            dataLength = page.size();
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream(64);
+        ThriftWriter thrift = new ThriftWriter(header);
+        thrift.structBegin();
+        thrift.fieldI32(1, pageType);
+        thrift.fieldI32(2, page.size());
+        thrift.fieldI32(3, dataLength);
+        if (pageType == PAGE_TYPE_DICTIONARY) {
+            thrift.fieldStructBegin(7);
+            thrift.fieldI32(1, numOfValues);
+            thrift.fieldI32(2, ENCODING_PLAIN_DICTIONARY);
+            thrift.structEnd();
+        } else {
+            thrift.fieldStructBegin(5);
+            thrift.fieldI32(1, numOfValues);
+            thrift.fieldI32(2, chunk.buffer.column.dictionary && chunk.dictionaryPageOffset >= 0 ? ENCODING_PLAIN_DICTIONARY : ENCODING_PLAIN);
+            thrift.fieldI32(3, ENCODING_RLE);
+            thrift.fieldI32(4, ENCODING_RLE);
+            thrift.structEnd();
+        }
+        thrift.structEnd();
+
+        write(header.toByteArray());
+        write(data, dataLength);
+        chunk.uncompressedSize += header.size() + page.size();
+        chunk.compressedSize += header.size() + dataLength;
+    }
+
+    private void writeFileMetaData(ThriftWriter thrift) throws IOException {
+        thrift.structBegin();
+        thrift.fieldI32(1, 1);
+
+        thrift.fieldListBegin(2, ThriftWriter.STRUCT, columns.size() + 1);
+        thrift.structBegin();
+        thrift.fieldString(4, "schema");
+        thrift.fieldI32(5, columns.size());
+        thrift.structEnd();
+        for (Column column : columns) {
+            thrift.structBegin();
+            thrift.fieldI32(1, column.type.physicalType);
+            thrift.fieldI32(3, REPETITION_OPTIONAL);
+            thrift.fieldString(4, column.name);
+            if (column.type.convertedType >= 0) {
+                thrift.fieldI32(6, column.type.convertedType);
+            }
+            thrift.structEnd();
+        }
+
+        thrift.fieldI64(3, numOfRows);
+
+        thrift.fieldListBegin(4, ThriftWriter.STRUCT, rowGroups.size());
+        for (RowGroup rowGroup : rowGroups) {
+            long uncompressedSize = 0;
+            long compressedSize = 0;
+            thrift.structBegin();
+            thrift.fieldListBegin(1, ThriftWriter.STRUCT, rowGroup.chunks.size());
+            for (ColumnChunk chunk : rowGroup.chunks) {
+                writeColumnChunkMetaData(thrift, chunk);
+                uncompressedSize += chunk.uncompressedSize;
+                compressedSize += chunk.compressedSize;
+            }
+            thrift.fieldI64(2, uncompressedSize);
+            thrift.fieldI64(3, rowGroup.numOfRows);
+            thrift.fieldI64(5, rowGroup.offset);
+            thrift.fieldI64(6, compressedSize);
+            thrift.structEnd();
+        }
+
+        thrift.fieldString(6, "fhir-resource-mapper");
+
+        // type-defined order, so that readers can use the statistics
+        thrift.fieldListBegin(7, ThriftWriter.STRUCT, columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            thrift.structBegin();
+            thrift.fieldStructBegin(1);
+            thrift.structEnd();
+            thrift.structEnd();
+        }
+        thrift.structEnd();
+    }
+
+    private void writeColumnChunkMetaData(ThriftWriter thrift, ColumnChunk chunk) throws IOException {
+        Column column = chunk.buffer.column;
+        long firstPageOffset = (chunk.dictionaryPageOffset >= 0) ? chunk.dictionaryPageOffset : chunk.dataPageOffset;
+
+        thrift.structBegin();
+        thrift.fieldI64(2, firstPageOffset);
+        thrift.fieldStructBegin(3);
+        thrift.fieldI32(1, column.type.physicalType);
+        thrift.fieldListBegin(2, ThriftWriter.I32, 2);
+        thrift.writeI32(chunk.encoding);
+        thrift.writeI32(ENCODING_RLE);
+        thrift.fieldListBegin(3, ThriftWriter.BINARY, 1);
+        thrift.writeString(column.name);
+        thrift.fieldI32(4, codec.code);
+        thrift.fieldI64(5, chunk.numOfRows);
+        thrift.fieldI64(6, chunk.uncompressedSize);
+        thrift.fieldI64(7, chunk.compressedSize);
+        thrift.fieldI64(9, chunk.dataPageOffset);
+        if (chunk.dictionaryPageOffset >= 0) {
+            thrift.fieldI64(11, chunk.dictionaryPageOffset);
+        }
+        thrift.fieldStructBegin(12);
+        thrift.fieldI64(3, chunk.numOfNulls);
+        if (chunk.min != null) {
+            thrift.fieldBinary(5, chunk.max);
+            thrift.fieldBinary(6, chunk.min);
+        }
+        thrift.structEnd();
+        thrift.structEnd();
+        thrift.structEnd();
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        write(bytes, bytes.length);
+    }
+
+    private void write(byte[] bytes, int length) throws IOException {
+        out.write(bytes, 0, length);
+        position += length;
+        PipelineMetrics.SHARED.addBytesWritten(length);
+    }
+
+    /**
+     * Write the values with the RLE/bit-packing hybrid encoding: runs of at
+     * least 8 equal values as RLE runs, the others bit-packed in groups of 8.
+     */
+    private static void encodeHybrid(int[] values, int start, int end, int bitWidth, ByteSink sink) {
+        int numOfValueBytes = (bitWidth + 7) / 8;
+        int i = start;
+        while (i < end) {
+            int runEnd = i + 1;
+            while (runEnd < end && values[runEnd] == values[i]) {
+                runEnd++;
+            }
+
+            if (runEnd - i >= 8) {
+                sink.writeUnsignedVarint((long) (runEnd - i) << 1);
+                for (int b = 0; b < numOfValueBytes; b++) {
+                    sink.write(values[i] >>> (8 * b));
+                }
+                i = runEnd;
+            } else {
+                // bit-pack groups of 8 until a long run starts
+                int packEnd = i;
+                do {
+                    packEnd = Math.min(packEnd + 8, end);
+                } while (packEnd < end && !startsRun(values, packEnd, end));
+                int numOfGroups = (packEnd - i + 7) / 8;
+                sink.writeUnsignedVarint(((long) numOfGroups << 1) | 1);
+                long bits = 0;
+                int numOfBits = 0;
+                for (int j = i; j < i + numOfGroups * 8; j++) {
+                    long value = (j < packEnd) ? values[j] : 0;
+                    bits |= value << numOfBits;
+                    numOfBits += bitWidth;
+                    while (numOfBits >= 8) {
+                        sink.write((int) bits);
+                        bits >>>= 8;
+                        numOfBits -= 8;
+                    }
+                }
+                i = packEnd;
+            }
+        }
+    }
+
+    private static void encodeHybrid(byte[] values, int start, int end, int bitWidth, ByteSink sink) {
+        int[] intValues = new int[end - start];
+        for (int i = start; i < end; i++) {
+            intValues[i - start] = values[i];
+        }
+        encodeHybrid(intValues, 0, intValues.length, bitWidth, sink);
+    }
+
+    private static boolean startsRun(int[] values, int start, int end) {
+        if (end - start < 8) {
+            return false;
+        }
+        for (int i = start + 1; i < start + 8; i++) {
+            if (values[i] != values[start]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static byte[] toLittleEndian(long value, int numOfBytes) {
+        byte[] bytes = new byte[numOfBytes];
+        for (int i = 0; i < numOfBytes; i++) {
+            bytes[i] = (byte) (value >>> (8 * i));
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Buffered values of a column in the current row group. Only the non-null
+     * values are stored; the definition levels tell which rows have one.
+     */
+    private static final class ColumnBuffer {
+
+        private final Column column;
+
+        private byte[] definitionLevels = new byte[1024];
+        private int numOfRows;
+        private int numOfValues;
+
+        // fixed-size values
+        private long[] longs;
+
+        // plain strings
+        private ByteSink strings;
+        private int[] stringOffsets;
+
+        // dictionary strings
+        private Map<String, Integer> dictionary;
+        private List<byte[]> dictionaryValues;
+        private int dictionarySize;
+        private int[] indices;
+
+        private ColumnBuffer(Column column) {
+            this.column = column;
+            clear();
+        }
+
+        private void add(Object value) {
+            if (numOfRows == definitionLevels.length) {
+                definitionLevels = Arrays.copyOf(definitionLevels, numOfRows * 2);
+            }
+            if (value == null) {
+                definitionLevels[numOfRows++] = 0;
+                return;
+            }
+            definitionLevels[numOfRows++] = 1;
+
+            switch (column.type) {
+                case STRING:
+                    if (column.dictionary) {
+                        addIndex(value.toString());
+                    } else {
+                        addString(value.toString());
+                    }
+                    break;
+                case INT64:
+                    addLong(((Number) value).longValue());
+                    break;
+                case DOUBLE:
+                    addLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+                    break;
+                case TIMESTAMP_MILLIS:
+                    addLong(((Date) value).getTime());
+                    break;
+                case DATE:
+                    addLong(((LocalDate) value).toEpochDay());
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+            numOfValues++;
+        }
+
+        private void addLong(long value) {
+            if (numOfValues == longs.length) {
+                longs = Arrays.copyOf(longs, numOfValues * 2);
+            }
+            longs[numOfValues] = value;
+        }
+
+        private void addString(String value) {
+            if (numOfValues + 1 == stringOffsets.length) {
+                stringOffsets = Arrays.copyOf(stringOffsets, stringOffsets.length * 2);
+            }
+            strings.write(value.getBytes(StandardCharsets.UTF_8));
+            stringOffsets[numOfValues + 1] = strings.size();
+        }
+
+        private void addIndex(String value) {
+            Integer index = dictionary.get(value);
+            if (index == null) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                index = dictionaryValues.size();
+                dictionary.put(value, index);
+                dictionaryValues.add(bytes);
+                dictionarySize += 4 + bytes.length;
+            }
+            if (numOfValues == indices.length) {
+                indices = Arrays.copyOf(indices, numOfValues * 2);
+            }
+            indices[numOfValues] = index;
+        }
+
+        /**
+         * Approximate number of bytes of the buffered data.
+         */
+        private long getNumOfBytes() {
+            if (column.type != ColumnType.STRING) {
+                return numOfRows + (long) numOfValues * column.type.numOfBytes;
+            } else if (column.dictionary) {
+                return numOfRows + (long) numOfValues * 2 + dictionarySize;
+            } else {
+                return numOfRows + (long) numOfValues * 4 + strings.size();
+            }
+        }
+
+        private int getPlainSize(int valueIndex) {
+            if (column.type != ColumnType.STRING) {
+                return column.type.numOfBytes;
+            } else if (column.dictionary) {
+                return 4 + dictionaryValues.get(indices[valueIndex]).length;
+            } else {
+                return 4 + stringOffsets[valueIndex + 1] - stringOffsets[valueIndex];
+            }
+        }
+
+        private void writePlain(int start, int end, ByteSink sink) {
+            for (int i = start; i < end; i++) {
+                if (column.type != ColumnType.STRING) {
+                    if (column.type.numOfBytes == 8) {
+                        sink.writeLongLE(longs[i]);
+                    } else {
+                        sink.writeIntLE((int) longs[i]);
+                    }
+                } else if (column.dictionary) {
+                    byte[] value = dictionaryValues.get(indices[i]);
+                    sink.writeIntLE(value.length);
+                    sink.write(value);
+                } else {
+                    int length = stringOffsets[i + 1] - stringOffsets[i];
+                    sink.writeIntLE(length);
+                    sink.write(strings.bytes, stringOffsets[i], length);
+                }
+            }
+        }
+
+        private void clear() {
+            numOfRows = 0;
+            numOfValues = 0;
+            if (column.type != ColumnType.STRING) {
+                longs = new long[1024];
+            } else if (column.dictionary) {
+                dictionary = new HashMap<>();
+                dictionaryValues = new ArrayList<>();
+                dictionarySize = 0;
+                indices = new int[1024];
+            } else {
+                strings = new ByteSink(16 * 1024);
+                stringOffsets = new int[1024];
+            }
+        }
+
+    }
+
+    private static final class ColumnChunk {
+
+        private final ColumnBuffer buffer;
+        private final int numOfRows;
+        private final long numOfNulls;
+        private final byte[] min;
+        private final byte[] max;
+
+        private long dictionaryPageOffset = -1;
+        private long dataPageOffset;
+        private long uncompressedSize;
+        private long compressedSize;
+        private int encoding;
+
+        /**
+         * Take the statistics of the buffered values.
+         */
+        private ColumnChunk(ColumnBuffer buffer) {
+            this.buffer = buffer;
+            this.numOfRows = buffer.numOfRows;
+            this.numOfNulls = buffer.numOfRows - buffer.numOfValues;
+
+            ColumnType type = buffer.column.type;
+            if (type == ColumnType.STRING || buffer.numOfValues == 0) {
+                this.min = null;
+                this.max = null;
+            } else if (type == ColumnType.DOUBLE) {
+                double minValue = Double.POSITIVE_INFINITY;
+                double maxValue = Double.NEGATIVE_INFINITY;
+                boolean hasNaN = false;
+                for (int i = 0; i < buffer.numOfValues; i++) {
+                    double value = Double.longBitsToDouble(buffer.longs[i]);
+                    hasNaN |= Double.isNaN(value);
+                    minValue = Math.min(minValue, value);
+                    maxValue = Math.max(maxValue, value);
+                }
+                this.min = hasNaN ? null : toLittleEndian(Double.doubleToLongBits(minValue), 8);
+                this.max = hasNaN ? null : toLittleEndian(Double.doubleToLongBits(maxValue), 8);
+            } else {
+                long minValue = Long.MAX_VALUE;
+                long maxValue = Long.MIN_VALUE;
+                for (int i = 0; i < buffer.numOfValues; i++) {
+                    minValue = Math.min(minValue, buffer.longs[i]);
+                    maxValue = Math.max(maxValue, buffer.longs[i]);
+                }
+                this.min = toLittleEndian(minValue, type.numOfBytes);
+                this.max = toLittleEndian(maxValue, type.numOfBytes);
+            }
+        }
+
+    }
+
+    private static final class RowGroup {
+
+        private final long offset;
+        private final int numOfRows;
+        private final List<ColumnChunk> chunks = new LinkedList<>();
+
+        private RowGroup(long offset, int numOfRows) {
+            this.offset = offset;
+            this.numOfRows = numOfRows;
+        }
+
+    }
+
+    /**
+     * Growable byte array.
+     */
+    private static final class ByteSink {
+
+        private byte[] bytes;
+        private int size;
+
+        private ByteSink(int capacity) {
+            this.bytes = new byte[Math.max(16, capacity)];
+        }
+
+        private void write(int b) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) b;
+        }
+
+        private void write(byte[] b) {
+            write(b, 0, b.length);
+        }
+
+        private void write(byte[] b, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(b, offset, bytes, size, length);
+            size += length;
+        }
+
+        private void write(ByteSink sink) {
+            write(sink.bytes, 0, sink.size);
+        }
+
+        private void writeIntLE(int value) {
+            ensureCapacity(4);
+            for (int i = 0; i < 4; i++) {
+                bytes[size++] = (byte) (value >>> (8 * i));
+            }
+        }
+
+        private void writeLongLE(long value) {
+            ensureCapacity(8);
+            for (int i = 0; i < 8; i++) {
+                bytes[size++] = (byte) (value >>> (8 * i));
+            }
+        }
+
+        private void writeUnsignedVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + length, bytes.length * 2));
+            }
+        }
+
+    }
+
+    /**
+     * Writer of the Thrift compact protocol, in which the Parquet metadata is
+     * serialized.
+     */
+    private static final class ThriftWriter {
+
+        private static final int I32 = 5;
+        private static final int I64 = 6;
+        private static final int BINARY = 8;
+        private static final int LIST = 9;
+        private static final int STRUCT = 12;
+
+        private final OutputStream out;
+        private final LinkedList<Integer> lastFieldIds = new LinkedList<>();
+        private int lastFieldId;
+
+        private ThriftWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        private void structBegin() {
+            lastFieldIds.push(lastFieldId);
+            lastFieldId = 0;
+        }
+
+        private void structEnd() throws IOException {
+            out.write(0);
+            lastFieldId = lastFieldIds.pop();
+        }
+
+        private void fieldStructBegin(int id) throws IOException {
+            fieldHeader(id, STRUCT);
+            structBegin();
+        }
+
+        private void fieldListBegin(int id, int elementType, int size) throws IOException {
+            fieldHeader(id, LIST);
+            if (size < 15) {
+                out.write((size << 4) | elementType);
+            } else {
+                out.write(0xF0 | elementType);
+                writeVarint(size);
+            }
+        }
+
+        private void fieldI32(int id, int value) throws IOException {
+            fieldHeader(id, I32);
+            writeI32(value);
+        }
+
+        private void fieldI64(int id, long value) throws IOException {
+            fieldHeader(id, I64);
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        private void fieldString(int id, String value) throws IOException {
+            fieldBinary(id, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void fieldBinary(int id, byte[] value) throws IOException {
+            fieldHeader(id, BINARY);
+            writeVarint(value.length);
+            out.write(value);
+        }
+
+        private void writeI32(int value) throws IOException {
+            writeVarint(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            out.write(bytes);
+        }
+
+        private void fieldHeader(int id, int type) throws IOException {
+            int delta = id - lastFieldId;
+            if (delta > 0 && delta <= 15) {
+                out.write((delta << 4) | type);
+            } else {
+                out.write(type);
+                writeI32(id);
+            }
+            lastFieldId = id;
+        }
+
+        private void writeVarint(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+    }
+
+}
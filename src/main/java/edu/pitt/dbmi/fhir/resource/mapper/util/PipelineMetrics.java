@@ -0,0 +1,419 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms of the stages of the mapping pipeline:
+ * reading a line, tokenizing it, mapping it to a resource, encoding the
+ * resources to JSON and writing the JSON out.
+ *
+ * The metrics are published through JMX and can be written to a file at a
+ * fixed interval. The counters are striped (LongAdder) so that concurrent
+ * stages do not contend on them, and the latencies are kept in histograms
+ * with power-of-two buckets.
+ *
+ * Oct 19, 2026 3:24:36 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class PipelineMetrics implements PipelineMetricsMXBean {
+
+    /**
+     * Metrics of the application.
+     */
+    public static final PipelineMetrics SHARED = new PipelineMetrics();
+
+    public static final String OBJECT_NAME = "edu.pitt.dbmi.fhir.resource.mapper:type=PipelineMetrics";
+
+    public enum Stage {
+        READ,
+        TOKENIZE,
+        MAP,
+        ENCODE,
+        WRITE
+    }
+
+    private final Map<Stage, Histogram> histograms = new EnumMap<>(Stage.class);
+    private final Map<String, IntSupplier> queues = new ConcurrentHashMap<>();
+
+    private final LongAdder numOfRows = new LongAdder();
+    private final LongAdder numOfBytesRead = new LongAdder();
+    private final LongAdder numOfInputBytes = new LongAdder();
+    private final LongAdder numOfBytesWritten = new LongAdder();
+    private final LongAdder numOfErrors = new LongAdder();
+
+    private volatile long startTime = System.nanoTime();
+
+    private ScheduledExecutorService reporter;
+
+    public PipelineMetrics() {
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new Histogram());
+        }
+    }
+
+    /**
+     * Record a row read, tokenized and mapped by a mapper. The timestamps are
+     * taken with System.nanoTime() before reading the line, after reading it
+     * and after tokenizing it; the mapping ends now.
+     *
+     * @param numOfBytes length of the line including the line separator
+     * @param startTime
+     * @param readTime
+     * @param tokenizeTime
+     * @return the current time, which is the start time of the next row
+     */
+    public long recordRow(int numOfBytes, long startTime, long readTime, long tokenizeTime) {
+        histograms.get(Stage.READ).record(readTime - startTime);
+
+        return recordMappedRow(numOfBytes, readTime, tokenizeTime);
+    }
+
+    /**
+     * Record a row tokenized and mapped, when the reading is recorded
+     * separately.
+     *
+     * @param numOfBytes length of the line including the line separator
+     * @param startTime
+     * @param tokenizeTime
+     * @return the current time
+     */
+    public long recordMappedRow(int numOfBytes, long startTime, long tokenizeTime) {
+        long now = System.nanoTime();
+        histograms.get(Stage.TOKENIZE).record(tokenizeTime - startTime);
+        histograms.get(Stage.MAP).record(now - tokenizeTime);
+        numOfRows.increment();
+        numOfBytesRead.add(numOfBytes);
+
+        return now;
+    }
+
+    /**
+     * Record the time taken by a stage since the given start time.
+     *
+     * @param stage
+     * @param startTime taken with System.nanoTime()
+     */
+    public void record(Stage stage, long startTime) {
+        histograms.get(stage).record(System.nanoTime() - startTime);
+    }
+
+    public void addInputBytes(long numOfBytes) {
+        numOfInputBytes.add(numOfBytes);
+    }
+
+    public void addBytesWritten(long numOfBytes) {
+        numOfBytesWritten.add(numOfBytes);
+    }
+
+    public void recordError() {
+        numOfErrors.increment();
+    }
+
+    /**
+     * Report the depth of a queue, e.g. between two stages.
+     *
+     * @param name
+     * @param depth
+     */
+    public void registerQueue(String name, IntSupplier depth) {
+        queues.put(name, depth);
+    }
+
+    public void unregisterQueue(String name) {
+        queues.remove(name);
+    }
+
+    /**
+     * Register the metrics with the platform MBean server.
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException exception) {
+            exception.printStackTrace(System.err);
+        }
+    }
+
+    /**
+     * Write the metrics to the file every interval until stop() is called.
+     * The file is replaced as a whole so that readers never see it half
+     * written.
+     *
+     * @param file
+     * @param intervalSeconds
+     */
+    public synchronized void startReporting(Path file, long intervalSeconds) {
+        if (reporter != null) {
+            throw new IllegalStateException("Metrics are already being reported.");
+        }
+
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pipeline-metrics");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            try {
+                write(file);
+            } catch (IOException exception) {
+                exception.printStackTrace(System.err);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop reporting and write the final metrics.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public synchronized void stopReporting(Path file) throws IOException {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+        write(file);
+    }
+
+    /**
+     * Write the metrics as "name=value" lines.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void write(Path file) throws IOException {
+        Path parentDir = file.toAbsolutePath().getParent();
+        Path tempFile = Files.createTempFile(parentDir, file.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile)) {
+                writer.write(toString());
+            }
+            Files.move(tempFile, Paths.get(parentDir.toString(), file.getFileName().toString()),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    public void reset() {
+        histograms.values().forEach(Histogram::reset);
+        numOfRows.reset();
+        numOfBytesRead.reset();
+        numOfInputBytes.reset();
+        numOfBytesWritten.reset();
+        numOfErrors.reset();
+        startTime = System.nanoTime();
+    }
+
+    public long getCount(Stage stage) {
+        return histograms.get(stage).getCount();
+    }
+
+    @Override
+    public long getNumOfRows() {
+        return numOfRows.sum();
+    }
+
+    @Override
+    public long getNumOfBytesRead() {
+        return numOfBytesRead.sum();
+    }
+
+    @Override
+    public long getNumOfInputBytes() {
+        return numOfInputBytes.sum();
+    }
+
+    @Override
+    public long getNumOfBytesWritten() {
+        return numOfBytesWritten.sum();
+    }
+
+    @Override
+    public long getNumOfErrors() {
+        return numOfErrors.sum();
+    }
+
+    @Override
+    public double getRowsPerSecond() {
+        return getNumOfRows() / getElapsedSeconds();
+    }
+
+    @Override
+    public double getBytesPerSecond() {
+        return getNumOfBytesRead() / getElapsedSeconds();
+    }
+
+    @Override
+    public long getEtaSeconds() {
+        long bytesRead = getNumOfBytesRead();
+        long bytesLeft = getNumOfInputBytes() - bytesRead;
+        if (bytesRead == 0 || bytesLeft < 0) {
+            return -1;
+        }
+
+        return (long) (bytesLeft / getBytesPerSecond());
+    }
+
+    @Override
+    public Map<String, Double> getStageMeanMicros() {
+        Map<String, Double> latencies = new LinkedHashMap<>();
+        histograms.forEach((stage, histogram) -> latencies.put(stage.name(), histogram.getMean() / 1000));
+
+        return latencies;
+    }
+
+    @Override
+    public Map<String, Double> getStageP99Micros() {
+        Map<String, Double> latencies = new LinkedHashMap<>();
+        histograms.forEach((stage, histogram) -> latencies.put(stage.name(), histogram.getPercentile(0.99) / 1000.0));
+
+        return latencies;
+    }
+
+    @Override
+    public Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new LinkedHashMap<>();
+        queues.forEach((name, depth) -> depths.put(name, depth.getAsInt()));
+
+        return depths;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("elapsed.seconds=%.1f%n", getElapsedSeconds()));
+        builder.append(String.format("rows=%d%n", getNumOfRows()));
+        builder.append(String.format("rows.per.second=%.1f%n", getRowsPerSecond()));
+        builder.append(String.format("bytes.read=%d%n", getNumOfBytesRead()));
+        builder.append(String.format("bytes.input=%d%n", getNumOfInputBytes()));
+        builder.append(String.format("bytes.per.second=%.1f%n", getBytesPerSecond()));
+        builder.append(String.format("bytes.written=%d%n", getNumOfBytesWritten()));
+        builder.append(String.format("errors=%d%n", getNumOfErrors()));
+        builder.append(String.format("eta.seconds=%d%n", getEtaSeconds()));
+        histograms.forEach((stage, histogram) -> {
+            String name = stage.name().toLowerCase();
+            builder.append(String.format("stage.%s.count=%d%n", name, histogram.getCount()));
+            builder.append(String.format("stage.%s.mean.micros=%.3f%n", name, histogram.getMean() / 1000));
+            builder.append(String.format("stage.%s.p50.micros=%.3f%n", name, histogram.getPercentile(0.50) / 1000.0));
+            builder.append(String.format("stage.%s.p99.micros=%.3f%n", name, histogram.getPercentile(0.99) / 1000.0));
+        });
+        getQueueDepths().forEach((name, depth) -> builder.append(String.format("queue.%s.depth=%d%n", name, depth)));
+
+        return builder.toString();
+    }
+
+    private double getElapsedSeconds() {
+        return Math.max(1, System.nanoTime() - startTime) / 1e9;
+    }
+
+    /**
+     * Latency histogram with one bucket per power of two nanoseconds.
+     */
+    private static final class Histogram {
+
+        private final LongAdder[] buckets = new LongAdder[64];
+        private final LongAdder total = new LongAdder();
+
+        private Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long nanos) {
+            nanos = Math.max(0, nanos);
+            buckets[63 - Long.numberOfLeadingZeros(nanos | 1)].increment();
+            total.add(nanos);
+        }
+
+        private long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+
+            return count;
+        }
+
+        private double getMean() {
+            long count = getCount();
+
+            return (count == 0) ? 0 : (double) total.sum() / count;
+        }
+
+        /**
+         * Upper bound of the bucket holding the percentile.
+         */
+        private long getPercentile(double percentile) {
+            long[] counts = new long[buckets.length];
+            long count = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+                count += counts[i];
+            }
+
+            long rank = (long) Math.ceil(count * percentile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return (i == 63) ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                }
+            }
+
+            return 0;
+        }
+
+        private void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            total.reset();
+        }
+
+    }
+
+}
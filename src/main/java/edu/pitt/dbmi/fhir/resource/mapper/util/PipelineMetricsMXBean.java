@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.util.Map;
+
+/**
+ * Management interface of the pipeline metrics, published through JMX.
+ *
+ * Oct 19, 2026 3:21:08 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public interface PipelineMetricsMXBean {
+
+    long getNumOfRows();
+
+    long getNumOfBytesRead();
+
+    long getNumOfInputBytes();
+
+    long getNumOfBytesWritten();
+
+    long getNumOfErrors();
+
+    double getRowsPerSecond();
+
+    double getBytesPerSecond();
+
+    /**
+     * Estimated seconds left, based on the input bytes read so far.
+     *
+     * @return -1 if unknown
+     */
+    long getEtaSeconds();
+
+    /**
+     * Mean latency of each stage in microseconds.
+     *
+     * @return
+     */
+    Map<String, Double> getStageMeanMicros();
+
+    /**
+     * 99th percentile latency of each stage in microseconds, rounded up to a
+     * power of two.
+     *
+     * @return
+     */
+    Map<String, Double> getStageP99Micros();
+
+    Map<String, Integer> getQueueDepths();
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+
+/**
+ * Destination of the mapped resources, such as a bundle file or a FHIR
+ * server.
+ *
+ * Oct 19, 2026 6:34:27 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public interface ResourceSink extends Closeable {
+
+    default void add(IBaseResource resource) throws IOException {
+        addEncoded(encode(resource));
+    }
+
+    /**
+     * Encode a resource for the sink. The staged pipeline calls it from its
+     * encoder threads, so it must be thread-safe. The resource is encoded to
+     * JSON by default.
+     *
+     * @param resource
+     * @return
+     */
+    default Object encode(IBaseResource resource) {
+        return JsonResourceConverterR4.resourceToJson(resource, false);
+    }
+
+    /**
+     * Add a resource that has been encoded by {@link #encode(IBaseResource)}.
+     *
+     * @param encodedResource
+     * @throws IOException
+     */
+    default void addEncoded(Object encodedResource) throws IOException {
+        addJson((String) encodedResource);
+    }
+
+    /**
+     * Add a resource that has already been encoded to JSON.
+     *
+     * @param resourceJson
+     * @throws IOException
+     */
+    void addJson(String resourceJson) throws IOException;
+
+}
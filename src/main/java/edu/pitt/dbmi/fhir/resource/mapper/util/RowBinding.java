@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Binds the rows of a data file to a mapper: the columns it reads, how a row
+ * is split into its fields and how the fields are mapped to a resource.
+ *
+ * Oct 20, 2026 9:41:22 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ * @param <T>
+ */
+public interface RowBinding<T extends Resource> extends RowMapper<T> {
+
+    /**
+     * Get the columns read by the mapper, in the order of its field
+     * positions.
+     *
+     * @return
+     */
+    String[] getColumns();
+
+    /**
+     * Get the columns the data file may omit, which are then read as empty.
+     *
+     * @return
+     */
+    String[] getOptionalColumns();
+
+    /**
+     * Split a row into its fields.
+     *
+     * @param line
+     * @param delimiter
+     * @return
+     */
+    String[] getFields(String line, Pattern delimiter);
+
+    /**
+     * Map the rows of the file accepted by the row filter to resources held
+     * in memory. A row that cannot be mapped is passed to the error handler
+     * and skipped.
+     *
+     * @param file
+     * @param delimiter
+     * @param rowFilter test on the fields of a row
+     * @param errorHandler receives the rows that cannot be mapped
+     * @return
+     */
+    default List<T> mapFile(Path file, Pattern delimiter, Predicate<String[]> rowFilter, RowErrorHandler errorHandler) {
+        List<T> resources = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
+            ColumnBinding columns = ColumnBinding.bind(file, reader.readLine(), delimiter, getColumns(), getOptionalColumns());
+            long lineNumber = 1;
+            long time = System.nanoTime();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                long readTime = System.nanoTime();
+                long tokenizeTime = readTime;
+                try {
+                    String[] fields = columns.bind(getFields(line, delimiter));
+                    tokenizeTime = System.nanoTime();
+                    if (rowFilter.test(fields)) {
+                        resources.add(map(fields));
+                    }
+                } catch (ParseException | RuntimeException exception) {
+                    PipelineMetrics.SHARED.recordError();
+                    errorHandler.handle(file, lineNumber, line, exception);
+                }
+                time = PipelineMetrics.SHARED.recordRow(line.length() + 1, time, readTime, tokenizeTime);
+            }
+        } catch (IOException exception) {
+            PipelineMetrics.SHARED.recordError();
+            exception.printStackTrace(System.err);
+        }
+
+        return resources;
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Removes the rows of a data file that repeat an earlier row, such as
+ * re-sent observations. Rows are compared whole unless key columns are given,
+ * e.g. OBSERV_ID, in which case the rows whose key has already appeared are
+ * removed. The first row of each key is kept.
+ *
+ * Holding every key of a large file in an exact set would take 16 bytes or
+ * more per row, so the file is read twice. The first pass adds the keys to a
+ * Bloom filter, and the keys the filter may have seen before, which are the
+ * duplicated keys and a small share of false positives, go to an off-heap
+ * candidate set. The second pass writes the rows out, checking only the
+ * candidates against a set of the keys seen so far. Memory grows with about
+ * 10 bits per row plus 16 bytes per candidate key. Keys are compared by two
+ * independent 64-bit hashes of their columns, not by their text; two
+ * different keys are only taken as the same if both hashes collide.
+ *
+ * Oct 19, 2026 11:52:37 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class RowDeduplicator {
+
+    private static final long SEED_HI = 0x9e3779b97f4a7c15L;
+    private static final long SEED_LO = 0xc2b2ae3d27d4eb4fL;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private static final char KEY_SEPARATOR = '\u001F';
+
+    private RowDeduplicator() {
+    }
+
+    /**
+     * Write the header and the first row of each key to the output file. If
+     * the file has no duplicated keys, nothing is written and the result
+     * refers to the input file.
+     *
+     * @param inputFile delimited data file with a header line
+     * @param delimiter
+     * @param keyColumns names of the header columns that make up the row key;
+     * empty to compare whole rows
+     * @param outputFile
+     * @return
+     * @throws IOException
+     */
+    public static Result removeDuplicates(final Path inputFile, final Pattern delimiter, final List<String> keyColumns, final Path outputFile) throws IOException {
+        // assume rows of at least 64 bytes, as the reference checker does
+        BloomFilter keys = new BloomFilter(Files.size(inputFile) / 64, FALSE_POSITIVE_RATE);
+        OffHeapKeySet candidates = new OffHeapKeySet(1024);
+        OffHeapKeySet seenCandidates = new OffHeapKeySet(1024);
+        try {
+            long[] key = new long[2];
+            long numOfRows = 0;
+            try (BufferedReader reader = Files.newBufferedReader(inputFile, Charset.defaultCharset())) {
+                int[] keyIndices = getKeyIndices(reader.readLine(), delimiter, keyColumns, inputFile);
+                StringBuilder keyBuilder = new StringBuilder();
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (toKey(line, delimiter, keyIndices, keyBuilder, key)) {
+                        numOfRows++;
+                        if (!keys.add(key[0], key[1])) {
+                            candidates.add(key[0], key[1]);
+                        }
+                    }
+                }
+            }
+
+            if (candidates.size() == 0) {
+                return new Result(inputFile, numOfRows, 0, 0, new LongList());
+            }
+
+            long numOfDuplicates = 0;
+            LongList removedLines = new LongList();
+            try (BufferedReader reader = Files.newBufferedReader(inputFile, Charset.defaultCharset());
+                 BufferedWriter writer = Files.newBufferedWriter(outputFile, Charset.defaultCharset())) {
+                String header = reader.readLine();
+                writer.write(header);
+                writer.newLine();
+
+                int[] keyIndices = getKeyIndices(header, delimiter, keyColumns, inputFile);
+                StringBuilder keyBuilder = new StringBuilder();
+                long lineNumber = 1;
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    lineNumber++;
+                    if (toKey(line, delimiter, keyIndices, keyBuilder, key)
+                            && candidates.contains(key[0], key[1])
+                            && !seenCandidates.add(key[0], key[1])) {
+                        // the line number of the output line that would have followed it
+                        removedLines.add(lineNumber - numOfDuplicates);
+                        numOfDuplicates++;
+                    } else {
+                        writer.write(line);
+                        writer.newLine();
+                    }
+                }
+            }
+
+            return new Result(outputFile, numOfRows, numOfDuplicates, candidates.size(), removedLines);
+        } finally {
+            candidates.close();
+            seenCandidates.close();
+        }
+    }
+
+    /**
+     * Hash the key of a row.
+     *
+     * @return false if the row is blank or lacks a key column; such rows are
+     * always kept
+     */
+    private static boolean toKey(String line, Pattern delimiter, int[] keyIndices, StringBuilder keyBuilder, long[] key) {
+        String row = line.trim();
+        if (row.isEmpty()) {
+            return false;
+        }
+
+        if (keyIndices.length == 0) {
+            key[0] = Hashes.hash64(row, 0, row.length(), SEED_HI);
+            key[1] = Hashes.hash64(row, 0, row.length(), SEED_LO);
+
+            return true;
+        }
+
+        String[] fields = delimiter.split(row, -1);
+        keyBuilder.setLength(0);
+        for (int i = 0; i < keyIndices.length; i++) {
+            if (keyIndices[i] >= fields.length) {
+                return false;
+            }
+            if (i > 0) {
+                keyBuilder.append(KEY_SEPARATOR);
+            }
+            keyBuilder.append(fields[keyIndices[i]].trim());
+        }
+        key[0] = Hashes.hash64(keyBuilder, 0, keyBuilder.length(), SEED_HI);
+        key[1] = Hashes.hash64(keyBuilder, 0, keyBuilder.length(), SEED_LO);
+
+        return true;
+    }
+
+    private static int[] getKeyIndices(String header, Pattern delimiter, List<String> keyColumns, Path inputFile) throws IOException {
+        if (header == null) {
+            throw new IOException(String.format("File '%s' is empty.", inputFile));
+        }
+
+        String[] headers = delimiter.split(header.trim());
+        int[] indices = new int[keyColumns.size()];
+        for (int i = 0; i < indices.length; i++) {
+            String column = keyColumns.get(i);
+            indices[i] = -1;
+            for (int j = 0; j < headers.length && indices[i] < 0; j++) {
+                if (headers[j].replace("\uFEFF", "").trim().equalsIgnoreCase(column)) {
+                    indices[i] = j;
+                }
+            }
+            if (indices[i] < 0) {
+                throw new IOException(String.format("File '%s' has no key column '%s'.", inputFile, column));
+            }
+        }
+
+        return indices;
+    }
+
+    /**
+     * Outcome of removing the duplicated rows of a data file.
+     */
+    public static final class Result {
+
+        private final Path file;
+        private final long numOfRows;
+        private final long numOfDuplicates;
+        private final long numOfCandidates;
+
+        /**
+         * For each removed line, in order, the line number in the output
+         * file of the next line that was kept. Only the removed lines are
+         * listed, which are usually far fewer than the rows.
+         */
+        private final LongList removedLines;
+
+        private Result(Path file, long numOfRows, long numOfDuplicates, long numOfCandidates, LongList removedLines) {
+            this.file = file;
+            this.numOfRows = numOfRows;
+            this.numOfDuplicates = numOfDuplicates;
+            this.numOfCandidates = numOfCandidates;
+            this.removedLines = removedLines;
+        }
+
+        /**
+         * Line number in the input file of a line of the file of the rows to
+         * map.
+         *
+         * @param lineNumber line number in {@link #getFile()}, counting the
+         * header as line 1
+         * @return
+         */
+        public long getInputLineNumber(long lineNumber) {
+            return (lineNumber > 0) ? lineNumber + removedLines.countNotGreaterThan(lineNumber) : lineNumber;
+        }
+
+        /**
+         * File of the rows to map: the output file, or the input file if it
+         * has no duplicates.
+         *
+         * @return
+         */
+        public Path getFile() {
+            return file;
+        }
+
+        public long getNumOfRows() {
+            return numOfRows;
+        }
+
+        public long getNumOfDuplicates() {
+            return numOfDuplicates;
+        }
+
+        /**
+         * Number of keys the Bloom filter reported as possibly seen, which
+         * were checked exactly.
+         *
+         * @return
+         */
+        public long getNumOfCandidates() {
+            return numOfCandidates;
+        }
+
+    }
+
+}
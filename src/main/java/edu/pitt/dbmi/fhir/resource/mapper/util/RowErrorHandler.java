@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.nio.file.Path;
+
+/**
+ * Receives the rows that could not be mapped so that the mapping can go on
+ * with the next row.
+ *
+ * Oct 19, 2026 4:05:33 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+@FunctionalInterface
+public interface RowErrorHandler {
+
+    /**
+     * Print the failed rows to the standard error.
+     */
+    RowErrorHandler LOG = (file, lineNumber, line, cause) -> System.err.printf("Skipped line %d of '%s': %s%n", lineNumber, file, cause);
+
+    /**
+     *
+     * @param file data file
+     * @param lineNumber line number of the row, counting the header as line
+     * 1, or 0 if unknown
+     * @param line the row
+     * @param cause
+     * @throws ErrorRateExceededException to stop the mapping
+     */
+    void handle(Path file, long lineNumber, String line, Exception cause);
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.util.function.Predicate;
+
+/**
+ * One of N deterministic partitions of the data. Rows are assigned to a
+ * shard by the hash of their patient key so that all the records of a
+ * patient end up in the same shard, on every node and every run.
+ *
+ * Oct 19, 2026 10:31:52 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class Shard {
+
+    private final int index;
+    private final int count;
+
+    public Shard(int index, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Number of shards must be at least 1.");
+        }
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException(String.format("Shard index must be between 0 and %d.", count - 1));
+        }
+
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * Parse a shard of the form i/N, where i is the zero-based shard index
+     * and N is the number of shards.
+     *
+     * @param value
+     * @return
+     * @throws IllegalArgumentException if the value is not a valid shard
+     */
+    public static Shard parse(String value) {
+        int separator = value.indexOf('/');
+        if (separator < 0) {
+            throw new IllegalArgumentException(String.format("Invalid shard '%s'. Expect i/N.", value));
+        }
+
+        try {
+            return new Shard(
+                    Integer.parseInt(value.substring(0, separator).trim()),
+                    Integer.parseInt(value.substring(separator + 1).trim()));
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException(String.format("Invalid shard '%s'. Expect i/N.", value));
+        }
+    }
+
+    public static int getShardIndex(String key, int count) {
+        return (int) Long.remainderUnsigned(Hashes.hash64(key.trim()), count);
+    }
+
+    public boolean contains(String key) {
+        return getShardIndex(key, count) == index;
+    }
+
+    /**
+     * Row filter accepting only the rows whose patient key belongs to this
+     * shard.
+     *
+     * @param keyColumn position of the patient key
+     * @return
+     */
+    public Predicate<String[]> rowFilter(int keyColumn) {
+        return fields -> contains(fields[keyColumn]);
+    }
+
+    /**
+     * Name of the directory holding the output of this shard.
+     *
+     * @return
+     */
+    public String getDirectoryName() {
+        return String.format("shard-%d-of-%d", index, count);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Maps the rows of a data file to resources in stages running side by side:
+ * one reader, N mappers, M encoders and one writer, so that reading,
+ * mapping, encoding and writing overlap.
+ *
+ * The stages pass batches of rows through bounded queues. A full queue blocks
+ * the stage feeding it, and the number of batches in flight is capped so that
+ * the writer, which puts the batches back in the order of the file, never
+ * holds more than a bounded number of them.
+ *
+ * Oct 19, 2026 4:52:37 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class StagedPipeline {
+
+    public static final int BATCH_SIZE = 256;
+
+    public static final int QUEUE_CAPACITY = 16;
+
+    private static final Batch END = new Batch(-1, 0);
+
+    private final int numOfMappers;
+    private final int numOfEncoders;
+
+    /**
+     *
+     * @param numOfMappers number of threads mapping rows to resources
+     * @param numOfEncoders number of threads encoding resources for the sink
+     */
+    public StagedPipeline(int numOfMappers, int numOfEncoders) {
+        if (numOfMappers < 1 || numOfEncoders < 1) {
+            throw new IllegalArgumentException("A pipeline requires at least one mapper and one encoder.");
+        }
+
+        this.numOfMappers = numOfMappers;
+        this.numOfEncoders = numOfEncoders;
+    }
+
+    /**
+     * Map the rows of the file and add the resources to the sink in the
+     * order of the rows. A row that cannot be mapped is passed to the error
+     * handler and skipped.
+     *
+     * @param file data file with a header
+     * @param tokenizer splits a row into its fields
+     * @param rowFilter test on the fields of a row
+     * @param mapper
+     * @param errorHandler receives the rows that cannot be mapped
+     * @param sink
+     * @return number of resources written
+     * @throws IOException
+     */
+    public long run(final Path file, final Function<String, String[]> tokenizer, final Predicate<String[]> rowFilter,
+            final RowMapper<?> mapper, final RowErrorHandler errorHandler, final ResourceSink sink) throws IOException {
+        BlockingQueue<Batch> lineQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Batch> resourceQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Batch> encodedQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Semaphore batchesInFlight = new Semaphore((3 * QUEUE_CAPACITY) + numOfMappers + numOfEncoders + 1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger numOfRunningMappers = new AtomicInteger(numOfMappers);
+        AtomicInteger numOfRunningEncoders = new AtomicInteger(numOfEncoders);
+
+        List<Thread> threads = new LinkedList<>();
+        threads.add(newThread("pipeline-reader", failure, () -> {
+            read(file, lineQueue, batchesInFlight);
+            for (int i = 0; i < numOfMappers; i++) {
+                lineQueue.put(END);
+            }
+        }));
+        for (int i = 0; i < numOfMappers; i++) {
+            threads.add(newThread("pipeline-mapper-" + i, failure, () -> {
+                for (Batch batch = lineQueue.take(); batch != END; batch = lineQueue.take()) {
+                    map(file, batch, tokenizer, rowFilter, mapper, errorHandler);
+                    resourceQueue.put(batch);
+                }
+                if (numOfRunningMappers.decrementAndGet() == 0) {
+                    for (int j = 0; j < numOfEncoders; j++) {
+                        resourceQueue.put(END);
+                    }
+                }
+            }));
+        }
+        for (int i = 0; i < numOfEncoders; i++) {
+            threads.add(newThread("pipeline-encoder-" + i, failure, () -> {
+                for (Batch batch = resourceQueue.take(); batch != END; batch = resourceQueue.take()) {
+                    encode(batch, sink);
+                    encodedQueue.put(batch);
+                }
+                if (numOfRunningEncoders.decrementAndGet() == 0) {
+                    encodedQueue.put(END);
+                }
+            }));
+        }
+
+        String queueName = file.getFileName().toString();
+        PipelineMetrics.SHARED.registerQueue(queueName + ".lines", lineQueue::size);
+        PipelineMetrics.SHARED.registerQueue(queueName + ".resources", resourceQueue::size);
+        PipelineMetrics.SHARED.registerQueue(queueName + ".encoded", encodedQueue::size);
+        try {
+            threads.forEach(Thread::start);
+
+            return write(encodedQueue, batchesInFlight, failure, sink);
+        } finally {
+            threads.forEach(Thread::interrupt);
+            for (Thread thread : threads) {
+                joinUninterruptibly(thread);
+            }
+            PipelineMetrics.SHARED.unregisterQueue(queueName + ".lines");
+            PipelineMetrics.SHARED.unregisterQueue(queueName + ".resources");
+            PipelineMetrics.SHARED.unregisterQueue(queueName + ".encoded");
+        }
+    }
+
+    private static void read(Path file, BlockingQueue<Batch> lineQueue, Semaphore batchesInFlight) throws IOException, InterruptedException {
+        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
+            reader.readLine(); // skip header
+            long sequence = 0;
+            long lineNumber = 1;
+            Batch batch = null;
+            long time = System.nanoTime();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                PipelineMetrics.SHARED.record(PipelineMetrics.Stage.READ, time);
+                if (batch == null) {
+                    batch = new Batch(sequence++, lineNumber);
+                }
+                batch.lines[batch.size++] = line;
+                if (batch.size == BATCH_SIZE) {
+                    batchesInFlight.acquire();
+                    lineQueue.put(batch);
+                    batch = null;
+                }
+                time = System.nanoTime();
+            }
+            if (batch != null) {
+                batchesInFlight.acquire();
+                lineQueue.put(batch);
+            }
+        }
+    }
+
+    private static void map(Path file, Batch batch, Function<String, String[]> tokenizer, Predicate<String[]> rowFilter,
+            RowMapper<?> mapper, RowErrorHandler errorHandler) {
+        batch.resources = new Resource[batch.size];
+        for (int i = 0; i < batch.size; i++) {
+            String line = batch.lines[i];
+            long startTime = System.nanoTime();
+            long tokenizeTime = startTime;
+            try {
+                String[] fields = tokenizer.apply(line);
+                tokenizeTime = System.nanoTime();
+                if (rowFilter.test(fields)) {
+                    batch.resources[i] = mapper.map(fields);
+                }
+            } catch (ParseException | RuntimeException exception) {
+                PipelineMetrics.SHARED.recordError();
+                errorHandler.handle(file, batch.firstLineNumber + i, line, exception);
+            }
+            PipelineMetrics.SHARED.recordMappedRow(line.length() + 1, startTime, tokenizeTime);
+        }
+        batch.lines = null;
+    }
+
+    private static void encode(Batch batch, ResourceSink sink) {
+        batch.encoded = new Object[batch.size];
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.resources[i] != null) {
+                batch.encoded[i] = sink.encode(batch.resources[i]);
+            }
+        }
+        batch.resources = null;
+    }
+
+    /**
+     * Write the batches in the order of their sequence numbers.
+     */
+    private static long write(BlockingQueue<Batch> encodedQueue, Semaphore batchesInFlight, AtomicReference<Throwable> failure, ResourceSink sink) throws IOException {
+        Map<Long, Batch> pendingBatches = new HashMap<>();
+        long nextSequence = 0;
+        long numOfResources = 0;
+        try {
+            for (Batch batch = take(encodedQueue, failure); batch != END; batch = take(encodedQueue, failure)) {
+                pendingBatches.put(batch.sequence, batch);
+                for (Batch next = pendingBatches.remove(nextSequence); next != null; next = pendingBatches.remove(nextSequence)) {
+                    for (int i = 0; i < next.size; i++) {
+                        if (next.encoded[i] != null) {
+                            sink.addEncoded(next.encoded[i]);
+                            numOfResources++;
+                        }
+                    }
+                    nextSequence++;
+                    batchesInFlight.release();
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The pipeline was interrupted.");
+        }
+
+        return numOfResources;
+    }
+
+    /**
+     * Wait for the next batch while checking that no stage has failed.
+     */
+    private static Batch take(BlockingQueue<Batch> queue, AtomicReference<Throwable> failure) throws IOException, InterruptedException {
+        while (true) {
+            Batch batch = queue.poll(100, TimeUnit.MILLISECONDS);
+            Throwable cause = failure.get();
+            if (cause != null) {
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else {
+                    throw new IOException(cause);
+                }
+            }
+            if (batch != null) {
+                return batch;
+            }
+        }
+    }
+
+    private static Thread newThread(String name, AtomicReference<Throwable> failure, Stage stage) {
+        Thread thread = new Thread(() -> {
+            try {
+                stage.run();
+            } catch (InterruptedException exception) {
+                // the pipeline is shutting down
+            } catch (UncheckedIOException exception) {
+                failure.compareAndSet(null, exception.getCause());
+            } catch (Exception | Error exception) {
+                failure.compareAndSet(null, exception);
+            }
+        }, name);
+        thread.setDaemon(true);
+
+        return thread;
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean isInterrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException exception) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+
+        void run() throws Exception;
+
+    }
+
+    /**
+     * Consecutive rows of the file, then their resources, then their encoded
+     * form.
+     */
+    private static final class Batch {
+
+        private final long sequence;
+        private final long firstLineNumber;
+
+        private String[] lines;
+        private int size;
+        private Resource[] resources;
+        private Object[] encoded;
+
+        private Batch(long sequence, long firstLineNumber) {
+            this.sequence = sequence;
+            this.firstLineNumber = firstLineNumber;
+            this.lines = (sequence < 0) ? null : new String[BATCH_SIZE];
+        }
+
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors for I/O-bound tasks, such as processing input files
+ * or sending resources to a server.
+ *
+ * This is the Java 17 version, which uses pools of platform threads. The
+ * multi-release JAR holds a Java 21 version that runs each task on its own
+ * virtual thread instead.
+ *
+ * Oct 19, 2026 5:34:12 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class TaskExecutors {
+
+    private TaskExecutors() {
+    }
+
+    /**
+     * Create an executor for I/O-bound tasks.
+     *
+     * @param name prefix of the thread names
+     * @param maxNumOfThreads size of the pool when virtual threads are not
+     * available
+     * @return
+     */
+    public static ExecutorService newIoExecutor(String name, int maxNumOfThreads) {
+        return Executors.newFixedThreadPool(maxNumOfThreads, newThreadFactory(name));
+    }
+
+    /**
+     * Whether the I/O-bound tasks run on virtual threads.
+     *
+     * @return
+     */
+    public static boolean isVirtual() {
+        return false;
+    }
+
+    private static ThreadFactory newThreadFactory(String name) {
+        AtomicInteger numOfThreads = new AtomicInteger();
+
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + numOfThreads.getAndIncrement());
+            thread.setDaemon(true);
+
+            return thread;
+        };
+    }
+
+}
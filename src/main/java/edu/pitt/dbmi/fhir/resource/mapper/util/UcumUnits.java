@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes the units of the source data to UCUM codes.
+ *
+ * A unit is looked up in a table of common spellings (e.g. mmHg, mcg/mL,
+ * K/uL) and is otherwise kept if it is valid UCUM, that is if each of its
+ * atoms, with its prefix, is in the UCUM table. Other units, such as
+ * "Positive" or "cells", are not UCUM. Since UCUM is case-sensitive,
+ * spellings are matched exactly unless the table marks them as
+ * case-insensitive. The results are kept in a concurrent cache that is
+ * preloaded with the table, so that the hundreds of distinct units of a data
+ * set cost one hash lookup per row.
+ *
+ * Oct 19, 2026 9:04:18 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class UcumUnits {
+
+    private static final Set<String> PREFIXES = new HashSet<>();
+    private static final Set<String> ATOMS = new HashSet<>();
+    private static final Set<String> METRIC_ATOMS = new HashSet<>();
+
+    static {
+        loadAtoms("/ucum/ucum_atoms.tsv");
+    }
+
+    /**
+     * Units of the application.
+     */
+    public static final UcumUnits SHARED = new UcumUnits(loadAliases("/ucum/unit_aliases.tsv"), loadCaseInsensitiveAliases("/ucum/unit_aliases.tsv"));
+
+    /**
+     * Most distinct units cached, which bounds the memory taken by bad data.
+     */
+    private static final int MAX_CACHE_SIZE = 10_000;
+
+    /**
+     * Cached value of the units that are not UCUM.
+     */
+    private static final String NOT_UCUM = new String("");
+
+    private static final Pattern FACTOR = Pattern.compile("\\d+");
+
+    /**
+     * Simple unit followed by its exponent, e.g. m2 or 10*-3.
+     */
+    private static final Pattern EXPONENT = Pattern.compile("(.*[^\\d+-])([+-]?\\d+)");
+
+    private final Map<String, String> aliases;
+    private final Map<String, String> caseInsensitiveAliases;
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
+
+    private final LongAdder numOfHits = new LongAdder();
+    private final LongAdder numOfMisses = new LongAdder();
+
+    /**
+     * @param aliases source spellings of units and their UCUM codes
+     * @param caseInsensitiveAliases spellings, in lower case, that are also
+     * matched without regard to case, and their UCUM codes
+     */
+    public UcumUnits(Map<String, String> aliases, Map<String, String> caseInsensitiveAliases) {
+        this.aliases = aliases;
+        this.caseInsensitiveAliases = caseInsensitiveAliases;
+        cache.putAll(caseInsensitiveAliases);
+        aliases.forEach((alias, code) -> {
+            cache.put(alias, code);
+            cache.put(code, code);
+        });
+    }
+
+    /**
+     * Get the UCUM code of a unit.
+     *
+     * @param unit
+     * @return the UCUM code, or null if the unit is empty or is not UCUM
+     */
+    public String toUcum(String unit) {
+        if (unit == null || unit.isEmpty()) {
+            return null;
+        }
+
+        String code = cache.get(unit);
+        if (code != null) {
+            numOfHits.increment();
+        } else {
+            numOfMisses.increment();
+            code = normalize(unit);
+            if (cache.size() < MAX_CACHE_SIZE) {
+                cache.put(unit, code);
+            }
+        }
+
+        return (code == NOT_UCUM) ? null : code;
+    }
+
+    public long getNumOfHits() {
+        return numOfHits.sum();
+    }
+
+    public long getNumOfMisses() {
+        return numOfMisses.sum();
+    }
+
+    /**
+     * Fraction of the lookups answered by the cache.
+     *
+     * @return NaN if no units have been looked up
+     */
+    public double getHitRate() {
+        long hits = getNumOfHits();
+        long lookups = hits + getNumOfMisses();
+
+        return (lookups == 0) ? Double.NaN : (double) hits / lookups;
+    }
+
+    /**
+     * Number of distinct units cached, including the preloaded spellings.
+     *
+     * @return
+     */
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    private String normalize(String unit) {
+        String trimmed = unit.trim();
+        String code = aliases.get(trimmed);
+        if (code == null) {
+            code = caseInsensitiveAliases.get(trimmed.toLowerCase(Locale.ROOT));
+        }
+        if (code != null) {
+            return code;
+        }
+
+        return isUcum(trimmed) ? trimmed : NOT_UCUM;
+    }
+
+    /**
+     * Check if the unit is a UCUM term: atoms with optional prefixes,
+     * exponents and annotations, integer factors and annotations, joined by
+     * the . and / operators and grouped by parentheses.
+     *
+     * @param unit
+     * @return
+     */
+    static boolean isUcum(String unit) {
+        int numOfOpenParentheses = 0;
+        int numOfOpenBrackets = 0;
+        boolean isInAnnotation = false;
+        boolean isOperandExpected = true;
+        int start = 0;
+        for (int i = 0; i <= unit.length(); i++) {
+            char c = (i < unit.length()) ? unit.charAt(i) : '\0';
+            if (Character.isWhitespace(c)) {
+                return false;
+            } else if (isInAnnotation) {
+                isInAnnotation = (c != '}');
+                if (c == '\0') {
+                    return false;
+                }
+            } else if (c == '{') {
+                isInAnnotation = true;
+            } else if (c == '[') {
+                numOfOpenBrackets++;
+            } else if (c == ']') {
+                if (--numOfOpenBrackets < 0) {
+                    return false;
+                }
+            } else if (numOfOpenBrackets > 0) {
+                if (c == '\0') {
+                    return false;
+                }
+            } else if (c == '.' || c == '/' || c == '(' || c == ')' || c == '\0') {
+                if (i > start) {
+                    if (!isOperandExpected || !isComponent(unit.substring(start, i))) {
+                        return false;
+                    }
+                    isOperandExpected = false;
+                }
+                start = i + 1;
+
+                if (c == '(') {
+                    if (!isOperandExpected) {
+                        return false;
+                    }
+                    numOfOpenParentheses++;
+                } else if (c == ')' || c == '\0') {
+                    if (isOperandExpected || (c == ')' && --numOfOpenParentheses < 0)) {
+                        return false;
+                    }
+                } else {
+                    // a term may start with /, e.g. /min
+                    if (isOperandExpected && !(c == '/' && i == 0)) {
+                        return false;
+                    }
+                    isOperandExpected = true;
+                }
+            }
+        }
+
+        return numOfOpenParentheses == 0;
+    }
+
+    /**
+     * Check a component of a term, which has no operator.
+     */
+    private static boolean isComponent(String component) {
+        String term = component;
+        int annotation = term.indexOf('{');
+        if (annotation >= 0) {
+            if (term.indexOf('}') != term.length() - 1) {
+                return false;
+            }
+            term = term.substring(0, annotation);
+            if (term.isEmpty()) {
+                return true;
+            }
+        }
+        if (FACTOR.matcher(term).matches()) {
+            return true;
+        }
+
+        Matcher matcher = EXPONENT.matcher(term);
+        String simpleUnit = matcher.matches() ? matcher.group(1) : term;
+        if (ATOMS.contains(simpleUnit)) {
+            return true;
+        }
+        for (String prefix : PREFIXES) {
+            if (simpleUnit.length() > prefix.length()
+                    && simpleUnit.startsWith(prefix)
+                    && METRIC_ATOMS.contains(simpleUnit.substring(prefix.length()))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Load the tab-separated spellings and UCUM codes of a classpath
+     * resource. Lines starting with # are comments.
+     *
+     * @param resource
+     * @return spellings mapped to their UCUM codes
+     */
+    public static Map<String, String> loadAliases(String resource) {
+        return loadAliases(resource, false);
+    }
+
+    /**
+     * Load the spellings of a classpath resource that are marked with * in a
+     * third column, to be matched without regard to case.
+     *
+     * @param resource
+     * @return spellings, in lower case, mapped to their UCUM codes
+     */
+    public static Map<String, String> loadCaseInsensitiveAliases(String resource) {
+        return loadAliases(resource, true);
+    }
+
+    /**
+     * Load the tab-separated prefixes and atoms of UCUM, each marked as
+     * prefix, metric or nonmetric.
+     */
+    private static void loadAtoms(String resource) {
+        try (InputStream stream = UcumUnits.class.getResourceAsStream(resource)) {
+            if (stream == null) {
+                System.err.printf("UCUM atoms '%s' not found.%n", resource);
+                return;
+            }
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String[] fields = line.split("\t");
+                if (fields.length >= 2 && !line.startsWith("#")) {
+                    String code = fields[0].trim();
+                    switch (fields[1].trim()) {
+                        case "prefix":
+                            PREFIXES.add(code);
+                            break;
+                        case "metric":
+                            METRIC_ATOMS.add(code);
+                            ATOMS.add(code);
+                            break;
+                        default:
+                            ATOMS.add(code);
+                    }
+                }
+            }
+        } catch (IOException exception) {
+            exception.printStackTrace(System.err);
+        }
+    }
+
+    private static Map<String, String> loadAliases(String resource, boolean caseInsensitive) {
+        Map<String, String> aliases = new HashMap<>();
+        try (InputStream stream = UcumUnits.class.getResourceAsStream(resource)) {
+            if (stream == null) {
+                System.err.printf("Unit aliases '%s' not found.%n", resource);
+                return aliases;
+            }
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String[] fields = line.split("\t");
+                if (fields.length >= 2 && !line.startsWith("#")) {
+                    if (!caseInsensitive) {
+                        aliases.put(fields[0].trim(), fields[1].trim());
+                    } else if (fields.length > 2 && "*".equals(fields[2].trim())) {
+                        aliases.put(fields[0].trim().toLowerCase(Locale.ROOT), fields[1].trim());
+                    }
+                }
+            }
+        } catch (IOException exception) {
+            exception.printStackTrace(System.err);
+        }
+
+        return aliases;
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+/**
+ * Interning table of urn:uuid: references keyed by the 128 bits of the UUID,
+ * so that every resource referring to the same patient or encounter shares
+ * one String instead of holding its own copy.
+ *
+ * The table is split into independently locked segments so that it can be
+ * used by concurrent mapping threads. A segment that reaches its share of the
+ * maximum size is cleared, so the table stays bounded however many distinct
+ * UUIDs are mapped; the references already handed out stay valid.
+ *
+ * Oct 19, 2026 2:58:12 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class UuidInterner {
+
+    /**
+     * Maximum number of references held by the shared table.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1 << 21;
+
+    /**
+     * Table shared by the mappers.
+     */
+    public static final UuidInterner SHARED = new UuidInterner(DEFAULT_MAX_SIZE);
+
+    private static final int NUM_OF_SEGMENTS = 64;
+
+    private final Segment[] segments = new Segment[NUM_OF_SEGMENTS];
+
+    public UuidInterner() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     *
+     * @param maxSize maximum number of references held
+     */
+    public UuidInterner(int maxSize) {
+        int maxSegmentSize = Math.max(1, maxSize / NUM_OF_SEGMENTS);
+        for (int i = 0; i < NUM_OF_SEGMENTS; i++) {
+            segments[i] = new Segment(maxSegmentSize);
+        }
+    }
+
+    /**
+     * Get the shared urn:uuid: reference of the UUID. A value that is not a
+     * lower-case UUID is not interned, so the reference always keeps the text
+     * of the value.
+     *
+     * @param uuid text form of the UUID
+     * @return
+     */
+    public String toUrn(String uuid) {
+        long[] bits = new long[2];
+        if (!Uuids.parse(uuid, bits) || !isLowerCase(uuid)) {
+            return Uuids.URN_PREFIX + uuid;
+        }
+
+        return toUrn(bits[0], bits[1]);
+    }
+
+    public String toUrn(long hi, long lo) {
+        long hash = Hashes.mix64(hi ^ Hashes.mix64(lo));
+
+        return segments[(int) (hash >>> 58)].get(hi, lo, hash);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+
+        return size;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private static boolean isLowerCase(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 'A' && c <= 'F') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static final class Segment {
+
+        private final int maxSize;
+
+        private long[] his;
+        private long[] los;
+        private String[] urns;
+        private int size;
+
+        private Segment(int maxSize) {
+            this.maxSize = maxSize;
+            clear();
+        }
+
+        private synchronized String get(long hi, long lo, long hash) {
+            int mask = urns.length - 1;
+            int slot = (int) hash & mask;
+            while (urns[slot] != null) {
+                if (his[slot] == hi && los[slot] == lo) {
+                    return urns[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            String urn = Uuids.toUrn(hi, lo);
+            if (size >= maxSize) {
+                clear();
+                slot = (int) hash & (urns.length - 1);
+            }
+            his[slot] = hi;
+            los[slot] = lo;
+            urns[slot] = urn;
+            if (++size * 2 > urns.length) {
+                resize();
+            }
+
+            return urn;
+        }
+
+        private void resize() {
+            long[] oldHis = his;
+            long[] oldLos = los;
+            String[] oldUrns = urns;
+
+            his = new long[oldHis.length * 2];
+            los = new long[oldLos.length * 2];
+            urns = new String[oldUrns.length * 2];
+            int mask = urns.length - 1;
+            for (int i = 0; i < oldUrns.length; i++) {
+                if (oldUrns[i] != null) {
+                    int slot = (int) Hashes.mix64(oldHis[i] ^ Hashes.mix64(oldLos[i])) & mask;
+                    while (urns[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    his[slot] = oldHis[i];
+                    los[slot] = oldLos[i];
+                    urns[slot] = oldUrns[i];
+                }
+            }
+        }
+
+        private void clear() {
+            his = new long[64];
+            los = new long[64];
+            urns = new String[64];
+            size = 0;
+        }
+
+    }
+
+}
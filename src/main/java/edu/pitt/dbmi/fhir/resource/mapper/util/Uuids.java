@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.util.Arrays;
+
+/**
+ * Converts between the 36-character text form of a UUID
+ * (8-4-4-4-12 hexadecimal digits) and its 128 bits, held as two longs,
+ * without creating any intermediate objects.
+ *
+ * Oct 19, 2026 2:41:27 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class Uuids {
+
+    public static final int LENGTH = 36;
+
+    public static final String URN_PREFIX = "urn:uuid:";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private Uuids() {
+    }
+
+    /**
+     * Parse the UUID starting at the given position.
+     *
+     * @param value
+     * @param start position of the first character of the UUID
+     * @param bits receives the most and least significant 64 bits
+     * @return false if there is no valid UUID at that position
+     */
+    public static boolean parse(CharSequence value, int start, long[] bits) {
+        if (start < 0 || value.length() - start < LENGTH) {
+            return false;
+        }
+
+        long hi = 0;
+        long lo = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            char c = value.charAt(start + i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+                continue;
+            }
+
+            int digit = (c < 128) ? HEX_VALUES[c] : -1;
+            if (digit < 0) {
+                return false;
+            }
+            if (i < 18) {
+                hi = (hi << 4) | digit;
+            } else {
+                lo = (lo << 4) | digit;
+            }
+        }
+        bits[0] = hi;
+        bits[1] = lo;
+
+        return true;
+    }
+
+    /**
+     * Parse a value that consists of a UUID only.
+     *
+     * @param value
+     * @param bits receives the most and least significant 64 bits
+     * @return false if the value is not a UUID
+     */
+    public static boolean parse(CharSequence value, long[] bits) {
+        return value.length() == LENGTH && parse(value, 0, bits);
+    }
+
+    /**
+     * Append the lower-case text form of the UUID.
+     *
+     * @param builder
+     * @param hi most significant 64 bits
+     * @param lo least significant 64 bits
+     * @return the builder
+     */
+    public static StringBuilder append(StringBuilder builder, long hi, long lo) {
+        appendHex(builder, hi >>> 32, 8);
+        builder.append('-');
+        appendHex(builder, hi >>> 16, 4);
+        builder.append('-');
+        appendHex(builder, hi, 4);
+        builder.append('-');
+        appendHex(builder, lo >>> 48, 4);
+        builder.append('-');
+        appendHex(builder, lo, 12);
+
+        return builder;
+    }
+
+    public static String toString(long hi, long lo) {
+        return append(new StringBuilder(LENGTH), hi, lo).toString();
+    }
+
+    /**
+     * Format the UUID as a urn:uuid: reference.
+     *
+     * @param hi most significant 64 bits
+     * @param lo least significant 64 bits
+     * @return
+     */
+    public static String toUrn(long hi, long lo) {
+        return append(new StringBuilder(URN_PREFIX.length() + LENGTH).append(URN_PREFIX), hi, lo).toString();
+    }
+
+    private static void appendHex(StringBuilder builder, long value, int numOfDigits) {
+        for (int shift = (numOfDigits - 1) * 4; shift >= 0; shift -= 4) {
+            builder.append(HEX_DIGITS[(int) (value >>> shift) & 0xF]);
+        }
+    }
+
+}
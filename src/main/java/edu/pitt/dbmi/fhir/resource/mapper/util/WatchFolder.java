@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Watches a directory for data files and hands each completed file to a
+ * handler, one file at a time in order of completion, so that a long-running
+ * process can map the extracts as they arrive.
+ *
+ * A file is complete once its size and modification time have not changed
+ * for the settle time, which covers files that are copied into the directory
+ * slowly as well as files that are moved into it. Files already in the
+ * directory when the watch starts are handled too. A handled file is moved to
+ * the processed subdirectory, or to the failed subdirectory if the handler
+ * throws, so that a restarted watch does not handle it again.
+ *
+ * {@link #shutdown()} stops watching for new files and lets the files already
+ * completed drain; files still settling are left for the next run.
+ *
+ * Oct 20, 2026 12:06:51 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class WatchFolder {
+
+    public static final String PROCESSED_DIRECTORY = "processed";
+    public static final String FAILED_DIRECTORY = "failed";
+
+    /**
+     * Handles a completed file.
+     */
+    @FunctionalInterface
+    public interface FileHandler {
+
+        void handle(Path file) throws Exception;
+
+    }
+
+    private static final Path END = Paths.get("");
+
+    private final Path inputDir;
+    private final Predicate<Path> fileFilter;
+    private final long settleTime;
+    private final FileHandler handler;
+
+    private final BlockingQueue<Path> completedFiles = new LinkedBlockingQueue<>();
+    private final Map<Path, FileState> settlingFiles = new HashMap<>();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    private final AtomicLong numOfProcessedFiles = new AtomicLong();
+    private final AtomicLong numOfFailedFiles = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    /**
+     *
+     * @param inputDir directory to watch
+     * @param fileFilter accepts the names of the data files to handle; other
+     * files are left alone
+     * @param settleTime milliseconds a file must stay unchanged to be
+     * complete
+     * @param handler
+     */
+    public WatchFolder(Path inputDir, Predicate<Path> fileFilter, long settleTime, FileHandler handler) {
+        this.inputDir = inputDir;
+        this.fileFilter = fileFilter;
+        this.settleTime = settleTime;
+        this.handler = handler;
+    }
+
+    /**
+     * Watch the directory until {@link #shutdown()} is called, then wait for
+     * the completed files to be handled.
+     *
+     * @throws IOException
+     */
+    public void run() throws IOException {
+        Files.createDirectories(inputDir.resolve(PROCESSED_DIRECTORY));
+        Files.createDirectories(inputDir.resolve(FAILED_DIRECTORY));
+
+        Thread worker = new Thread(this::handleFiles, "watch-folder-worker");
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            inputDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            scanDirectory();
+            worker.start();
+
+            long pollTime = Math.max(10, Math.min(settleTime / 2, 1000));
+            while (running) {
+                WatchKey key = watchService.poll(pollTime, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scanDirectory();
+                        } else {
+                            addFile(inputDir.resolve((Path) event.context()));
+                        }
+                    }
+                    if (!key.reset()) {
+                        System.err.printf("Directory '%s' can no longer be watched.%n", inputDir);
+                        running = false;
+                    }
+                }
+                checkSettlingFiles();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            completedFiles.add(END);
+            if (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            terminated.countDown();
+        }
+    }
+
+    /**
+     * Stop watching for new files. The files already completed are still
+     * handled.
+     */
+    public void shutdown() {
+        running = false;
+    }
+
+    /**
+     * Wait for the watch to stop after {@link #shutdown()}.
+     *
+     * @param timeout milliseconds
+     * @return false if the timeout elapsed first
+     * @throws InterruptedException
+     */
+    public boolean awaitTermination(long timeout) throws InterruptedException {
+        return terminated.await(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    public long getNumOfProcessedFiles() {
+        return numOfProcessedFiles.get();
+    }
+
+    public long getNumOfFailedFiles() {
+        return numOfFailedFiles.get();
+    }
+
+    /**
+     * Number of completed files waiting to be handled.
+     *
+     * @return
+     */
+    public int getNumOfQueuedFiles() {
+        return completedFiles.size();
+    }
+
+    private void handleFiles() {
+        try {
+            for (Path file = completedFiles.take(); file != END; file = completedFiles.take()) {
+                boolean isHandled = false;
+                try {
+                    handler.handle(file);
+                    isHandled = true;
+                } catch (Exception exception) {
+                    exception.printStackTrace(System.err);
+                }
+
+                try {
+                    Path dir = inputDir.resolve(isHandled ? PROCESSED_DIRECTORY : FAILED_DIRECTORY);
+                    Files.move(file, dir.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException exception) {
+                    exception.printStackTrace(System.err);
+                }
+                if (isHandled) {
+                    numOfProcessedFiles.incrementAndGet();
+                } else {
+                    numOfFailedFiles.incrementAndGet();
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scanDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(inputDir)) {
+            files.forEach(this::addFile);
+        }
+    }
+
+    /**
+     * Start or restart the settle time of a file.
+     */
+    private void addFile(Path file) {
+        if (Files.isRegularFile(file) && fileFilter.test(file.getFileName()) && !completedFiles.contains(file)) {
+            settlingFiles.put(file, new FileState(-1, -1, System.nanoTime()));
+        }
+    }
+
+    private void checkSettlingFiles() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, FileState>> entries = settlingFiles.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Path, FileState> entry = entries.next();
+            Path file = entry.getKey();
+            FileState state = entry.getValue();
+            try {
+                long size = Files.size(file);
+                long lastModified = Files.getLastModifiedTime(file).toMillis();
+                if (size != state.size || lastModified != state.lastModified) {
+                    entry.setValue(new FileState(size, lastModified, now));
+                } else if (now - state.since >= TimeUnit.MILLISECONDS.toNanos(settleTime)) {
+                    entries.remove();
+                    completedFiles.add(file);
+                }
+            } catch (NoSuchFileException exception) {
+                entries.remove();
+            } catch (IOException exception) {
+                exception.printStackTrace(System.err);
+                entries.remove();
+            }
+        }
+    }
+
+    /**
+     * Size and modification time of a settling file, and since when they
+     * have been unchanged.
+     */
+    private static final class FileState {
+
+        private final long size;
+        private final long lastModified;
+        private final long since;
+
+        private FileState(long size, long lastModified, long since) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.since = since;
+        }
+
+    }
+
+}
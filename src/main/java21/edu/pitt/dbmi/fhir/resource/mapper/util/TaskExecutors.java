@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executors for I/O-bound tasks, such as processing input files
+ * or sending resources to a server.
+ *
+ * This is the Java 21 version, which runs each task on its own virtual
+ * thread, so blocking I/O does not hold on to a platform thread and no pool
+ * has to be sized.
+ *
+ * Oct 19, 2026 5:36:48 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class TaskExecutors {
+
+    private TaskExecutors() {
+    }
+
+    /**
+     * Create an executor for I/O-bound tasks.
+     *
+     * @param name prefix of the thread names
+     * @param maxNumOfThreads ignored, virtual threads are not pooled
+     * @return
+     */
+    public static ExecutorService newIoExecutor(String name, int maxNumOfThreads) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+
+    /**
+     * Whether the I/O-bound tasks run on virtual threads.
+     *
+     * @return
+     */
+    public static boolean isVirtual() {
+        return true;
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.codegen;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 19, 2026 10:24:06 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class MappingSpecProcessorTest {
+
+    private static final String MAPPER = String.join("\n",
+            "package sample;",
+            "",
+            "import edu.pitt.dbmi.fhir.resource.mapper.codegen.MappingSpec;",
+            "import org.hl7.fhir.r4.model.Patient;",
+            "",
+            "@MappingSpec(rowMethod = \"${rowMethod}\")",
+            "public class SampleMapper {",
+            "",
+            "    public static final String[] HEADERS = {\"ID\", \"NAME\"};",
+            "    public static final String[] OPTIONAL_HEADERS = {};",
+            "",
+            "    public static String[] getFields(String line, java.util.regex.Pattern delimiter) {",
+            "        return delimiter.split(line, -1);",
+            "    }",
+            "",
+            "    public static Patient getName(String[] fields) {",
+            "        Patient patient = new Patient();",
+            "        patient.addName().setFamily(fields[1]);",
+            "",
+            "        return patient;",
+            "    }",
+            "",
+            "}",
+            "");
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of process method, of class MappingSpecProcessor.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testProcess() throws IOException {
+        StringWriter diagnostics = new StringWriter();
+        Assertions.assertTrue(compile("getName", diagnostics), diagnostics.toString());
+
+        Path binding = tempDir.resolve("classes/sample/SampleMapperBinding.class");
+        Assertions.assertTrue(Files.exists(binding));
+
+        String source = Files.readString(tempDir.resolve("generated/sample/SampleMapperBinding.java"));
+        Assertions.assertTrue(source.contains("public final class SampleMapperBinding implements RowBinding<org.hl7.fhir.r4.model.Patient>"));
+        Assertions.assertTrue(source.contains("return sample.SampleMapper.getName(fields);"));
+        Assertions.assertTrue(source.contains("return sample.SampleMapper.getFields(line, delimiter);"));
+    }
+
+    /**
+     * Test of process method, of class MappingSpecProcessor, with a row
+     * method that does not exist.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testProcessMissingRowMethod() throws IOException {
+        StringWriter diagnostics = new StringWriter();
+        Assertions.assertFalse(compile("getPerson", diagnostics));
+        Assertions.assertTrue(diagnostics.toString().contains("No non-private static method getPerson with 1 parameter(s)."), diagnostics.toString());
+    }
+
+    private boolean compile(String rowMethod, StringWriter diagnostics) throws IOException {
+        Path sourceFile = tempDir.resolve("src/sample/SampleMapper.java");
+        Files.createDirectories(sourceFile.getParent());
+        Files.writeString(sourceFile, MAPPER.replace("${rowMethod}", rowMethod));
+
+        Path classes = Files.createDirectories(tempDir.resolve("classes"));
+        Path generated = Files.createDirectories(tempDir.resolve("generated"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            List<String> options = Arrays.asList(
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-processor", MappingSpecProcessor.class.getName(),
+                    "-d", classes.toString(),
+                    "-s", generated.toString());
+
+            return compiler.getTask(diagnostics, fileManager, null, options, null, fileManager.getJavaFileObjects(sourceFile)).call();
+        }
+    }
+
+}
@@ -18,8 +18,22 @@
  */
 package edu.pitt.dbmi.fhir.resource.mapper.r4;
 
+import edu.pitt.dbmi.fhir.resource.mapper.util.JsonResourceConverterR4;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.DiagnosticReport;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  *
@@ -29,6 +43,9 @@ import org.junit.jupiter.api.Test;
  */
 public class ApplicationTest {
 
+    @TempDir
+    public Path tempDir;
+
     /**
      * Test of main method, of class Application.
      */
@@ -43,4 +60,65 @@ public class ApplicationTest {
         Application.main(args);
     }
 
+    /**
+     * Test of main method, of class Application, in incremental mode with a
+     * diagnostic report whose observations change between two runs.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testMainIncremental() throws IOException {
+        Path dataDir = Files.createDirectories(tempDir.resolve("data"));
+        Path outputDir = Files.createDirectories(tempDir.resolve("output"));
+        Path manifestDir = Files.createDirectories(tempDir.resolve("manifests"));
+        try (Stream<Path> files = Files.list(Paths.get("src/test/resources/data/brainai"))) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.copy(file, dataDir.resolve(file.getFileName()));
+            }
+        }
+        String[] args = {
+            "brainai", dataDir.toString(), outputDir.toString(), "--incremental", manifestDir.toString()
+        };
+        Application.main(args);
+
+        // change one observation of enc1 and remove one of enc40
+        Path reportFile = dataDir.resolve("diagnostic_report.tsv");
+        List<String> lines = Files.readAllLines(reportFile).stream()
+                .filter(line -> !line.contains("\tobs50\t"))
+                .map(line -> line.replace("\tTriglycerides\t", "\tTriglyceride level\t"))
+                .collect(Collectors.toList());
+        Files.write(reportFile, lines);
+        Application.main(args);
+
+        Bundle bundle;
+        try (BufferedReader reader = Files.newBufferedReader(outputDir.resolve("diagnostic_report_collection_bundle.json"))) {
+            bundle = (Bundle) JsonResourceConverterR4.parseResource(reader);
+        }
+        Assertions.assertEquals(3, bundle.getEntry().size());
+        for (Bundle.BundleEntryComponent entry : bundle.getEntry()) {
+            DiagnosticReport report = (DiagnosticReport) entry.getResource();
+            List<String> results = report.getResult().stream()
+                    .map(result -> result.getReference() + "=" + result.getDisplay())
+                    .collect(Collectors.toList());
+            switch (report.getEncounter().getReference()) {
+                case "enc1":
+                    Assertions.assertEquals(Arrays.asList(
+                            "obs6=Total Cholesterol",
+                            "obs7=Triglyceride level",
+                            "obs8=Low Density Lipoprotein Cholesterol",
+                            "obs9=High Density Lipoprotein Cholesterol",
+                            "obs10=Leukocytes [#/volume] in Blood by Automated count"), results);
+                    break;
+                case "enc10":
+                    Assertions.assertEquals(5, results.size());
+                    break;
+                case "enc40":
+                    Assertions.assertEquals(Arrays.asList("obs46=Glucose", "obs47=Urea Nitrogen", "obs48=Creatinine", "obs49=Calcium"), results);
+                    break;
+                default:
+                    Assertions.fail(report.getEncounter().getReference());
+            }
+        }
+    }
+
 }
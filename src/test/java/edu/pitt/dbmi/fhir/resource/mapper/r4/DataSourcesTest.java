@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 19, 2026 10:44:21 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class DataSourcesTest {
+
+    /**
+     * Test of find method, of class DataSources.
+     */
+    @Test
+    public void testFind() {
+        Assertions.assertEquals(Arrays.asList("synthea", "brainai"), DataSources.getNames());
+        Assertions.assertFalse(DataSources.find("omop").isPresent());
+
+        DataSource brainai = DataSources.find("brainai").get();
+        Assertions.assertEquals(ReferenceIntegrityChecker.KeyType.TEXT, brainai.getKeyType());
+        Assertions.assertEquals(4, brainai.getMappers().size());
+        Assertions.assertTrue(brainai.getMappers().get(3).isCombiningRows());
+    }
+
+    /**
+     * Test of getMappers method, of class DataSource, checking that the
+     * columns used by the application are read by the mappers.
+     */
+    @Test
+    public void testGetMappers() {
+        for (String name : DataSources.getNames()) {
+            for (ResourceMapper<?> mapper : DataSources.find(name).get().getMappers()) {
+                List<String> columns = Arrays.asList(mapper.getColumns());
+                String message = name + " " + mapper.getResourceType();
+                Assertions.assertTrue(columns.containsAll(mapper.getKeyColumns()), message);
+                Assertions.assertTrue(columns.containsAll(mapper.getReferenceColumns().keySet()), message);
+                Assertions.assertTrue(mapper.getPatientColumn() >= -1 && mapper.getPatientColumn() < columns.size(), message);
+                Assertions.assertTrue(mapper.getIdColumn() < columns.size(), message);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import edu.pitt.dbmi.fhir.resource.mapper.util.JsonResourceConverterR4;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowErrorHandler;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.hl7.fhir.r4.model.Bundle;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 20, 2026 12:41:09 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class MappingServerTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of start method, of class MappingServer.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testStart() throws Exception {
+        List<String> patients = Files.readAllLines(Paths.get("src", "test", "resources", "data", "synthea", "covid19_csv", "patients.csv"));
+        String patientBatch = patients.stream().limit(6).collect(Collectors.joining("\n"));
+        String diagnosticReportBatch = Files.readString(Paths.get("src", "test", "resources", "data", "brainai", "diagnostic_report.tsv"));
+
+        HttpClient client = HttpClient.newHttpClient();
+        try (MappingServer server = new MappingServer(new InetSocketAddress("localhost", 0), 2, 4, 4096, tempDir, RowErrorHandler.LOG)) {
+            server.start();
+            String baseUrl = "http://localhost:" + server.getPort() + MappingServer.CONTEXT_PATH;
+
+            // one resource per line
+            HttpResponse<String> response = client.send(post(baseUrl + "synthea/patients", "text/csv", patientBatch), HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(200, response.statusCode());
+            Assertions.assertEquals(MappingServer.NDJSON_TYPE, response.headers().firstValue("Content-Type").orElse(""));
+            Assertions.assertEquals("0", response.headers().firstValue(MappingServer.SKIPPED_ROWS_HEADER).orElse(""));
+            Assertions.assertEquals(5, response.body().lines().filter(line -> line.startsWith("{\"resourceType\":\"Patient\"")).count());
+
+            // a mapper combining rows, as a bundle
+            response = client.send(post(baseUrl + "brainai/DiagnosticReport?format=bundle", "text/tab-separated-values", diagnosticReportBatch), HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(200, response.statusCode());
+            Bundle bundle = (Bundle) JsonResourceConverterR4.parseResource(new StringReader(response.body()));
+            Assertions.assertEquals(Bundle.BundleType.COLLECTION, bundle.getType());
+            Assertions.assertEquals(3, bundle.getEntry().size());
+
+            // rows that cannot be mapped are skipped
+            String badBatch = patients.get(0) + "\n" + patients.get(1).replaceFirst(",\\d{4}-\\d{2}-\\d{2},", ",yesterday,");
+            response = client.send(post(baseUrl + "synthea/patients", "text/csv", badBatch), HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(200, response.statusCode());
+            Assertions.assertEquals("1", response.headers().firstValue(MappingServer.SKIPPED_ROWS_HEADER).orElse(""));
+
+            // the batch is read in the charset of its content type
+            String accentedBatch = patients.get(0) + "\n" + patients.get(1).replace("Jacinto644", "Zoë");
+            response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "synthea/patients"))
+                    .header("Content-Type", "text/csv; charset=ISO-8859-1")
+                    .POST(HttpRequest.BodyPublishers.ofString(accentedBatch, StandardCharsets.ISO_8859_1))
+                    .build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            Assertions.assertEquals(200, response.statusCode());
+            Assertions.assertTrue(response.body().contains("\"Zoë\""), response.body());
+            Assertions.assertEquals(415, client.send(post(baseUrl + "synthea/patients", "text/csv; charset=unknown", patientBatch), HttpResponse.BodyHandlers.ofString()).statusCode());
+
+            Assertions.assertEquals(404, client.send(post(baseUrl + "synthea/unknown", "text/csv", patientBatch), HttpResponse.BodyHandlers.ofString()).statusCode());
+            Assertions.assertEquals(415, client.send(post(baseUrl + "synthea/patients", "text/plain", patientBatch), HttpResponse.BodyHandlers.ofString()).statusCode());
+            Assertions.assertEquals(400, client.send(post(baseUrl + "synthea/patients", "text/csv", "Id\n1\n"), HttpResponse.BodyHandlers.ofString()).statusCode());
+            Assertions.assertEquals(413, client.send(post(baseUrl + "synthea/patients", "text/csv", "x".repeat(5000)), HttpResponse.BodyHandlers.ofString()).statusCode());
+            Assertions.assertEquals(405, client.send(HttpRequest.newBuilder(URI.create(baseUrl + "synthea/patients")).GET().build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+
+            Assertions.assertEquals(10, server.getNumOfRequests());
+            Assertions.assertEquals(0, server.getNumOfRefusedRequests());
+            Assertions.assertEquals(9, server.getNumOfResources());
+        }
+    }
+
+    private static HttpRequest post(String url, String contentType, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+}
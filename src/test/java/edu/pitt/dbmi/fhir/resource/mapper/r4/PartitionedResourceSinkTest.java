@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import edu.pitt.dbmi.fhir.resource.mapper.util.ChannelWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.hl7.fhir.r4.model.DateTimeType;
+import org.hl7.fhir.r4.model.Encounter;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Period;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 19, 2026 11:38:20 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class PartitionedResourceSinkTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of getPartition method, of class PartitionedResourceSink.
+     */
+    @Test
+    public void testGetPartition() {
+        Observation observation = new Observation();
+        observation.setEffective(new DateTimeType("2020-03-02"));
+        Assertions.assertEquals("year=2020/month=03", PartitionedResourceSink.getPartition(observation));
+
+        observation = new Observation();
+        observation.setIssued(new DateTimeType("2019-11-30T10:00:00+00:00").getValue());
+        Assertions.assertEquals("year=2019/month=11", PartitionedResourceSink.getPartition(observation));
+
+        Encounter encounter = new Encounter();
+        encounter.setPeriod((new Period()).setStartElement(new DateTimeType("2011-01-05T08:00:00-05:00")));
+        Assertions.assertEquals("year=2011/month=01", PartitionedResourceSink.getPartition(encounter));
+
+        Assertions.assertEquals("year=__HIVE_DEFAULT_PARTITION__/month=__HIVE_DEFAULT_PARTITION__", PartitionedResourceSink.getPartition(new Encounter()));
+    }
+
+    /**
+     * Test of add method, of class PartitionedResourceSink. Partitions closed
+     * to stay within the open files are appended to when reopened.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testAdd() throws IOException {
+        String[] dates = {"2020-01-15", "2020-02-15", "2020-01-20", "2021-02-01", "2020-02-28", "2020-01-31"};
+        PartitionedResourceSink sink = new PartitionedResourceSink(tempDir, "observation", ChannelWriter.FsyncPolicy.NONE, 1);
+        try (sink) {
+            for (String date : dates) {
+                Observation observation = new Observation();
+                observation.setId(date);
+                observation.setEffective(new DateTimeType(date));
+                sink.add(observation);
+            }
+        }
+        Assertions.assertEquals(6, sink.getNumOfResources());
+        Assertions.assertEquals(3, sink.getNumOfPartitions());
+        Assertions.assertEquals(3, sink.getNumOfReopenedPartitions());
+
+        List<String> lines = Files.readAllLines(PartitionedResourceSink.getFile(tempDir, "year=2020/month=01", "observation"));
+        Assertions.assertEquals(3, lines.size());
+        Assertions.assertTrue(lines.get(0).contains("\"id\":\"2020-01-15\""));
+        Assertions.assertTrue(lines.get(2).contains("\"id\":\"2020-01-31\""));
+        Assertions.assertEquals(2, Files.readAllLines(PartitionedResourceSink.getFile(tempDir, "year=2020/month=02", "observation")).size());
+        Assertions.assertEquals(1, Files.readAllLines(PartitionedResourceSink.getFile(tempDir, "year=2021/month=02", "observation")).size());
+
+        // a new sink replaces the partitions it writes to
+        try (PartitionedResourceSink rerun = new PartitionedResourceSink(tempDir, "observation", ChannelWriter.FsyncPolicy.NONE, 1)) {
+            Observation observation = new Observation();
+            observation.setEffective(new DateTimeType("2020-01-01"));
+            rerun.add(observation);
+        }
+        Assertions.assertEquals(1, Files.readAllLines(PartitionedResourceSink.getFile(tempDir, "year=2020/month=01", "observation")).size());
+    }
+
+}
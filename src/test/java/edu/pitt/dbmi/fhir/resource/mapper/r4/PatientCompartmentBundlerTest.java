@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import edu.pitt.dbmi.fhir.resource.mapper.util.DeadLetterFile;
+import edu.pitt.dbmi.fhir.resource.mapper.util.Delimiters;
+import edu.pitt.dbmi.fhir.resource.mapper.util.ErrorRateExceededException;
+import edu.pitt.dbmi.fhir.resource.mapper.util.RowMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 20, 2026 11:02:46 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class PatientCompartmentBundlerTest {
+
+    @TempDir
+    public Path tempDir;
+
+    private static final RowMapper<Patient> MAPPER = fields -> {
+        if (fields[1].equals("bad")) {
+            throw new ParseException("Bad value.", 0);
+        }
+
+        Patient patient = new Patient();
+        patient.setId(fields[0]);
+
+        return patient;
+    };
+
+    /**
+     * Test of writeBundles method, of class PatientCompartmentBundler, with
+     * rows that cannot be mapped.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testWriteBundlesErrorRate() throws IOException {
+        Path dataFile = tempDir.resolve("patients.csv");
+        Path outputFile = tempDir.resolve("patient_bundles.ndjson");
+
+        // one row in ten fails
+        List<String> lines = new ArrayList<>();
+        lines.add("PATIENT,VALUE");
+        for (int i = 0; i < 200; i++) {
+            lines.add(String.format("p%03d,%s", i, (i % 10 == 9) ? "bad" : "good"));
+        }
+        Files.write(dataFile, lines);
+        List<PatientCompartmentBundler.Source> sources = Collections.singletonList(new PatientCompartmentBundler.Source(dataFile, Delimiters.COMMA_DELIM, 0, -1, MAPPER));
+
+        List<Long> lineNumbers = new ArrayList<>();
+        PatientCompartmentBundler bundler = new PatientCompartmentBundler(tempDir, 1024 * 1024, (file, lineNumber, line, cause) -> lineNumbers.add(lineNumber));
+        Assertions.assertEquals(180, bundler.writeBundles(sources, patient -> true, outputFile));
+        Assertions.assertEquals(20, lineNumbers.size());
+        Assertions.assertEquals(11, lineNumbers.get(0));
+        Assertions.assertEquals(201, lineNumbers.get(19));
+
+        // the error rate is checked against the rows read so far
+        try (DeadLetterFile deadLetterFile = new DeadLetterFile(tempDir.resolve("dead_letter.tsv"), 0.05)) {
+            PatientCompartmentBundler failingBundler = new PatientCompartmentBundler(tempDir, 1024 * 1024, deadLetterFile);
+            ErrorRateExceededException exception = Assertions.assertThrows(ErrorRateExceededException.class,
+                    () -> failingBundler.writeBundles(sources, patient -> true, outputFile));
+            Assertions.assertTrue(exception.getMessage().startsWith("10 of the first 100 rows"), exception.getMessage());
+        }
+    }
+
+}
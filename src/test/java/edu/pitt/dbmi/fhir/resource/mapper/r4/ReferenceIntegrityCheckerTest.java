@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import edu.pitt.dbmi.fhir.resource.mapper.util.Delimiters;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 19, 2026 2:16:41 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class ReferenceIntegrityCheckerTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of checkReferences method, of class ReferenceIntegrityChecker.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCheckReferences() throws IOException {
+        Path patients = Paths.get(getClass().getResource("/data/synthea/covid19_csv/patients.csv").getFile());
+        Path encounters = Paths.get(getClass().getResource("/data/synthea/covid19_csv/encounters.csv").getFile());
+
+        // point the last observation to an encounter that does not exist
+        Path observations = tempDir.resolve("observations.csv");
+        List<String> lines = Files.readAllLines(Paths.get(getClass().getResource("/data/synthea/covid19_csv/observations.csv").getFile()));
+        int last = lines.size() - 1;
+        String[] fields = lines.get(last).split(",", -1);
+        fields[2] = "00000000-0000-0000-0000-000000000001";
+        lines.set(last, String.join(",", fields));
+        Files.write(observations, lines);
+
+        StringWriter report = new StringWriter();
+        try (ReferenceIntegrityChecker checker = new ReferenceIntegrityChecker(ReferenceIntegrityChecker.KeyType.UUID)) {
+            Assertions.assertEquals(10, checker.addKeys("Patient", patients, Delimiters.COMMA_DELIM, "Id"));
+            Assertions.assertEquals(57, checker.addKeys("Encounter", encounters, Delimiters.COMMA_DELIM, "Id"));
+
+            Map<String, String> columnTargets = new LinkedHashMap<>();
+            columnTargets.put("PATIENT", "Patient");
+            columnTargets.put("ENCOUNTER", "Encounter");
+            long actual = checker.checkReferences(observations, Delimiters.COMMA_DELIM, columnTargets, report);
+            Assertions.assertEquals(1, actual);
+        }
+
+        String expected = String.format("observations.csv\t%d\tENCOUNTER\tEncounter\t%s%n", lines.size(), fields[2]);
+        Assertions.assertEquals(expected, report.toString());
+    }
+
+}
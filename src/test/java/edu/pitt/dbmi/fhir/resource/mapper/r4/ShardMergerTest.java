@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 20, 2026 1:16:52 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class ShardMergerTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of merge method, of class ShardMerger.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testMerge() throws IOException {
+        Path inputDir = tempDir.resolve("shards");
+        Path outputDir = Files.createDirectories(tempDir.resolve("output"));
+        Path shard0Dir = Files.createDirectories(inputDir.resolve("shard-0-of-2"));
+        Path shard1Dir = Files.createDirectories(inputDir.resolve("shard-1-of-2"));
+
+        Files.write(shard0Dir.resolve("observation_deleted_keys.txt"), Arrays.asList("2020-03-01\tp3\t8302-2", "2020-03-01\tp1\t8302-2", "2020-03-01\tp3\t8302-2"));
+        Files.write(shard1Dir.resolve("observation_deleted_keys.txt"), Arrays.asList("2020-03-01\tp2\t8302-2", "2020-03-01\tp1\t8302-2"));
+        Files.write(shard0Dir.resolve("patient_bundles.ndjson"), Arrays.asList("{\"id\":\"p1\"}"));
+        Files.write(shard1Dir.resolve("patient_bundles.ndjson"), Arrays.asList("{\"id\":\"p2\"}"));
+
+        // a budget this small spills every line to its own chunk
+        ShardMerger.merge(inputDir, outputDir, tempDir.resolve("sort"), 1);
+        Assertions.assertEquals(Arrays.asList("2020-03-01\tp1\t8302-2", "2020-03-01\tp2\t8302-2", "2020-03-01\tp3\t8302-2"),
+                Files.readAllLines(outputDir.resolve("observation_deleted_keys.txt")));
+        Assertions.assertEquals(Arrays.asList("{\"id\":\"p1\"}", "{\"id\":\"p2\"}"), Files.readAllLines(outputDir.resolve("patient_bundles.ndjson")));
+        try (Stream<Path> files = Files.list(tempDir.resolve("sort"))) {
+            Assertions.assertEquals(0, files.count());
+        }
+
+        Files.delete(shard1Dir.resolve("patient_bundles.ndjson"));
+        Files.delete(shard1Dir.resolve("observation_deleted_keys.txt"));
+        Files.delete(shard1Dir);
+        Assertions.assertThrows(IOException.class, () -> ShardMerger.merge(inputDir, outputDir, tempDir.resolve("sort"), 1));
+    }
+
+}
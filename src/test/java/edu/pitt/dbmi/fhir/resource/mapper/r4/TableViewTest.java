@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4;
+
+import java.util.List;
+import org.hl7.fhir.r4.model.DiagnosticReport;
+import org.hl7.fhir.r4.model.Identifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 20, 2026 9:12:37 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class TableViewTest {
+
+    /**
+     * Test of getRows method, of class TableView, for the tables of the
+     * diagnostic reports, which are joined on the report identifier.
+     */
+    @Test
+    public void testGetRowsDiagnosticReport() {
+        DiagnosticReport diagnosticReport = new DiagnosticReport();
+        diagnosticReport.addIdentifier(new Identifier().setValue("enc1"));
+        diagnosticReport.addResult().setReference("obs1").setDisplay("Glucose");
+        diagnosticReport.addResult().setReference("obs2").setDisplay("Triglycerides");
+
+        List<Object[]> reportRows = TableView.DIAGNOSTIC_REPORT.getRows(diagnosticReport);
+        Assertions.assertEquals(1, reportRows.size());
+        Assertions.assertEquals("report_id", TableView.DIAGNOSTIC_REPORT.getColumns().get(1).getName());
+        Assertions.assertEquals("enc1", reportRows.get(0)[1]);
+
+        List<Object[]> resultRows = TableView.DIAGNOSTIC_REPORT_RESULT.getRows(diagnosticReport);
+        Assertions.assertEquals(2, resultRows.size());
+        Assertions.assertEquals("report_id", TableView.DIAGNOSTIC_REPORT_RESULT.getColumns().get(1).getName());
+        Assertions.assertArrayEquals(new Object[]{null, "enc1", "obs1", "Glucose"}, resultRows.get(0));
+        Assertions.assertArrayEquals(new Object[]{null, "enc1", "obs2", "Triglycerides"}, resultRows.get(1));
+    }
+
+}
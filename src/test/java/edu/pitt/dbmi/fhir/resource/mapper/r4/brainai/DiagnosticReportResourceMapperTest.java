@@ -53,6 +53,11 @@ public class DiagnosticReportResourceMapperTest {
         int expected = 3;
         int actual = diagnosticReports.size();
         Assertions.assertEquals(expected, actual);
+
+        // reports are identified by the encounter whose observations they group
+        diagnosticReports.forEach(diagnosticReport -> Assertions.assertEquals(
+                diagnosticReport.getEncounter().getReference(),
+                diagnosticReport.getIdentifierFirstRep().getValue()));
     }
 
 }
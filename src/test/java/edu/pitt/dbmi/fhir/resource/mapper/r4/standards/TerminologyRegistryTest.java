@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4.standards;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.hl7.fhir.r4.model.Coding;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 19, 2026 9:40:12 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class TerminologyRegistryTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of apply method, of class TerminologyRegistry.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testApply() throws IOException {
+        Path systemsFile = tempDir.resolve("systems.tsv");
+        Path conceptsFile = tempDir.resolve("concepts.tsv");
+        Path indexFile = tempDir.resolve("index").resolve("terminology.idx");
+        Files.write(systemsFile, Arrays.asList(
+                "# alias\turi",
+                "loinc\thttps://loinc.org",
+                "http://loinc.org\thttps://loinc.org",
+                "SNOMED-CT\thttps://snomed.info/sct"));
+        Files.write(conceptsFile, Arrays.asList(
+                "loinc\t8302-2\tBody Height",
+                "LOINC\t8302-2\tBody height (duplicate)",
+                "loinc\t29463-7\tBody Weight",
+                "snomed-ct\t840539006\tDisease caused by SARS-CoV-2",
+                "https://snomed.info/sct\t10828004\tPositive (qualifier value)",
+                "rxnorm\t313782\tAcetaminophen 325 MG Oral Tablet"));
+        Assertions.assertEquals(5, TerminologyIndexBuilder.build(systemsFile, conceptsFile, indexFile));
+
+        TerminologyRegistry registry = TerminologyRegistry.open(indexFile);
+        Assertions.assertEquals(5, registry.getNumOfConcepts());
+        Assertions.assertEquals("https://loinc.org", registry.resolveSystem("LOINC"));
+        Assertions.assertEquals("https://www.nlm.nih.gov/research/umls/rxnorm", registry.resolveSystem("rxnorm"));
+        Assertions.assertEquals("urn:oid:1.2.3", registry.resolveSystem("urn:oid:1.2.3"));
+        Assertions.assertEquals("Body Height", registry.getDisplay("https://loinc.org", "8302-2"));
+        Assertions.assertEquals("Positive (qualifier value)", registry.getDisplay("https://snomed.info/sct", "10828004"));
+        Assertions.assertEquals("Acetaminophen 325 MG Oral Tablet", registry.getDisplay("https://www.nlm.nih.gov/research/umls/rxnorm", "313782"));
+        Assertions.assertNull(registry.getDisplay("https://loinc.org", "8302-3"));
+        Assertions.assertNull(registry.getDisplay("https://snomed.info/sct", "8302-2"));
+
+        registry.setMode(TerminologyRegistry.Mode.FILL);
+        Coding coding = registry.apply(new Coding("http://loinc.org", "29463-7", null));
+        Assertions.assertEquals("https://loinc.org", coding.getSystem());
+        Assertions.assertEquals("Body Weight", coding.getDisplay());
+        coding = registry.apply(new Coding("loinc", "8302-2", "Height"));
+        Assertions.assertEquals("Height", coding.getDisplay());
+        Assertions.assertEquals(1, registry.getNumOfFilledDisplays());
+        Assertions.assertEquals(1, registry.getNumOfMismatchedDisplays());
+
+        registry.setMode(TerminologyRegistry.Mode.VERIFY);
+        coding = registry.apply(new Coding("loinc", "8302-2", "Height"));
+        Assertions.assertEquals("Body Height", coding.getDisplay());
+        registry.apply(new Coding("loinc", "0000-0", "Unknown"));
+        Assertions.assertEquals(1, registry.getNumOfUnknownCodes());
+
+        registry.setMode(TerminologyRegistry.Mode.OFF);
+        coding = registry.apply(new Coding("loinc", "8302-2", null));
+        Assertions.assertEquals("loinc", coding.getSystem());
+        Assertions.assertNull(coding.getDisplay());
+    }
+
+    /**
+     * Test of the index built at packaging time, of class
+     * TerminologyRegistry.
+     */
+    @Test
+    public void testShared() {
+        TerminologyRegistry registry = TerminologyRegistry.SHARED;
+        Assertions.assertTrue(registry.getNumOfConcepts() > 0);
+        Assertions.assertEquals("Body Height", registry.getDisplay(CodingSystemURIs.LOINC_URI, "8302-2"));
+    }
+
+}
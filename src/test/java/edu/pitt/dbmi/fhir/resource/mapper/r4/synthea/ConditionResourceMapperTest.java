@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.r4.synthea;
+
+import edu.pitt.dbmi.fhir.resource.mapper.util.Delimiters;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.hl7.fhir.r4.model.Condition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 19, 2026 11:08:14 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class ConditionResourceMapperTest {
+
+    /**
+     * Test of getConditionsFromFile method, of class ConditionResourceMapper.
+     */
+    @Test
+    public void testGetConditionsFromFile() {
+        Path file = Paths.get(getClass().getResource("/data/synthea/covid19_csv/conditions.csv").getFile());
+        Pattern delimiter = Delimiters.COMMA_DELIM;
+        List<Condition> resources = ConditionResourceMapper.getConditionsFromFile(file, delimiter);
+
+        int expected = 4;
+        int actual = resources.size();
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertEquals("resolved", resources.get(0).getClinicalStatus().getCodingFirstRep().getCode());
+        Assertions.assertEquals("active", resources.get(1).getClinicalStatus().getCodingFirstRep().getCode());
+    }
+
+}
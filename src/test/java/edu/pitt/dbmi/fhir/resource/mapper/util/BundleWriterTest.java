@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hl7.fhir.r4.model.Bundle;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 20, 2026 1:48:30 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class BundleWriterTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of addJson method, of class BundleWriter. The bytes written, with
+     * the header, the separators and the footer, are added to the metrics.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testAddJson() throws IOException {
+        Path file = tempDir.resolve("patient_collection_bundle.json");
+
+        long numOfBytes = PipelineMetrics.SHARED.getNumOfBytesWritten();
+        try (BundleWriter writer = new BundleWriter(new ChannelWriter(file, ChannelWriter.FsyncPolicy.NONE), Bundle.BundleType.COLLECTION)) {
+            writer.addJson("{\"resourceType\":\"Patient\",\"id\":\"p1\"}");
+            writer.addJson("{\"resourceType\":\"Patient\",\"id\":\"p2\",\"name\":[{\"given\":[\"Zoë\"]}]}");
+            Assertions.assertEquals(2, writer.getNumOfEntries());
+        }
+        Assertions.assertEquals(Files.size(file), PipelineMetrics.SHARED.getNumOfBytesWritten() - numOfBytes);
+        Assertions.assertTrue(Files.readString(file).startsWith("{\"resourceType\":\"Bundle\",\"type\":\"collection\",\"entry\":[{\"resource\":"));
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 19, 2026 6:21:09 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class ChannelWriterTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of write method, of class ChannelWriter, with buffers much smaller
+     * than the text and a surrogate pair split across two writes, and of the
+     * number of bytes written.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testWrite() throws IOException {
+        DirectBufferPool bufferPool = new DirectBufferPool(16, 4);
+        StringBuilder expected = new StringBuilder();
+        Path file = tempDir.resolve("output.json");
+        ChannelWriter writer = new ChannelWriter(file, ChannelWriter.FsyncPolicy.ON_CLOSE, bufferPool);
+        try (writer) {
+            for (int i = 0; i < 1000; i++) {
+                String text = "{\"id\":" + i + ",\"unit\":\"µmol/L\"}";
+                writer.write(text);
+                writer.write(',');
+                expected.append(text).append(',');
+            }
+            writer.write("\ud83d");
+            writer.write("\ude00]");
+            expected.append("😀]");
+        }
+
+        Assertions.assertEquals(expected.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        Assertions.assertEquals(2, bufferPool.getNumOfPooledBuffers());
+        Assertions.assertEquals(Files.size(file), writer.getNumOfBytes());
+        Assertions.assertEquals(Files.size(file), ChannelWriter.getEncodedLength(expected));
+        Assertions.assertEquals(3, ChannelWriter.getEncodedLength("µ\ud83d"));
+    }
+
+}
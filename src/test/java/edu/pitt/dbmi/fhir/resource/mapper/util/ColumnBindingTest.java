@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.ObservationResourceMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.hl7.fhir.r4.model.Observation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 19, 2026 10:03:44 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class ColumnBindingTest {
+
+    private static final String[] COLUMNS = {"Id", "NAME", "CITY", "ZIP"};
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of bind method, of class ColumnBinding.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBind() throws IOException {
+        Path file = tempDir.resolve("patients.csv");
+
+        // same order, extra trailing column
+        ColumnBinding binding = ColumnBinding.bind(file, "\uFEFFId,name,CITY,ZIP,INCOME", Delimiters.COMMA_DELIM, COLUMNS, new String[0]);
+        Assertions.assertTrue(binding.isIdentity());
+        String[] fields = {"1", "Ann", "Boston", "02108", "100"};
+        Assertions.assertSame(fields, binding.bind(fields));
+        // a short row is padded as in any other order
+        Assertions.assertArrayEquals(new String[]{"1", "Ann", "", ""}, binding.bind(new String[]{"1", "Ann"}));
+
+        // reordered, with an inserted column and a missing optional column
+        binding = ColumnBinding.bind(file, "ID,MIDDLE,\"NAME\",ZIP", Delimiters.COMMA_DELIM, COLUMNS, new String[]{"CITY"});
+        Assertions.assertFalse(binding.isIdentity());
+        Assertions.assertEquals(3, binding.getSourceIndex(3));
+        Assertions.assertEquals(-1, binding.getSourceIndex(2));
+        Assertions.assertArrayEquals(new String[]{"1", "Ann", "", "02108"}, binding.bind(new String[]{"1", "B.", "Ann", "02108"}));
+        Assertions.assertArrayEquals(new String[]{"1", "Ann", "", ""}, binding.bind(new String[]{"1", "B.", "Ann"}));
+
+        IOException exception = Assertions.assertThrows(IOException.class,
+                () -> ColumnBinding.bind(file, "Id,ZIP", Delimiters.COMMA_DELIM, COLUMNS, new String[]{"CITY"}));
+        Assertions.assertTrue(exception.getMessage().contains("[NAME]"), exception.getMessage());
+    }
+
+    /**
+     * Test of mapping a Synthea 3 observation file, which has a CATEGORY
+     * column, with the columns bound to the header.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBindSyntheaObservations() throws IOException {
+        Path oldFile = tempDir.resolve("observations.csv");
+        Path newFile = tempDir.resolve("observations3.csv");
+        Files.write(oldFile, Arrays.asList(
+                "DATE,PATIENT,ENCOUNTER,CODE,DESCRIPTION,VALUE,UNITS,TYPE",
+                "2020-03-02T08:38:09Z,c2b4bc8b-bab8-4d3d-a5ea-9f9e2a2b1a1d,3bb5ed59-d7d6-4a3c-9f8e-7b0c6d0e3f10,8302-2,Body Height,170.1,cm,numeric"));
+        Files.write(newFile, Arrays.asList(
+                "DATE,PATIENT,ENCOUNTER,CATEGORY,CODE,DESCRIPTION,VALUE,UNITS,TYPE",
+                "2020-03-02T08:38:09Z,c2b4bc8b-bab8-4d3d-a5ea-9f9e2a2b1a1d,3bb5ed59-d7d6-4a3c-9f8e-7b0c6d0e3f10,vital-signs,8302-2,Body Height,170.1,cm,numeric"));
+
+        List<Observation> expected = ObservationResourceMapper.getObservationFromFile(oldFile, Delimiters.COMMA_DELIM);
+        List<Observation> actual = ObservationResourceMapper.getObservationFromFile(newFile, Delimiters.COMMA_DELIM);
+        Assertions.assertEquals(1, actual.size());
+        Assertions.assertEquals(
+                JsonResourceConverterR4.resourceToJson(expected.get(0), false),
+                JsonResourceConverterR4.resourceToJson(actual.get(0), false));
+    }
+
+}
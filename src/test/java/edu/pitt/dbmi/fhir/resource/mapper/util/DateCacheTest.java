@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.text.ParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 19, 2026 11:24:05 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class DateCacheTest {
+
+    /**
+     * Test of parse method, of class DateCache.
+     *
+     * @throws ParseException
+     */
+    @Test
+    public void testParse() throws ParseException {
+        DateCache dates = new DateCache(DateFormatters.YYYY_MM_DD);
+        Assertions.assertEquals(DateFormatters.YYYY_MM_DD.parse("2020-03-01"), dates.parse("2020-03-01"));
+        Assertions.assertEquals(0, dates.getNumOfHits());
+        Assertions.assertEquals(1, dates.getNumOfMisses());
+
+        // repeated values are answered by the cache, each with its own Date
+        Assertions.assertNotSame(dates.parse("2020-03-01"), dates.parse("2020-03-01"));
+        Assertions.assertEquals(2, dates.getNumOfHits());
+        Assertions.assertEquals(1, dates.getCacheSize());
+        Assertions.assertEquals(2.0 / 3, dates.getHitRate(), 1e-9);
+
+        // values that cannot be parsed are not cached
+        Assertions.assertThrows(ParseException.class, () -> dates.parse("03/01/2020"));
+        Assertions.assertThrows(ParseException.class, () -> dates.parse("03/01/2020"));
+        Assertions.assertEquals(1, dates.getCacheSize());
+
+        dates.clear();
+        Assertions.assertEquals(0, dates.getCacheSize());
+        Assertions.assertTrue(Double.isNaN(dates.getHitRate()));
+
+        Assertions.assertEquals(1550278952000L, DateCache.ISO_INSTANT.parseMillis("2019-02-16T01:02:32Z"));
+        Assertions.assertThrows(ParseException.class, () -> DateCache.ISO_INSTANT.parse("2019-02-16"));
+    }
+
+}
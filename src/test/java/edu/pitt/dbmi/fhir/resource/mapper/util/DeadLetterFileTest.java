@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.EncounterResourceMapperBinding;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.hl7.fhir.r4.model.Encounter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 19, 2026 4:31:55 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class DeadLetterFileTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of handle method, of class DeadLetterFile.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testHandle() throws IOException {
+        List<String> lines = new ArrayList<>(Files.readAllLines(Paths.get(getClass().getResource("/data/synthea/covid19_csv/encounters.csv").getFile())));
+        lines.set(3, lines.get(3).replaceFirst(",(ambulatory|emergency|inpatient|outpatient|urgentcare|wellness),", ",no-such-class,"));
+        lines.set(5, lines.get(5).replaceFirst(",\\d{4}-\\d{2}-\\d{2}T", ",yesterdayT"));
+        Path file = tempDir.resolve("encounters.csv");
+        Files.write(file, lines);
+
+        Path deadLetterFile = tempDir.resolve("dead_letters.tsv");
+        List<Encounter> encounters;
+        try (DeadLetterFile deadLetters = new DeadLetterFile(deadLetterFile, 1)) {
+            encounters = EncounterResourceMapperBinding.INSTANCE.mapFile(file, Delimiters.COMMA_DELIM, fields -> true, deadLetters);
+            Assertions.assertEquals(2, deadLetters.getNumOfErrors());
+        }
+        Assertions.assertEquals(lines.size() - 3, encounters.size());
+
+        List<String> deadLetterLines = Files.readAllLines(deadLetterFile);
+        Assertions.assertEquals(3, deadLetterLines.size());
+        Assertions.assertTrue(deadLetterLines.get(1).startsWith("encounters.csv\t4\t"));
+        Assertions.assertTrue(deadLetterLines.get(2).startsWith("encounters.csv\t6\t"));
+        Assertions.assertTrue(deadLetterLines.get(2).endsWith(lines.get(5)));
+    }
+
+    /**
+     * Test of handle method, of class DeadLetterFile, when too many rows
+     * fail.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testHandleErrorRateExceeded() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("Id,START,STOP,PATIENT,ORGANIZATION,PROVIDER,PAYER,ENCOUNTERCLASS,CODE,DESCRIPTION,BASE_ENCOUNTER_COST,TOTAL_CLAIM_COST,PAYER_COVERAGE,REASONCODE,REASONDESCRIPTION");
+        for (int i = 0; i < 1000; i++) {
+            lines.add("bad row " + i);
+        }
+        Path file = tempDir.resolve("encounters.csv");
+        Files.write(file, lines);
+
+        try (DeadLetterFile deadLetters = new DeadLetterFile(tempDir.resolve("dead_letters.tsv"), 0.1)) {
+            Assertions.assertThrows(ErrorRateExceededException.class,
+                    () -> EncounterResourceMapperBinding.INSTANCE.mapFile(file, Delimiters.COMMA_DELIM, fields -> true, deadLetters));
+            Assertions.assertEquals(DeadLetterFile.MIN_NUM_OF_ROWS, deadLetters.getNumOfErrors());
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 19, 2026 12:51:19 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class ExternalSorterTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of sort method, of class ExternalSorter.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSort() throws IOException {
+        Path inputFile = Paths.get(getClass().getResource("/data/synthea/covid19_csv/observations.csv").getFile());
+        Path outputFile = tempDir.resolve("observations.csv");
+
+        // a tiny memory budget forces many spill files and a multi-pass merge
+        (new ExternalSorter(tempDir, 2048)).sort(inputFile, outputFile, Delimiters.COMMA_DELIM, 1);
+
+        List<String> expected = Files.readAllLines(inputFile);
+        expected.subList(1, expected.size())
+                .sort((line1, line2) -> ExternalSorter.getKey(line1, Delimiters.COMMA_DELIM, 1).compareTo(ExternalSorter.getKey(line2, Delimiters.COMMA_DELIM, 1)));
+        List<String> actual = Files.readAllLines(outputFile);
+        Assertions.assertEquals(expected, actual);
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            Assertions.assertEquals(1, files.collect(Collectors.toList()).size(), "Spill files are not deleted.");
+        }
+    }
+
+}
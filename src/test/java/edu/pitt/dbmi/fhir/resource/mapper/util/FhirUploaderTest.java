@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.EncounterResourceMapper;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Encounter;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Reference;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 19, 2026 7:10:46 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class FhirUploaderTest {
+
+    /**
+     * Test of addJson method, of class FhirUploader, with a server that
+     * throttles and fails the first requests.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testAddJson() throws IOException {
+        Path file = Paths.get(getClass().getResource("/data/synthea/covid19_csv/encounters.csv").getFile());
+        List<Encounter> encounters = EncounterResourceMapper.getEncountersFromFile(file, Delimiters.COMMA_DELIM);
+        List<String> jsons = encounters.stream()
+                .map(encounter -> JsonResourceConverterR4.resourceToJson(encounter, false))
+                .toList();
+
+        try (MockFhirServer server = new MockFhirServer()) {
+            server.failNext(2, 429);
+            FhirUploader uploader = new FhirUploader(server.getBaseUrl(), Bundle.BundleType.TRANSACTION, 3, 2, 50, Duration.ofSeconds(10), Duration.ofMillis(1));
+            try (uploader) {
+                for (int i = 0; i < 20; i++) {
+                    for (String json : jsons) {
+                        uploader.addJson(json);
+                    }
+                }
+            }
+
+            long numOfResources = 20L * jsons.size();
+            Assertions.assertEquals(numOfResources, server.getNumOfResources());
+            Assertions.assertEquals(numOfResources, uploader.getNumOfUploadedResources());
+            Assertions.assertEquals(0, uploader.getNumOfRejectedResources());
+            Assertions.assertEquals(2, uploader.getNumOfRetries());
+            Assertions.assertTrue(server.getMaxNumOfConcurrentRequests() <= 3);
+            Assertions.assertTrue(server.getResourceTypes().stream().allMatch("Encounter"::equals));
+            Assertions.assertTrue(server.getRequests().stream().allMatch("POST Encounter"::equals));
+            Assertions.assertTrue(server.getReferences().stream().anyMatch(reference -> reference.startsWith("Patient/")));
+            Assertions.assertTrue(server.getReferences().stream().noneMatch(reference -> reference.startsWith("urn:uuid:")));
+
+            // halved twice by the throttling, then grown back to the maximum
+            Assertions.assertEquals(50, uploader.getLargestBatchSize());
+            Assertions.assertTrue(server.getBundleSizes().stream().allMatch(size -> size <= 50));
+        }
+    }
+
+    /**
+     * Test of add method, of class FhirUploader, with resources that have
+     * logical ids.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testAdd() throws IOException {
+        String patientId = "b0a06ead-cc42-47f5-8c6d-a0bcd3f2e4e5";
+        Patient patient = new Patient();
+        patient.setId(patientId);
+        Encounter encounter = new Encounter();
+        encounter.setId("enc1");
+        encounter.setSubject(new Reference(Uuids.URN_PREFIX + patientId));
+
+        try (MockFhirServer server = new MockFhirServer()) {
+            FhirUploader uploader = new FhirUploader(server.getBaseUrl(), Bundle.BundleType.BATCH, 1, 10, 10, Duration.ofSeconds(10), Duration.ofMillis(1));
+            try (uploader) {
+                uploader.add(patient);
+                uploader.add(encounter);
+            }
+
+            Assertions.assertEquals(2, uploader.getNumOfUploadedResources());
+            Assertions.assertEquals(0, uploader.getNumOfRejectedResources());
+            Assertions.assertEquals(List.of("PUT Patient/" + patientId, "PUT Encounter/enc1"), server.getRequests());
+            Assertions.assertEquals(List.of("Patient/" + patientId), server.getReferences());
+        }
+    }
+
+    /**
+     * Test of close method, of class FhirUploader, when the server keeps
+     * failing.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCloseServerError() throws IOException {
+        try (MockFhirServer server = new MockFhirServer()) {
+            server.failNext(Integer.MAX_VALUE, 503);
+            FhirUploader uploader = new FhirUploader(server.getBaseUrl(), Bundle.BundleType.BATCH, 2, 1, 10, Duration.ofSeconds(10), Duration.ofMillis(1));
+            uploader.addJson("{\"resourceType\":\"Patient\",\"active\":true}");
+
+            IOException exception = Assertions.assertThrows(IOException.class, uploader::close);
+            Assertions.assertTrue(exception.getMessage().contains("HTTP 503"));
+            Assertions.assertEquals(5, uploader.getNumOfRetries());
+        }
+    }
+
+}
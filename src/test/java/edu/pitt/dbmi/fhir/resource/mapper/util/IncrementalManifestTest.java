@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 19, 2026 10:02:37 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class IncrementalManifestTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of extractChanges method, of class IncrementalManifest.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testExtractChanges() throws IOException {
+        Path manifestFile = tempDir.resolve("observations.tsv.manifest");
+        Path inputFile = tempDir.resolve("observations.tsv");
+        Path changedRowsFile = tempDir.resolve("observations.tsv.changed");
+        Path deletedKeysFile = tempDir.resolve("observation_deleted_keys.txt");
+        List<String> keyColumns = Collections.singletonList("OBSERV_ID");
+
+        Files.write(inputFile, Arrays.asList(
+                "OBSERV_ID\tresult_val",
+                "obs1\t1.0",
+                "obs2\t2.0",
+                "obs3\t3.0"));
+        IncrementalManifest.ChangeSet changes = IncrementalManifest.extractChanges(manifestFile, inputFile, Delimiters.TAB_DELIM, keyColumns, changedRowsFile, deletedKeysFile);
+        changes.commit();
+        Assertions.assertEquals(3, changes.getNumOfChangedRows());
+        Assertions.assertEquals(0, changes.getNumOfDeletedRows());
+
+        Files.write(inputFile, Arrays.asList(
+                "OBSERV_ID\tresult_val",
+                "obs1\t1.0",
+                "obs3\t3.5",
+                "obs4\t4.0"));
+        changes = IncrementalManifest.extractChanges(manifestFile, inputFile, Delimiters.TAB_DELIM, keyColumns, changedRowsFile, deletedKeysFile);
+        changes.commit();
+        Assertions.assertEquals(3, changes.getNumOfRows());
+        Assertions.assertEquals(2, changes.getNumOfChangedRows());
+        Assertions.assertEquals(1, changes.getNumOfDeletedRows());
+        Assertions.assertEquals(Arrays.asList("OBSERV_ID\tresult_val", "obs3\t3.5", "obs4\t4.0"), Files.readAllLines(changedRowsFile));
+        Assertions.assertEquals(Collections.singletonList("obs2"), Files.readAllLines(deletedKeysFile));
+
+        // nothing changed since the last commit
+        changes = IncrementalManifest.extractChanges(manifestFile, inputFile, Delimiters.TAB_DELIM, keyColumns, changedRowsFile, deletedKeysFile);
+        changes.rollback();
+        Assertions.assertEquals(0, changes.getNumOfChangedRows());
+        Assertions.assertEquals(0, changes.getNumOfDeletedRows());
+    }
+
+    /**
+     * Test of extractChanges method, of class IncrementalManifest, with keys
+     * shared by several rows.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testExtractChangesOfDuplicatedKeys() throws IOException {
+        Path manifestFile = tempDir.resolve("observations.csv.manifest");
+        Path inputFile = tempDir.resolve("observations.csv");
+        Path changedRowsFile = tempDir.resolve("observations.csv.changed");
+        Path deletedKeysFile = tempDir.resolve("observation_deleted_keys.txt");
+        List<String> keyColumns = Arrays.asList("DATE", "PATIENT", "CODE");
+
+        Files.write(inputFile, Arrays.asList(
+                "DATE,PATIENT,CODE,VALUE",
+                "2020-03-01,p1,8302-2,82.7",
+                "2020-03-01,p1,8302-2,82.9",
+                "2020-03-01,p1,8302-2,82.7",
+                "2020-03-01,p2,8302-2,90.1"));
+        IncrementalManifest.ChangeSet changes = IncrementalManifest.extractChanges(manifestFile, inputFile, Delimiters.COMMA_DELIM, keyColumns, changedRowsFile, deletedKeysFile);
+        changes.commit();
+        Assertions.assertEquals(4, changes.getNumOfChangedRows());
+
+        // the same rows in another order are unchanged
+        Files.write(inputFile, Arrays.asList(
+                "DATE,PATIENT,CODE,VALUE",
+                "2020-03-01,p1,8302-2,82.9",
+                "2020-03-01,p2,8302-2,90.1",
+                "2020-03-01,p1,8302-2,82.7",
+                "2020-03-01,p1,8302-2,82.7"));
+        changes = IncrementalManifest.extractChanges(manifestFile, inputFile, Delimiters.COMMA_DELIM, keyColumns, changedRowsFile, deletedKeysFile);
+        Assertions.assertEquals(0, changes.getNumOfChangedRows());
+        Assertions.assertEquals(0, changes.getNumOfDeletedRows());
+
+        // a row that fails to map is mapped again by the next run
+        Files.write(inputFile, Arrays.asList(
+                "DATE,PATIENT,CODE,VALUE",
+                "2020-03-01,p1,8302-2,82.9",
+                "2020-03-01,p1,8302-2,82.7",
+                "2020-03-01,p1,8302-2,83.0",
+                "2020-03-01,p3,8302-2,bad"));
+        changes = IncrementalManifest.extractChanges(manifestFile, inputFile, Delimiters.COMMA_DELIM, keyColumns, changedRowsFile, deletedKeysFile);
+        Assertions.assertEquals(Arrays.asList("DATE,PATIENT,CODE,VALUE", "2020-03-01,p1,8302-2,83.0", "2020-03-01,p3,8302-2,bad"), Files.readAllLines(changedRowsFile));
+        Assertions.assertEquals(4, changes.getInputLineNumber(2));
+        Assertions.assertEquals(5, changes.getInputLineNumber(3));
+        Assertions.assertEquals(0, changes.getInputLineNumber(4));
+        Assertions.assertEquals(Collections.singletonList("2020-03-01\tp2\t8302-2"), Files.readAllLines(deletedKeysFile));
+        changes.markFailed(3);
+        changes.commit();
+        Assertions.assertEquals(1, changes.getNumOfFailedRows());
+
+        changes = IncrementalManifest.extractChanges(manifestFile, inputFile, Delimiters.COMMA_DELIM, keyColumns, changedRowsFile, deletedKeysFile);
+        Assertions.assertEquals(Arrays.asList("DATE,PATIENT,CODE,VALUE", "2020-03-01,p3,8302-2,bad"), Files.readAllLines(changedRowsFile));
+        Assertions.assertEquals(5, changes.getInputLineNumber(2));
+        Assertions.assertEquals(0, changes.getNumOfDeletedRows());
+        changes.rollback();
+
+        // the failed row is still reported once deleted
+        Files.write(inputFile, Arrays.asList(
+                "DATE,PATIENT,CODE,VALUE",
+                "2020-03-01,p1,8302-2,82.9",
+                "2020-03-01,p1,8302-2,82.7",
+                "2020-03-01,p1,8302-2,83.0"));
+        changes = IncrementalManifest.extractChanges(manifestFile, inputFile, Delimiters.COMMA_DELIM, keyColumns, changedRowsFile, deletedKeysFile);
+        Assertions.assertEquals(0, changes.getNumOfChangedRows());
+        Assertions.assertEquals(Collections.singletonList("2020-03-01\tp3\t8302-2"), Files.readAllLines(deletedKeysFile));
+    }
+
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import ca.uhn.fhir.util.FhirTerser;
+import ca.uhn.fhir.util.ResourceReferenceInfo;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hl7.fhir.r4.model.Bundle;
+
+/**
+ * Local stand-in for a FHIR server that accepts batch and transaction
+ * bundles, for testing uploads. It can be told to fail the next requests
+ * with a given HTTP status. Like a FHIR server, it rejects the entries whose
+ * urn:uuid: references are not the full URL of an entry of the same bundle,
+ * failing the whole bundle of a transaction.
+ *
+ * Oct 19, 2026 6:58:30 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public final class MockFhirServer implements AutoCloseable {
+
+    private static final FhirTerser TERSER = JsonResourceConverterR4.getContext().newTerser();
+
+    private final HttpServer server;
+
+    private final AtomicLong numOfResources = new AtomicLong();
+    private final AtomicInteger numOfRequests = new AtomicInteger();
+    private final AtomicInteger numOfFailuresLeft = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Integer> bundleSizes = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> resourceTypes = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> requests = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> references = new ConcurrentLinkedQueue<>();
+
+    private volatile int failureStatus;
+    private volatile long delayMillis;
+
+    public MockFhirServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/fhir", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public URI getBaseUrl() {
+        return URI.create(String.format("http://%s:%d/fhir", server.getAddress().getHostString(), server.getAddress().getPort()));
+    }
+
+    /**
+     * Fail the next requests.
+     *
+     * @param numOfRequests
+     * @param status HTTP status of the failures
+     */
+    public void failNext(int numOfRequests, int status) {
+        failureStatus = status;
+        numOfFailuresLeft.set(numOfRequests);
+    }
+
+    /**
+     * Wait before answering each request.
+     *
+     * @param delayMillis
+     */
+    public void setDelay(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    public long getNumOfResources() {
+        return numOfResources.get();
+    }
+
+    public int getNumOfRequests() {
+        return numOfRequests.get();
+    }
+
+    public int getMaxNumOfConcurrentRequests() {
+        return maxInFlight.get();
+    }
+
+    public List<Integer> getBundleSizes() {
+        return List.copyOf(bundleSizes);
+    }
+
+    public List<String> getResourceTypes() {
+        return List.copyOf(resourceTypes);
+    }
+
+    /**
+     * Get the requests of the entries, e.g. "PUT Patient/1".
+     *
+     * @return
+     */
+    public List<String> getRequests() {
+        return List.copyOf(requests);
+    }
+
+    /**
+     * Get the references of the resources received.
+     *
+     * @return
+     */
+    public List<String> getReferences() {
+        return List.copyOf(references);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try (exchange) {
+            numOfRequests.incrementAndGet();
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "");
+                return;
+            }
+
+            Bundle bundle;
+            try (InputStreamReader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+                bundle = (Bundle) JsonResourceConverterR4.parseResource(reader);
+            }
+
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+            if (numOfFailuresLeft.getAndDecrement() > 0) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                send(exchange, failureStatus, "");
+                return;
+            }
+
+            Set<String> fullUrls = new HashSet<>();
+            for (Bundle.BundleEntryComponent entry : bundle.getEntry()) {
+                if (entry.hasFullUrl()) {
+                    fullUrls.add(entry.getFullUrl());
+                }
+            }
+
+            boolean isTransaction = bundle.getType() == Bundle.BundleType.TRANSACTION;
+            Bundle response = new Bundle();
+            response.setType(isTransaction
+                    ? Bundle.BundleType.TRANSACTIONRESPONSE
+                    : Bundle.BundleType.BATCHRESPONSE);
+            for (Bundle.BundleEntryComponent entry : bundle.getEntry()) {
+                String url = entry.getRequest().getUrl();
+                resourceTypes.add(url.contains("/") ? url.substring(0, url.indexOf('/')) : url);
+                requests.add(entry.getRequest().getMethod().toCode() + " " + url);
+
+                boolean isResolved = true;
+                for (ResourceReferenceInfo info : TERSER.getAllResourceReferences(entry.getResource())) {
+                    String reference = info.getResourceReference().getReferenceElement().getValue();
+                    references.add(reference);
+                    if (reference.startsWith("urn:uuid:") && !fullUrls.contains(reference)) {
+                        isResolved = false;
+                    }
+                }
+                if (isResolved) {
+                    response.addEntry().getResponse().setStatus("201 Created");
+                } else if (isTransaction) {
+                    send(exchange, 400, "");
+                    return;
+                } else {
+                    response.addEntry().getResponse().setStatus("400 Bad Request");
+                }
+            }
+            bundleSizes.add(bundle.getEntry().size());
+            numOfResources.addAndGet(bundle.getEntry().size());
+            send(exchange, 200, JsonResourceConverterR4.resourceToJson(response, false));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/fhir+json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import edu.pitt.dbmi.fhir.resource.mapper.r4.standards.CodingSystemURIs;
+import java.math.BigDecimal;
+import java.util.Random;
+import org.hl7.fhir.r4.model.BooleanType;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.IntegerType;
+import org.hl7.fhir.r4.model.Quantity;
+import org.hl7.fhir.r4.model.Range;
+import org.hl7.fhir.r4.model.StringType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ *
+ * Oct 19, 2026 8:55:16 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class ObservationValuesTest {
+
+    /**
+     * Test of parseDecimal method, of class ObservationValues.
+     */
+    @Test
+    public void testParseDecimal() {
+        String[] values = {
+            "0", "7.50", "-0.001", "+12", "159.54466164663938", " 42.0 ",
+            "123456789012345678", "1234567890123456789.5", "1E+3", "-2.5e-4", ".5", "5."
+        };
+        for (String value : values) {
+            BigDecimal expected = new BigDecimal(value.trim());
+            BigDecimal actual = ObservationValues.parseDecimal(value);
+            Assertions.assertEquals(expected, actual, value);
+            Assertions.assertEquals(expected.scale(), actual.scale(), value);
+        }
+
+        for (String value : new String[]{"", "-", ".", "1.2.3", "12a", "1,000"}) {
+            Assertions.assertThrows(NumberFormatException.class, () -> ObservationValues.parseDecimal(value), value);
+        }
+    }
+
+    /**
+     * Test of parse method, of class ObservationValues.
+     */
+    @Test
+    public void testParse() {
+        Quantity quantity = (Quantity) ObservationValues.parse("numeric", "7.50", "mmol/L");
+        Assertions.assertEquals("7.50", quantity.getValue().toPlainString());
+        Assertions.assertEquals("mmol/L", quantity.getCode());
+        Assertions.assertEquals("mmol/L", quantity.getUnit());
+
+        Assertions.assertEquals(12, ((IntegerType) ObservationValues.parse("integer", "12", "")).getValue());
+        Assertions.assertEquals("12", ((Quantity) ObservationValues.parse("integer", "12.0", "{beats}/min")).getValue().toPlainString());
+        Assertions.assertThrows(NumberFormatException.class, () -> ObservationValues.parse("integer", "12.5", ""));
+
+        Assertions.assertTrue(((BooleanType) ObservationValues.parse("boolean", "Yes", "")).getValue());
+        Assertions.assertFalse(((BooleanType) ObservationValues.parse("Boolean", "0", "")).getValue());
+        Assertions.assertThrows(NumberFormatException.class, () -> ObservationValues.parse("boolean", "maybe", ""));
+
+        Range range = (Range) ObservationValues.parse("range", "-5 - 10.5", "Cel");
+        Assertions.assertEquals("-5", range.getLow().getValue().toPlainString());
+        Assertions.assertEquals("10.5", range.getHigh().getValue().toPlainString());
+        Assertions.assertEquals("Cel", range.getHigh().getUnit());
+        range = (Range) ObservationValues.parse("range", "3 to 4", "");
+        Assertions.assertEquals("3", range.getLow().getValue().toPlainString());
+        Assertions.assertEquals("4", range.getHigh().getValue().toPlainString());
+        range = (Range) ObservationValues.parse("range", "5..", "");
+        Assertions.assertEquals("5", range.getLow().getValue().toPlainString());
+        Assertions.assertFalse(range.hasHigh());
+
+        CodeableConcept concept = (CodeableConcept) ObservationValues.parse("coded", "snomed-ct|10828004|Positive", "");
+        Assertions.assertEquals(CodingSystemURIs.SNOMED_URI, concept.getCodingFirstRep().getSystem());
+        Assertions.assertEquals("10828004", concept.getCodingFirstRep().getCode());
+        Assertions.assertEquals("Positive", concept.getText());
+        Assertions.assertEquals("LA6576-8", ((CodeableConcept) ObservationValues.parse("code", "LA6576-8", "")).getCodingFirstRep().getCode());
+
+        Assertions.assertEquals("Never smoker", ((StringType) ObservationValues.parse("text", "Never smoker", "")).getValue());
+        Assertions.assertNull(ObservationValues.parse("numeric", "", "mg"));
+        Assertions.assertNull(ObservationValues.parse("image", "x.png", ""));
+    }
+
+    /**
+     * Compares the time of parseDecimal method, of class ObservationValues,
+     * with parsing through a double. Run with -Dbenchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void benchmarkParseDecimal() {
+        Random random = new Random(0);
+        String[] values = new String[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = BigDecimal.valueOf(random.nextInt(1_000_000), random.nextInt(4)).toPlainString();
+        }
+
+        for (int round = 0; round < 5; round++) {
+            long sum = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < 20; i++) {
+                for (String value : values) {
+                    sum += BigDecimal.valueOf(Double.parseDouble(value)).scale();
+                }
+            }
+            long doubleTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < 20; i++) {
+                for (String value : values) {
+                    sum += ObservationValues.parseDecimal(value).scale();
+                }
+            }
+            long decimalTime = System.nanoTime() - start;
+
+            System.out.printf("round %d: double %d ms, parseDecimal %d ms (%d)%n",
+                    round, doubleTime / 1_000_000, decimalTime / 1_000_000, sum);
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 19, 2026 2:10:06 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class OffHeapKeySetTest {
+
+    /**
+     * Test of add and contains methods, of class OffHeapKeySet.
+     */
+    @Test
+    public void testAddAndContains() {
+        try (OffHeapKeySet keySet = new OffHeapKeySet(10)) {
+            int numOfKeys = 100_000;
+            for (long i = 0; i < numOfKeys; i++) {
+                Assertions.assertTrue(keySet.add(i, i * 31));
+            }
+            Assertions.assertFalse(keySet.add(42, 42 * 31));
+            Assertions.assertEquals(numOfKeys, keySet.size());
+
+            for (long i = 0; i < numOfKeys; i++) {
+                Assertions.assertTrue(keySet.contains(i, i * 31));
+                Assertions.assertFalse(keySet.contains(i, i * 31 + 1));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 19, 2026 8:37:51 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class ParquetTableWriterTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of addRow method, of class ParquetTableWriter, with several row
+     * groups and a dictionary column too big to stay dictionary-encoded.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testAddRow() throws IOException {
+        List<ParquetTableWriter.Column> columns = List.of(
+                new ParquetTableWriter.Column("id", ParquetTableWriter.ColumnType.INT64, false),
+                new ParquetTableWriter.Column("code", ParquetTableWriter.ColumnType.STRING, true),
+                new ParquetTableWriter.Column("unique_code", ParquetTableWriter.ColumnType.STRING, true),
+                new ParquetTableWriter.Column("value", ParquetTableWriter.ColumnType.DOUBLE, false),
+                new ParquetTableWriter.Column("effective", ParquetTableWriter.ColumnType.TIMESTAMP_MILLIS, false),
+                new ParquetTableWriter.Column("birth_date", ParquetTableWriter.ColumnType.DATE, false));
+
+        Path file = tempDir.resolve("observation.parquet");
+        try (ParquetTableWriter writer = new ParquetTableWriter(file, columns, ParquetTableWriter.Codec.GZIP, 4L * 1024 * 1024)) {
+            for (int i = 0; i < 100_000; i++) {
+                writer.addRow((long) i,
+                        (i % 10 == 0) ? null : "code-" + (i % 7),
+                        String.format("%040d", i),
+                        (i % 3 == 0) ? null : i / 4.0,
+                        new Date(1_600_000_000_000L + i),
+                        LocalDate.of(2000, 1, 1).plusDays(i % 365));
+            }
+            Assertions.assertEquals(100_000, writer.getNumOfRows());
+        }
+
+        byte[] bytes = Files.readAllBytes(file);
+        byte[] magic = "PAR1".getBytes(StandardCharsets.US_ASCII);
+        Assertions.assertArrayEquals(magic, Arrays.copyOfRange(bytes, 0, 4));
+        Assertions.assertArrayEquals(magic, Arrays.copyOfRange(bytes, bytes.length - 4, bytes.length));
+
+        int footerLength = ByteBuffer.wrap(bytes, bytes.length - 8, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        Assertions.assertTrue(footerLength > 0 && footerLength < bytes.length - 12);
+
+        // decode the file and check that every value survives
+        Map<Integer, Object> fileMetaData = new ThriftReader(ByteBuffer.wrap(bytes, bytes.length - 8 - footerLength, footerLength)).readStruct();
+        Assertions.assertEquals(100_000L, fileMetaData.get(3));
+        List<Object> schema = list(fileMetaData.get(2));
+        Assertions.assertEquals(columns.size() + 1, schema.size());
+        for (int i = 0; i < columns.size(); i++) {
+            Assertions.assertEquals(columns.get(i).getName(), new String((byte[]) struct(schema.get(i + 1)).get(4), StandardCharsets.UTF_8));
+        }
+
+        List<Object> rowGroups = list(fileMetaData.get(4));
+        Assertions.assertTrue(rowGroups.size() > 1);
+        List<List<Object>> values = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            values.add(new ArrayList<>());
+        }
+        boolean hasPlainUniqueCodes = false;
+        for (Object rowGroup : rowGroups) {
+            List<Object> chunks = list(struct(rowGroup).get(1));
+            for (int i = 0; i < chunks.size(); i++) {
+                Map<Integer, Object> metaData = struct(struct(chunks.get(i)).get(3));
+                Assertions.assertEquals(2L, metaData.get(4)); // GZIP
+                List<Object> chunkValues = readColumnChunk(bytes, metaData);
+                Assertions.assertEquals(struct(rowGroup).get(3), (long) chunkValues.size());
+                Assertions.assertEquals(chunkValues.stream().filter(Objects::isNull).count(), struct(metaData.get(12)).get(3));
+                values.get(i).addAll(chunkValues);
+                if (i == 1) {
+                    Assertions.assertTrue(metaData.containsKey(11), "The code column is dictionary-encoded.");
+                } else if (i == 2) {
+                    hasPlainUniqueCodes |= !metaData.containsKey(11);
+                }
+            }
+        }
+        Assertions.assertTrue(hasPlainUniqueCodes, "The unique codes fall back to plain encoding.");
+
+        for (int i = 0; i < 100_000; i++) {
+            Assertions.assertEquals((long) i, values.get(0).get(i));
+            Assertions.assertEquals((i % 10 == 0) ? null : "code-" + (i % 7), values.get(1).get(i));
+            Assertions.assertEquals(String.format("%040d", i), values.get(2).get(i));
+            Assertions.assertEquals((i % 3 == 0) ? null : i / 4.0, values.get(3).get(i));
+            Assertions.assertEquals(1_600_000_000_000L + i, values.get(4).get(i));
+            Assertions.assertEquals(LocalDate.of(2000, 1, 1).plusDays(i % 365).toEpochDay(), values.get(5).get(i));
+        }
+    }
+
+    /**
+     * Test of addRow method, of class ParquetTableWriter, with the wrong
+     * number of values.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testAddRowWrongNumberOfValues() throws IOException {
+        List<ParquetTableWriter.Column> columns = List.of(new ParquetTableWriter.Column("id", ParquetTableWriter.ColumnType.INT64, false));
+        try (ParquetTableWriter writer = new ParquetTableWriter(tempDir.resolve("empty.parquet"), columns)) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> writer.addRow(1L, 2L));
+        }
+    }
+
+    /**
+     * Decode the values of a column chunk, null for the rows without one.
+     */
+    private static List<Object> readColumnChunk(byte[] bytes, Map<Integer, Object> metaData) throws IOException {
+        int physicalType = ((Long) metaData.get(1)).intValue();
+        long offset = (long) metaData.get(metaData.containsKey(11) ? 11 : 9);
+        long end = offset + (long) metaData.get(7);
+
+        List<String> dictionary = null;
+        List<Object> values = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position((int) offset);
+        while (buffer.position() < end) {
+            Map<Integer, Object> pageHeader = new ThriftReader(buffer).readStruct();
+            int compressedSize = ((Long) pageHeader.get(3)).intValue();
+            byte[] compressed = new byte[compressedSize];
+            buffer.get(compressed);
+            ByteBuffer page;
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                page = ByteBuffer.wrap(gzip.readAllBytes()).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            Assertions.assertEquals(pageHeader.get(2), (long) page.remaining());
+
+            if ((long) pageHeader.get(1) == 2) {
+                // dictionary page
+                dictionary = new ArrayList<>();
+                long numOfValues = (long) struct(pageHeader.get(7)).get(1);
+                for (long i = 0; i < numOfValues; i++) {
+                    dictionary.add((String) readPlain(page, physicalType));
+                }
+            } else {
+                Map<Integer, Object> dataPageHeader = struct(pageHeader.get(5));
+                int numOfRows = ((Long) dataPageHeader.get(1)).intValue();
+                int levelsLength = page.getInt();
+                int[] definitionLevels = decodeHybrid(page.slice().order(ByteOrder.LITTLE_ENDIAN), 1, numOfRows);
+                page.position(page.position() + levelsLength);
+                int numOfValues = (int) Arrays.stream(definitionLevels).filter(level -> level == 1).count();
+
+                boolean isDictionaryEncoded = (long) dataPageHeader.get(2) == 2;
+                int[] indices = isDictionaryEncoded ? decodeHybrid(page, page.get(), numOfValues) : null;
+                int value = 0;
+                for (int level : definitionLevels) {
+                    if (level == 0) {
+                        values.add(null);
+                    } else if (isDictionaryEncoded) {
+                        values.add(dictionary.get(indices[value++]));
+                    } else {
+                        values.add(readPlain(page, physicalType));
+                    }
+                }
+            }
+        }
+
+        return values;
+    }
+
+    private static Object readPlain(ByteBuffer page, int physicalType) {
+        switch (physicalType) {
+            case 1:
+                return (long) page.getInt();
+            case 2:
+                return page.getLong();
+            case 5:
+                return page.getDouble();
+            case 6:
+                byte[] value = new byte[page.getInt()];
+                page.get(value);
+                return new String(value, StandardCharsets.UTF_8);
+            default:
+                throw new IllegalArgumentException("Unexpected physical type " + physicalType);
+        }
+    }
+
+    /**
+     * Decode values of the RLE/bit-packing hybrid encoding.
+     */
+    private static int[] decodeHybrid(ByteBuffer buffer, int bitWidth, int numOfValues) {
+        int[] values = new int[numOfValues];
+        int count = 0;
+        while (count < numOfValues) {
+            long header = ThriftReader.readVarint(buffer);
+            if ((header & 1) == 0) {
+                int value = 0;
+                for (int b = 0; b < (bitWidth + 7) / 8; b++) {
+                    value |= (buffer.get() & 0xFF) << (8 * b);
+                }
+                for (long i = 0; i < (header >>> 1) && count < numOfValues; i++) {
+                    values[count++] = value;
+                }
+            } else {
+                long bits = 0;
+                int numOfBits = 0;
+                for (long i = 0; i < (header >>> 1) * 8; i++) {
+                    while (numOfBits < bitWidth) {
+                        bits |= (long) (buffer.get() & 0xFF) << numOfBits;
+                        numOfBits += 8;
+                    }
+                    if (count < numOfValues) {
+                        values[count++] = (int) (bits & ((1L << bitWidth) - 1));
+                    }
+                    bits >>>= bitWidth;
+                    numOfBits -= bitWidth;
+                }
+            }
+        }
+
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Integer, Object> struct(Object value) {
+        return (Map<Integer, Object>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> list(Object value) {
+        return (List<Object>) value;
+    }
+
+    /**
+     * Reader of the Thrift compact protocol, independent of the writer:
+     * structs are read as maps of field id to value, integers as longs and
+     * binaries as byte arrays.
+     */
+    private static final class ThriftReader {
+
+        private final ByteBuffer buffer;
+
+        private ThriftReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private Map<Integer, Object> readStruct() {
+            Map<Integer, Object> fields = new HashMap<>();
+            int fieldId = 0;
+            for (int header = buffer.get() & 0xFF; header != 0; header = buffer.get() & 0xFF) {
+                int delta = header >>> 4;
+                fieldId = (delta == 0) ? (int) zigzag(readVarint(buffer)) : fieldId + delta;
+                int type = header & 0x0F;
+                fields.put(fieldId, (type == 1 || type == 2) ? Boolean.valueOf(type == 1) : readValue(type));
+            }
+
+            return fields;
+        }
+
+        private Object readValue(int type) {
+            switch (type) {
+                case 3:
+                    return (long) buffer.get();
+                case 4:
+                case 5:
+                case 6:
+                    return zigzag(readVarint(buffer));
+                case 7:
+                    return buffer.order(ByteOrder.LITTLE_ENDIAN).getDouble();
+                case 8:
+                    byte[] value = new byte[(int) readVarint(buffer)];
+                    buffer.get(value);
+                    return value;
+                case 9:
+                case 10:
+                    int header = buffer.get() & 0xFF;
+                    int size = (header >>> 4 == 15) ? (int) readVarint(buffer) : header >>> 4;
+                    int elementType = header & 0x0F;
+                    List<Object> elements = new ArrayList<>();
+                    for (int i = 0; i < size; i++) {
+                        elements.add((elementType == 1 || elementType == 2) ? Boolean.valueOf(buffer.get() == 1) : readValue(elementType));
+                    }
+                    return elements;
+                case 12:
+                    return readStruct();
+                default:
+                    throw new IllegalArgumentException("Unexpected Thrift type " + type);
+            }
+        }
+
+        private static long readVarint(ByteBuffer buffer) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+
+            return value;
+        }
+
+        private static long zigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.ObservationResourceMapper;
+import java.io.BufferedReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 19, 2026 3:52:19 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class PipelineMetricsTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of recordRow method, of class PipelineMetrics.
+     */
+    @Test
+    public void testRecordRow() {
+        Path file = Paths.get(getClass().getResource("/data/synthea/covid19_csv/observations.csv").getFile());
+
+        long numOfRows = PipelineMetrics.SHARED.getNumOfRows();
+        long numOfMapped = PipelineMetrics.SHARED.getCount(PipelineMetrics.Stage.MAP);
+        ObservationResourceMapper.getObservationFromFile(file, Delimiters.COMMA_DELIM);
+
+        Assertions.assertEquals(779, PipelineMetrics.SHARED.getNumOfRows() - numOfRows);
+        Assertions.assertEquals(779, PipelineMetrics.SHARED.getCount(PipelineMetrics.Stage.MAP) - numOfMapped);
+    }
+
+    /**
+     * Test of write method, of class PipelineMetrics.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testWrite() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.addInputBytes(1000);
+        long time = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            time = metrics.recordRow(50, time, time, time);
+        }
+        metrics.recordError();
+        metrics.registerQueue("encode", () -> 7);
+
+        Path file = Paths.get(tempDir.toString(), "metrics.properties");
+        metrics.write(file);
+
+        Properties properties = new Properties();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        Assertions.assertEquals("10", properties.getProperty("rows"));
+        Assertions.assertEquals("500", properties.getProperty("bytes.read"));
+        Assertions.assertEquals("1", properties.getProperty("errors"));
+        Assertions.assertEquals("10", properties.getProperty("stage.map.count"));
+        Assertions.assertEquals("7", properties.getProperty("queue.encode.depth"));
+        Assertions.assertTrue(Long.parseLong(properties.getProperty("eta.seconds")) >= 0);
+    }
+
+}
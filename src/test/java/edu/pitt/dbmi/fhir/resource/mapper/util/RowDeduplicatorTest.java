@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 19, 2026 11:58:44 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class RowDeduplicatorTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of removeDuplicates method, of class RowDeduplicator.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRemoveDuplicates() throws IOException {
+        Path inputFile = tempDir.resolve("observations.tsv");
+        Path outputFile = tempDir.resolve("observations.tsv.dedup");
+
+        Files.write(inputFile, Arrays.asList(
+                "OBSERV_ID\tPERSON_ID\tresult_val",
+                "obs1\t1\t1.0",
+                "obs2\t1\t2.0",
+                "obs1\t1\t1.5",
+                "",
+                "obs3\t2\t3.0",
+                " obs2 \t1\t2.0"));
+        RowDeduplicator.Result result = RowDeduplicator.removeDuplicates(inputFile, Delimiters.TAB_DELIM, Collections.singletonList("OBSERV_ID"), outputFile);
+        Assertions.assertEquals(outputFile, result.getFile());
+        Assertions.assertEquals(5, result.getNumOfRows());
+        Assertions.assertEquals(2, result.getNumOfDuplicates());
+        Assertions.assertEquals(Arrays.asList("OBSERV_ID\tPERSON_ID\tresult_val", "obs1\t1\t1.0", "obs2\t1\t2.0", "", "obs3\t2\t3.0"), Files.readAllLines(outputFile));
+
+        // the lines of the output file are reported by their line in the input file
+        Assertions.assertEquals(3, result.getInputLineNumber(3));
+        Assertions.assertEquals(5, result.getInputLineNumber(4));
+        Assertions.assertEquals(6, result.getInputLineNumber(5));
+        Assertions.assertEquals(0, result.getInputLineNumber(0));
+
+        // the rows differ by the combined key
+        result = RowDeduplicator.removeDuplicates(inputFile, Delimiters.TAB_DELIM, Arrays.asList("OBSERV_ID", "result_val"), outputFile);
+        Assertions.assertEquals(1, result.getNumOfDuplicates());
+
+        // whole rows, where only repeated rows are removed
+        Files.write(inputFile, Arrays.asList(
+                "DATE\tPATIENT\tCODE\tVALUE",
+                "2020-03-01\tp1\t8302-2\t82.7",
+                "2020-03-01\tp1\t8302-2\t82.9",
+                "2020-03-01\tp1\t8302-2\t82.7 "));
+        result = RowDeduplicator.removeDuplicates(inputFile, Delimiters.TAB_DELIM, Collections.emptyList(), outputFile);
+        Assertions.assertEquals(1, result.getNumOfDuplicates());
+        Assertions.assertEquals(Arrays.asList("DATE\tPATIENT\tCODE\tVALUE", "2020-03-01\tp1\t8302-2\t82.7", "2020-03-01\tp1\t8302-2\t82.9"), Files.readAllLines(outputFile));
+
+        Files.delete(outputFile);
+        Files.write(inputFile, Arrays.asList(
+                "OBSERV_ID\tPERSON_ID\tresult_val",
+                "obs1\t1\t1.0",
+                "obs2\t1\t2.0"));
+        result = RowDeduplicator.removeDuplicates(inputFile, Delimiters.TAB_DELIM, Collections.singletonList("OBSERV_ID"), outputFile);
+        Assertions.assertEquals(inputFile, result.getFile());
+        Assertions.assertEquals(3, result.getInputLineNumber(3));
+        Assertions.assertEquals(0, result.getNumOfDuplicates());
+        Assertions.assertFalse(Files.exists(outputFile));
+
+        Assertions.assertThrows(IOException.class,
+                () -> RowDeduplicator.removeDuplicates(inputFile, Delimiters.TAB_DELIM, Collections.singletonList("ENCNTR_ID"), outputFile));
+    }
+
+    /**
+     * Test of removeDuplicates method, of class RowDeduplicator, on many more
+     * keys than the Bloom filter was sized for, so that it reports false
+     * positives that must not be removed.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRemoveDuplicatesFalsePositives() throws IOException {
+        Path inputFile = tempDir.resolve("ids.csv");
+        Path outputFile = tempDir.resolve("ids.csv.dedup");
+
+        List<String> lines = new ArrayList<>();
+        lines.add("Id");
+        for (int i = 0; i < 20_000; i++) {
+            lines.add("id" + i);
+        }
+        lines.add("id7");
+        Files.write(inputFile, lines);
+
+        RowDeduplicator.Result result = RowDeduplicator.removeDuplicates(inputFile, Delimiters.COMMA_DELIM, Collections.singletonList("Id"), outputFile);
+        Assertions.assertEquals(1, result.getNumOfDuplicates());
+        Assertions.assertTrue(result.getNumOfCandidates() > 1);
+        Assertions.assertEquals(lines.subList(0, lines.size() - 1), Files.readAllLines(outputFile));
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.ObservationResourceMapper;
+import edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.ObservationResourceMapperBinding;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 19, 2026 11:24:48 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class ShardTest {
+
+    /**
+     * Test of rowFilter method, of class Shard.
+     */
+    @Test
+    public void testRowFilter() {
+        Path file = Paths.get(getClass().getResource("/data/synthea/covid19_csv/observations.csv").getFile());
+
+        int numOfShards = 3;
+        int actual = 0;
+        for (int i = 0; i < numOfShards; i++) {
+            Shard shard = new Shard(i, numOfShards);
+            actual += ObservationResourceMapperBinding.INSTANCE.mapFile(file, Delimiters.COMMA_DELIM, shard.rowFilter(ObservationResourceMapper.PATIENT), RowErrorHandler.LOG)
+                    .stream()
+                    .filter(observation -> shard.contains(observation.getSubject().getReference().substring("urn:uuid:".length())))
+                    .count();
+        }
+
+        int expected = 779;
+        Assertions.assertEquals(expected, actual);
+    }
+
+    /**
+     * Test of parse method, of class Shard.
+     */
+    @Test
+    public void testParse() {
+        Shard shard = Shard.parse("2/4");
+        Assertions.assertEquals(2, shard.getIndex());
+        Assertions.assertEquals(4, shard.getCount());
+        Assertions.assertEquals("shard-2-of-4", shard.getDirectoryName());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Shard.parse("4/4"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Shard.parse("1"));
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import edu.pitt.dbmi.fhir.resource.mapper.r4.synthea.ObservationResourceMapper;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Observation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 19, 2026 5:21:46 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class StagedPipelineTest {
+
+    /**
+     * Test of run method, of class StagedPipeline.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRun() throws IOException {
+        Path file = Paths.get(getClass().getResource("/data/synthea/covid19_csv/observations.csv").getFile());
+
+        StringWriter json = new StringWriter();
+        long numOfResources;
+        try (BundleWriter writer = new BundleWriter(json, Bundle.BundleType.COLLECTION)) {
+            numOfResources = (new StagedPipeline(3, 2)).run(file,
+                    line -> ObservationResourceMapper.getFields(line, Delimiters.COMMA_DELIM),
+                    fields -> true,
+                    ObservationResourceMapper::getObservation,
+                    RowErrorHandler.LOG,
+                    writer);
+        }
+
+        List<Observation> expected = ObservationResourceMapper.getObservationFromFile(file, Delimiters.COMMA_DELIM);
+        Bundle actual = (Bundle) JsonResourceConverterR4.parseResource(new StringReader(json.toString()));
+        Assertions.assertEquals(expected.size(), numOfResources);
+        Assertions.assertEquals(expected.size(), actual.getEntry().size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(
+                    JsonResourceConverterR4.resourceToJson(expected.get(i), false),
+                    JsonResourceConverterR4.resourceToJson(actual.getEntry().get(i).getResource(), false));
+        }
+    }
+
+    /**
+     * Test of run method, of class StagedPipeline, when a stage fails.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRunFailure() throws IOException {
+        Path file = Paths.get(getClass().getResource("/data/synthea/covid19_csv/observations.csv").getFile());
+
+        try (BundleWriter writer = new BundleWriter(new StringWriter(), Bundle.BundleType.COLLECTION)) {
+            Assertions.assertThrows(ErrorRateExceededException.class, () -> (new StagedPipeline(2, 2)).run(file,
+                    line -> ObservationResourceMapper.getFields(line, Delimiters.COMMA_DELIM),
+                    fields -> true,
+                    fields -> {
+                        throw new IllegalArgumentException();
+                    },
+                    (dataFile, lineNumber, line, cause) -> {
+                        throw new ErrorRateExceededException("Too many errors.");
+                    },
+                    writer));
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 20, 2026 9:12:37 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class TaskExecutorsTest {
+
+    /**
+     * Test of newIoExecutor method, of class TaskExecutors. The Java 17
+     * version runs at most the given number of tasks at the same time.
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testNewIoExecutor() throws InterruptedException {
+        Assertions.assertFalse(TaskExecutors.isVirtual());
+
+        int maxNumOfThreads = 2;
+        AtomicInteger numOfRunning = new AtomicInteger();
+        AtomicInteger maxNumOfRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(8);
+        ExecutorService executor = TaskExecutors.newIoExecutor("test", maxNumOfThreads);
+        try {
+            for (int i = 0; i < 8; i++) {
+                executor.execute(() -> {
+                    maxNumOfRunning.accumulateAndGet(numOfRunning.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                    numOfRunning.decrementAndGet();
+                    Assertions.assertTrue(Thread.currentThread().isDaemon());
+                    Assertions.assertTrue(Thread.currentThread().getName().startsWith("test-"));
+                    done.countDown();
+                });
+            }
+            Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(maxNumOfThreads, maxNumOfRunning.get());
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.util.Collections;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 19, 2026 9:11:47 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class UcumUnitsTest {
+
+    /**
+     * Test of toUcum method, of class UcumUnits.
+     */
+    @Test
+    public void testToUcum() {
+        Map<String, String> aliases = UcumUnits.loadAliases("/ucum/unit_aliases.tsv");
+        Assertions.assertFalse(aliases.isEmpty());
+
+        Map<String, String> caseInsensitiveAliases = UcumUnits.loadCaseInsensitiveAliases("/ucum/unit_aliases.tsv");
+        Assertions.assertFalse(caseInsensitiveAliases.isEmpty());
+
+        UcumUnits units = new UcumUnits(aliases, caseInsensitiveAliases);
+        Assertions.assertEquals("mm[Hg]", units.toUcum("mmHg"));
+        Assertions.assertEquals("mm[Hg]", units.toUcum(" mm Hg "));
+        Assertions.assertEquals("mm[Hg]", units.toUcum("mm[Hg]"));
+        Assertions.assertEquals("ug/mL", units.toUcum("mcg/mL"));
+        Assertions.assertEquals("10*3/uL", units.toUcum("K/uL"));
+        Assertions.assertEquals("Cel", units.toUcum("°C"));
+        Assertions.assertEquals("mg/dL", units.toUcum("mg/dl"));
+
+        // UCUM is case-sensitive
+        Assertions.assertEquals("10*6/uL", units.toUcum("M/uL"));
+        Assertions.assertEquals("m/uL", units.toUcum("m/uL"));
+        Assertions.assertEquals("Cel", units.toUcum("C"));
+        Assertions.assertEquals("[lb_av]", units.toUcum("LBS"));
+        Assertions.assertEquals("mm[Hg]", units.toUcum("MMHG"));
+        Assertions.assertEquals("h", units.toUcum("Hours"));
+
+        // valid UCUM that is not in the table
+        for (String unit : new String[]{"cm", "kg/m2", "10*6/uL", "{score}", "mL/min", "%", "pg", "mol/(kg.s)"}) {
+            Assertions.assertEquals(unit, units.toUcum(unit), unit);
+        }
+
+        for (String unit : new String[]{"result_units_cd", "per 100 cells", "", null}) {
+            Assertions.assertNull(units.toUcum(unit), unit);
+        }
+
+        long numOfLookups = units.getNumOfHits() + units.getNumOfMisses();
+        for (int i = 0; i < 100; i++) {
+            units.toUcum("mmHg");
+            units.toUcum("result_units_cd");
+        }
+        Assertions.assertEquals(numOfLookups + 200, units.getNumOfHits() + units.getNumOfMisses());
+        Assertions.assertTrue(units.getHitRate() > 0.9);
+    }
+
+    /**
+     * Test of toUcum method, of class UcumUnits, with units that are checked
+     * against the UCUM atoms and prefixes.
+     */
+    @Test
+    public void testToUcumAtoms() {
+        UcumUnits units = new UcumUnits(Collections.emptyMap(), Collections.emptyMap());
+        for (String unit : new String[]{"/min", "s-1", "10*-3", "{beats}/min", "mL/min/{1.73_m2}", "mg/(24.h)",
+            "m[IU]/mL", "[CCID_50]", "B[10.nV]", "mg/dl", "kPa", "daL"}) {
+            Assertions.assertEquals(unit, units.toUcum(unit), unit);
+        }
+
+        // words made of letters, whose atoms are not UCUM
+        for (String unit : new String[]{"Positive", "Negative", "cells", "patient", "MG/DL", "kg.", "mg/dl/", "(mL", "mL)", "//min", "m{a}g", "[Hg"}) {
+            Assertions.assertNull(units.toUcum(unit), unit);
+        }
+    }
+
+}
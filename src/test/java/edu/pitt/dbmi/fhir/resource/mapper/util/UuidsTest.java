@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 19, 2026 3:06:40 PM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class UuidsTest {
+
+    /**
+     * Test of parse method, of class Uuids.
+     */
+    @Test
+    public void testParse() {
+        long[] bits = new long[2];
+        for (int i = 0; i < 100; i++) {
+            UUID uuid = UUID.randomUUID();
+            Assertions.assertTrue(Uuids.parse(uuid.toString(), bits));
+            Assertions.assertEquals(uuid.getMostSignificantBits(), bits[0]);
+            Assertions.assertEquals(uuid.getLeastSignificantBits(), bits[1]);
+            Assertions.assertEquals(uuid.toString(), Uuids.toString(bits[0], bits[1]));
+        }
+
+        Assertions.assertTrue(Uuids.parse("x,b5d0a6c5-2c2e-4c8e-9f3a-0d6f1d2e3a4b,y", 2, bits));
+        Assertions.assertFalse(Uuids.parse("b5d0a6c5-2c2e-4c8e-9f3a-0d6f1d2e3a4", bits));
+        Assertions.assertFalse(Uuids.parse("b5d0a6c5-2c2e-4c8e-9f3a-0d6f1d2e3a4g", bits));
+        Assertions.assertFalse(Uuids.parse("b5d0a6c5_2c2e-4c8e-9f3a-0d6f1d2e3a4b", bits));
+    }
+
+    /**
+     * Test of toUrn method, of class UuidInterner.
+     */
+    @Test
+    public void testToUrn() {
+        UuidInterner interner = new UuidInterner();
+        for (int i = 0; i < 1000; i++) {
+            String uuid = UUID.randomUUID().toString();
+            String urn = interner.toUrn(uuid);
+            Assertions.assertEquals("urn:uuid:" + uuid, urn);
+            Assertions.assertSame(urn, interner.toUrn(new String(uuid)));
+        }
+        Assertions.assertEquals(1000, interner.size());
+
+        Assertions.assertEquals("urn:uuid:B5D0A6C5-2C2E-4C8E-9F3A-0D6F1D2E3A4B", interner.toUrn("B5D0A6C5-2C2E-4C8E-9F3A-0D6F1D2E3A4B"));
+        Assertions.assertEquals("urn:uuid:12345", interner.toUrn("12345"));
+        Assertions.assertEquals(1000, interner.size());
+
+        interner.clear();
+        Assertions.assertEquals(0, interner.size());
+    }
+
+    /**
+     * Test of toUrn method, of class UuidInterner, with more UUIDs than the
+     * table holds.
+     */
+    @Test
+    public void testToUrnMaxSize() {
+        UuidInterner interner = new UuidInterner(256);
+        for (int i = 0; i < 10000; i++) {
+            String uuid = UUID.randomUUID().toString();
+            String urn = interner.toUrn(uuid);
+            Assertions.assertEquals("urn:uuid:" + uuid, urn);
+            Assertions.assertSame(urn, interner.toUrn(new String(uuid)));
+            Assertions.assertTrue(interner.size() <= 256);
+        }
+    }
+
+}
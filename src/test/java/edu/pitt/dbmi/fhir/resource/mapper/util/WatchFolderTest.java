@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2026 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.fhir.resource.mapper.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 20, 2026 12:14:37 AM
+ *
+ * @author Kevin V. Bui (kvb2univpitt@gmail.com)
+ */
+public class WatchFolderTest {
+
+    @TempDir
+    public Path tempDir;
+
+    /**
+     * Test of run method, of class WatchFolder.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRun() throws Exception {
+        Files.writeString(tempDir.resolve("patients.csv"), "Id\n1\n");
+        Files.writeString(tempDir.resolve("notes.txt"), "not a data file\n");
+
+        List<String> handledFiles = new CopyOnWriteArrayList<>();
+        WatchFolder watchFolder = new WatchFolder(tempDir, file -> file.toString().endsWith(".csv"), 100, file -> {
+            handledFiles.add(file.getFileName().toString());
+            if (file.getFileName().toString().startsWith("bad")) {
+                throw new IOException("Bad file.");
+            }
+        });
+        Thread thread = new Thread(() -> {
+            try {
+                watchFolder.run();
+            } catch (IOException exception) {
+                exception.printStackTrace(System.err);
+            }
+        });
+        thread.start();
+
+        // files arriving after the watch has started
+        Files.writeString(tempDir.resolve("encounters.csv"), "Id\n2\n");
+        Files.writeString(tempDir.resolve("bad_encounters.csv"), "Id\n3\n");
+
+        Path processedDir = tempDir.resolve(WatchFolder.PROCESSED_DIRECTORY);
+        Path failedDir = tempDir.resolve(WatchFolder.FAILED_DIRECTORY);
+        long deadline = System.currentTimeMillis() + 30000;
+        while (watchFolder.getNumOfProcessedFiles() + watchFolder.getNumOfFailedFiles() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        watchFolder.shutdown();
+        Assertions.assertTrue(watchFolder.awaitTermination(30000));
+        thread.join();
+
+        Assertions.assertEquals(2, watchFolder.getNumOfProcessedFiles());
+        Assertions.assertEquals(1, watchFolder.getNumOfFailedFiles());
+        Assertions.assertEquals(3, handledFiles.size());
+        Assertions.assertTrue(Files.exists(processedDir.resolve("patients.csv")));
+        Assertions.assertTrue(Files.exists(processedDir.resolve("encounters.csv")));
+        Assertions.assertTrue(Files.exists(failedDir.resolve("bad_encounters.csv")));
+        Assertions.assertTrue(Files.exists(tempDir.resolve("notes.txt")));
+        Assertions.assertFalse(Files.exists(tempDir.resolve("patients.csv")));
+    }
+
+}